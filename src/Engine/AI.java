@@ -17,14 +17,18 @@ import java.awt.Graphics2D;
 import java.awt.font.FontRenderContext;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import javax.swing.JDialog;
@@ -46,6 +50,21 @@ import javax.swing.JPanel;
  * This bug seems to be resolved as of 4/30/17 by just sorting the possible
  * positions and selecting the one at the top.
  *
+ * Checkmates are now scored by their distance in ply from the root (see
+ * SearchContext#getMateScore) instead of the depth left, which changes with
+ * every iteration, so every mode prefers the shortest mate it finds.
+ *
+ * Repetitions are no longer avoided by counting how often each position was
+ * selected. Each AI keeps the Zobrist keys of its game (see PositionHistory),
+ * and the Alpha-Beta search scores a repetition or a fifty-move draw anywhere
+ * in the tree as 0, so the AI only repeats when a draw is the best it has.
+ *
+ * Pondering (disabled by default) keeps searching after a move is made,
+ * on the position after the reply the transposition table expects, until
+ * the next call to makeMove. Every search of both AIs shares the static
+ * timer and history, so pondering stops as soon as either AI starts to
+ * search, and the timed search then finds the pondered tree in the table.
+ *
  * Could make parallel search better by conducting a single threaded search to
  * depth 3, then sorting and starting parallel searching. However, there may be
  * no need since each position is searched at the same time.
@@ -69,9 +88,19 @@ public final class AI {
         }
     };
 
-    //stores positions and their values, in both white and black's persepctive.
-    static final Database BLACK_STORE = new Database();
-    static final Database WHITE_STORE = new Database();
+    //transposition tables, in both white and black's persepctive.
+    static final TranspositionTable BLACK_TABLE = new TranspositionTable();
+    static final TranspositionTable WHITE_TABLE = new TranspositionTable();
+
+    //transposition table of the bitboard engine, scores are in the
+    //perspective of the side to move so both AIs can share it
+    private static final TranspositionTable BITBOARD_TABLE = new TranspositionTable();
+
+    //evaluated pawn structures, shared by both AIs since they do not depend on perspective
+    static final PawnTable PAWN_TABLE = new PawnTable();
+
+    //static evaluations in white's perspective, shared by both AIs and every search thread
+    static final EvaluationCache EVALUATION_CACHE = new EvaluationCache();
 
     //test mode flag
     private static final boolean CHECK_MODE = true;
@@ -92,6 +121,12 @@ public final class AI {
     //how far to search, depending on the difficulty
     private static final int[] SEARCH_DEPTHS = {1, 2, 3, 4, POSITIVE_INFINITY, POSITIVE_INFINITY};
 
+    //half width of the first aspiration window around the previous score
+    private static final int ASPIRATION_WINDOW = ChessConstants.PAWN_VALUE / 2;
+
+    //aspiration windows at least this wide are opened all the way
+    private static final int MAX_ASPIRATION_WINDOW = ChessConstants.PAWN_VALUE * 10;
+
     //test depth used for check mode
     private static final int TEST_DEPTH = 1;
 
@@ -109,11 +144,19 @@ public final class AI {
     //updated per call to makeMove
     private static BufferedImage IMAGE;
 
+    //margins and reductions of the static search classes, read when the program starts
+    static SearchParameters PARAMETERS = SearchParameters.read();
+
     //global search timer used by the status dialog
     //and by static search classes for timing
     //updated per call to makeMove
     static SearchTimer TIMER;
 
+    //positions of the game of the AI searching, which static search
+    //classes copy to detect repetitions and the fifty-move rule
+    //updated per call to makeMove
+    static PositionHistory HISTORY = new PositionHistory();
+
     //used when CHECK_MODE = true
     private static final SearchTimer TEST_TIMER = new SearchTimer(POSITIVE_INFINITY, "Test Timer");
 
@@ -138,6 +181,9 @@ public final class AI {
     //search timer of the current AI
     private final SearchTimer timer;
 
+    //limits of the search of each move, from the search time or the clock
+    private final TimeManager timeManager;
+
     //color, true indicates white and false indicates black
     private final boolean side;
 
@@ -148,9 +194,9 @@ public final class AI {
     //possible positions to select from
     private final List<PositionHolder> possiblePositions = new ArrayList<>(ChessConstants.INITAL_NUMBER_OF_POSITIONS);
 
-    //table of chosen positions and the number of times each position was chosen
+    //positions of the game since the last capture or pawn move
     //used to avoid threefold repetition
-    private final Map<String, Integer> selectedPositions = new HashMap<>();
+    private final PositionHistory history = new PositionHistory();
 
     //functionality to consider results from incomplete searches.
     private boolean depthLimited = true;
@@ -158,12 +204,80 @@ public final class AI {
     //parallel processing capability, disabled by default
     private boolean parallel = false;
 
+    //search with the bitboard engine instead, disabled by default
+    private boolean bitboard = false;
+
+    //lazy SMP search, disabled by default
+    private boolean lazySMP = false;
+
+    //young brothers wait search, disabled by default
+    private boolean youngBrothersWait = false;
+
+    //number of helper threads of the lazy SMP and young brothers wait searches
+    private int helperThreads = Constants.RUNTIME.availableProcessors();
+
+    //threads of the lazy SMP search, one per helper, started once and kept
+    //for every search instead of starting new ones every move
+    private final ThreadPoolExecutor lazyExecutor;
+
+    //pool of the young brothers wait search, kept for every search and only
+    //replaced once the number of helper threads changed, since its
+    //parallelism is fixed
+    private SplitSearch splitSearch;
+
+    //number of best moves kept exact with their lines, 1 for normal play
+    private int multiPV = 1;
+
+    //best moves of the last completed iteration with more than one line, best first
+    private volatile List<AnalysisLine> analysis = Collections.emptyList();
+
+    //best move of the last completed iteration with its line, null before the first
+    private volatile AnalysisLine principalVariation;
+
+    //bitboard search of this AI, allocated once since it
+    //keeps its own boards and move buffers
+    private final FastAI.Search bitboardSearch = new FastAI.Search(BITBOARD_TABLE);
+
+    //search on the opponent's time, disabled by default
+    private boolean ponder = false;
+
+    //thread and timer of pondering, the timer is stopped to stop it
+    private final ExecutorService ponderExecutor;
+    private final SearchTimer ponderTimer;
+    private volatile Future<?> ponderSearch;
+
+    //key of the position pondered, 0 if it is not known, and the deepest depth completed
+    private volatile long ponderKey;
+    private volatile int ponderDepth;
+
+    //the game before the move of this AI, for pondering the position after it
+    private final PositionHistory ponderHistory = new PositionHistory();
+
     private int maxDepth;
 
     AI(boolean color, int searchTime) {
         for (int index = MIN_DIFFICULTY; index <= MAX_DIFFICULTY; ++index) {
             if (searchTime == SEARCH_TIMES[index]) {
                 timer = new SearchTimer(searchTime, (side = color) ? "White AI Timer" : "Black AI Timer");
+                timeManager = new TimeManager(timer);
+                ponderTimer = new SearchTimer(POSITIVE_INFINITY, color ? "White AI Ponder Timer" : "Black AI Ponder Timer");
+                ponderExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        final Thread thread = new Thread(runnable, color ? "White AI Ponder" : "Black AI Ponder");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+                lazyExecutor = new ThreadPoolExecutor(helperThreads, helperThreads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        final Thread thread = new Thread(runnable, color ? "White AI Lazy SMP" : "Black AI Lazy SMP");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+                splitSearch = new SplitSearch(helperThreads, color);
                 image = AI_IMAGES[index];
                 maxDepth = SEARCH_DEPTHS[index];
                 return;
@@ -185,6 +299,8 @@ public final class AI {
         //since this method is called every time the user restarts
         WHITE_AI.timer.stopTiming();
         BLACK_AI.timer.stopTiming();
+        WHITE_AI.stopPondering();
+        BLACK_AI.stopPondering();
     }
 
     public void setSearchTime(int searchTime) {
@@ -199,6 +315,28 @@ public final class AI {
         throw new IllegalArgumentException("Invalid Search Time: " + searchTime);
     }
 
+    /**
+     * Manages the time of every move by the clock of the game instead of the
+     * search time of the difficulty, until the clock is cleared. The clock
+     * is to be set again before every move.
+     * @param remainingTime The time left on the clock of this AI (in milliseconds).
+     * @param incrementTime The time added after each move (in milliseconds).
+     * @param movesToGo The number of moves to make in the remaining time, 0 if
+     * the remaining time is for the rest of the game.
+     * @throws IllegalArgumentException If any value is negative.
+     */
+    public void setClock(long remainingTime, long incrementTime, int movesToGo) {
+        timeManager.setClock(remainingTime, incrementTime, movesToGo);
+    }
+
+    public void clearClock() {
+        timeManager.clearClock();
+    }
+
+    public boolean hasClock() {
+        return timeManager.hasClock();
+    }
+
     public int getSearchTime() {
         return timer.getCountdownTime();
     }
@@ -213,13 +351,16 @@ public final class AI {
         throw new IllegalStateException();
     }
 
-    public void setSelectedPositions(Map<String, Integer> savedSelectedPositions) {
-        selectedPositions.clear();
-        selectedPositions.putAll(savedSelectedPositions);
+    public void setHistory(long[] savedHistory) {
+        history.set(savedHistory);
+    }
+
+    public long[] getHistory() {
+        return history.getKeys();
     }
 
-    public Map<String, Integer> getSelectedPositions() {
-        return selectedPositions;
+    public void clearHistory() {
+        history.clear();
     }
 
     public boolean isParallelProcessing() {
@@ -230,6 +371,467 @@ public final class AI {
         parallel = enable;
     }
 
+    public boolean isUsingBitboards() {
+        return bitboard;
+    }
+
+    public void useBitboards(boolean enable) {
+        bitboard = enable;
+    }
+
+    public boolean isUsingLazySMP() {
+        return lazySMP;
+    }
+
+    public void useLazySMP(boolean enable) {
+        lazySMP = enable;
+    }
+
+    public boolean isUsingYoungBrothersWait() {
+        return youngBrothersWait;
+    }
+
+    public void useYoungBrothersWait(boolean enable) {
+        youngBrothersWait = enable;
+    }
+
+    public boolean isUsingPonder() {
+        return ponder;
+    }
+
+    public void usePonder(boolean enable) {
+        if (!(ponder = enable)) {
+            stopPondering();
+        }
+    }
+
+    public int getMultiPV() {
+        return multiPV;
+    }
+
+    /**
+     * Sets how many of the best moves the principal variation search keeps
+     * exact, with their values and lines, for analysing a game. Only the
+     * default search of {@link #makeMove(List)} analyses more than one move,
+     * see {@link #getAnalysis()}.
+     * @param lines The number of moves, 1 for normal play.
+     * @throws IllegalArgumentException If the number of moves is not positive.
+     */
+    public void setMultiPV(int lines) {
+        if (lines <= 0) {
+            throw new IllegalArgumentException("Invalid number of lines: " + lines);
+        }
+        multiPV = lines;
+    }
+
+    /**
+     * Gets the best moves of the last completed iteration of the last search
+     * that analysed more than one move, best first.
+     * @return The lines, empty if no such search completed an iteration.
+     */
+    public List<AnalysisLine> getAnalysis() {
+        return analysis;
+    }
+
+    /**
+     * Gets the best move of the last completed iteration of the last search,
+     * with the moves expected to follow it.
+     * @return The principal variation, or {@code null} if no iteration of a
+     * search that keeps it completed.
+     */
+    public AnalysisLine getPrincipalVariation() {
+        return principalVariation;
+    }
+
+    public int getHelperThreads() {
+        return helperThreads;
+    }
+
+    public void setHelperThreads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Invalid number of helper threads: " + threads);
+        }
+        //the maximum never goes below the core size
+        if (threads > lazyExecutor.getMaximumPoolSize()) {
+            lazyExecutor.setMaximumPoolSize(threads);
+            lazyExecutor.setCorePoolSize(threads);
+        }
+        else {
+            lazyExecutor.setCorePoolSize(threads);
+            lazyExecutor.setMaximumPoolSize(threads);
+        }
+        helperThreads = threads;
+    }
+
+    /**
+     * Searches the current grid with the bitboard engine using iterative
+     * deepening. The best move is mapped back to the possible position
+     * with the same pieces. The bitboard engine keeps no history of the
+     * game, so the possible positions that repeat a position of the game
+     * or reach the fifty-move rule are found here and scored as draws.
+     * @param fallback The position to select if no search completes.
+     * @return The best position found.
+     */
+    private PositionHolder searchBitboards(PositionHolder fallback) {
+        final FastAI.Board root = new FastAI.Board(grid, side);
+        final FastAI.Board child = new FastAI.Board(root);
+        //the bitboard search has no history, so the game finds the moves that repeat
+        final int numberOfPositions = possiblePositions.size();
+        final long[] draws = new long[numberOfPositions];
+        int numberOfDraws = 0;
+        for (int index = 0; index != numberOfPositions; ++index) {
+            final Grid positionGrid = possiblePositions.get(index).grid;
+            if (history.isDraw(positionGrid, !side)) {
+                draws[numberOfDraws++] = positionGrid.getHash();
+            }
+        }
+        bitboardSearch.setRootDraws(Arrays.copyOf(draws, numberOfDraws));
+        PositionHolder bestPosition = fallback;
+        //the searches below start after the root move, so search one ply deeper
+        for (int searchDepth = 1; searchDepth <= maxDepth && searchDepth < FastAI.Search.MAX_PLY; ++searchDepth) {
+            if (!timeManager.startIteration()) {
+                break;
+            }
+            bitboardSearch.resetNodes();
+            final int result = bitboardSearch.search(root, searchDepth + 1, timer);
+            DIALOG.addPositionsScanned(bitboardSearch.getNodes());
+            if (timer.timeOver()) {
+                break;
+            }
+            final int move = bitboardSearch.getBestMove();
+            child.copy(root);
+            child.makeMove(move);
+            final long hash = child.getPieceHash();
+            PositionHolder found = null;
+            for (int index = 0, size = possiblePositions.size(); index != size; ++index) {
+                PositionHolder position = possiblePositions.get(index);
+                if (position.grid.getHash() == hash) {
+                    found = position;
+                    break;
+                }
+            }
+            if (found == null) {
+                System.out.println("Bitboard move not found: " + FastAI.Move.toString(move));
+                break;
+            }
+            found.value = result;
+            DIALOG.setMaxPositionValue((bestPosition = found).value);
+            DIALOG.setFinishedDepth(searchDepth);
+            timeManager.endIteration(hash, result);
+            System.out.println("Depth: " + searchDepth + " Time Taken: " + timeManager.getPreviousIterationTime() + " ms Best Move: " + FastAI.Move.toString(move));
+        }
+        System.out.println();
+        return bestPosition;
+    }
+
+    /**
+     * Searches the possible positions with several helper threads sharing
+     * the transposition table of this AI (Lazy SMP). Every helper deepens
+     * its own copies of the possible positions, odd helpers one depth ahead
+     * and each starting at a different position, so the helpers fill the
+     * table for each other instead of repeating the same work. The values
+     * of the helper that completed the deepest iteration are used. The
+     * helpers run on the threads of this AI, which outlive the search.
+     * @param fallback The position to select if no search completes.
+     * @return The best position found.
+     */
+    private PositionHolder searchLazySMP(PositionHolder fallback) {
+        final int numberOfPositions = possiblePositions.size();
+        final LazySearch[] lazySearches = new LazySearch[helperThreads];
+        for (int helper = 0; helper != helperThreads; ++helper) {
+            lazySearches[helper] = new LazySearch(helper);
+        }
+        try {
+            for (Future<Integer> future : lazyExecutor.invokeAll(Arrays.asList(lazySearches))) {
+                future.get();
+            }
+        }
+        catch (InterruptedException | ExecutionException ex) {
+            throw new RuntimeException(ex);
+        }
+        LazySearch deepest = lazySearches[0];
+        for (int helper = 1; helper != helperThreads; ++helper) {
+            if (lazySearches[helper].completedDepth > deepest.completedDepth) {
+                deepest = lazySearches[helper];
+            }
+        }
+        System.out.println("Helper Threads: " + helperThreads + " Deepest Depth: " + deepest.completedDepth);
+        System.out.println();
+        if (deepest.completedDepth == 0) {
+            return fallback;
+        }
+        for (int index = 0; index != numberOfPositions; ++index) {
+            possiblePositions.get(index).value = deepest.values[index];
+        }
+        possiblePositions.sort(HIGHEST_VALUE_POSITION_FIRST);
+        DIALOG.setFinishedDepth(deepest.completedDepth);
+        DIALOG.setMaxPositionValue(possiblePositions.get(0).value);
+        setPrincipalVariation(possiblePositions.get(0), deepest.completedDepth);
+        return possiblePositions.get(0);
+    }
+
+    /**
+     * Searches the possible positions one after another using iterative
+     * deepening, splitting the tree of each position between the helper
+     * threads with {@link SplitSearch}. The threads of the split search
+     * outlive the search, like the threads of the Lazy SMP search.
+     * @param fallback The position to select if no search completes.
+     * @return The best position found.
+     */
+    private PositionHolder searchYoungBrothersWait(PositionHolder fallback) {
+        final int numberOfPositions = possiblePositions.size();
+        if (splitSearch.getThreads() != helperThreads) {
+            splitSearch.shutdown();
+            splitSearch = new SplitSearch(helperThreads, side);
+        }
+        final int[] previousValues = new int[numberOfPositions];
+        PositionHolder bestPosition = fallback;
+        Iterative_Deepening:
+        for (int searchDepth = 1; searchDepth <= maxDepth && searchDepth < SearchContext.MAX_PLY; ++searchDepth) {
+            if (!timeManager.startIteration()) {
+                break;
+            }
+            for (int index = 0; index != numberOfPositions; ++index) {
+                previousValues[index] = possiblePositions.get(index).value;
+            }
+            for (int positionIndex = 0; positionIndex != numberOfPositions; ++positionIndex) {
+                PositionHolder position = possiblePositions.get(positionIndex);
+                int result = splitSearch.min(position.grid, position.whites, position.blacks, searchDepth);
+                if (timer.timeOver()) {
+                    for (int index = 0; index != numberOfPositions; ++index) {
+                        possiblePositions.get(index).value = previousValues[index];
+                    }
+                    break Iterative_Deepening;
+                }
+                position.value = result;
+                DIALOG.increaseMovesCompleted();
+            }
+            possiblePositions.sort(HIGHEST_VALUE_POSITION_FIRST);
+            DIALOG.setMaxPositionValue((bestPosition = possiblePositions.get(0)).value);
+            DIALOG.setFinishedDepth(searchDepth);
+            timeManager.endIteration(bestPosition.grid.getHash(), bestPosition.value);
+            DIALOG.setMovesCompleted(0);
+            setPrincipalVariation(bestPosition, searchDepth);
+            System.out.println("Depth: " + searchDepth + " Time Taken: " + timeManager.getPreviousIterationTime() + " ms");
+        }
+        System.out.println();
+        return bestPosition;
+    }
+
+    /**
+     * Searches the possible positions using iterative deepening with Principal
+     * Variation Search at the root. The best position of the previous depth is
+     * searched first, inside an aspiration window around its previous value
+     * that is widened whenever the value falls outside of it. Every other
+     * position is scouted with a null window to prove that it is no better,
+     * and only searched again if it is. Positions that are no better keep the
+     * upper bound returned by their scout as their value. The line of the
+     * best position is kept from its search, and followed first by the
+     * search of the next depth.
+     * @param fallback The position to select if no search completes.
+     * @return The best position found.
+     */
+    private PositionHolder searchPrincipalVariation(PositionHolder fallback) {
+        final int numberOfPositions = possiblePositions.size();
+        //array of previous values
+        final int[] previousValues = new int[numberOfPositions];
+        //counts the cutoffs of the searches below, which run on this thread
+        final MoveOrdering ordering = SearchContext.get().ordering;
+        PositionHolder bestPosition = fallback;
+        Iterative_Deepening:
+        for (int searchDepth = 1; searchDepth <= maxDepth && searchDepth < SearchContext.MAX_PLY; ++searchDepth) {
+            ordering.resetCounters();
+            //before attempting to search at this particular depth, check time,
+            //easy moves stop early and a deeper search may not fit in the time left
+            if (!timeManager.startIteration()) {
+                break;
+            }
+            for (int index = 0; index != numberOfPositions; ++index) {
+                previousValues[index] = possiblePositions.get(index).value;
+            }
+
+            //the first depth and checkmates are searched with the full window
+            final int previousValue = possiblePositions.get(0).value;
+            final boolean aspirate = (searchDepth != 1) && Math.abs(previousValue) < ChessConstants.CHECKMATE_VALUE;
+            int window = ASPIRATION_WINDOW;
+            int alpha = aspirate ? (previousValue - window) : NEGATIVE_INFINITY;
+            int beta = aspirate ? (previousValue + window) : POSITIVE_INFINITY;
+            PositionHolder principalPosition = null;
+
+            for (int positionIndex = 0; positionIndex != numberOfPositions; ++positionIndex) {
+                PositionHolder position = possiblePositions.get(positionIndex);
+                int result;
+                if (principalPosition == null) {
+                    result = searchRoot(position, searchDepth, alpha, beta);
+                }
+                else {
+                    //scout, a fail high means this position is better
+                    result = searchRoot(position, searchDepth, alpha, alpha + 1);
+                    if (result > alpha && !timer.timeOver()) {
+                        result = searchRoot(position, searchDepth, alpha, beta);
+                    }
+                }
+                //the value fell outside of the aspiration window, widen it and search again
+                while (!timer.timeOver() && ((result <= alpha && principalPosition == null && alpha != NEGATIVE_INFINITY) || (result >= beta && beta != POSITIVE_INFINITY))) {
+                    window <<= 2;
+                    if (result <= alpha) {
+                        alpha = (window >= MAX_ASPIRATION_WINDOW) ? NEGATIVE_INFINITY : (result - window);
+                    }
+                    else {
+                        beta = (window >= MAX_ASPIRATION_WINDOW) ? POSITIVE_INFINITY : (result + window);
+                    }
+                    result = searchRoot(position, searchDepth, alpha, beta);
+                }
+                if (timer.timeOver()) {
+                    //should time run out before all searches are completed
+                    //at the current depth, reset all positional values to
+                    //the previous depth iteration
+                    for (int index = 0; index != numberOfPositions; ++index) {
+                        possiblePositions.get(index).value = previousValues[index];
+                    }
+                    break Iterative_Deepening;
+                }
+                position.value = result;
+                if (principalPosition == null || result > alpha) {
+                    principalPosition = position;
+                    alpha = result;
+                    saveLine(position);
+                }
+                DIALOG.increaseMovesCompleted();
+            }
+            //at this point the current depth has been fully searched so sort
+            //the higher scoring positions to look at first, the scouts that
+            //failed low may tie with the best position so it goes in front
+            possiblePositions.sort(HIGHEST_VALUE_POSITION_FIRST);
+            possiblePositions.remove(principalPosition);
+            possiblePositions.add(0, principalPosition);
+            DIALOG.setMaxPositionValue((bestPosition = principalPosition).value);
+            DIALOG.setFinishedDepth(searchDepth);
+            timeManager.endIteration(principalPosition.grid.getHash(), principalPosition.value);
+            DIALOG.setMovesCompleted(0);
+            System.out.println("Depth: " + searchDepth + " Time Taken: " + timeManager.getPreviousIterationTime() + " ms"
+                    + " First Move Cutoff Rate: " + String.format("%.3f", ordering.getFirstMoveCutoffRate()));
+            System.out.println(setPrincipalVariation(principalPosition, searchDepth));
+        }
+        System.out.println();
+        return bestPosition;
+    }
+
+    /**
+     * Searches the possible positions like the principal variation search,
+     * but keeps the best {@link #getMultiPV()} positions exact instead of
+     * only the best one. Until that many positions are searched in an
+     * iteration, each is searched with the full window. Every other position
+     * is scouted with a null window at the value of the worst of the best
+     * positions, and searched again to replace it only if it is better. No
+     * aspiration window is used, since the lines may be far apart. The line
+     * of each of the best positions is kept from its search, followed first
+     * by the search of the next depth, and completed from the transposition
+     * table, which every search shares.
+     * @param fallback The position to select if no search completes.
+     * @return The best position found.
+     */
+    private PositionHolder searchMultiPV(PositionHolder fallback) {
+        final int numberOfPositions = possiblePositions.size();
+        final int numberOfLines = Math.min(multiPV, numberOfPositions);
+        final int[] previousValues = new int[numberOfPositions];
+        //the best positions of the iteration, best first
+        final List<PositionHolder> lines = new ArrayList<>(numberOfLines);
+        PositionHolder bestPosition = fallback;
+        analysis = Collections.emptyList();
+        Iterative_Deepening:
+        for (int searchDepth = 1; searchDepth <= maxDepth && searchDepth < SearchContext.MAX_PLY; ++searchDepth) {
+            if (!timeManager.startIteration()) {
+                break;
+            }
+            for (int index = 0; index != numberOfPositions; ++index) {
+                previousValues[index] = possiblePositions.get(index).value;
+            }
+            lines.clear();
+            for (int positionIndex = 0; positionIndex != numberOfPositions; ++positionIndex) {
+                PositionHolder position = possiblePositions.get(positionIndex);
+                int result;
+                if (lines.size() != numberOfLines) {
+                    result = searchRoot(position, searchDepth, NEGATIVE_INFINITY, POSITIVE_INFINITY);
+                }
+                else {
+                    //scout, a fail high means this position replaces the worst line
+                    final int worst = lines.get(numberOfLines - 1).value;
+                    result = searchRoot(position, searchDepth, worst, worst + 1);
+                    if (result > worst && !timer.timeOver()) {
+                        result = searchRoot(position, searchDepth, worst, POSITIVE_INFINITY);
+                    }
+                }
+                if (timer.timeOver()) {
+                    for (int index = 0; index != numberOfPositions; ++index) {
+                        possiblePositions.get(index).value = previousValues[index];
+                    }
+                    break Iterative_Deepening;
+                }
+                position.value = result;
+                if (lines.size() != numberOfLines || result > lines.get(numberOfLines - 1).value) {
+                    if (lines.size() == numberOfLines) {
+                        lines.remove(numberOfLines - 1);
+                    }
+                    int index = lines.size();
+                    while (index != 0 && lines.get(index - 1).value < result) {
+                        --index;
+                    }
+                    lines.add(index, position);
+                    saveLine(position);
+                }
+                DIALOG.increaseMovesCompleted();
+            }
+            //the scouts that failed low may tie with the worst line, so the lines go in front
+            possiblePositions.sort(HIGHEST_VALUE_POSITION_FIRST);
+            possiblePositions.removeAll(lines);
+            possiblePositions.addAll(0, lines);
+            DIALOG.setMaxPositionValue((bestPosition = lines.get(0)).value);
+            DIALOG.setFinishedDepth(searchDepth);
+            timeManager.endIteration(bestPosition.grid.getHash(), bestPosition.value);
+            DIALOG.setMovesCompleted(0);
+            final List<AnalysisLine> iteration = new ArrayList<>(numberOfLines);
+            for (int index = 0; index != numberOfLines; ++index) {
+                final PositionHolder line = lines.get(index);
+                iteration.add(getAnalysisLine(line, searchDepth));
+            }
+            analysis = Collections.unmodifiableList(iteration);
+            principalVariation = iteration.get(0);
+            DIALOG.setPrincipalVariation(iteration.get(0).toString());
+            System.out.println("Depth: " + searchDepth + " Time Taken: " + timeManager.getPreviousIterationTime() + " ms");
+            for (int index = 0; index != numberOfLines; ++index) {
+                System.out.println((index + 1) + ". " + iteration.get(index));
+            }
+        }
+        System.out.println();
+        return bestPosition;
+    }
+
+    //searches a possible position, where the opponent is to move, following its last line
+    private int searchRoot(PositionHolder position, int depth, int alpha, int beta) {
+        SearchContext.get().followLine(position.line, position.lineLength);
+        return side ? AlphaBetaWhite.min(position.grid, position.whites, position.blacks, depth, alpha, beta)
+                : AlphaBetaBlack.min(position.grid, position.whites, position.blacks, depth, alpha, beta);
+    }
+
+    //keeps the line of the last search of a possible position, which has to be exact
+    private static void saveLine(PositionHolder position) {
+        position.lineLength = SearchContext.get().getLine(position.line);
+    }
+
+    //the line of a possible position, as far as it was kept and then from the transposition table
+    private AnalysisLine getAnalysisLine(PositionHolder position, int depth) {
+        return new AnalysisLine(position.description, position.value, depth, PrincipalVariation.getLine(position.grid, position.whites, position.blacks,
+                !side, side ? WHITE_TABLE : BLACK_TABLE, position.line, position.lineLength, depth));
+    }
+
+    //makes the line of the best position the principal variation, and shows it
+    private AnalysisLine setPrincipalVariation(PositionHolder position, int depth) {
+        final AnalysisLine line = getAnalysisLine(position, depth);
+        DIALOG.setPrincipalVariation(line.toString());
+        return principalVariation = line;
+    }
+
     private static final class PositionHolder implements Comparable<PositionHolder> {
 
         private final Grid grid;
@@ -243,6 +845,10 @@ public final class AI {
         private final String description;
         private int value = NEGATIVE_INFINITY;
 
+        //principal variation after the move, from its last exact search
+        private final int[] line = new int[SearchContext.MAX_PLY];
+        private int lineLength;
+
         private PositionHolder(Grid copiedGrid, String moveInfo) {
             List<Piece> pieces = (grid = copiedGrid).getPieces();
             Pieces.sort(pieces);
@@ -266,8 +872,6 @@ public final class AI {
         }
     };
 
-    private static final Comparator<PositionHolder> HIGHEST_VALUE_POSITION_LAST = HIGHEST_VALUE_POSITION_FIRST.reversed();
-
     private final class ParallelSearch implements Callable<Integer> {
 
         private final PositionHolder position;
@@ -306,10 +910,76 @@ public final class AI {
         }
     }
 
+    private final class LazySearch implements Callable<Integer> {
+
+        private final int helper;
+
+        //the first helper searches the possible positions themselves
+        private final List<PositionHolder> positions;
+
+        //values of the deepest completed iteration
+        private final int[] values;
+        private int completedDepth;
+
+        //copies are made here since sorting pieces is not thread safe
+        private LazySearch(int helper) {
+            this.helper = helper;
+            final int numberOfPositions = possiblePositions.size();
+            if (helper == 0) {
+                positions = possiblePositions;
+            }
+            else {
+                positions = new ArrayList<>(numberOfPositions);
+                for (int index = 0; index != numberOfPositions; ++index) {
+                    PositionHolder position = possiblePositions.get(index);
+                    positions.add(new PositionHolder(new Grid(position.grid), position.description));
+                }
+            }
+            values = new int[numberOfPositions];
+        }
+
+        @Override
+        public final Integer call() {
+            final int numberOfPositions = positions.size();
+            final int[] results = new int[numberOfPositions];
+            long previousIterationTime = -1;
+            for (int searchDepth = 1 + (helper & 1); searchDepth <= maxDepth && searchDepth < SearchContext.MAX_PLY; ++searchDepth) {
+                final long depthStartTime = timer.millisecondsElapsed();
+                if (!timeManager.startHelperIteration(previousIterationTime)) {
+                    break;
+                }
+                for (int count = 0; count != numberOfPositions; ++count) {
+                    final int index = (count + helper) % numberOfPositions;
+                    PositionHolder position = positions.get(index);
+                    results[index] = side
+                            ? AlphaBetaWhite.min(position.grid, position.whites, position.blacks, searchDepth, NEGATIVE_INFINITY, POSITIVE_INFINITY)
+                            : AlphaBetaBlack.min(position.grid, position.whites, position.blacks, searchDepth, NEGATIVE_INFINITY, POSITIVE_INFINITY);
+                    if (timer.timeOver()) {
+                        return completedDepth;
+                    }
+                }
+                System.arraycopy(results, 0, values, 0, numberOfPositions);
+                completedDepth = searchDepth;
+                previousIterationTime = timer.millisecondsElapsed() - depthStartTime;
+            }
+            return completedDepth;
+        }
+    }
+
     @SuppressWarnings({"Convert2Lambda", "UnusedAssignment"})
     public synchronized void makeMove(List<String> list) {
-        System.out.println("White Database Size: " + WHITE_STORE.size() + " Map Operations: " + Evaluator.MAP_OPERATIONS_WHITE);
-        System.out.println("Black Database Size: " + BLACK_STORE.size() + " Map Operations: " + Evaluator.MAP_OPERATIONS_BLACK);
+        //searches share the static timer and history, so no AI may be pondering
+        WHITE_AI.stopPondering();
+        BLACK_AI.stopPondering();
+        System.out.println("White Transposition Table Usage: " + WHITE_TABLE.getPermill() + "/1000");
+        System.out.println("Black Transposition Table Usage: " + BLACK_TABLE.getPermill() + "/1000");
+        System.out.println(String.format("Pawn Table Hit Rate: %.1f%% of %d probes", PAWN_TABLE.getHitRate() * 100, PAWN_TABLE.getProbes()));
+        PAWN_TABLE.resetCounters();
+        System.out.println(String.format("Evaluation Cache Hit Rate: %.1f%% of %d probes", EVALUATION_CACHE.getHitRate() * 100, EVALUATION_CACHE.getProbes()));
+        EVALUATION_CACHE.resetCounters();
+        WHITE_TABLE.newSearch();
+        BLACK_TABLE.newSearch();
+        BITBOARD_TABLE.newSearch();
         IMAGE = image;
         if (DIALOG == null) {
             //Chess chess = Chess.getInstance();
@@ -318,7 +988,16 @@ public final class AI {
             DIALOG = new StatusDialog(Chess.getInstance());
             //must init dialog here to avoid circular initalization in chess -> board -> computer -> chess
         }
-        if (parallel) {
+        if (bitboard) {
+            DIALOG.setTitle(side ? "White AI - (Bitboard)" : "Black AI - (Bitboard)");
+        }
+        else if (lazySMP) {
+            DIALOG.setTitle(side ? "White AI - (Lazy SMP)" : "Black AI - (Lazy SMP)");
+        }
+        else if (youngBrothersWait) {
+            DIALOG.setTitle(side ? "White AI - (Young Brothers Wait)" : "Black AI - (Young Brothers Wait)");
+        }
+        else if (parallel) {
             DIALOG.setTitle(side ? "White AI - (Parallel)" : "Black AI - (Parallel)");
         }
         else {
@@ -356,6 +1035,11 @@ public final class AI {
         }
         Pieces.WHITES.clear();
         Pieces.BLACKS.clear();
+        history.add(grid, side);
+        if (ponderKey != 0L) {
+            System.out.println((PositionHistory.getKey(grid, side) == ponderKey) ? ("Ponder Hit, Pondered Depth: " + ponderDepth) : "Ponder Miss");
+            ponderKey = 0L;
+        }
 
         //For Debugging:
         final List<Piece> clonedPieces = Pieces.getDeepCopy(pieces);
@@ -363,6 +1047,9 @@ public final class AI {
 
         Tester.value(grid);
 
+        //the position selected, which is pondered on after the move
+        PositionHolder selectedPosition = null;
+
         if (side) {
             System.out.println("White AI Playing");
             //white move generation
@@ -644,8 +1331,10 @@ public final class AI {
             //show info dialog
             DIALOG.setVisible(true);
 
-            //start timing
-            (TIMER = timer).startTiming();
+            //start timing, the timer stops the search at the hard limit
+            timeManager.start(possiblePositions.size());
+            (TIMER = timer).startTiming(timeManager.getHardLimit());
+            HISTORY = history;
 
             list.clear();
 
@@ -674,7 +1363,16 @@ public final class AI {
 
             PositionHolder bestPosition = possiblePositions.get(0);
 
-            if (parallel) {
+            if (bitboard) {
+                bestPosition = searchBitboards(bestPosition);
+            }
+            else if (lazySMP) {
+                bestPosition = searchLazySMP(bestPosition);
+            }
+            else if (youngBrothersWait) {
+                bestPosition = searchYoungBrothersWait(bestPosition);
+            }
+            else if (parallel) {
                 ParallelSearch[] parallelSearches = new ParallelSearch[numberOfPositions];
                 Future[] futures = new Future[numberOfPositions];
                 ThreadPoolExecutor executor = new ThreadPoolExecutor(numberOfPositions,
@@ -729,52 +1427,11 @@ public final class AI {
                 DEQUE.clear();
             }
             else if (depthLimited) {
-                int previousIterationTime = NEGATIVE_INFINITY;
-                //array of previous values
-                int[] previousValues = new int[numberOfPositions];
-                Iterative_Deepening:
-                for (int searchDepth = 1; searchDepth <= maxDepth; ++searchDepth) {
-                    //before attempting to search at this particular depth, check time 
-                    final int depthStartTime = timer.timeElapsed();
-                    if (previousIterationTime != NEGATIVE_INFINITY && (timer.getCountdownTime() - depthStartTime) <= previousIterationTime) {
-                        //it is pretty much impossible to search to a greater depth
-                        //in the remaining amount of time so terminate search
-                        break;
-                    }
-                    for (int index = 0; index != numberOfPositions; ++index) {
-                        previousValues[index] = possiblePositions.get(index).value;
-                    }
-                    for (int positionIndex = 0; positionIndex != numberOfPositions; ++positionIndex) {
-                        PositionHolder position = possiblePositions.get(positionIndex);
-                        int result = AlphaBetaWhite.min(position.grid, position.whites, position.blacks, searchDepth, NEGATIVE_INFINITY, POSITIVE_INFINITY);
-                        if (timer.timeOver()) {
-                            //should time run out before all searches are completed
-                            //at the current depth, reset all positional values to
-                            //the previous depth iteration
-                            for (int index = 0; index != numberOfPositions; ++index) {
-                                possiblePositions.get(index).value = previousValues[index];
-                            }
-                            break Iterative_Deepening;
-                        }
-                        position.value = result;
-                        DIALOG.increaseMovesCompleted();
-                    }
-                    //at this point the current depth has been fully searched
-                    //so now we sort the higher scoring positions to look at first
-                    //and find the best position, which is the first after sorting
-                    possiblePositions.sort(HIGHEST_VALUE_POSITION_FIRST);
-                    DIALOG.setMaxPositionValue((bestPosition = possiblePositions.get(0)).value);
-                    DIALOG.setFinishedDepth(searchDepth);
-                    previousIterationTime = timer.timeElapsed() - depthStartTime;
-                    DIALOG.setMovesCompleted(0);
-                    System.out.println("Depth: " + searchDepth + " Time Taken: " + previousIterationTime);
-                }
-                System.out.println();
-                previousValues = null;
+                bestPosition = (multiPV == 1) ? searchPrincipalVariation(bestPosition) : searchMultiPV(bestPosition);
             }
             else {
                 Iterative_Deepening:
-                for (int searchDepth = 1; searchDepth <= maxDepth; ++searchDepth) {
+                for (int searchDepth = 1; searchDepth <= maxDepth && searchDepth < SearchContext.MAX_PLY; ++searchDepth) {
                     for (int index = 0; index != numberOfPositions; ++index) {
                         PositionHolder position = possiblePositions.get(index);
                         int result = AlphaBetaWhite.min(position.grid, position.whites, position.blacks, searchDepth, NEGATIVE_INFINITY, POSITIVE_INFINITY);
@@ -791,49 +1448,14 @@ public final class AI {
                 DIALOG.setMaxPositionValue((bestPosition = possiblePositions.get(0)).value);
             }
 
-            {
-                //maybe search for a better position only when losing
-                final String encoded = Pieces.encode(bestPosition.whites, bestPosition.blacks);
-                if (!selectedPositions.containsKey(encoded)) {
-                    selectedPositions.put(encoded, 1);
-                }
-                else {
-                    final int timesSelected = selectedPositions.get(encoded);
-                    if (timesSelected >= 2) {
-                        if (numberOfPositions >= 2) {
-                            possiblePositions.sort(HIGHEST_VALUE_POSITION_LAST);
-                            boolean successorFound = false;
-                            for (int index = (numberOfPositions - 2); index >= 0; --index) {
-                                PositionHolder nextBestPosition = possiblePositions.get(index);
-                                String nextBestPositionEncoded = Pieces.encode(nextBestPosition.whites, nextBestPosition.blacks);
-                                if (!selectedPositions.containsKey(nextBestPositionEncoded)) {
-                                    bestPosition = nextBestPosition;
-                                    selectedPositions.put(nextBestPositionEncoded, 1);
-                                    successorFound = true;
-                                    break;
-                                }
-                                if (selectedPositions.get(nextBestPositionEncoded) == 1) {
-                                    bestPosition = nextBestPosition;
-                                    selectedPositions.put(nextBestPositionEncoded, 2);
-                                    successorFound = true;
-                                    break;
-                                }
-                            }
-                            if (!successorFound) {
-                                selectedPositions.put(encoded, timesSelected + 1);
-                            }
-                        }
-                        else {
-                            selectedPositions.put(encoded, timesSelected + 1);
-                        }
-                    }
-                    else {
-                        selectedPositions.put(encoded, timesSelected + 1);
-                    }
-                }
-            }
+            //the opponent moves next
+            history.add(bestPosition.grid, !side);
 
             if (CHECK_MODE) {
+                //deeper entries from the search would make
+                //alpha beta disagree with min max
+                WHITE_TABLE.clear();
+                BLACK_TABLE.clear();
                 (TIMER = TEST_TIMER).startTiming();
                 Tester.checkProtections(pieces, side);
                 for (int index = 0; index != numberOfPositions; ++index) {
@@ -903,6 +1525,7 @@ public final class AI {
             for (int index = 0, size = bestPosition.blacks.size(); index != size; ++index) {
                 list.add(PIECE_CONVERTER.convertBackward(bestPosition.blacks.get(index)));
             }
+            selectedPosition = bestPosition;
         }
         else {
             System.out.println("Black AI Playing");
@@ -1187,8 +1810,10 @@ public final class AI {
             //show info dialog
             DIALOG.setVisible(true);
 
-            //start timing
-            (TIMER = timer).startTiming();
+            //start timing, the timer stops the search at the hard limit
+            timeManager.start(possiblePositions.size());
+            (TIMER = timer).startTiming(timeManager.getHardLimit());
+            HISTORY = history;
 
             list.clear();
 
@@ -1217,7 +1842,16 @@ public final class AI {
 
             PositionHolder bestPosition = possiblePositions.get(0);
 
-            if (parallel) {
+            if (bitboard) {
+                bestPosition = searchBitboards(bestPosition);
+            }
+            else if (lazySMP) {
+                bestPosition = searchLazySMP(bestPosition);
+            }
+            else if (youngBrothersWait) {
+                bestPosition = searchYoungBrothersWait(bestPosition);
+            }
+            else if (parallel) {
                 ParallelSearch[] parallelSearches = new ParallelSearch[numberOfPositions];
                 Future[] futures = new Future[numberOfPositions];
                 ThreadPoolExecutor executor = new ThreadPoolExecutor(numberOfPositions,
@@ -1271,52 +1905,11 @@ public final class AI {
                 DEQUE.clear();
             }
             else if (depthLimited) {
-                int previousIterationTime = NEGATIVE_INFINITY;
-                //array of previous values
-                int[] previousValues = new int[numberOfPositions];
-                Iterative_Deepening:
-                for (int searchDepth = 1; searchDepth <= maxDepth; ++searchDepth) {
-                    //before attempting to search at this particular depth, check time 
-                    final int depthStartTime = timer.timeElapsed();
-                    if (previousIterationTime != NEGATIVE_INFINITY && (timer.getCountdownTime() - depthStartTime) <= previousIterationTime) {
-                        //it is pretty much impossible to search to a greater depth
-                        //in the remaining amount of time so terminate search
-                        break;
-                    }
-                    for (int index = 0; index != numberOfPositions; ++index) {
-                        previousValues[index] = possiblePositions.get(index).value;
-                    }
-                    for (int positionIndex = 0; positionIndex != numberOfPositions; ++positionIndex) {
-                        PositionHolder position = possiblePositions.get(positionIndex);
-                        int result = AlphaBetaBlack.min(position.grid, position.whites, position.blacks, searchDepth, NEGATIVE_INFINITY, POSITIVE_INFINITY);
-                        if (timer.timeOver()) {
-                            //should time run out before all searches are completed
-                            //at the current depth, reset all positional values to
-                            //the previous depth iteration
-                            for (int index = 0; index != numberOfPositions; ++index) {
-                                possiblePositions.get(index).value = previousValues[index];
-                            }
-                            break Iterative_Deepening;
-                        }
-                        position.value = result;
-                        DIALOG.increaseMovesCompleted();
-                    }
-                    //at this point the current depth has been fully searched
-                    //so now we sort the higher scoring positions to look at first
-                    //and find the best position, which is the first after sorting
-                    possiblePositions.sort(HIGHEST_VALUE_POSITION_FIRST);
-                    DIALOG.setMaxPositionValue((bestPosition = possiblePositions.get(0)).value);
-                    DIALOG.setFinishedDepth(searchDepth);
-                    previousIterationTime = timer.timeElapsed() - depthStartTime;
-                    DIALOG.setMovesCompleted(0);
-                    System.out.println("Depth: " + searchDepth + " Time Taken: " + previousIterationTime);
-                }
-                System.out.println();
-                previousValues = null;
+                bestPosition = (multiPV == 1) ? searchPrincipalVariation(bestPosition) : searchMultiPV(bestPosition);
             }
             else {
                 Iterative_Deepening:
-                for (int searchDepth = 1; searchDepth <= maxDepth; ++searchDepth) {
+                for (int searchDepth = 1; searchDepth <= maxDepth && searchDepth < SearchContext.MAX_PLY; ++searchDepth) {
                     for (int index = 0; index != numberOfPositions; ++index) {
                         PositionHolder position = possiblePositions.get(index);
                         int result = AlphaBetaBlack.min(position.grid, position.whites, position.blacks, searchDepth, NEGATIVE_INFINITY, POSITIVE_INFINITY);
@@ -1333,49 +1926,14 @@ public final class AI {
                 DIALOG.setMaxPositionValue((bestPosition = possiblePositions.get(0)).value);
             }
 
-            {
-                //maybe search for a better position only when losing
-                final String encoded = Pieces.encode(bestPosition.whites, bestPosition.blacks);
-                if (!selectedPositions.containsKey(encoded)) {
-                    selectedPositions.put(encoded, 1);
-                }
-                else {
-                    final int timesSelected = selectedPositions.get(encoded);
-                    if (timesSelected >= 2) {
-                        if (numberOfPositions >= 2) {
-                            possiblePositions.sort(HIGHEST_VALUE_POSITION_LAST);
-                            boolean successorFound = false;
-                            for (int index = (numberOfPositions - 2); index >= 0; --index) {
-                                PositionHolder nextBestPosition = possiblePositions.get(index);
-                                String nextBestPositionEncoded = Pieces.encode(nextBestPosition.whites, nextBestPosition.blacks);
-                                if (!selectedPositions.containsKey(nextBestPositionEncoded)) {
-                                    bestPosition = nextBestPosition;
-                                    selectedPositions.put(nextBestPositionEncoded, 1);
-                                    successorFound = true;
-                                    break;
-                                }
-                                if (selectedPositions.get(nextBestPositionEncoded) == 1) {
-                                    bestPosition = nextBestPosition;
-                                    selectedPositions.put(nextBestPositionEncoded, 2);
-                                    successorFound = true;
-                                    break;
-                                }
-                            }
-                            if (!successorFound) {
-                                selectedPositions.put(encoded, timesSelected + 1);
-                            }
-                        }
-                        else {
-                            selectedPositions.put(encoded, timesSelected + 1);
-                        }
-                    }
-                    else {
-                        selectedPositions.put(encoded, timesSelected + 1);
-                    }
-                }
-            }
+            //the opponent moves next
+            history.add(bestPosition.grid, !side);
 
             if (CHECK_MODE) {
+                //deeper entries from the search would make
+                //alpha beta disagree with min max
+                WHITE_TABLE.clear();
+                BLACK_TABLE.clear();
                 (TIMER = TEST_TIMER).startTiming();
                 Tester.checkProtections(pieces, side);
                 for (int index = 0; index != numberOfPositions; ++index) {
@@ -1401,18 +1959,138 @@ public final class AI {
             for (int index = 0, size = bestPosition.blacks.size(); index != size; ++index) {
                 list.add(PIECE_CONVERTER.convertBackward(bestPosition.blacks.get(index)));
             }
+            selectedPosition = bestPosition;
         }
 
         DIALOG.disableUpdate();
         DIALOG.setTitle(side ? "White AI - (Done)" : "Black AI - (Done)");
         timer.stopTiming();
 
+        if (ponder) {
+            startPondering(selectedPosition);
+        }
+
         //clear previous grids and pieces
         grid.clear();
         pieces.clear();
         possiblePositions.clear();
     }
 
+    /**
+     * Starts searching on the opponent's time, see {@link PonderSearch}.
+     * @param selectedPosition The position after the move of this AI.
+     */
+    private void startPondering(PositionHolder selectedPosition) {
+        //copies are made here since sorting pieces is not thread safe
+        final PositionHolder position = new PositionHolder(new Grid(selectedPosition.grid), selectedPosition.description);
+        ponderKey = 0L;
+        ponderDepth = 0;
+        ponderTimer.startTiming();
+        ponderSearch = ponderExecutor.submit(new PonderSearch(position));
+    }
+
+    /**
+     * Stops searching on the opponent's time, and waits until the search
+     * has stopped.
+     */
+    private void stopPondering() {
+        final Future<?> search = ponderSearch;
+        if (search != null) {
+            ponderTimer.stopTiming();
+            try {
+                search.get();
+            }
+            catch (InterruptedException | ExecutionException ex) {
+                throw new RuntimeException(ex);
+            }
+            ponderSearch = null;
+        }
+    }
+
+    /**
+     * Searches the position after the reply of the opponent stored as the
+     * best move in the transposition table, using iterative deepening until
+     * the ponder timer is stopped. The table is filled with the tree of the
+     * expected reply, so on a ponder hit the timed search completes the
+     * depths already pondered at once, and on a miss it still finds the
+     * positions the two trees share. Without an expected reply, the position
+     * after the move of this AI is searched instead, which is already the
+     * last position of the game, so it is searched on the game before it.
+     */
+    private final class PonderSearch implements Runnable {
+
+        private final PositionHolder position;
+
+        private PonderSearch(PositionHolder position) {
+            this.position = position;
+        }
+
+        @Override
+        public final void run() {
+            TIMER = ponderTimer;
+            final Grid ponderGrid = position.grid;
+            final boolean replied = makeExpectedReply();
+            if (replied) {
+                ponderKey = PositionHistory.getKey(ponderGrid, side);
+                HISTORY = history;
+            }
+            else {
+                ponderHistory.setBeforeLast(history);
+                HISTORY = ponderHistory;
+            }
+            for (int searchDepth = 1; searchDepth < SearchContext.MAX_PLY; ++searchDepth) {
+                if (replied) {
+                    //this AI is to move
+                    if (side) {
+                        AlphaBetaWhite.max(ponderGrid, position.whites, position.blacks, searchDepth, NEGATIVE_INFINITY, POSITIVE_INFINITY);
+                    }
+                    else {
+                        AlphaBetaBlack.max(ponderGrid, position.whites, position.blacks, searchDepth, NEGATIVE_INFINITY, POSITIVE_INFINITY);
+                    }
+                }
+                else {
+                    searchRoot(position, searchDepth, NEGATIVE_INFINITY, POSITIVE_INFINITY);
+                }
+                if (ponderTimer.timeOver()) {
+                    return;
+                }
+                ponderDepth = searchDepth;
+            }
+        }
+
+        //makes the best move of the opponent from the transposition table, if it is legal
+        private boolean makeExpectedReply() {
+            final Grid ponderGrid = position.grid;
+            final long entry = (side ? WHITE_TABLE : BLACK_TABLE).probe(PositionHistory.getKey(ponderGrid, !side));
+            if (entry == TranspositionTable.MISS || TranspositionTable.getMove(entry) == TranspositionTable.NO_MOVE) {
+                return false;
+            }
+            final int expected = TranspositionTable.getMove(entry);
+            final List<Piece> opponents = side ? position.blacks : position.whites;
+            final King king = side ? Pieces.getBlackKing(position.blacks) : Pieces.getWhiteKing(position.whites);
+            final SearchContext context = SearchContext.get();
+            final int[] moves = context.moves;
+            int end = MoveGenerator.generateCastles(ponderGrid, king, moves, 0);
+            end = MoveGenerator.generateCaptures(ponderGrid, opponents, moves, end);
+            end = MoveGenerator.generateQuiets(ponderGrid, opponents, moves, end);
+            for (int index = 0; index != end; ++index) {
+                final int move = moves[index];
+                if ((move & Move.KEY_MASK) == expected) {
+                    final Position ponderPosition = context.position;
+                    ponderPosition.set(ponderGrid, position.whites, position.blacks);
+                    final long undo = ponderPosition.makeMove(move);
+                    if (!king.inCheck(ponderGrid)) {
+                        System.out.println("Pondering Expected Reply");
+                        return true;
+                    }
+                    ponderPosition.unmakeMove(move, undo);
+                    return false;
+                }
+            }
+            return false;
+        }
+    }
+
     void useTestDialog() {
         DIALOG = new AI.StatusDialog(new JFrame());
     }
@@ -1459,6 +2137,14 @@ public final class AI {
             ++view.nodesScanned;
         }
 
+        void increaseQuiescencePositionsScanned() {
+            ++view.quiescenceNodesScanned;
+        }
+
+        void addPositionsScanned(long positionsScanned) {
+            view.nodesScanned += positionsScanned;
+        }
+
         void setMaxPositionValue(int num) {
             view.data[3] = ("Best Position Value: " + (view.maxNodeValue = num));
         }
@@ -1479,10 +2165,15 @@ public final class AI {
             ++view.movesCompleted;
         }
 
+        void setPrincipalVariation(String line) {
+            view.principalVariation = line;
+        }
+
         void reset() {
             view.update = true;
-            view.nodesScanned = view.depth = view.totalMoves = view.movesCompleted = 0;
+            view.nodesScanned = view.quiescenceNodesScanned = view.depth = view.totalMoves = view.movesCompleted = 0;
             view.maxNodeValue = NEGATIVE_INFINITY;
+            view.principalVariation = "";
         }
 
         private static final class StatusView extends JPanel implements Runnable {
@@ -1490,17 +2181,19 @@ public final class AI {
             //could use atomicinteger
             private volatile boolean update;
             private volatile int nodesScanned;
+            private volatile int quiescenceNodesScanned;
             //private int nodesIgnored;
             private volatile int maxNodeValue;
             private volatile int depth;
             private int totalMoves;
             private int movesCompleted;
-            private final String[] data = new String[5];
+            private volatile String principalVariation = "";
+            private final String[] data = new String[7];
 
             @SuppressWarnings("CallToThreadStartDuringObjectConstruction")
             private StatusView() {
                 super(null);
-                data[0] = data[1] = data[2] = data[3] = data[4] = "";
+                data[0] = data[1] = data[2] = data[3] = data[4] = data[5] = data[6] = "";
                 Thread statusViewThread = new Thread(this, "Status View Thread");
                 statusViewThread.setPriority(Thread.MAX_PRIORITY - 1);
                 statusViewThread.start();
@@ -1532,6 +2225,8 @@ public final class AI {
                     //data.add("Nodes Ignored: " + nodesIgnored);
                     data[3] = ("Max Position Value: " + maxNodeValue);
                     data[4] = ("Search Depths Completed: " + depth);
+                    data[5] = ("Quiescence Positions Scanned: " + quiescenceNodesScanned);
+                    data[6] = ("Principal Variation: " + principalVariation);
                     //data[5] = ("Current Search Depth: " + searchDepth);
                     //data.add("Unused Memory: " + RUNTIME.freeMemory() + " bytes");
                     //data.add("Used Memory: " + RUNTIME.totalMemory() + " bytes");
@@ -0,0 +1,65 @@
+package Engine;
+
+import static Util.Constants.NEGATIVE_INFINITY;
+import static Util.Constants.POSITIVE_INFINITY;
+import static Util.Constants.RUNTIME;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Measures how much memory the searches allocate. The Alpha-Beta search
+ * generates its moves into the buffers of its {@link SearchContext}, so
+ * once it is warmed up it should allocate next to nothing, unlike the
+ * MinMax search which still goes through the tile lists of the pieces.
+ *
+ * @author Will
+ */
+final class AllocationTester {
+
+    private static final int DEPTH = 4;
+    private static final int WARM_UP_SEARCHES = 3;
+
+    private static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR";
+
+    private AllocationTester() {
+
+    }
+
+    public static void main(String... args) {
+        final com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!bean.isThreadAllocatedMemorySupported()) {
+            System.out.println("Allocation counting is not supported by this virtual machine");
+            RUNTIME.exit(1);
+        }
+        bean.setThreadAllocatedMemoryEnabled(true);
+        final long thread = Thread.currentThread().getId();
+
+        AI.TIMER = new SearchTimer(POSITIVE_INFINITY, "Test");
+        new AI(true, 60).useTestDialog();
+        AI.TIMER.startTiming();
+
+        final Grid grid = Tester.getGrid(START_POSITION);
+        final List<Piece> whites = Tester.getPieces(grid, true);
+        final List<Piece> blacks = Tester.getPieces(grid, false);
+
+        for (int times = 0; times != WARM_UP_SEARCHES; ++times) {
+            AI.WHITE_TABLE.clear();
+            AlphaBetaWhite.max(grid, whites, blacks, DEPTH, NEGATIVE_INFINITY, POSITIVE_INFINITY);
+            MinMaxWhite.max(grid, whites, blacks, DEPTH);
+        }
+
+        AI.WHITE_TABLE.clear();
+        long start = bean.getThreadAllocatedBytes(thread);
+        final int alphaBetaScore = AlphaBetaWhite.max(grid, whites, blacks, DEPTH, NEGATIVE_INFINITY, POSITIVE_INFINITY);
+        final long alphaBetaBytes = bean.getThreadAllocatedBytes(thread) - start;
+
+        start = bean.getThreadAllocatedBytes(thread);
+        final int minMaxScore = MinMaxWhite.max(grid, whites, blacks, DEPTH);
+        final long minMaxBytes = bean.getThreadAllocatedBytes(thread) - start;
+
+        System.out.println("Depth: " + DEPTH);
+        System.out.println("AlphaBeta Score: " + alphaBetaScore + " Bytes Allocated: " + alphaBetaBytes);
+        System.out.println("MinMax Score: " + minMaxScore + " Bytes Allocated: " + minMaxBytes);
+        RUNTIME.exit(0);
+    }
+}
@@ -1,7 +1,6 @@
 package Engine;
 
-import Util.ChessConstants;
-import static Util.ChessConstants.CHECKMATE_VALUE;
+import static Util.ChessConstants.PAWN_VALUE;
 import static Util.Constants.NEGATIVE_INFINITY;
 import static Util.Constants.POSITIVE_INFINITY;
 import java.util.List;
@@ -16,7 +15,21 @@ import java.util.List;
  */
 final class AlphaBetaBlack {
     
-    private static final boolean SECURE_MODE = true;
+    //captures searched past the depth of the search before the position counts as quiet
+    private static final int MAX_QUIESCENCE_DEPTH = 8;
+
+    //margin of delta pruning, a capture can gain a little more than the captured piece
+    private static final int DELTA_MARGIN = 2 * PAWN_VALUE;
+
+    //null moves are tried with at least this much depth left, and the
+    //reduction of the null move search grows once the depth is deep enough
+    private static final int NULL_MOVE_MIN_DEPTH = 3;
+    private static final int NULL_MOVE_REDUCTION = 2;
+    private static final int DEEP_NULL_MOVE_DEPTH = 7;
+    private static final int DEEP_NULL_MOVE_REDUCTION = 3;
+
+    //null move cutoffs with at least this much depth left are verified
+    private static final int VERIFICATION_DEPTH = 6;
 
     private AlphaBetaBlack() {
 
@@ -36,289 +49,171 @@ final class AlphaBetaBlack {
      * losing or is about to be checkmated.
      */
     static int min(final Grid grid, final List<Piece> whites, final List<Piece> blacks, int depth, final int alpha, int beta) {
-        if (depth == 0 || AI.TIMER.timeOver()) {
+        final SearchContext context = SearchContext.get();
+        context.position.set(grid, whites, blacks);
+        context.history.start(AI.HISTORY, grid);
+        context.startTiming(AI.TIMER);
+        return min(context, 0, grid, whites, blacks, depth, alpha, beta, true);
+    }
+
+    /**
+     * Minimizing component of the search of a position that another search
+     * reached, such as a {@link SplitSearch}. The history of the context
+     * must already hold the line from the root of the other search, see
+     * {@link PositionHistory#start(PositionHistory, long[], int)}.
+     *
+     * @param context The search context of the current thread.
+     * @param ply The distance of the position from the root.
+     * @param grid The chess board.
+     * @param whites The white pieces on the chess board.
+     * @param blacks The black pieces on the chess board.
+     * @param depth Number of ply to search ahead.
+     * @return The score of the position.
+     */
+    static int min(final SearchContext context, final int ply, final Grid grid, final List<Piece> whites, final List<Piece> blacks, int depth, final int alpha, int beta) {
+        context.position.set(grid, whites, blacks);
+        context.startTiming(AI.TIMER);
+        return min(context, ply, grid, whites, blacks, depth, alpha, beta, true);
+    }
+
+    //the ply is the distance from the root, which selects the slice of the move buffer,
+    //and null moves are not allowed right after a null move or while verifying one
+    private static int min(final SearchContext context, final int ply, final Grid grid, final List<Piece> whites, final List<Piece> blacks, int depth, final int alpha, int beta, final boolean nullMove) {
+        context.clearLine(ply);
+        if (ply == SearchContext.MAX_PLY || context.isTimeOver()) {
             return Evaluator.evaluateInBlackPerspective(grid, whites, blacks);
         }
+        //no line from here can beat a mate already found closer to the root
+        if (beta <= -SearchContext.getMateScore(ply + 1)) {
+            return beta;
+        }
+        if (alpha >= SearchContext.getMateScore(ply)) {
+            return alpha;
+        }
 
-        Grid clonedGrid = SECURE_MODE ? new Grid(grid) : grid;
-
-        --depth;
-        int value = POSITIVE_INFINITY;
+        final long hash = grid.getHash() ^ Zobrist.getCastleKey(grid);
+        if (context.history.isDraw(ply, hash)) {
+            //repeated, or fifty moves without a capture or pawn move
+            return (alpha >= 0) ? alpha : ((beta <= 0) ? beta : 0);
+        }
 
         final King whiteKing = Pieces.getWhiteKing(whites);
+        final King blackKing = Pieces.getBlackKing(blacks);
+        final boolean inCheck = whiteKing.inCheck(grid);
+        if (inCheck) {
+            //there are few replies to a check, so they are searched one ply deeper
+            ++depth;
+        }
+        if (depth == 0) {
+            return quiescenceMin(context, ply, grid, whites, blacks, MAX_QUIESCENCE_DEPTH, alpha, beta);
+        }
 
-        {
-            final Tile previousTile = grid.getTile(whiteKing.getRow(), whiteKing.getColumn());
-            final List<Tile> castleTiles = whiteKing.getCastleTiles(grid);
-            for (int index = (castleTiles.size() - 1); index >= 0; --index) {
-                Tile kingCastleTile = castleTiles.get(index);
-                if (kingCastleTile.getColumn() == ChessConstants.LEFT_KING_CASTLE_COLUMN) {
-                    Tile leftRookTile = grid.getTile(ChessConstants.WHITE_PIECE_ROW, 0);
-                    Tile leftRookCastleTile = grid.getTile(ChessConstants.WHITE_PIECE_ROW, ChessConstants.LEFT_ROOK_CASTLE_COLUMN);
-                    Piece leftRook = leftRookTile.getOccupant();
-
-                    previousTile.removeOccupant();
-                    leftRookTile.removeOccupant();
-                    kingCastleTile.setOccupant(whiteKing);
-                    leftRookCastleTile.setOccupant(leftRook);
-                    grid.setProtections(whites, blacks);
-
-                    whiteKing.increaseMoveCount();
-                    leftRook.increaseMoveCount();
-                    int result = max(grid, whites, blacks, depth, alpha, beta);
-                    if (result < value) {
-                        value = result;
-                    }
-                    if (value < beta) {
-                        beta = value;
-                    }
-                    whiteKing.decreaseMoveCount();
-                    leftRook.decreaseMoveCount();
-
-                    previousTile.setOccupant(whiteKing);
-                    leftRookTile.setOccupant(leftRook);
-                    kingCastleTile.removeOccupant();
-                    leftRookCastleTile.removeOccupant();
-                    grid.setProtections(whites, blacks);
-                    
-                    //clonedGrid.equals(grid);
-
-                    if (beta <= alpha) {
+        final long entry = AI.BLACK_TABLE.probe(hash);
+        if (entry != TranspositionTable.MISS && TranspositionTable.getDepth(entry) >= depth) {
+            final int score = TranspositionTable.getScore(entry, ply);
+            switch (TranspositionTable.getBound(entry)) {
+                case TranspositionTable.EXACT:
+                    return (score <= alpha) ? alpha : ((score >= beta) ? beta : score);
+                case TranspositionTable.LOWER_BOUND:
+                    if (score >= beta) {
                         return beta;
                     }
-                }
-                else {
-                    Tile rightRookTile = grid.getTile(ChessConstants.WHITE_PIECE_ROW, 7);
-                    Tile rightRookCastleTile = grid.getTile(ChessConstants.WHITE_PIECE_ROW, ChessConstants.RIGHT_ROOK_CASTLE_COLUMN);
-                    Piece rightRook = rightRookTile.getOccupant();
-
-                    previousTile.removeOccupant();
-                    rightRookTile.removeOccupant();
-                    kingCastleTile.setOccupant(whiteKing);
-                    rightRookCastleTile.setOccupant(rightRook);
-                    grid.setProtections(whites, blacks);
-
-                    whiteKing.increaseMoveCount();
-                    rightRook.increaseMoveCount();
-                    int result = max(grid, whites, blacks, depth, alpha, beta);
-                    if (result < value) {
-                        value = result;
-                    }
-                    if (value < beta) {
-                        beta = value;
-                    }
-                    whiteKing.decreaseMoveCount();
-                    rightRook.decreaseMoveCount();
-
-                    previousTile.setOccupant(whiteKing);
-                    rightRookTile.setOccupant(rightRook);
-                    kingCastleTile.removeOccupant();
-                    rightRookCastleTile.removeOccupant();
-                    grid.setProtections(whites, blacks);
-                    
-                    //clonedGrid.equals(grid);
-
-                    if (beta <= alpha) {
-                        return beta;
+                    break;
+                default:
+                    if (score <= alpha) {
+                        return alpha;
                     }
-                }
             }
         }
 
-        final int numberOfWhitePieces = whites.size();
-
-        for (int pieceIndex = 0; pieceIndex != numberOfWhitePieces; ++pieceIndex) {
-            final Piece white = whites.get(pieceIndex);
-            final int previousRow = white.getRow();
-            final int previousColumn = white.getColumn();
-            final Tile previousTile = grid.getTile(previousRow, previousColumn);
-            final List<Tile> attackTiles = white.getAttackTiles(grid);
-            for (int index = (attackTiles.size() - 1); index >= 0; --index) {
-                Tile attackTile = attackTiles.get(index);
-                Piece enemy = attackTile.getOccupant();
-                if (enemy.isKing()) {
-                    continue;
+        final SearchParameters parameters = AI.PARAMETERS;
+        //quiet moves are pruned once this is set, none of them can lower beta
+        int futilityValue = POSITIVE_INFINITY;
+        if ((beta - alpha) == 1 && !inCheck) {
+            if (depth <= parameters.getMaxFutilityDepth()) {
+                final int evaluation = Evaluator.evaluateInBlackPerspective(grid, whites, blacks);
+                final int reverseMargin = parameters.getReverseFutilityMargin(depth);
+                if (reverseMargin >= 0 && evaluation + reverseMargin <= alpha) {
+                    //White stays below alpha even after giving back the margin
+                    return alpha;
                 }
-                if (white.isPawn() && previousRow == 1) {
-                    Queen replace = Pawn.promote(white);
-                    previousTile.setOccupant(replace);
-                    int pawnIndex = whites.indexOf(white);
-                    whites.set(pawnIndex, replace);
-                    int removeIndex = MoveUtils.doWhiteCapture(grid, whites, blacks, attackTile, previousTile);
-                    if (!whiteKing.inCheck(grid)) {
-                        replace.increaseMoveCount();
-                        int result = max(grid, whites, blacks, depth, alpha, beta);
-                        if (result < value) {
-                            value = result;
-                        }
-                        if (value < beta) {
-                            beta = value;
-                        }
-                        if (beta <= alpha) {
-                            MoveUtils.undoWhiteCapturePromotion(grid, whites, blacks, white, pawnIndex, enemy, removeIndex, attackTile, previousTile);
-                            //clonedGrid.equals(grid);
-                            return beta;
-                        }
-                    }
-                    MoveUtils.undoWhiteCapturePromotion(grid, whites, blacks, white, pawnIndex, enemy, removeIndex, attackTile, previousTile);
-                    //clonedGrid.equals(grid);
-                }
-                else {
-                    int removeIndex = MoveUtils.doWhiteCapture(grid, whites, blacks, attackTile, previousTile);
-                    if (!whiteKing.inCheck(grid)) {
-                        white.increaseMoveCount();
-                        int result = max(grid, whites, blacks, depth, alpha, beta);
-                        if (result < value) {
-                            value = result;
-                        }
-                        if (value < beta) {
-                            beta = value;
-                        }
-                        white.decreaseMoveCount();
-                        if (beta <= alpha) {
-                            MoveUtils.undoWhiteCapture(grid, whites, blacks, enemy, removeIndex, attackTile, previousTile);
-                            //clonedGrid.equals(grid);
-                            return beta;
-                        }
-                    }
-                    MoveUtils.undoWhiteCapture(grid, whites, blacks, enemy, removeIndex, attackTile, previousTile);
-                    //clonedGrid.equals(grid);
+                final int margin = parameters.getFutilityMargin(depth);
+                if (margin >= 0 && evaluation - margin >= beta) {
+                    futilityValue = evaluation - margin;
                 }
             }
-            /*
-            if (white.isPawn()) {
-                final List<Tile> enPassantTiles = ((Pawn) white).getEnPassantTiles(grid);
-                for (int index = (enPassantTiles.size() - 1); index >= 0; --index) {
-                    Tile enPassantTile = enPassantTiles.get(index);
-                    if (enPassantTile.getColumn() < previousColumn) {
-                        Tile blackPawnTile = grid.getTile(previousRow, previousColumn - 1);
-                        Piece blackPawn = blackPawnTile.getOccupant();
-                        previousTile.removeOccupant();
-                        blackPawnTile.removeOccupant();
-                        enPassantTile.setOccupant(white);
-                        int removeIndex = Pieces.remove(blacks, blackPawn);
-                        grid.setProtections(whites, blacks);
-                        if (!whiteKing.inCheck(grid)) {
-                            white.increaseMoveCount();
-                            int result = max(grid, whites, blacks, depth, alpha, beta);
-                            if (result < value) {
-                                value = result;
-                            }
-                            if (value < beta) {
-                                beta = value;
-                            }
-                            white.decreaseMoveCount();
-                            if (beta <= alpha) {
-                                previousTile.setOccupant(white);
-                                blackPawnTile.setOccupant(blackPawn);
-                                enPassantTile.removeOccupant();
-                                blacks.add(removeIndex, blackPawn);
-                                grid.setProtections(whites, blacks);
-                                return beta;
-                            }
-                        }
-                        previousTile.setOccupant(white);
-                        blackPawnTile.setOccupant(blackPawn);
-                        enPassantTile.removeOccupant();
-                        blacks.add(removeIndex, blackPawn);
-                        grid.setProtections(whites, blacks);
-                    }
-                    else {
-                        Tile blackPawnTile = grid.getTile(previousRow, previousColumn + 1);
-                        Piece blackPawn = blackPawnTile.getOccupant();
-                        previousTile.removeOccupant();
-                        blackPawnTile.removeOccupant();
-                        enPassantTile.setOccupant(white);
-                        int removeIndex = Pieces.remove(blacks, blackPawn);
-                        grid.setProtections(whites, blacks);
-                        if (!whiteKing.inCheck(grid)) {
-                            white.increaseMoveCount();
-                            int result = max(grid, whites, blacks, depth, alpha, beta);
-                            if (result < value) {
-                                value = result;
-                            }
-                            if (value < beta) {
-                                beta = value;
-                            }
-                            white.decreaseMoveCount();
-                            if (beta <= alpha) {
-                                previousTile.setOccupant(white);
-                                blackPawnTile.setOccupant(blackPawn);
-                                enPassantTile.removeOccupant();
-                                blacks.add(removeIndex, blackPawn);
-                                grid.setProtections(whites, blacks);
-                                return beta;
-                            }
-                        }
-                        previousTile.setOccupant(white);
-                        blackPawnTile.setOccupant(blackPawn);
-                        enPassantTile.removeOccupant();
-                        blacks.add(removeIndex, blackPawn);
-                        grid.setProtections(whites, blacks);
-                    }
+            if (nullMove && depth >= NULL_MOVE_MIN_DEPTH && Pieces.hasPieces(whites)) {
+                //White passes, which leaves the grid as it is. If passing is still good
+                //enough for White, some move is too, unless White is in zugzwang
+                final int reduction = (depth >= DEEP_NULL_MOVE_DEPTH) ? DEEP_NULL_MOVE_REDUCTION : NULL_MOVE_REDUCTION;
+                context.follow(ply, TranspositionTable.NO_MOVE);
+                context.history.pass(ply);
+                if (max(context, ply + 1, grid, whites, blacks, depth - 1 - reduction, alpha, beta, false) <= alpha
+                        && (depth < VERIFICATION_DEPTH || min(context, ply, grid, whites, blacks, depth - reduction, alpha, beta, false) <= alpha)) {
+                    return alpha;
                 }
             }
-             */
         }
 
-        for (int pieceIndex = 0; pieceIndex != numberOfWhitePieces; ++pieceIndex) {
-            final Piece white = whites.get(pieceIndex);
-            final int previousRow = white.getRow();
-            final int previousColumn = white.getColumn();
-            final Tile previousTile = grid.getTile(previousRow, previousColumn);
-            final List<Tile> moveTiles = white.getMoveTiles(grid);
-            for (int index = (moveTiles.size() - 1); index >= 0; --index) {
-                Tile moveTile = moveTiles.get(index);
-                if (white.isPawn() && previousRow == 1) {
-                    Queen replace = Pawn.promote(white);
-                    previousTile.setOccupant(replace);
-                    int pawnIndex = whites.indexOf(white);
-                    whites.set(pawnIndex, replace);
-                    MoveUtils.doMove(grid, whites, blacks, moveTile, previousTile);
-                    if (!whiteKing.inCheck(grid)) {
-                        replace.increaseMoveCount();
-                        int result = max(grid, whites, blacks, depth, alpha, beta);
-                        if (result < value) {
-                            value = result;
-                        }
-                        if (value < beta) {
-                            beta = value;
-                        }
-                        if (beta <= alpha) {
-                            MoveUtils.undoWhiteMovePromotion(grid, whites, blacks, white, pawnIndex, moveTile, previousTile);
-                            //clonedGrid.equals(grid);
-                            return beta;
-                        }
+        final int hashMove = (entry == TranspositionTable.MISS) ? TranspositionTable.NO_MOVE : TranspositionTable.getMove(entry);
+        final int originalBeta = beta;
+        int bestMove = TranspositionTable.NO_MOVE;
+
+        --depth;
+        int value = POSITIVE_INFINITY;
+
+        final Position position = context.position;
+        final int[] moves = context.moves;
+        final int start = SearchContext.getStart(ply);
+        int end = MoveGenerator.generateCastles(grid, whiteKing, moves, start);
+        end = MoveGenerator.generateCaptures(grid, whites, moves, end);
+        end = MoveGenerator.generateQuiets(grid, whites, moves, end);
+        final MoveOrdering ordering = context.ordering;
+        ordering.score(grid, moves, start, end, ply, context.getLineMove(ply, hashMove), true);
+        int searched = 0;
+
+        for (int index = start; index != end; ++index) {
+            final int move = ordering.next(moves, index, end);
+            final long undo = position.makeMove(move);
+            if (!whiteKing.inCheck(grid)) {
+                context.history.next(ply, grid, move);
+                context.follow(ply, move);
+                final boolean quiet = !inCheck && ordering.isQuiet(index) && !blackKing.inCheck(grid);
+                if (quiet && futilityValue != POSITIVE_INFINITY) {
+                    //not searched, but the position is neither checkmate nor stalemate
+                    if (futilityValue < value) {
+                        value = futilityValue;
                     }
-                    MoveUtils.undoWhiteMovePromotion(grid, whites, blacks, white, pawnIndex, moveTile, previousTile);
-                    //clonedGrid.equals(grid);
                 }
                 else {
-                    MoveUtils.doMove(grid, whites, blacks, moveTile, previousTile);
-                    if (!whiteKing.inCheck(grid)) {
-                        white.increaseMoveCount();
-                        int result = max(grid, whites, blacks, depth, alpha, beta);
-                        if (result < value) {
-                            value = result;
-                        }
-                        if (value < beta) {
-                            beta = value;
-                        }
-                        white.decreaseMoveCount();
-                        if (beta <= alpha) {
-                            MoveUtils.undoMove(grid, whites, blacks, moveTile, previousTile);
-                            //clonedGrid.equals(grid);
-                            return beta;
+                    //late quiet moves are first searched less deep, and fully only if that lowers beta
+                    final int reduction = quiet ? parameters.getLateMoveReduction(depth + 1, searched) : 0;
+                    int result = (reduction == 0) ? NEGATIVE_INFINITY
+                            : max(context, ply + 1, grid, whites, blacks, depth - reduction, beta - 1, beta, true);
+                    if (result < beta) {
+                        result = max(context, ply + 1, grid, whites, blacks, depth, alpha, beta, true);
+                    }
+                    if (result < value) {
+                        value = result;
+                        bestMove = move & Move.KEY_MASK;
+                        if (result < beta) {
+                            context.updateLine(ply, move);
                         }
                     }
-                    MoveUtils.undoMove(grid, whites, blacks, moveTile, previousTile);
-                    //clonedGrid.equals(grid);
+                    if (value < beta) {
+                        beta = value;
+                    }
                 }
+                ++searched;
+            }
+            position.unmakeMove(move, undo);
+            if (beta <= alpha) {
+                ordering.cutoff(move, ply, depth + 1, true, index == start);
+                return store(context, hash, ply, depth + 1, alpha, originalBeta, beta, bestMove);
             }
         }
-        
-        //clonedGrid.equals(grid);
-        return (value == POSITIVE_INFINITY) ? checkWhiteEndGame(grid, whiteKing, depth + 1) : beta;
+
+        return store(context, hash, ply, depth + 1, alpha, originalBeta, (value == POSITIVE_INFINITY) ? checkWhiteEndGame(grid, whiteKing, ply) : beta, bestMove);
     }
 
     /**
@@ -334,288 +229,305 @@ final class AlphaBetaBlack {
      * losing or is about to be checkmated.
      */
     static int max(final Grid grid, final List<Piece> whites, final List<Piece> blacks, int depth, int alpha, final int beta) {
-        if (depth == 0 || AI.TIMER.timeOver()) {
+        final SearchContext context = SearchContext.get();
+        context.position.set(grid, whites, blacks);
+        context.history.start(AI.HISTORY, grid);
+        context.startTiming(AI.TIMER);
+        return max(context, 0, grid, whites, blacks, depth, alpha, beta, true);
+    }
+
+    /**
+     * Maximizing component of the search of a position that another search
+     * reached, such as a {@link SplitSearch}. The history of the context
+     * must already hold the line from the root of the other search, see
+     * {@link PositionHistory#start(PositionHistory, long[], int)}.
+     *
+     * @param context The search context of the current thread.
+     * @param ply The distance of the position from the root.
+     * @param grid The chess board.
+     * @param whites The white pieces on the chess board.
+     * @param blacks The black pieces on the chess board.
+     * @param depth Number of ply to search ahead.
+     * @return The score of the position.
+     */
+    static int max(final SearchContext context, final int ply, final Grid grid, final List<Piece> whites, final List<Piece> blacks, int depth, int alpha, final int beta) {
+        context.position.set(grid, whites, blacks);
+        context.startTiming(AI.TIMER);
+        return max(context, ply, grid, whites, blacks, depth, alpha, beta, true);
+    }
+
+    //the ply is the distance from the root, which selects the slice of the move buffer,
+    //and null moves are not allowed right after a null move or while verifying one
+    private static int max(final SearchContext context, final int ply, final Grid grid, final List<Piece> whites, final List<Piece> blacks, int depth, int alpha, final int beta, final boolean nullMove) {
+        context.clearLine(ply);
+        if (ply == SearchContext.MAX_PLY || context.isTimeOver()) {
             return Evaluator.evaluateInBlackPerspective(grid, whites, blacks);
         }
-        
-        Grid clonedGrid = SECURE_MODE ? new Grid(grid) : grid;
+        //no line from here can beat a mate already found closer to the root
+        if (alpha >= SearchContext.getMateScore(ply + 1)) {
+            return alpha;
+        }
+        if (beta <= -SearchContext.getMateScore(ply)) {
+            return beta;
+        }
 
-        --depth;
-        int value = NEGATIVE_INFINITY;
+        final long hash = grid.getHash() ^ Zobrist.getCastleKey(grid) ^ Zobrist.SIDE_KEY;
+        if (context.history.isDraw(ply, hash)) {
+            //repeated, or fifty moves without a capture or pawn move
+            return (alpha >= 0) ? alpha : ((beta <= 0) ? beta : 0);
+        }
 
         final King blackKing = Pieces.getBlackKing(blacks);
-
-        {
-            final Tile previousTile = grid.getTile(blackKing.getRow(), blackKing.getColumn());
-            final List<Tile> castleTiles = blackKing.getCastleTiles(grid);
-            for (int index = (castleTiles.size() - 1); index >= 0; --index) {
-                Tile kingCastleTile = castleTiles.get(index);
-                if (kingCastleTile.getColumn() == ChessConstants.LEFT_KING_CASTLE_COLUMN) {
-                    Tile leftRookTile = grid.getTile(ChessConstants.BLACK_PIECE_ROW, 0);
-                    Tile leftRookCastleTile = grid.getTile(ChessConstants.BLACK_PIECE_ROW, ChessConstants.LEFT_ROOK_CASTLE_COLUMN);
-                    Piece leftRook = leftRookTile.getOccupant();
-
-                    previousTile.removeOccupant();
-                    leftRookTile.removeOccupant();
-                    kingCastleTile.setOccupant(blackKing);
-                    leftRookCastleTile.setOccupant(leftRook);
-                    grid.setProtections(whites, blacks);
-
-                    blackKing.increaseMoveCount();
-                    leftRook.increaseMoveCount();
-                    int result = min(grid, whites, blacks, depth, alpha, beta);
-                    if (result > value) {
-                        value = result;
-                    }
-                    if (value > alpha) {
-                        alpha = value;
+        final King whiteKing = Pieces.getWhiteKing(whites);
+        final boolean inCheck = blackKing.inCheck(grid);
+        if (inCheck) {
+            //there are few replies to a check, so they are searched one ply deeper
+            ++depth;
+        }
+        if (depth == 0) {
+            return quiescenceMax(context, ply, grid, whites, blacks, MAX_QUIESCENCE_DEPTH, alpha, beta);
+        }
+        
+        final long entry = AI.BLACK_TABLE.probe(hash);
+        if (entry != TranspositionTable.MISS && TranspositionTable.getDepth(entry) >= depth) {
+            final int score = TranspositionTable.getScore(entry, ply);
+            switch (TranspositionTable.getBound(entry)) {
+                case TranspositionTable.EXACT:
+                    return (score <= alpha) ? alpha : ((score >= beta) ? beta : score);
+                case TranspositionTable.LOWER_BOUND:
+                    if (score >= beta) {
+                        return beta;
                     }
-                    blackKing.decreaseMoveCount();
-                    leftRook.decreaseMoveCount();
-
-                    previousTile.setOccupant(blackKing);
-                    leftRookTile.setOccupant(leftRook);
-                    kingCastleTile.removeOccupant();
-                    leftRookCastleTile.removeOccupant();
-                    grid.setProtections(whites, blacks);
-                    
-                    //clonedGrid.equals(grid);
-
-                    if (beta <= alpha) {
+                    break;
+                default:
+                    if (score <= alpha) {
                         return alpha;
                     }
+            }
+        }
+
+        final SearchParameters parameters = AI.PARAMETERS;
+        //quiet moves are pruned once this is set, none of them can raise alpha
+        int futilityValue = NEGATIVE_INFINITY;
+        if ((beta - alpha) == 1 && !inCheck) {
+            if (depth <= parameters.getMaxFutilityDepth()) {
+                final int evaluation = Evaluator.evaluateInBlackPerspective(grid, whites, blacks);
+                final int reverseMargin = parameters.getReverseFutilityMargin(depth);
+                if (reverseMargin >= 0 && evaluation - reverseMargin >= beta) {
+                    //Black stays above beta even after giving back the margin
+                    return beta;
                 }
-                else {
-                    Tile rightRookTile = grid.getTile(ChessConstants.BLACK_PIECE_ROW, 7);
-                    Tile rightRookCastleTile = grid.getTile(ChessConstants.BLACK_PIECE_ROW, ChessConstants.RIGHT_ROOK_CASTLE_COLUMN);
-                    Piece rightRook = rightRookTile.getOccupant();
-
-                    previousTile.removeOccupant();
-                    rightRookTile.removeOccupant();
-                    kingCastleTile.setOccupant(blackKing);
-                    rightRookCastleTile.setOccupant(rightRook);
-                    grid.setProtections(whites, blacks);
-
-                    blackKing.increaseMoveCount();
-                    rightRook.increaseMoveCount();
-                    int result = min(grid, whites, blacks, depth, alpha, beta);
-                    if (result > value) {
-                        value = result;
-                    }
-                    if (value > alpha) {
-                        alpha = value;
-                    }
-                    blackKing.decreaseMoveCount();
-                    rightRook.decreaseMoveCount();
-
-                    previousTile.setOccupant(blackKing);
-                    rightRookTile.setOccupant(rightRook);
-                    kingCastleTile.removeOccupant();
-                    rightRookCastleTile.removeOccupant();
-                    grid.setProtections(whites, blacks);
-                    
-                    //clonedGrid.equals(grid);
-
-                    if (beta <= alpha) {
-                        return alpha;
-                    }
+                final int margin = parameters.getFutilityMargin(depth);
+                if (margin >= 0 && evaluation + margin <= alpha) {
+                    futilityValue = evaluation + margin;
+                }
+            }
+            if (nullMove && depth >= NULL_MOVE_MIN_DEPTH && Pieces.hasPieces(blacks)) {
+                //Black passes, which leaves the grid as it is. If passing is still good
+                //enough for Black, some move is too, unless Black is in zugzwang
+                final int reduction = (depth >= DEEP_NULL_MOVE_DEPTH) ? DEEP_NULL_MOVE_REDUCTION : NULL_MOVE_REDUCTION;
+                context.follow(ply, TranspositionTable.NO_MOVE);
+                context.history.pass(ply);
+                if (min(context, ply + 1, grid, whites, blacks, depth - 1 - reduction, alpha, beta, false) >= beta
+                        && (depth < VERIFICATION_DEPTH || max(context, ply, grid, whites, blacks, depth - reduction, alpha, beta, false) >= beta)) {
+                    return beta;
                 }
             }
         }
 
-        final int numberOfBlackPieces = blacks.size();
-
-        for (int pieceIndex = 0; pieceIndex != numberOfBlackPieces; ++pieceIndex) {
-            final Piece black = blacks.get(pieceIndex);
-            final int previousRow = black.getRow();
-            final int previousColumn = black.getColumn();
-            final Tile previousTile = grid.getTile(previousRow, previousColumn);
-            final List<Tile> attackTiles = black.getAttackTiles(grid);
-            for (int index = (attackTiles.size() - 1); index >= 0; --index) {
-                Tile attackTile = attackTiles.get(index);
-                Piece enemy = attackTile.getOccupant();
-                if (enemy.isKing()) {
-                    continue;
-                }
-                if (black.isPawn() && previousRow == 6) {
-                    Queen replace = Pawn.promote(black);
-                    previousTile.setOccupant(replace);
-                    int pawnIndex = blacks.indexOf(black);
-                    blacks.set(pawnIndex, replace);
-                    int removeIndex = MoveUtils.doBlackCapture(grid, whites, blacks, attackTile, previousTile);
-                    if (!blackKing.inCheck(grid)) {
-                        replace.increaseMoveCount();
-                        int result = min(grid, whites, blacks, depth, alpha, beta);
-                        if (result > value) {
-                            value = result;
-                        }
-                        if (value > alpha) {
-                            alpha = value;
-                        }
-                        if (beta <= alpha) {
-                            MoveUtils.undoBlackCapturePromotion(grid, whites, blacks, black, pawnIndex, enemy, removeIndex, attackTile, previousTile);
-                            //clonedGrid.equals(grid);
-                            return alpha;
-                        }
+        final int hashMove = (entry == TranspositionTable.MISS) ? TranspositionTable.NO_MOVE : TranspositionTable.getMove(entry);
+        final int originalAlpha = alpha;
+        int bestMove = TranspositionTable.NO_MOVE;
+
+        --depth;
+        int value = NEGATIVE_INFINITY;
+
+        final Position position = context.position;
+        final int[] moves = context.moves;
+        final int start = SearchContext.getStart(ply);
+        int end = MoveGenerator.generateCastles(grid, blackKing, moves, start);
+        end = MoveGenerator.generateCaptures(grid, blacks, moves, end);
+        end = MoveGenerator.generateQuiets(grid, blacks, moves, end);
+        final MoveOrdering ordering = context.ordering;
+        ordering.score(grid, moves, start, end, ply, context.getLineMove(ply, hashMove), false);
+        int searched = 0;
+
+        for (int index = start; index != end; ++index) {
+            final int move = ordering.next(moves, index, end);
+            final long undo = position.makeMove(move);
+            if (!blackKing.inCheck(grid)) {
+                context.history.next(ply, grid, move);
+                context.follow(ply, move);
+                final boolean quiet = !inCheck && ordering.isQuiet(index) && !whiteKing.inCheck(grid);
+                if (quiet && futilityValue != NEGATIVE_INFINITY) {
+                    //not searched, but the position is neither checkmate nor stalemate
+                    if (futilityValue > value) {
+                        value = futilityValue;
                     }
-                    MoveUtils.undoBlackCapturePromotion(grid, whites, blacks, black, pawnIndex, enemy, removeIndex, attackTile, previousTile);
-                    //clonedGrid.equals(grid);
                 }
                 else {
-                    int removeIndex = MoveUtils.doBlackCapture(grid, whites, blacks, attackTile, previousTile);
-                    if (!blackKing.inCheck(grid)) {
-                        black.increaseMoveCount();
-                        int result = min(grid, whites, blacks, depth, alpha, beta);
-                        if (result > value) {
-                            value = result;
-                        }
-                        if (value > alpha) {
-                            alpha = value;
-                        }
-                        black.decreaseMoveCount();
-                        if (beta <= alpha) {
-                            MoveUtils.undoBlackCapture(grid, whites, blacks, enemy, removeIndex, attackTile, previousTile);
-                            //clonedGrid.equals(grid);
-                            return alpha;
-                        }
+                    //late quiet moves are first searched less deep, and fully only if that raises alpha
+                    final int reduction = quiet ? parameters.getLateMoveReduction(depth + 1, searched) : 0;
+                    int result = (reduction == 0) ? POSITIVE_INFINITY
+                            : min(context, ply + 1, grid, whites, blacks, depth - reduction, alpha, alpha + 1, true);
+                    if (result > alpha) {
+                        result = min(context, ply + 1, grid, whites, blacks, depth, alpha, beta, true);
                     }
-                    MoveUtils.undoBlackCapture(grid, whites, blacks, enemy, removeIndex, attackTile, previousTile);                           
-                    //clonedGrid.equals(grid);
-                }
-            }
-            /*
-            if (black.isPawn()) {
-                final List<Tile> enPassantTiles = ((Pawn) black).getEnPassantTiles(grid);
-                for (int index = (enPassantTiles.size() - 1); index >= 0; --index) {
-                    Tile enPassantTile = enPassantTiles.get(index);
-                    if (enPassantTile.getColumn() < previousColumn) {
-                        Tile whitePawnTile = grid.getTile(previousRow, previousColumn - 1);
-                        Piece whitePawn = whitePawnTile.getOccupant();
-                        previousTile.removeOccupant();
-                        whitePawnTile.removeOccupant();
-                        enPassantTile.setOccupant(black);
-                        int removeIndex = Pieces.remove(whites, whitePawn);
-                        grid.setProtections(whites, blacks);
-                        if (!blackKing.inCheck(grid)) {
-                            black.increaseMoveCount();
-                            int result = min(grid, whites, blacks, depth, alpha, beta);
-                            if (result > value) {
-                                value = result;
-                            }
-                            if (value > alpha) {
-                                alpha = value;
-                            }
-                            black.decreaseMoveCount();
-                            if (beta <= alpha) {
-                                previousTile.setOccupant(black);
-                                whitePawnTile.setOccupant(whitePawn);
-                                enPassantTile.removeOccupant();
-                                whites.add(removeIndex, whitePawn);
-                                grid.setProtections(whites, blacks);
-                                return alpha;
-                            }
+                    if (result > value) {
+                        value = result;
+                        bestMove = move & Move.KEY_MASK;
+                        if (result > alpha) {
+                            context.updateLine(ply, move);
                         }
-                        previousTile.setOccupant(black);
-                        whitePawnTile.setOccupant(whitePawn);
-                        enPassantTile.removeOccupant();
-                        whites.add(removeIndex, whitePawn);
-                        grid.setProtections(whites, blacks);
                     }
-                    else {
-                        Tile whitePawnTile = grid.getTile(previousRow, previousColumn + 1);
-                        Piece whitePawn = whitePawnTile.getOccupant();
-                        previousTile.removeOccupant();
-                        whitePawnTile.removeOccupant();
-                        enPassantTile.setOccupant(black);
-                        int removeIndex = Pieces.remove(whites, whitePawn);
-                        grid.setProtections(whites, blacks);
-                        if (!blackKing.inCheck(grid)) {
-                            black.increaseMoveCount();
-                            int result = min(grid, whites, blacks, depth, alpha, beta);
-                            if (result > value) {
-                                value = result;
-                            }
-                            if (value > alpha) {
-                                alpha = value;
-                            }
-                            black.decreaseMoveCount();
-                            if (beta <= alpha) {
-                                previousTile.setOccupant(black);
-                                whitePawnTile.setOccupant(whitePawn);
-                                enPassantTile.removeOccupant();
-                                whites.add(removeIndex, whitePawn);
-                                grid.setProtections(whites, blacks);
-                                return alpha;
-                            }
-                        }
-                        previousTile.setOccupant(black);
-                        whitePawnTile.setOccupant(whitePawn);
-                        enPassantTile.removeOccupant();
-                        whites.add(removeIndex, whitePawn);
-                        grid.setProtections(whites, blacks);
+                    if (value > alpha) {
+                        alpha = value;
                     }
                 }
+                ++searched;
+            }
+            position.unmakeMove(move, undo);
+            if (beta <= alpha) {
+                ordering.cutoff(move, ply, depth + 1, false, index == start);
+                return store(context, hash, ply, depth + 1, originalAlpha, beta, alpha, bestMove);
             }
-             */
         }
 
-        for (int pieceIndex = 0; pieceIndex != numberOfBlackPieces; ++pieceIndex) {
-            final Piece black = blacks.get(pieceIndex);
-            final int previousRow = black.getRow();
-            final int previousColumn = black.getColumn();
-            final Tile previousTile = grid.getTile(previousRow, previousColumn);
-            final List<Tile> moveTiles = black.getMoveTiles(grid);
-            for (int index = (moveTiles.size() - 1); index >= 0; --index) {
-                Tile moveTile = moveTiles.get(index);
-                if (black.isPawn() && previousRow == 6) {
-                    Queen replace = Pawn.promote(black);
-                    previousTile.setOccupant(replace);
-                    int pawnIndex = blacks.indexOf(black);
-                    blacks.set(pawnIndex, replace);
-                    MoveUtils.doMove(grid, whites, blacks, moveTile, previousTile);
-                    if (!blackKing.inCheck(grid)) {
-                        replace.increaseMoveCount();
-                        int result = min(grid, whites, blacks, depth, alpha, beta);
-                        if (result > value) {
-                            value = result;
-                        }
-                        if (value > alpha) {
-                            alpha = value;
-                        }
-                        if (beta <= alpha) {
-                            MoveUtils.undoBlackMovePromotion(grid, whites, blacks, black, pawnIndex, moveTile, previousTile);
-                            //clonedGrid.equals(grid);
-                            return alpha;
-                        }
-                    }
-                    MoveUtils.undoBlackMovePromotion(grid, whites, blacks, black, pawnIndex, moveTile, previousTile);
-                    //clonedGrid.equals(grid);
+        return store(context, hash, ply, depth + 1, originalAlpha, beta, (value == NEGATIVE_INFINITY) ? checkBlackEndGame(grid, blackKing, ply) : alpha, bestMove);
+    }
+
+    /**
+     * Quiescence search of the minimizing component, searched once no depth is
+     * left so that the search never stops in the middle of a capture sequence.
+     * Only captures and promotions are searched, and White may stand pat
+     * with the evaluation instead of capturing. Captures that cannot lower beta
+     * even if the captured piece is won for free are pruned (delta pruning).
+     *
+     * @param quiescenceDepth Number of captures that may still be searched.
+     * @return The score of the position once it is quiet.
+     */
+    private static int quiescenceMin(final SearchContext context, final int ply, final Grid grid, final List<Piece> whites, final List<Piece> blacks, final int quiescenceDepth, final int alpha, int beta) {
+        AI.DIALOG.increaseQuiescencePositionsScanned();
+        final int standPat = Evaluator.evaluateInBlackPerspective(grid, whites, blacks);
+        if (standPat <= alpha) {
+            return alpha;
+        }
+        if (standPat < beta) {
+            beta = standPat;
+        }
+        if (quiescenceDepth == 0 || ply == SearchContext.MAX_PLY || context.isTimeOver()) {
+            return beta;
+        }
+
+        final King whiteKing = Pieces.getWhiteKing(whites);
+
+        final Position position = context.position;
+        final int[] moves = context.moves;
+        final int start = SearchContext.getStart(ply);
+        int end = MoveGenerator.generateCaptures(grid, whites, moves, start);
+        end = MoveGenerator.generatePromotions(grid, whites, moves, end);
+        final MoveOrdering ordering = context.ordering;
+        ordering.score(grid, moves, start, end, ply, TranspositionTable.NO_MOVE, true);
+
+        for (int index = start; index != end; ++index) {
+            final int move = ordering.next(moves, index, end);
+            if (ordering.isLosingCapture(index)) {
+                //losing captures are ordered last, so the rest lose material too
+                break;
+            }
+            if (!Move.isPromotion(move) && standPat - grid.getTile(Move.getTo(move)).getOccupant().getValue() - DELTA_MARGIN >= beta) {
+                continue;
+            }
+            final long undo = position.makeMove(move);
+            if (!whiteKing.inCheck(grid)) {
+                int result = quiescenceMax(context, ply + 1, grid, whites, blacks, quiescenceDepth - 1, alpha, beta);
+                if (result < beta) {
+                    beta = result;
                 }
-                else {
-                    MoveUtils.doMove(grid, whites, blacks, moveTile, previousTile);
-                    if (!blackKing.inCheck(grid)) {
-                        black.increaseMoveCount();
-                        int result = min(grid, whites, blacks, depth, alpha, beta);
-                        if (result > value) {
-                            value = result;
-                        }
-                        if (value > alpha) {
-                            alpha = value;
-                        }
-                        black.decreaseMoveCount();
-                        if (beta <= alpha) {
-                            MoveUtils.undoMove(grid, whites, blacks, moveTile, previousTile);
-                            //clonedGrid.equals(grid);
-                            return alpha;
-                        }
-                    }
-                    MoveUtils.undoMove(grid, whites, blacks, moveTile, previousTile);
-                    //clonedGrid.equals(grid);
+            }
+            position.unmakeMove(move, undo);
+            if (beta <= alpha) {
+                return beta;
+            }
+        }
+        return beta;
+    }
+
+    /**
+     * Quiescence search of the maximizing component, searched once no depth is
+     * left so that the search never stops in the middle of a capture sequence.
+     * Only captures and promotions are searched, and Black may stand pat
+     * with the evaluation instead of capturing. Captures that cannot raise alpha
+     * even if the captured piece is won for free are pruned (delta pruning).
+     *
+     * @param quiescenceDepth Number of captures that may still be searched.
+     * @return The score of the position once it is quiet.
+     */
+    private static int quiescenceMax(final SearchContext context, final int ply, final Grid grid, final List<Piece> whites, final List<Piece> blacks, final int quiescenceDepth, int alpha, final int beta) {
+        AI.DIALOG.increaseQuiescencePositionsScanned();
+        final int standPat = Evaluator.evaluateInBlackPerspective(grid, whites, blacks);
+        if (standPat >= beta) {
+            return beta;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+        if (quiescenceDepth == 0 || ply == SearchContext.MAX_PLY || context.isTimeOver()) {
+            return alpha;
+        }
+
+        final King blackKing = Pieces.getBlackKing(blacks);
+
+        final Position position = context.position;
+        final int[] moves = context.moves;
+        final int start = SearchContext.getStart(ply);
+        int end = MoveGenerator.generateCaptures(grid, blacks, moves, start);
+        end = MoveGenerator.generatePromotions(grid, blacks, moves, end);
+        final MoveOrdering ordering = context.ordering;
+        ordering.score(grid, moves, start, end, ply, TranspositionTable.NO_MOVE, false);
+
+        for (int index = start; index != end; ++index) {
+            final int move = ordering.next(moves, index, end);
+            if (ordering.isLosingCapture(index)) {
+                //losing captures are ordered last, so the rest lose material too
+                break;
+            }
+            if (!Move.isPromotion(move) && standPat + grid.getTile(Move.getTo(move)).getOccupant().getValue() + DELTA_MARGIN <= alpha) {
+                continue;
+            }
+            final long undo = position.makeMove(move);
+            if (!blackKing.inCheck(grid)) {
+                int result = quiescenceMin(context, ply + 1, grid, whites, blacks, quiescenceDepth - 1, alpha, beta);
+                if (result > alpha) {
+                    alpha = result;
                 }
             }
+            position.unmakeMove(move, undo);
+            if (beta <= alpha) {
+                return alpha;
+            }
         }
+        return alpha;
+    }
 
-        return (value == NEGATIVE_INFINITY) ? checkBlackEndGame(grid, blackKing, depth + 1) : alpha;
+    /**
+     * Stores the result of a search in the transposition table, unless the
+     * search was cut short by the timer, and returns it.
+     *
+     * @param hash The hash of the position.
+     * @param ply The distance of the position from the root.
+     * @param depth The depth searched.
+     * @param alpha The lower bound of the original window.
+     * @param beta The upper bound of the original window.
+     * @param score The result of the search.
+     * @param bestMove The best move found, if any.
+     * @return The result of the search.
+     */
+    private static int store(final SearchContext context, final long hash, final int ply, final int depth, final int alpha, final int beta, final int score, final int bestMove) {
+        if (!context.isTimeOver()) {
+            AI.BLACK_TABLE.store(hash, depth, TranspositionTable.getBound(score, alpha, beta), TranspositionTable.getStoredScore(score, ply), bestMove);
+        }
+        return score;
     }
 
     /**
@@ -625,17 +537,15 @@ final class AlphaBetaBlack {
      *
      * @param grid The current chess board.
      * @param whiteKing The White player's King.
-     * @param depth How close this position is from the base node. The bigger
-     * this value, the closer this position is from the base node. This value
-     * cannot be negative.
+     * @param ply The distance of this position from the root, checkmates
+     * closer to the root score further from 0.
      * @return An extremely high value (greater than or equal to 200,000,000) if
      * this position is a Checkmate against White or 0 if this position is a
      * Stalemate.
      */
-    private static int checkWhiteEndGame(final Grid grid, final King whiteKing, final int depth) {
+    private static int checkWhiteEndGame(final Grid grid, final King whiteKing, final int ply) {
         AI.DIALOG.increasePositionsScanned();
-        //a bigger "depth", is actually shallower in the tree
-        return whiteKing.inCheck(grid) ? (CHECKMATE_VALUE + depth) : 0;
+        return whiteKing.inCheck(grid) ? SearchContext.getMateScore(ply) : 0;
     }
 
     /**
@@ -645,16 +555,14 @@ final class AlphaBetaBlack {
      *
      * @param grid The current chess board.
      * @param blackKing The Black player's King.
-     * @param depth How close this position is from the base node. The bigger
-     * this value, the closer this position is from the base node. This value
-     * cannot be negative.
+     * @param ply The distance of this position from the root, checkmates
+     * closer to the root score further from 0.
      * @return An extremely low value (less than or equal to -200,000,000) if
      * this position is a Checkmate against Black or 0 if this position is a
      * Stalemate.
      */
-    private static int checkBlackEndGame(final Grid grid, final King blackKing, final int depth) {
+    private static int checkBlackEndGame(final Grid grid, final King blackKing, final int ply) {
         AI.DIALOG.increasePositionsScanned();
-        //a lower "depth", is actually deeper in the tree
-        return blackKing.inCheck(grid) ? (-CHECKMATE_VALUE - depth) : 0;
+        return blackKing.inCheck(grid) ? -SearchContext.getMateScore(ply) : 0;
     }
 }
\ No newline at end of file
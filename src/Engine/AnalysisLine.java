@@ -0,0 +1,67 @@
+package Engine;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One of the best moves found by an {@link AI} analysing several moves at
+ * once (see {@link AI#setMultiPV(int)}), or the best move of its principal
+ * variation (see {@link AI#getPrincipalVariation()}), with its value and
+ * the moves expected to follow it.
+ *
+ * @author Will
+ */
+public final class AnalysisLine {
+
+    private final String move;
+    private final int value;
+    private final int depth;
+    private final List<String> continuation;
+
+    AnalysisLine(String move, int value, int depth, List<String> continuation) {
+        this.move = move;
+        this.value = value;
+        this.depth = depth;
+        this.continuation = Collections.unmodifiableList(continuation);
+    }
+
+    /**
+     * Gets the description of the move, the same as the move text an AI
+     * returns when it makes the move.
+     * @return The description of the move.
+     */
+    public String getMove() {
+        return move;
+    }
+
+    /**
+     * Gets the value of the move, in the perspective of the AI.
+     * @return The value of the move.
+     */
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * Gets the depth the move was searched to.
+     * @return The depth, in ply after the move.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Gets the moves expected to follow the move, alternating between the
+     * opponent and the AI, as far as the search kept them and then the
+     * transposition table still holds them.
+     * @return The principal variation after the move, never {@code null}.
+     */
+    public List<String> getContinuation() {
+        return continuation;
+    }
+
+    @Override
+    public String toString() {
+        return "Value: " + value + " Depth: " + depth + " Move: " + move + " Line: " + String.join(", ", continuation);
+    }
+}
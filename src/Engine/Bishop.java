@@ -3,7 +3,6 @@ package Engine;
 import Util.ChessConstants;
 import static Util.ChessConstants.LENGTH;
 import static Util.ChessConstants.MAX_NUMBER_OF_BISHOP_MOVE_TILES;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -48,292 +47,44 @@ public final class Bishop extends Piece {
 
     @Override
     public List<Tile> getMoveTiles(Grid grid) {
-        final List<Tile> list = new ArrayList<>(MAX_NUMBER_OF_BISHOP_MOVE_TILES);
-        final int currentRow = getRow();
-        final int currentColumn = getColumn();
-        for (int nextRow = currentRow - 1, nextColumn = currentColumn - 1; nextRow >= 0 && nextColumn >= 0; --nextRow, --nextColumn) {
-            Tile tile = grid.getTile(nextRow, nextColumn);
-            if (tile.isOccupied()) {
-                break;
-            }
-            list.add(tile);
-        }
-        for (int nextRow = currentRow - 1, nextColumn = currentColumn + 1; nextRow >= 0 && nextColumn < LENGTH; --nextRow, ++nextColumn) {
-            Tile tile = grid.getTile(nextRow, nextColumn);
-            if (tile.isOccupied()) {
-                break;
-            }
-            list.add(tile);
-        }
-        for (int nextRow = currentRow + 1, nextColumn = currentColumn - 1; nextRow < LENGTH && nextColumn >= 0; ++nextRow, --nextColumn) {
-            Tile tile = grid.getTile(nextRow, nextColumn);
-            if (tile.isOccupied()) {
-                break;
-            }
-            list.add(tile);
-        }
-        for (int nextRow = currentRow + 1, nextColumn = currentColumn + 1; nextRow < LENGTH && nextColumn < LENGTH; ++nextRow, ++nextColumn) {
-            Tile tile = grid.getTile(nextRow, nextColumn);
-            if (tile.isOccupied()) {
-                break;
-            }
-            list.add(tile);
-        }
-        return list;
+        return grid.getTiles(getMoveSquares(grid), MAX_NUMBER_OF_BISHOP_MOVE_TILES);
     }
 
     @Override
     public List<Tile> getAttackTiles(Grid grid) {
-        final List<Tile> list = new ArrayList<>(ChessConstants.NUMBER_OF_ROOK_AND_BISHOP_ATTACK_TILES);
-        final int currentRow = getRow();
-        final int currentColumn = getColumn();
-        for (int nextRow = currentRow - 1, nextColumn = currentColumn - 1; nextRow >= 0 && nextColumn >= 0; --nextRow, --nextColumn) {
-            Tile tile = grid.getTile(nextRow, nextColumn);
-            if (tile.isOccupied()) {
-                if (!isAlly(tile.getOccupant())) {
-                    list.add(tile);
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow - 1, nextColumn = currentColumn + 1; nextRow >= 0 && nextColumn < LENGTH; --nextRow, ++nextColumn) {
-            Tile tile = grid.getTile(nextRow, nextColumn);
-            if (tile.isOccupied()) {
-                if (!isAlly(tile.getOccupant())) {
-                    list.add(tile);
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow + 1, nextColumn = currentColumn - 1; nextRow < LENGTH && nextColumn >= 0; ++nextRow, --nextColumn) {
-            Tile tile = grid.getTile(nextRow, nextColumn);
-            if (tile.isOccupied()) {
-                if (!isAlly(tile.getOccupant())) {
-                    list.add(tile);
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow + 1, nextColumn = currentColumn + 1; nextRow < LENGTH && nextColumn < LENGTH; ++nextRow, ++nextColumn) {
-            Tile tile = grid.getTile(nextRow, nextColumn);
-            if (tile.isOccupied()) {
-                if (!isAlly(tile.getOccupant())) {
-                    list.add(tile);
-                }
-                break;
-            }
-        }
-        return list;
+        return grid.getTiles(getAttackSquares(grid), ChessConstants.NUMBER_OF_ROOK_AND_BISHOP_ATTACK_TILES);
+    }
+
+    @Override
+    long getMoveSquares(Grid grid) {
+        return Magic.getBishopAttacks(getIndex(), grid.getOccupied()) & ~grid.getOccupied();
+    }
+
+    @Override
+    long getAttackSquares(Grid grid) {
+        return Magic.getBishopAttacks(getIndex(), grid.getOccupied()) & (isWhite() ? grid.getBlackOccupied() : grid.getWhiteOccupied());
     }
 
     @Override
     public List<Tile> getProtectedTiles(Grid grid) {
-        final List<Tile> list = new ArrayList<>();
-        final int currentRow = getRow();
-        final int currentColumn = getColumn();
-        for (int nextRow = currentRow - 1, nextColumn = currentColumn - 1; nextRow >= 0 && nextColumn >= 0; --nextRow, --nextColumn) {
-            Tile tile = grid.getTile(nextRow, nextColumn);
-            list.add(tile);
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (--nextRow >= 0 && --nextColumn >= 0) {
-                        Tile pierceTile = grid.getTile(nextRow, nextColumn);
-                        if (!pierceTile.isOccupied()) {
-                            list.add(pierceTile);
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow - 1, nextColumn = currentColumn + 1; nextRow >= 0 && nextColumn < LENGTH; --nextRow, ++nextColumn) {
-            Tile tile = grid.getTile(nextRow, nextColumn);
-            list.add(tile);
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (--nextRow >= 0 && ++nextColumn < LENGTH) {
-                        Tile pierceTile = grid.getTile(nextRow, nextColumn);
-                        if (!pierceTile.isOccupied()) {
-                            list.add(pierceTile);
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow + 1, nextColumn = currentColumn - 1; nextRow < LENGTH && nextColumn >= 0; ++nextRow, --nextColumn) {
-            Tile tile = grid.getTile(nextRow, nextColumn);
-            list.add(tile);
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (++nextRow < LENGTH && --nextColumn >= 0) {
-                        Tile pierceTile = grid.getTile(nextRow, nextColumn);
-                        if (!pierceTile.isOccupied()) {
-                            list.add(pierceTile);
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow + 1, nextColumn = currentColumn + 1; nextRow < LENGTH && nextColumn < LENGTH; ++nextRow, ++nextColumn) {
-            Tile tile = grid.getTile(nextRow, nextColumn);
-            list.add(tile);
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (++nextRow < LENGTH && ++nextColumn < LENGTH) {
-                        Tile pierceTile = grid.getTile(nextRow, nextColumn);
-                        if (!pierceTile.isOccupied()) {
-                            list.add(pierceTile);
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        return list;
+        final long protections = getProtections(grid);
+        return grid.getTiles(protections, Long.bitCount(protections));
     }
 
     @Override
     public void setProtectedTiles(Grid grid) {
-        final int currentRow = getRow();
-        final int currentColumn = getColumn();
-        for (int nextRow = currentRow - 1, nextColumn = currentColumn - 1; nextRow >= 0 && nextColumn >= 0; --nextRow, --nextColumn) {
-            Tile tile = grid.getTile(nextRow, nextColumn);
-            tile.setProtectedBy(this);
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (--nextRow >= 0 && --nextColumn >= 0) {
-                        Tile pierceTile = grid.getTile(nextRow, nextColumn);
-                        if (!pierceTile.isOccupied()) {
-                            pierceTile.setProtectedBy(this);
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow - 1, nextColumn = currentColumn + 1; nextRow >= 0 && nextColumn < LENGTH; --nextRow, ++nextColumn) {
-            Tile tile = grid.getTile(nextRow, nextColumn);
-            tile.setProtectedBy(this);
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (--nextRow >= 0 && ++nextColumn < LENGTH) {
-                        Tile pierceTile = grid.getTile(nextRow, nextColumn);
-                        if (!pierceTile.isOccupied()) {
-                            pierceTile.setProtectedBy(this);
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow + 1, nextColumn = currentColumn - 1; nextRow < LENGTH && nextColumn >= 0; ++nextRow, --nextColumn) {
-            Tile tile = grid.getTile(nextRow, nextColumn);
-            tile.setProtectedBy(this);
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (++nextRow < LENGTH && --nextColumn >= 0) {
-                        Tile pierceTile = grid.getTile(nextRow, nextColumn);
-                        if (!pierceTile.isOccupied()) {
-                            pierceTile.setProtectedBy(this);
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow + 1, nextColumn = currentColumn + 1; nextRow < LENGTH && nextColumn < LENGTH; ++nextRow, ++nextColumn) {
-            Tile tile = grid.getTile(nextRow, nextColumn);
-            tile.setProtectedBy(this);
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (++nextRow < LENGTH && ++nextColumn < LENGTH) {
-                        Tile pierceTile = grid.getTile(nextRow, nextColumn);
-                        if (!pierceTile.isOccupied()) {
-                            pierceTile.setProtectedBy(this);
-                        }
-                    }
-                }
-                break;
-            }
-        }
+        grid.setProtectedBy(getProtections(grid), this);
     }
 
     @Override
     public int getNumberOfProtectedTiles(Grid grid) {
-        int count = 0;
-        final int currentRow = getRow();
-        final int currentColumn = getColumn();
-        for (int nextRow = currentRow - 1, nextColumn = currentColumn - 1; nextRow >= 0 && nextColumn >= 0; --nextRow, --nextColumn) {
-            Tile tile = grid.getTile(nextRow, nextColumn);
-            ++count;
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (--nextRow >= 0 && --nextColumn >= 0) {
-                        if (!grid.getTile(nextRow, nextColumn).isOccupied()) {
-                            ++count;
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow - 1, nextColumn = currentColumn + 1; nextRow >= 0 && nextColumn < LENGTH; --nextRow, ++nextColumn) {
-            Tile tile = grid.getTile(nextRow, nextColumn);
-            ++count;
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (--nextRow >= 0 && ++nextColumn < LENGTH) {
-                        if (!grid.getTile(nextRow, nextColumn).isOccupied()) {
-                            ++count;
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow + 1, nextColumn = currentColumn - 1; nextRow < LENGTH && nextColumn >= 0; ++nextRow, --nextColumn) {
-            Tile tile = grid.getTile(nextRow, nextColumn);
-            ++count;
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (++nextRow < LENGTH && --nextColumn >= 0) {
-                        if (!grid.getTile(nextRow, nextColumn).isOccupied()) {
-                            ++count;
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow + 1, nextColumn = currentColumn + 1; nextRow < LENGTH && nextColumn < LENGTH; ++nextRow, ++nextColumn) {
-            Tile tile = grid.getTile(nextRow, nextColumn);
-            ++count;
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (++nextRow < LENGTH && ++nextColumn < LENGTH) {
-                        if (!grid.getTile(nextRow, nextColumn).isOccupied()) {
-                            ++count;
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        return count;
+        return Long.bitCount(getProtections(grid));
+    }
+
+    //squares protected by this bishop, including the square behind the enemy king
+    @Override
+    long getProtections(Grid grid) {
+        return grid.getBishopProtections(getIndex(), isWhite());
     }
 
     public int getNumberOfTilesTowardsEnemyKing(Grid grid) {
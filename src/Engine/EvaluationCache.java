@@ -0,0 +1,83 @@
+package Engine;
+
+import java.util.Random;
+
+/**
+ * Fixed size hash table of static evaluations, so that a position reached
+ * again is not evaluated again. It is kept apart from the transposition
+ * tables, which store search results and are probed with the depth left,
+ * while every evaluation of the search goes through this cache: stand pat
+ * in the quiescence search, futility pruning and the leaves of the
+ * Alpha-Beta search alike. The slots are those of a {@link SlotTable},
+ * shared by every search thread and always replaced, so the newest
+ * evaluation wins, which suits a search that keeps evaluating the
+ * positions close to the one it is in.
+ *
+ * The key is the Zobrist hash of the pieces mixed with how often each king
+ * has moved, since the evaluation rewards castling and punishes kings that
+ * moved more than once.
+ *
+ * An entry is packed into a single long:
+ * <pre>
+ * bits  0-31 evaluation in white's perspective
+ * bit     32 set in every entry, so an evaluation of 0 is not a miss
+ * </pre>
+ *
+ * @author Will
+ */
+public final class EvaluationCache extends SlotTable {
+
+    private static final long USED = 1L << 32;
+
+    //kings that never moved, moved once and moved more than once
+    private static final int KING_MOVE_STATES = 3;
+
+    private static final long[] WHITE_KING_KEYS = new long[KING_MOVE_STATES];
+    private static final long[] BLACK_KING_KEYS = new long[KING_MOVE_STATES];
+
+    static {
+        //a different seed than the one of Zobrist, so the keys do not cancel
+        final Random random = new Random(0xCAC4E_5EEDL);
+        for (int state = 0; state != KING_MOVE_STATES; ++state) {
+            WHITE_KING_KEYS[state] = random.nextLong();
+            BLACK_KING_KEYS[state] = random.nextLong();
+        }
+    }
+
+    public EvaluationCache() {
+        this(DEFAULT_SLOTS);
+    }
+
+    /**
+     * Constructs a cache with the given number of slots.
+     * @param slots The number of slots, rounded up to a power of two.
+     */
+    public EvaluationCache(int slots) {
+        super(slots);
+    }
+
+    /**
+     * Gets the key of a position.
+     * @param hash The Zobrist hash of the pieces, see {@link Grid#getHash()}.
+     * @param whiteKingMoves The number of times the white king moved.
+     * @param blackKingMoves The number of times the black king moved.
+     * @return The key.
+     */
+    public static long getKey(long hash, int whiteKingMoves, int blackKingMoves) {
+        return hash ^ WHITE_KING_KEYS[Math.min(whiteKingMoves, KING_MOVE_STATES - 1)]
+                ^ BLACK_KING_KEYS[Math.min(blackKingMoves, KING_MOVE_STATES - 1)];
+    }
+
+    /**
+     * Stores the evaluation of a position, replacing whatever was in its slot.
+     * @param key The key of the position, see {@link #getKey(long, int, int)}.
+     * @param evaluation The evaluation in white's perspective.
+     */
+    public void store(long key, int evaluation) {
+        storeEntry(key, (evaluation & 0xFFFFFFFFL) | USED);
+    }
+
+    public static int getEvaluation(long entry) {
+        return (int) entry;
+    }
+}
@@ -2,15 +2,27 @@ package Engine;
 
 import Util.ChessConstants;
 import static Util.ChessConstants.BISHOP_BONUS;
+import static Util.ChessConstants.BISHOP_END_BONUS;
+import static Util.ChessConstants.BISHOP_PHASE;
 import static Util.ChessConstants.BISHOP_VALUE;
 import static Util.ChessConstants.CASTLE_VALUE;
 import static Util.ChessConstants.CHECKED_VALUE;
+import static Util.ChessConstants.DOUBLED_PAWN_END_VALUE;
+import static Util.ChessConstants.DOUBLED_PAWN_VALUE;
+import static Util.ChessConstants.ISOLATED_PAWN_END_VALUE;
+import static Util.ChessConstants.ISOLATED_PAWN_VALUE;
 import static Util.ChessConstants.KING_MOVED_VALUE;
+import static Util.ChessConstants.KNIGHT_PHASE;
 import static Util.ChessConstants.KNIGHT_VALUE;
+import static Util.ChessConstants.MAX_PHASE;
+import static Util.ChessConstants.PASSED_PAWN_END_VALUE;
+import static Util.ChessConstants.PASSED_PAWN_VALUE;
+import static Util.ChessConstants.PAWN_SHIELD_VALUE;
 import static Util.ChessConstants.PAWN_VALUE;
+import static Util.ChessConstants.QUEEN_PHASE;
 import static Util.ChessConstants.QUEEN_VALUE;
+import static Util.ChessConstants.ROOK_PHASE;
 import static Util.ChessConstants.ROOK_VALUE;
-import java.math.BigInteger;
 import java.util.List;
 
 public final class Evaluator {
@@ -134,6 +146,29 @@ public final class Evaluator {
 
     private static final int[] KING_POSITION_END_BLACK = new int[ChessConstants.LINEAR_LENGTH];
 
+    //material plus piece square score of each piece index of Zobrist on each square
+    private static final int[][] PIECE_SQUARE = new int[Zobrist.BLACK_KING + 1][ChessConstants.LINEAR_LENGTH];
+
+    //game phase of each piece index of Zobrist
+    private static final int[] PHASES = {
+        0, KNIGHT_PHASE, BISHOP_PHASE, ROOK_PHASE, QUEEN_PHASE, 0,
+        0, KNIGHT_PHASE, BISHOP_PHASE, ROOK_PHASE, QUEEN_PHASE, 0
+    };
+
+    //the other terms as scores, with their middle game and end game weights
+    private static final int CHECKED = score(-CHECKED_VALUE, -CHECKED_VALUE);
+    private static final int KING_MOVED = score(-KING_MOVED_VALUE, 0);
+    private static final int CASTLED = score(CASTLE_VALUE, 0);
+    private static final int MOBILITY = score(1, 1);
+    private static final int BISHOP_PAIR = score(BISHOP_BONUS, BISHOP_END_BONUS);
+    private static final int PAWN_SHIELD = score(PAWN_SHIELD_VALUE, 0);
+    private static final int DOUBLED_PAWN = score(-DOUBLED_PAWN_VALUE, -DOUBLED_PAWN_END_VALUE);
+    private static final int ISOLATED_PAWN = score(-ISOLATED_PAWN_VALUE, -ISOLATED_PAWN_END_VALUE);
+    private static final int PASSED_PAWN = score(PASSED_PAWN_VALUE, PASSED_PAWN_END_VALUE);
+
+    //recomputes the scores the grid keeps up to date at every evaluation, only for debugging
+    private static final boolean CHECK_INCREMENTAL = false;
+
     static {
         for (int index = 0; index < ChessConstants.LINEAR_LENGTH; ++index) {
             final int mirrorIndex = MIRROR[index];
@@ -145,6 +180,20 @@ public final class Evaluator {
             KING_POSITION_MIDDLE_BLACK[mirrorIndex] = KING_POSITION_MIDDLE_WHITE[index];
             KING_POSITION_END_BLACK[mirrorIndex] = KING_POSITION_END_WHITE[index];
         }
+        for (int index = 0; index < ChessConstants.LINEAR_LENGTH; ++index) {
+            PIECE_SQUARE[Zobrist.WHITE_PAWN][index] = score(PAWN_VALUE + PAWN_POSITION_WHITE[index]);
+            PIECE_SQUARE[Zobrist.WHITE_KNIGHT][index] = score(KNIGHT_VALUE + KNIGHT_POSITION_WHITE[index]);
+            PIECE_SQUARE[Zobrist.WHITE_BISHOP][index] = score(BISHOP_VALUE + BISHOP_POSITION_WHITE[index]);
+            PIECE_SQUARE[Zobrist.WHITE_ROOK][index] = score(ROOK_VALUE + ROOK_POSITION_WHITE[index]);
+            PIECE_SQUARE[Zobrist.WHITE_QUEEN][index] = score(QUEEN_VALUE + QUEEN_POSITION_WHITE[index]);
+            PIECE_SQUARE[Zobrist.WHITE_KING][index] = score(KING_POSITION_MIDDLE_WHITE[index], KING_POSITION_END_WHITE[index]);
+            PIECE_SQUARE[Zobrist.BLACK_PAWN][index] = score(PAWN_VALUE + PAWN_POSITION_BLACK[index]);
+            PIECE_SQUARE[Zobrist.BLACK_KNIGHT][index] = score(KNIGHT_VALUE + KNIGHT_POSITION_BLACK[index]);
+            PIECE_SQUARE[Zobrist.BLACK_BISHOP][index] = score(BISHOP_VALUE + BISHOP_POSITION_BLACK[index]);
+            PIECE_SQUARE[Zobrist.BLACK_ROOK][index] = score(ROOK_VALUE + ROOK_POSITION_BLACK[index]);
+            PIECE_SQUARE[Zobrist.BLACK_QUEEN][index] = score(QUEEN_VALUE + QUEEN_POSITION_BLACK[index]);
+            PIECE_SQUARE[Zobrist.BLACK_KING][index] = score(KING_POSITION_MIDDLE_BLACK[index], KING_POSITION_END_BLACK[index]);
+        }
         mirroredColumnsEqual(toMatrix(PAWN_POSITION_WHITE), toMatrix(PAWN_POSITION_BLACK));
         mirroredColumnsEqual(toMatrix(BISHOP_POSITION_WHITE), toMatrix(BISHOP_POSITION_BLACK));
         mirroredColumnsEqual(toMatrix(KNIGHT_POSITION_WHITE), toMatrix(KNIGHT_POSITION_BLACK));
@@ -154,6 +203,44 @@ public final class Evaluator {
         mirroredColumnsEqual(toMatrix(KING_POSITION_END_WHITE), toMatrix(KING_POSITION_END_BLACK));
     }
 
+    private static final long FILE = 0x0101010101010101L;
+
+    //squares of the files next to each file, where the pawns that protect a pawn can be
+    private static final long[] ADJACENT_FILES = new long[ChessConstants.LENGTH];
+
+    //squares in front of a pawn on its own and the adjacent files, a pawn is
+    //passed if there are no enemy pawns on them
+    private static final long[] WHITE_PASSED = new long[ChessConstants.LINEAR_LENGTH];
+    private static final long[] BLACK_PASSED = new long[ChessConstants.LINEAR_LENGTH];
+
+    //squares of the two rows in front of a king on its own and the adjacent files
+    private static final long[] WHITE_SHIELDS = new long[ChessConstants.LINEAR_LENGTH];
+    private static final long[] BLACK_SHIELDS = new long[ChessConstants.LINEAR_LENGTH];
+
+    static {
+        for (int column = 0; column != ChessConstants.LENGTH; ++column) {
+            if (column != 0) {
+                ADJACENT_FILES[column] |= FILE << (column - 1);
+            }
+            if (column != (ChessConstants.LENGTH - 1)) {
+                ADJACENT_FILES[column] |= FILE << (column + 1);
+            }
+        }
+        for (int index = 0; index != ChessConstants.LINEAR_LENGTH; ++index) {
+            final int row = index >>> 3;
+            final long files = ADJACENT_FILES[index & 7] | (FILE << (index & 7));
+            //white moves towards row 0
+            final long above = (row == 0) ? 0L : (-1L >>> ((ChessConstants.LENGTH - row) << 3));
+            final long below = (row == (ChessConstants.LENGTH - 1)) ? 0L : (-1L << ((row + 1) << 3));
+            WHITE_PASSED[index] = files & above;
+            BLACK_PASSED[index] = files & below;
+            final long twoAbove = (row < 2) ? above : (above & (-1L << ((row - 2) << 3)));
+            final long twoBelow = (row > (ChessConstants.LENGTH - 3)) ? below : (below & (-1L >>> ((ChessConstants.LENGTH - row - 3) << 3)));
+            WHITE_SHIELDS[index] = files & twoAbove;
+            BLACK_SHIELDS[index] = files & twoBelow;
+        }
+    }
+
     private static int[][] toMatrix(int[] nums) {
         int[][] matrix = new int[ChessConstants.LENGTH][ChessConstants.LENGTH];
         int row = 0;
@@ -185,6 +272,33 @@ public final class Evaluator {
         }
     }
 
+    /**
+     * Gets a copy of the piece square table of the given white piece type,
+     * indexed by {@code (row * 8) + column}. Black's table is the same
+     * table with the rows flipped.
+     * @param type The type of the piece, see {@link Piece#getType()}.
+     * @param endGame Whether to get the end game table, which only
+     * differs for the king.
+     * @return The piece square table.
+     */
+    public static int[] getWhitePositionTable(String type, boolean endGame) {
+        switch (type) {
+            case ChessConstants.PAWN:
+                return PAWN_POSITION_WHITE.clone();
+            case ChessConstants.KNIGHT:
+                return KNIGHT_POSITION_WHITE.clone();
+            case ChessConstants.BISHOP:
+                return BISHOP_POSITION_WHITE.clone();
+            case ChessConstants.ROOK:
+                return ROOK_POSITION_WHITE.clone();
+            case ChessConstants.QUEEN:
+                return QUEEN_POSITION_WHITE.clone();
+            case ChessConstants.KING:
+                return endGame ? KING_POSITION_END_WHITE.clone() : KING_POSITION_MIDDLE_WHITE.clone();
+        }
+        throw new IllegalArgumentException("Invalid piece type: " + type);
+    }
+
     //used for testing purposes
     //to count perft in in alphabeta vs minmax evaluations
     private static int POSITIONS_EVALUATED_IN_WHITE_PERSEPECTIVE;
@@ -206,501 +320,184 @@ public final class Evaluator {
         return POSITIONS_EVALUATED_IN_BLACK_PERSEPECTIVE;
     }
     
-    static BigInteger MAP_OPERATIONS_WHITE = BigInteger.ZERO;
-    static BigInteger MAP_OPERATIONS_BLACK = BigInteger.ZERO;
-    
-    static final int evaluateInWhitePerspective(final Grid grid, final List<Piece> whites, final List<Piece> blacks) {
-        //++POSITIONS_EVALUATED_IN_WHITE_PERSEPECTIVE;
-        AI.DIALOG.increasePositionsScanned();
-       
-        if (AI.WHITE_STORE.containsEntry(grid)) {
-            MAP_OPERATIONS_WHITE = MAP_OPERATIONS_WHITE.add(BigInteger.ONE);
-            return AI.WHITE_STORE.getValue(grid);
-        }
-
-        final int numberOfWhitePieces = whites.size();
-        final int numberOfBlackPieces = blacks.size();
+    /**
+     * Packs a middle game and an end game value into one score, so that
+     * both are added and subtracted at once. Scores of up to 32767 in
+     * either half are exact, which is far more than all the pieces are
+     * worth.
+     * @param middle The middle game value, in the low 16 bits.
+     * @param end The end game value, in the high 16 bits.
+     * @return The score.
+     */
+    static int score(final int middle, final int end) {
+        return (end << 16) + middle;
+    }
 
-        int whiteScore = 0;
-        int whiteKnights = 0;
-        int whiteBishops = 0;
-        int whiteRooks = 0;
-        int whiteQueens = 0;
-        int whiteKingLocation;
+    //a score worth the same in the middle game and the end game
+    private static int score(final int value) {
+        return score(value, value);
+    }
 
-        int blackScore = 0;
-        int blackKnights = 0;
-        int blackBishops = 0;
-        int blackRooks = 0;
-        int blackQueens = 0;
-        int blackKingLocation;
-
-        {
-            {
-                Piece whiteKing = whites.get(0);
-                int moveCount = whiteKing.getMoveCount();
-                if (grid.getTile(whiteKingLocation = ((whiteKing.getRow() * ChessConstants.LENGTH) + whiteKing.getColumn())).protectedByBlack()) {
-                    whiteScore -= CHECKED_VALUE;
-                    if (moveCount > 1) {
-                        whiteScore -= KING_MOVED_VALUE;
-                    }
-                }
-                else if (moveCount > 1) {
-                    whiteScore -= KING_MOVED_VALUE;
-                }
-                else if (moveCount == 1) {
-                    switch (whiteKing.getColumn()) {
-                        case ChessConstants.LEFT_KING_CASTLE_COLUMN: {
-                            whiteScore += CASTLE_VALUE;
-                            break;
-                        }
-                        case ChessConstants.RIGHT_KING_CASTLE_COLUMN: {
-                            whiteScore += CASTLE_VALUE;
-                        }
-                    }
-                }
-            }
+    static int getMiddle(final int score) {
+        return (short) score;
+    }
 
-            int index = 1;
+    static int getEnd(final int score) {
+        //rounds up when the middle game half was negative and borrowed from it
+        return (score + 0x8000) >> 16;
+    }
 
-            while (index < numberOfWhitePieces) {
-                Piece piece = whites.get(index);
-                if (piece.isQueen()) {
-                    whiteScore += piece.getNumberOfProtectedTiles(grid);
-                    whiteScore += QUEEN_VALUE;
-                    whiteScore += QUEEN_POSITION_WHITE[(piece.getRow() * ChessConstants.LENGTH) + piece.getColumn()];
-                    ++whiteQueens;
-                    ++index;
-                }
-                else {
-                    break;
-                }
-            }
+    /**
+     * Gets the material plus piece square score of a piece, which the
+     * {@link Grid} adds up as pieces are placed and removed.
+     * @param piece The piece index, from {@link Zobrist#WHITE_PAWN}
+     * to {@link Zobrist#BLACK_KING}.
+     * @param index The square index.
+     * @return The score, see {@link #score(int, int)}.
+     */
+    static int getPieceSquareScore(final int piece, final int index) {
+        return PIECE_SQUARE[piece][index];
+    }
 
-            while (index < numberOfWhitePieces) {
-                Piece piece = whites.get(index);
-                if (piece.isRook()) {
-                    whiteScore += piece.getNumberOfProtectedTiles(grid);
-                    whiteScore += ROOK_VALUE;
-                    whiteScore += ROOK_POSITION_WHITE[(piece.getRow() * ChessConstants.LENGTH) + piece.getColumn()];
-                    ++whiteRooks;
-                    ++index;
-                }
-                else {
-                    break;
-                }
-            }
+    /**
+     * Gets the game phase of a piece, which the {@link Grid} adds up as
+     * pieces are placed and removed. The phase of the board is
+     * {@link ChessConstants#MAX_PHASE} when every piece other than the
+     * pawns is on the board and 0 when only the kings and pawns are left.
+     * @param piece The piece index, from {@link Zobrist#WHITE_PAWN}
+     * to {@link Zobrist#BLACK_KING}.
+     * @return The phase, 0 for the pawns and kings.
+     */
+    static int getPhase(final int piece) {
+        return PHASES[piece];
+    }
 
-            while (index < numberOfWhitePieces) {
-                Piece piece = whites.get(index);
-                if (piece.isBishop()) {
-                    whiteScore += piece.getNumberOfProtectedTiles(grid);
-                    whiteScore += BISHOP_VALUE;
-                    whiteScore += BISHOP_POSITION_WHITE[(piece.getRow() * ChessConstants.LENGTH) + piece.getColumn()];
-                    ++whiteBishops;
-                    ++index;
-                }
-                else {
-                    break;
-                }
-            }
+    static final int evaluateInWhitePerspective(final Grid grid, final List<Piece> whites, final List<Piece> blacks) {
+        //++POSITIONS_EVALUATED_IN_WHITE_PERSEPECTIVE;
+        AI.DIALOG.increasePositionsScanned();
+        return evaluate(grid, whites, blacks);
+    }
 
-            while (index < numberOfWhitePieces) {
-                Piece piece = whites.get(index);
-                if (piece.isKnight()) {
-                    whiteScore += piece.getNumberOfProtectedTiles(grid);
-                    whiteScore += KNIGHT_VALUE;
-                    whiteScore += KNIGHT_POSITION_WHITE[(piece.getRow() * ChessConstants.LENGTH) + piece.getColumn()];
-                    ++whiteKnights;
-                    ++index;
-                }
-                else {
-                    break;
-                }
-            }
+    static final int evaluateInBlackPerspective(final Grid grid, final List<Piece> whites, final List<Piece> blacks) {
+        //++POSITIONS_EVALUATED_IN_BLACK_PERSEPECTIVE;
+        AI.DIALOG.increasePositionsScanned();
+        return -evaluate(grid, whites, blacks);
+    }
 
-            while (index < numberOfWhitePieces) {
-                Piece piece = whites.get(index);
-                if (piece.isPawn()) {
-                    whiteScore += piece.getNumberOfProtectedTiles(grid);
-                    whiteScore += PAWN_VALUE;
-                    whiteScore += PAWN_POSITION_WHITE[(piece.getRow() * ChessConstants.LENGTH) + piece.getColumn()];
-                    ++index;
-                }
-                else {
-                    break;
-                }
-            }
+    //score in white's perspective, the order of the pieces does not matter
+    private static int evaluate(final Grid grid, final List<Piece> whites, final List<Piece> blacks) {
+        if (CHECK_INCREMENTAL) {
+            checkIncrementalScores(grid);
         }
-        
-        {
-            {
-                Piece blackKing = blacks.get(0);
-                int moveCount = blackKing.getMoveCount();
-                if (grid.getTile(blackKingLocation = ((blackKing.getRow() * ChessConstants.LENGTH) + blackKing.getColumn())).protectedByWhite()) {
-                    blackScore -= CHECKED_VALUE;
-                    if (moveCount > 1) {
-                        blackScore -= KING_MOVED_VALUE;
-                    }
-                }
-                else if (moveCount > 1) {
-                    blackScore -= KING_MOVED_VALUE;
-                }
-                else if (moveCount == 1) {
-                    switch (blackKing.getColumn()) {
-                        case ChessConstants.LEFT_KING_CASTLE_COLUMN: {
-                            blackScore += CASTLE_VALUE;
-                            break;
-                        }
-                        case ChessConstants.RIGHT_KING_CASTLE_COLUMN: {
-                            blackScore += CASTLE_VALUE;
-                        }
-                    }
-                }
-            }
 
-            int index = 1;
+        final long whiteOccupied = grid.getWhiteOccupied();
+        final int whiteKingLocation = Long.numberOfTrailingZeros(grid.getKings() & whiteOccupied);
+        final int blackKingLocation = Long.numberOfTrailingZeros(grid.getKings() & ~whiteOccupied);
+        final Piece whiteKing = grid.getTile(whiteKingLocation).getOccupant();
+        final Piece blackKing = grid.getTile(blackKingLocation).getOccupant();
+
+        //the same position is evaluated again by stand pat, futility pruning and transpositions
+        final long key = EvaluationCache.getKey(grid.getHash(), whiteKing.getMoveCount(), blackKing.getMoveCount());
+        final long entry = AI.EVALUATION_CACHE.probe(key);
+        if (entry != EvaluationCache.MISS) {
+            return EvaluationCache.getEvaluation(entry);
+        }
 
-            while (index < numberOfBlackPieces) {
-                Piece piece = blacks.get(index);
-                if (piece.isQueen()) {
-                    blackScore += piece.getNumberOfProtectedTiles(grid);
-                    blackScore += QUEEN_VALUE;
-                    blackScore += QUEEN_POSITION_BLACK[(piece.getRow() * ChessConstants.LENGTH) + piece.getColumn()];
-                    ++blackQueens;
-                    ++index;
-                }
-                else {
-                    break;
-                }
+        //material and piece square scores, kept up to date by the grid
+        int score = grid.getWhiteScore() - grid.getBlackScore();
+        score += getKingScore(whiteKing, grid.isProtectedByBlack(whiteKingLocation));
+        score -= getKingScore(blackKing, grid.isProtectedByWhite(blackKingLocation));
+
+        //mobility, the protected tiles of the pawns are in the pawn table
+        int mobility = 0;
+        for (int index = 0, size = whites.size(); index != size; ++index) {
+            final Piece piece = whites.get(index);
+            if (!piece.isPawn() && !piece.isKing()) {
+                mobility += piece.getNumberOfProtectedTiles(grid);
             }
-
-            while (index < numberOfBlackPieces) {
-                Piece piece = blacks.get(index);
-                if (piece.isRook()) {
-                    blackScore += piece.getNumberOfProtectedTiles(grid);
-                    blackScore += ROOK_VALUE;
-                    blackScore += ROOK_POSITION_BLACK[(piece.getRow() * ChessConstants.LENGTH) + piece.getColumn()];
-                    ++blackRooks;
-                    ++index;
-                }
-                else {
-                    break;
-                }
+        }
+        for (int index = 0, size = blacks.size(); index != size; ++index) {
+            final Piece piece = blacks.get(index);
+            if (!piece.isPawn() && !piece.isKing()) {
+                mobility -= piece.getNumberOfProtectedTiles(grid);
             }
+        }
+        score += mobility * MOBILITY;
 
-            while (index < numberOfBlackPieces) {
-                Piece piece = blacks.get(index);
-                if (piece.isBishop()) {
-                    blackScore += piece.getNumberOfProtectedTiles(grid);
-                    blackScore += BISHOP_VALUE;
-                    blackScore += BISHOP_POSITION_BLACK[(piece.getRow() * ChessConstants.LENGTH) + piece.getColumn()];
-                    ++blackBishops;
-                    ++index;
-                }
-                else {
-                    break;
-                }
-            }
+        //the pawns are scored from the pawn table, they are the same in most positions
+        final long pawnEntry = getPawnEntry(grid);
+        score += PawnTable.getWhiteScore(pawnEntry) - PawnTable.getBlackScore(pawnEntry);
 
-            while (index < numberOfBlackPieces) {
-                Piece piece = blacks.get(index);
-                if (piece.isKnight()) {
-                    blackScore += piece.getNumberOfProtectedTiles(grid);
-                    blackScore += KNIGHT_VALUE;
-                    blackScore += KNIGHT_POSITION_BLACK[(piece.getRow() * ChessConstants.LENGTH) + piece.getColumn()];
-                    ++blackKnights;
-                    ++index;
-                }
-                else {
-                    break;
-                }
-            }
+        //the shield depends on where the king is, so it is not in the pawn table
+        final long pawns = grid.getPawns();
+        final long whitePawns = pawns & whiteOccupied;
+        score += (Long.bitCount(WHITE_SHIELDS[whiteKingLocation] & whitePawns)
+                - Long.bitCount(BLACK_SHIELDS[blackKingLocation] & (pawns ^ whitePawns))) * PAWN_SHIELD;
 
-            while (index < numberOfBlackPieces) {
-                Piece piece = blacks.get(index);
-                if (piece.isPawn()) {
-                    blackScore += piece.getNumberOfProtectedTiles(grid);
-                    blackScore += PAWN_VALUE;
-                    blackScore += PAWN_POSITION_BLACK[(piece.getRow() * ChessConstants.LENGTH) + piece.getColumn()];
-                    ++index;
-                }
-                else {
-                    break;
-                }
-            }
+        if (grid.getCount(Zobrist.WHITE_BISHOP) >= 2) {
+            score += BISHOP_PAIR;
         }
+        if (grid.getCount(Zobrist.BLACK_BISHOP) >= 2) {
+            score -= BISHOP_PAIR;
+        }
+
+        //blend by how much of the pieces other than pawns are left, promotions may exceed the maximum
+        final int phase = Math.min(grid.getPhase(), MAX_PHASE);
+        final int evaluation = ((getMiddle(score) * phase) + (getEnd(score) * (MAX_PHASE - phase))) / MAX_PHASE;
+        AI.EVALUATION_CACHE.store(key, evaluation);
+        return evaluation;
+    }
 
-        if (((blackQueens == 0 && blackRooks <= 1)
-                || ((blackQueens == 1 && blackKnights == 1 && blackBishops == 0 && blackRooks == 0) || (blackQueens == 1 && blackKnights == 0
-                && blackBishops == 1 && blackRooks == 0))) && ((whiteQueens == 0 && whiteRooks <= 1)
-                || ((whiteQueens == 1 && whiteKnights == 1 && whiteBishops == 0 && whiteRooks == 0) || (whiteQueens == 1 && whiteKnights == 0
-                && whiteBishops == 1 && whiteRooks == 0)))) {
-            blackScore += KING_POSITION_END_BLACK[blackKingLocation];
-            whiteScore += KING_POSITION_END_WHITE[whiteKingLocation];
+    //being in check, having moved and having castled
+    private static int getKingScore(final Piece king, final boolean checked) {
+        int score = checked ? CHECKED : 0;
+        final int moveCount = king.getMoveCount();
+        if (moveCount > 1) {
+            score += KING_MOVED;
         }
-        else {
-            blackScore += KING_POSITION_MIDDLE_BLACK[blackKingLocation];
-            whiteScore += KING_POSITION_MIDDLE_WHITE[whiteKingLocation];
-            if (blackBishops >= 2) {
-                blackScore += BISHOP_BONUS;
-            }
-            if (whiteBishops >= 2) {
-                whiteScore += BISHOP_BONUS;
+        else if (moveCount == 1 && !checked) {
+            switch (king.getColumn()) {
+                case ChessConstants.LEFT_KING_CASTLE_COLUMN:
+                case ChessConstants.RIGHT_KING_CASTLE_COLUMN: {
+                    score += CASTLED;
+                }
             }
         }
-        int score = whiteScore - blackScore;
-        //AI.WHITE_STORE.putEntry(grid, score);
         return score;
     }
 
-    static final int evaluateInBlackPerspective(final Grid grid, final List<Piece> whites, final List<Piece> blacks) {
-        //++POSITIONS_EVALUATED_IN_BLACK_PERSEPECTIVE;
-        AI.DIALOG.increasePositionsScanned();
-        
-        if (AI.BLACK_STORE.containsEntry(grid)) {
-            MAP_OPERATIONS_BLACK = MAP_OPERATIONS_BLACK.add(BigInteger.ONE);
-            return AI.BLACK_STORE.getValue(grid);
-        }
-
-        final int numberOfWhitePieces = whites.size();
-        final int numberOfBlackPieces = blacks.size();
-
+    //recomputes the scores, counts and phase of the grid from its tiles
+    private static void checkIncrementalScores(final Grid grid) {
         int whiteScore = 0;
-        int whiteKnights = 0;
-        int whiteBishops = 0;
-        int whiteRooks = 0;
-        int whiteQueens = 0;
-        int whiteKingLocation;
-
         int blackScore = 0;
-        int blackKnights = 0;
-        int blackBishops = 0;
-        int blackRooks = 0;
-        int blackQueens = 0;
-        int blackKingLocation;
-
-        {
-            {
-                Piece whiteKing = whites.get(0);
-                int moveCount = whiteKing.getMoveCount();
-                if (grid.getTile(whiteKingLocation = ((whiteKing.getRow() * ChessConstants.LENGTH) + whiteKing.getColumn())).protectedByBlack()) {
-                    whiteScore -= CHECKED_VALUE;
-                    if (moveCount > 1) {
-                        whiteScore -= KING_MOVED_VALUE;
-                    }
-                }
-                else if (moveCount > 1) {
-                    whiteScore -= KING_MOVED_VALUE;
-                }
-                else if (moveCount == 1) {
-                    switch (whiteKing.getColumn()) {
-                        case ChessConstants.LEFT_KING_CASTLE_COLUMN: {
-                            whiteScore += CASTLE_VALUE;
-                            break;
-                        }
-                        case ChessConstants.RIGHT_KING_CASTLE_COLUMN: {
-                            whiteScore += CASTLE_VALUE;
-                        }
-                    }
-                }
-            }
-
-            int index = 1;
-
-            while (index < numberOfWhitePieces) {
-                Piece piece = whites.get(index);
-                if (piece.isQueen()) {
-                    whiteScore += piece.getNumberOfProtectedTiles(grid);
-                    whiteScore += QUEEN_VALUE;
-                    whiteScore += QUEEN_POSITION_WHITE[(piece.getRow() * ChessConstants.LENGTH) + piece.getColumn()];
-                    ++whiteQueens;
-                    ++index;
-                }
-                else {
-                    break;
-                }
+        int phase = 0;
+        final int[] counts = new int[Zobrist.BLACK_KING + 1];
+        for (long occupied = grid.getOccupied(); occupied != 0; occupied &= occupied - 1) {
+            final int index = Long.numberOfTrailingZeros(occupied);
+            final int piece = Zobrist.getPieceIndex(grid.getTile(index).getOccupant());
+            ++counts[piece];
+            phase += PHASES[piece];
+            if (piece < Zobrist.BLACK_PAWN) {
+                whiteScore += PIECE_SQUARE[piece][index];
             }
-
-            while (index < numberOfWhitePieces) {
-                Piece piece = whites.get(index);
-                if (piece.isRook()) {
-                    whiteScore += piece.getNumberOfProtectedTiles(grid);
-                    whiteScore += ROOK_VALUE;
-                    whiteScore += ROOK_POSITION_WHITE[(piece.getRow() * ChessConstants.LENGTH) + piece.getColumn()];
-                    ++whiteRooks;
-                    ++index;
-                }
-                else {
-                    break;
-                }
-            }
-
-            while (index < numberOfWhitePieces) {
-                Piece piece = whites.get(index);
-                if (piece.isBishop()) {
-                    whiteScore += piece.getNumberOfProtectedTiles(grid);
-                    whiteScore += BISHOP_VALUE;
-                    whiteScore += BISHOP_POSITION_WHITE[(piece.getRow() * ChessConstants.LENGTH) + piece.getColumn()];
-                    ++whiteBishops;
-                    ++index;
-                }
-                else {
-                    break;
-                }
-            }
-
-            while (index < numberOfWhitePieces) {
-                Piece piece = whites.get(index);
-                if (piece.isKnight()) {
-                    whiteScore += piece.getNumberOfProtectedTiles(grid);
-                    whiteScore += KNIGHT_VALUE;
-                    whiteScore += KNIGHT_POSITION_WHITE[(piece.getRow() * ChessConstants.LENGTH) + piece.getColumn()];
-                    ++whiteKnights;
-                    ++index;
-                }
-                else {
-                    break;
-                }
-            }
-
-            while (index < numberOfWhitePieces) {
-                Piece piece = whites.get(index);
-                if (piece.isPawn()) {
-                    whiteScore += piece.getNumberOfProtectedTiles(grid);
-                    whiteScore += PAWN_VALUE;
-                    whiteScore += PAWN_POSITION_WHITE[(piece.getRow() * ChessConstants.LENGTH) + piece.getColumn()];
-                    ++index;
-                }
-                else {
-                    break;
-                }
+            else {
+                blackScore += PIECE_SQUARE[piece][index];
             }
         }
-        
-        {
-            {
-                Piece blackKing = blacks.get(0);
-                int moveCount = blackKing.getMoveCount();
-                if (grid.getTile(blackKingLocation = ((blackKing.getRow() * ChessConstants.LENGTH) + blackKing.getColumn())).protectedByWhite()) {
-                    blackScore -= CHECKED_VALUE;
-                    if (moveCount > 1) {
-                        blackScore -= KING_MOVED_VALUE;
-                    }
-                }
-                else if (moveCount > 1) {
-                    blackScore -= KING_MOVED_VALUE;
-                }
-                else if (moveCount == 1) {
-                    switch (blackKing.getColumn()) {
-                        case ChessConstants.LEFT_KING_CASTLE_COLUMN: {
-                            blackScore += CASTLE_VALUE;
-                            break;
-                        }
-                        case ChessConstants.RIGHT_KING_CASTLE_COLUMN: {
-                            blackScore += CASTLE_VALUE;
-                        }
-                    }
-                }
-            }
-
-            int index = 1;
-
-            while (index < numberOfBlackPieces) {
-                Piece piece = blacks.get(index);
-                if (piece.isQueen()) {
-                    blackScore += piece.getNumberOfProtectedTiles(grid);
-                    blackScore += QUEEN_VALUE;
-                    blackScore += QUEEN_POSITION_BLACK[(piece.getRow() * ChessConstants.LENGTH) + piece.getColumn()];
-                    ++blackQueens;
-                    ++index;
-                }
-                else {
-                    break;
-                }
-            }
-
-            while (index < numberOfBlackPieces) {
-                Piece piece = blacks.get(index);
-                if (piece.isRook()) {
-                    blackScore += piece.getNumberOfProtectedTiles(grid);
-                    blackScore += ROOK_VALUE;
-                    blackScore += ROOK_POSITION_BLACK[(piece.getRow() * ChessConstants.LENGTH) + piece.getColumn()];
-                    ++blackRooks;
-                    ++index;
-                }
-                else {
-                    break;
-                }
-            }
-
-            while (index < numberOfBlackPieces) {
-                Piece piece = blacks.get(index);
-                if (piece.isBishop()) {
-                    blackScore += piece.getNumberOfProtectedTiles(grid);
-                    blackScore += BISHOP_VALUE;
-                    blackScore += BISHOP_POSITION_BLACK[(piece.getRow() * ChessConstants.LENGTH) + piece.getColumn()];
-                    ++blackBishops;
-                    ++index;
-                }
-                else {
-                    break;
-                }
-            }
-
-            while (index < numberOfBlackPieces) {
-                Piece piece = blacks.get(index);
-                if (piece.isKnight()) {
-                    blackScore += piece.getNumberOfProtectedTiles(grid);
-                    blackScore += KNIGHT_VALUE;
-                    blackScore += KNIGHT_POSITION_BLACK[(piece.getRow() * ChessConstants.LENGTH) + piece.getColumn()];
-                    ++blackKnights;
-                    ++index;
-                }
-                else {
-                    break;
-                }
-            }
-
-            while (index < numberOfBlackPieces) {
-                Piece piece = blacks.get(index);
-                if (piece.isPawn()) {
-                    blackScore += piece.getNumberOfProtectedTiles(grid);
-                    blackScore += PAWN_VALUE;
-                    blackScore += PAWN_POSITION_BLACK[(piece.getRow() * ChessConstants.LENGTH) + piece.getColumn()];
-                    ++index;
-                }
-                else {
-                    break;
-                }
-            }
+        if (whiteScore != grid.getWhiteScore() || blackScore != grid.getBlackScore()) {
+            throw new InternalError("Incremental scores " + grid.getWhiteScore() + " " + grid.getBlackScore()
+                    + " differ from " + whiteScore + " " + blackScore);
         }
-
-        if (((blackQueens == 0 && blackRooks <= 1)
-                || ((blackQueens == 1 && blackKnights == 1 && blackBishops == 0 && blackRooks == 0) || (blackQueens == 1 && blackKnights == 0
-                && blackBishops == 1 && blackRooks == 0))) && ((whiteQueens == 0 && whiteRooks <= 1)
-                || ((whiteQueens == 1 && whiteKnights == 1 && whiteBishops == 0 && whiteRooks == 0) || (whiteQueens == 1 && whiteKnights == 0
-                && whiteBishops == 1 && whiteRooks == 0)))) {
-            blackScore += KING_POSITION_END_BLACK[blackKingLocation];
-            whiteScore += KING_POSITION_END_WHITE[whiteKingLocation];
+        if (phase != grid.getPhase()) {
+            throw new InternalError("Incremental phase " + grid.getPhase() + " differs from " + phase);
         }
-        else {
-            blackScore += KING_POSITION_MIDDLE_BLACK[blackKingLocation];
-            whiteScore += KING_POSITION_MIDDLE_WHITE[whiteKingLocation];
-            if (blackBishops >= 2) {
-                blackScore += BISHOP_BONUS;
-            }
-            if (whiteBishops >= 2) {
-                whiteScore += BISHOP_BONUS;
+        for (int piece = 0; piece != counts.length; ++piece) {
+            if (counts[piece] != grid.getCount(piece)) {
+                throw new InternalError("Incremental count of piece " + piece + " " + grid.getCount(piece) + " differs from " + counts[piece]);
             }
         }
-
-        int score = blackScore - whiteScore;
-        //AI.BLACK_STORE.putEntry(grid, score); //we can put a clone, but don't strictly check equals method, that will never work due to move counts
-        //could exclude movecounts in piece checking
-        return score;
     }
-    
+
     private static int getBlackScore(Grid grid, List<Piece> white, List<Piece> black) {
         return 0;
     }
@@ -708,4 +505,54 @@ public final class Evaluator {
     private static int getWhiteScore(Grid grid, List<Piece> white, List<Piece> black) {
         return 0;
     }
+
+    /**
+     * Gets the scores of the pawns of the given grid from the pawn table,
+     * scoring and storing them if their structure is not in the table yet.
+     * @param grid The chess board.
+     * @return The packed entry, see {@link PawnTable}.
+     */
+    static long getPawnEntry(final Grid grid) {
+        final long pawns = grid.getPawns();
+        if (pawns == 0) {
+            return PawnTable.NO_PAWNS;
+        }
+        final long pawnHash = grid.getPawnHash();
+        final long entry = AI.PAWN_TABLE.probe(pawnHash);
+        if (entry != PawnTable.MISS) {
+            return entry;
+        }
+        final long whitePawns = pawns & grid.getWhiteOccupied();
+        final long blackPawns = pawns ^ whitePawns;
+        return AI.PAWN_TABLE.store(pawnHash, getPawnScore(whitePawns, blackPawns, true), getPawnScore(blackPawns, whitePawns, false));
+    }
+
+    //protected tiles of every pawn of one side and its structure as a score, the grid keeps their material and position
+    private static int getPawnScore(final long own, final long enemy, final boolean white) {
+        final long[] passed = white ? WHITE_PASSED : BLACK_PASSED;
+        int score = 0;
+        for (long pawns = own; pawns != 0; pawns &= pawns - 1) {
+            final int index = Long.numberOfTrailingZeros(pawns);
+            final int row = index >>> 3;
+            final int column = index & 7;
+            //protected tiles, pawns protect diagonally forward
+            if (white ? (row != 0) : (row != (ChessConstants.LENGTH - 1))) {
+                score += ((column == 0 || column == (ChessConstants.LENGTH - 1)) ? 1 : 2) * MOBILITY;
+            }
+            if ((own & ADJACENT_FILES[column]) == 0) {
+                score += ISOLATED_PAWN;
+            }
+            if ((enemy & passed[index]) == 0) {
+                //more the further it has advanced
+                score += PASSED_PAWN * (white ? (ChessConstants.LENGTH - 1 - row) : row);
+            }
+        }
+        for (int column = 0; column != ChessConstants.LENGTH; ++column) {
+            final int count = Long.bitCount(own & (FILE << column));
+            if (count > 1) {
+                score += DOUBLED_PAWN * (count - 1);
+            }
+        }
+        return score;
+    }
 }
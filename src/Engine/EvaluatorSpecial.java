@@ -366,10 +366,6 @@ public class EvaluatorSpecial {
         //++POSITIONS_EVALUATED_IN_BLACK_PERSEPECTIVE;
         AI.DIALOG.increasePositionsScanned();
         
-        if (AI.BLACK_STORE.containsEntry(board.grid)) {
-            return AI.BLACK_STORE.getValue(board.grid);
-        }
-        
         final King whiteKing = board.whiteKing;
         final King blackKing = board.blackKing;
 
@@ -521,7 +517,6 @@ public class EvaluatorSpecial {
             }
         }
 
-        //AI.BLACK_STORE.putEntry(board.grid, blackScore - whiteScore);
         return blackScore - whiteScore;
     }
 }
\ No newline at end of file
@@ -12,6 +12,43 @@ import java.util.List;
 public final class Grid {
 
     private final Tile[] tiles = new Tile[ChessConstants.LINEAR_LENGTH];
+    
+    //zobrist hash of the pieces on this grid, kept up to date by the tiles
+    private long hash;
+
+    //zobrist hash of the pawns alone, the key of the pawn table
+    private long pawnHash;
+
+    //occupied squares, bit i being tiles[i], also kept up to date by the tiles
+    private long occupied;
+    private long whites;
+    private long kings;
+    private long sliders;
+    private long pawns;
+
+    //material and piece square scores of each side, the game phase,
+    //and the number of pieces of each piece index of Zobrist
+    private int whiteScore;
+    private int blackScore;
+    private int phase;
+    private final int[] counts = new int[Zobrist.BLACK_KING + 1];
+
+    //squares protected by each side
+    private long whiteProtections;
+    private long blackProtections;
+
+    //squares protected by the piece on each square, as of the last update
+    private final long[] protections = new long[ChessConstants.LINEAR_LENGTH];
+
+    //squares whose occupant changed since the protections were last updated
+    private long changed;
+
+    //undo stack of updateProtections, see undoProtections
+    //allocated by the first update, copies of grids are not searched
+    private long[] undoStack;
+    private int undoSize;
+
+    private static final int INITIAL_UNDO_CAPACITY = 256;
 
     public Grid() {
         for (int index = 0, row = 0, column = 0; index < ChessConstants.LINEAR_LENGTH; ++index) {
@@ -19,75 +56,90 @@ public final class Grid {
                 ++row;
                 column = 0;
             }
-            tiles[index] = new Tile(row, column++);
+            tiles[index] = new Tile(this, row, column++);
         }
     }
 
     public Grid(Grid grid) {
-        tiles[0] = new Tile(grid.tiles[0]);
-        tiles[1] = new Tile(grid.tiles[1]);
-        tiles[2] = new Tile(grid.tiles[2]);
-        tiles[3] = new Tile(grid.tiles[3]);
-        tiles[4] = new Tile(grid.tiles[4]);
-        tiles[5] = new Tile(grid.tiles[5]);
-        tiles[6] = new Tile(grid.tiles[6]);
-        tiles[7] = new Tile(grid.tiles[7]);
-        tiles[8] = new Tile(grid.tiles[8]);
-        tiles[9] = new Tile(grid.tiles[9]);
-        tiles[10] = new Tile(grid.tiles[10]);
-        tiles[11] = new Tile(grid.tiles[11]);
-        tiles[12] = new Tile(grid.tiles[12]);
-        tiles[13] = new Tile(grid.tiles[13]);
-        tiles[14] = new Tile(grid.tiles[14]);
-        tiles[15] = new Tile(grid.tiles[15]);
-        tiles[16] = new Tile(grid.tiles[16]);
-        tiles[17] = new Tile(grid.tiles[17]);
-        tiles[18] = new Tile(grid.tiles[18]);
-        tiles[19] = new Tile(grid.tiles[19]);
-        tiles[20] = new Tile(grid.tiles[20]);
-        tiles[21] = new Tile(grid.tiles[21]);
-        tiles[22] = new Tile(grid.tiles[22]);
-        tiles[23] = new Tile(grid.tiles[23]);
-        tiles[24] = new Tile(grid.tiles[24]);
-        tiles[25] = new Tile(grid.tiles[25]);
-        tiles[26] = new Tile(grid.tiles[26]);
-        tiles[27] = new Tile(grid.tiles[27]);
-        tiles[28] = new Tile(grid.tiles[28]);
-        tiles[29] = new Tile(grid.tiles[29]);
-        tiles[30] = new Tile(grid.tiles[30]);
-        tiles[31] = new Tile(grid.tiles[31]);
-        tiles[32] = new Tile(grid.tiles[32]);
-        tiles[33] = new Tile(grid.tiles[33]);
-        tiles[34] = new Tile(grid.tiles[34]);
-        tiles[35] = new Tile(grid.tiles[35]);
-        tiles[36] = new Tile(grid.tiles[36]);
-        tiles[37] = new Tile(grid.tiles[37]);
-        tiles[38] = new Tile(grid.tiles[38]);
-        tiles[39] = new Tile(grid.tiles[39]);
-        tiles[40] = new Tile(grid.tiles[40]);
-        tiles[41] = new Tile(grid.tiles[41]);
-        tiles[42] = new Tile(grid.tiles[42]);
-        tiles[43] = new Tile(grid.tiles[43]);
-        tiles[44] = new Tile(grid.tiles[44]);
-        tiles[45] = new Tile(grid.tiles[45]);
-        tiles[46] = new Tile(grid.tiles[46]);
-        tiles[47] = new Tile(grid.tiles[47]);
-        tiles[48] = new Tile(grid.tiles[48]);
-        tiles[49] = new Tile(grid.tiles[49]);
-        tiles[50] = new Tile(grid.tiles[50]);
-        tiles[51] = new Tile(grid.tiles[51]);
-        tiles[52] = new Tile(grid.tiles[52]);
-        tiles[53] = new Tile(grid.tiles[53]);
-        tiles[54] = new Tile(grid.tiles[54]);
-        tiles[55] = new Tile(grid.tiles[55]);
-        tiles[56] = new Tile(grid.tiles[56]);
-        tiles[57] = new Tile(grid.tiles[57]);
-        tiles[58] = new Tile(grid.tiles[58]);
-        tiles[59] = new Tile(grid.tiles[59]);
-        tiles[60] = new Tile(grid.tiles[60]);
-        tiles[61] = new Tile(grid.tiles[61]);
-        tiles[62] = new Tile(grid.tiles[62]);
-        tiles[63] = new Tile(grid.tiles[63]);
+        tiles[0] = new Tile(this, grid.tiles[0]);
+        tiles[1] = new Tile(this, grid.tiles[1]);
+        tiles[2] = new Tile(this, grid.tiles[2]);
+        tiles[3] = new Tile(this, grid.tiles[3]);
+        tiles[4] = new Tile(this, grid.tiles[4]);
+        tiles[5] = new Tile(this, grid.tiles[5]);
+        tiles[6] = new Tile(this, grid.tiles[6]);
+        tiles[7] = new Tile(this, grid.tiles[7]);
+        tiles[8] = new Tile(this, grid.tiles[8]);
+        tiles[9] = new Tile(this, grid.tiles[9]);
+        tiles[10] = new Tile(this, grid.tiles[10]);
+        tiles[11] = new Tile(this, grid.tiles[11]);
+        tiles[12] = new Tile(this, grid.tiles[12]);
+        tiles[13] = new Tile(this, grid.tiles[13]);
+        tiles[14] = new Tile(this, grid.tiles[14]);
+        tiles[15] = new Tile(this, grid.tiles[15]);
+        tiles[16] = new Tile(this, grid.tiles[16]);
+        tiles[17] = new Tile(this, grid.tiles[17]);
+        tiles[18] = new Tile(this, grid.tiles[18]);
+        tiles[19] = new Tile(this, grid.tiles[19]);
+        tiles[20] = new Tile(this, grid.tiles[20]);
+        tiles[21] = new Tile(this, grid.tiles[21]);
+        tiles[22] = new Tile(this, grid.tiles[22]);
+        tiles[23] = new Tile(this, grid.tiles[23]);
+        tiles[24] = new Tile(this, grid.tiles[24]);
+        tiles[25] = new Tile(this, grid.tiles[25]);
+        tiles[26] = new Tile(this, grid.tiles[26]);
+        tiles[27] = new Tile(this, grid.tiles[27]);
+        tiles[28] = new Tile(this, grid.tiles[28]);
+        tiles[29] = new Tile(this, grid.tiles[29]);
+        tiles[30] = new Tile(this, grid.tiles[30]);
+        tiles[31] = new Tile(this, grid.tiles[31]);
+        tiles[32] = new Tile(this, grid.tiles[32]);
+        tiles[33] = new Tile(this, grid.tiles[33]);
+        tiles[34] = new Tile(this, grid.tiles[34]);
+        tiles[35] = new Tile(this, grid.tiles[35]);
+        tiles[36] = new Tile(this, grid.tiles[36]);
+        tiles[37] = new Tile(this, grid.tiles[37]);
+        tiles[38] = new Tile(this, grid.tiles[38]);
+        tiles[39] = new Tile(this, grid.tiles[39]);
+        tiles[40] = new Tile(this, grid.tiles[40]);
+        tiles[41] = new Tile(this, grid.tiles[41]);
+        tiles[42] = new Tile(this, grid.tiles[42]);
+        tiles[43] = new Tile(this, grid.tiles[43]);
+        tiles[44] = new Tile(this, grid.tiles[44]);
+        tiles[45] = new Tile(this, grid.tiles[45]);
+        tiles[46] = new Tile(this, grid.tiles[46]);
+        tiles[47] = new Tile(this, grid.tiles[47]);
+        tiles[48] = new Tile(this, grid.tiles[48]);
+        tiles[49] = new Tile(this, grid.tiles[49]);
+        tiles[50] = new Tile(this, grid.tiles[50]);
+        tiles[51] = new Tile(this, grid.tiles[51]);
+        tiles[52] = new Tile(this, grid.tiles[52]);
+        tiles[53] = new Tile(this, grid.tiles[53]);
+        tiles[54] = new Tile(this, grid.tiles[54]);
+        tiles[55] = new Tile(this, grid.tiles[55]);
+        tiles[56] = new Tile(this, grid.tiles[56]);
+        tiles[57] = new Tile(this, grid.tiles[57]);
+        tiles[58] = new Tile(this, grid.tiles[58]);
+        tiles[59] = new Tile(this, grid.tiles[59]);
+        tiles[60] = new Tile(this, grid.tiles[60]);
+        tiles[61] = new Tile(this, grid.tiles[61]);
+        tiles[62] = new Tile(this, grid.tiles[62]);
+        tiles[63] = new Tile(this, grid.tiles[63]);
+        hash = grid.hash;
+        pawnHash = grid.pawnHash;
+        occupied = grid.occupied;
+        whites = grid.whites;
+        kings = grid.kings;
+        sliders = grid.sliders;
+        pawns = grid.pawns;
+        whiteScore = grid.whiteScore;
+        blackScore = grid.blackScore;
+        phase = grid.phase;
+        System.arraycopy(grid.counts, 0, counts, 0, counts.length);
+        whiteProtections = grid.whiteProtections;
+        blackProtections = grid.blackProtections;
+        System.arraycopy(grid.protections, 0, protections, 0, ChessConstants.LINEAR_LENGTH);
+        changed = grid.changed;
     }
 
     public Tile getTile(int row, int column) {
@@ -108,6 +160,303 @@ public final class Grid {
     public Tile getTile(int index) {
         return tiles[index];
     }
+
+    /**
+     * Gets the Zobrist hash of the pieces on this grid. Castling
+     * rights and side to move are not included.
+     * @see Zobrist#getHash(Grid, boolean)
+     * @return The piece hash.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Gets the Zobrist hash of the pawns on this grid, which
+     * only changes with pawn moves and pawn captures.
+     * @see PawnTable
+     * @return The pawn hash.
+     */
+    public long getPawnHash() {
+        return pawnHash;
+    }
+
+    public long getOccupied() {
+        return occupied;
+    }
+
+    public long getWhiteOccupied() {
+        return whites;
+    }
+
+    public long getBlackOccupied() {
+        return occupied & ~whites;
+    }
+
+    public long getKings() {
+        return kings;
+    }
+
+    public long getPawns() {
+        return pawns;
+    }
+
+    /**
+     * Gets the sum of the material and piece square scores of the white
+     * pieces, kept up to date by the tiles.
+     * @see Evaluator#getPieceSquareScore(int, int)
+     * @return The packed middle game and end game score of the white pieces.
+     */
+    public int getWhiteScore() {
+        return whiteScore;
+    }
+
+    /**
+     * Gets the sum of the material and piece square scores of the black
+     * pieces, kept up to date by the tiles.
+     * @see Evaluator#getPieceSquareScore(int, int)
+     * @return The packed middle game and end game score of the black pieces.
+     */
+    public int getBlackScore() {
+        return blackScore;
+    }
+
+    /**
+     * Gets the game phase of this grid, kept up to date by the tiles.
+     * @see Evaluator#getPhase(int)
+     * @return The sum of the phases of the pieces.
+     */
+    public int getPhase() {
+        return phase;
+    }
+
+    /**
+     * Gets the number of pieces of the given kind on this grid.
+     * @param piece The piece index, from {@link Zobrist#WHITE_PAWN}
+     * to {@link Zobrist#BLACK_KING}.
+     * @return The number of pieces.
+     */
+    public int getCount(int piece) {
+        return counts[piece];
+    }
+
+    //called by the tiles whenever a piece is placed on or removed from a square
+    void toggle(Piece piece, int index) {
+        final long bit = 1L << index;
+        final int type = Zobrist.getPieceIndex(piece);
+        final long key = Zobrist.getKey(type, index);
+        //positive when the piece is placed, negative when it is removed
+        final int sign = ((occupied & bit) == 0) ? 1 : -1;
+        final int value = sign * Evaluator.getPieceSquareScore(type, index);
+        counts[type] += sign;
+        phase += sign * Evaluator.getPhase(type);
+        hash ^= key;
+        occupied ^= bit;
+        if (type < Zobrist.BLACK_PAWN) {
+            whites ^= bit;
+            whiteScore += value;
+        }
+        else {
+            blackScore += value;
+        }
+        if (type == Zobrist.WHITE_PAWN || type == Zobrist.BLACK_PAWN) {
+            pawns ^= bit;
+            pawnHash ^= key;
+        }
+        else if (type == Zobrist.WHITE_KING || type == Zobrist.BLACK_KING) {
+            kings ^= bit;
+        }
+        else if (type != Zobrist.WHITE_KNIGHT && type != Zobrist.BLACK_KNIGHT) {
+            sliders ^= bit;
+        }
+        changed |= bit;
+    }
+
+    public boolean isProtectedByWhite(int index) {
+        return (whiteProtections & (1L << index)) != 0;
+    }
+
+    public boolean isProtectedByBlack(int index) {
+        return (blackProtections & (1L << index)) != 0;
+    }
+
+    public long getWhiteProtections() {
+        return whiteProtections;
+    }
+
+    public long getBlackProtections() {
+        return blackProtections;
+    }
+
+    void setProtectedBy(int index, boolean white) {
+        if (white) {
+            whiteProtections |= (1L << index);
+        }
+        else {
+            blackProtections |= (1L << index);
+        }
+    }
+
+    void removeProtections(int index) {
+        whiteProtections &= ~(1L << index);
+        blackProtections &= ~(1L << index);
+    }
+
+    private void clearProtections() {
+        whiteProtections = blackProtections = 0L;
+        for (int index = 0; index < ChessConstants.LINEAR_LENGTH; ++index) {
+            protections[index] = 0L;
+        }
+        changed = 0L;
+    }
+
+    private void storeProtections(Piece piece) {
+        final long squares = piece.getProtections(this);
+        protections[piece.getIndex()] = squares;
+        if (piece.isWhite()) {
+            whiteProtections |= squares;
+        }
+        else {
+            blackProtections |= squares;
+        }
+    }
+
+    /**
+     * Updates the protections after pieces were moved, without going through
+     * every piece. Only the pieces standing on a square that changed since
+     * the last update and the sliders whose protected squares cross a changed
+     * square (or an enemy king, since the square behind it depends on what
+     * is there) are recomputed. Every call must be matched by a call to
+     * {@link #undoProtections()} once the pieces are moved back.
+     */
+    public void updateProtections() {
+        ensureUndoCapacity();
+        final long[] stack = undoStack;
+        int size = undoSize;
+        final int start = size;
+        stack[size++] = changed;
+        stack[size++] = whiteProtections;
+        stack[size++] = blackProtections;
+
+        long update = changed | (sliders & occupied);
+        for (long squares = update; squares != 0; squares &= (squares - 1)) {
+            final int index = Long.numberOfTrailingZeros(squares);
+            final long bit = 1L << index;
+            if ((changed & bit) == 0 && (protections[index] & (changed | kings)) == 0) {
+                //a slider that is not affected by the move
+                continue;
+            }
+            final Piece piece = tiles[index].getOccupant();
+            final long squaresProtected = (piece == null) ? 0L : piece.getProtections(this);
+            if (squaresProtected != protections[index]) {
+                stack[size++] = index;
+                stack[size++] = protections[index];
+                protections[index] = squaresProtected;
+            }
+        }
+
+        long white = 0L;
+        long black = 0L;
+        for (long squares = occupied; squares != 0; squares &= (squares - 1)) {
+            final int index = Long.numberOfTrailingZeros(squares);
+            if ((whites & (1L << index)) != 0) {
+                white |= protections[index];
+            }
+            else {
+                black |= protections[index];
+            }
+        }
+        whiteProtections = white;
+        blackProtections = black;
+        changed = 0L;
+
+        //number of entries of this update, so it can be popped
+        stack[size] = size - start;
+        undoSize = size + 1;
+    }
+
+    /**
+     * Restores the protections to what they were before the last call to
+     * {@link #updateProtections()}. The pieces must already be back
+     * on the squares they were on before that update.
+     */
+    public void undoProtections() {
+        final long[] stack = undoStack;
+        int size = undoSize - 1;
+        final int start = size - (int) stack[size];
+        for (int entry = size - 2; entry > (start + 2); entry -= 2) {
+            protections[(int) stack[entry]] = stack[entry + 1];
+        }
+        changed = stack[start];
+        whiteProtections = stack[start + 1];
+        blackProtections = stack[start + 2];
+        undoSize = start;
+    }
+
+    //one update stores at most 64 changed squares
+    private void ensureUndoCapacity() {
+        if (undoStack == null) {
+            undoStack = new long[INITIAL_UNDO_CAPACITY];
+        }
+        else if (undoSize + 3 + (ChessConstants.LINEAR_LENGTH << 1) + 1 > undoStack.length) {
+            undoStack = java.util.Arrays.copyOf(undoStack, undoStack.length << 1);
+        }
+    }
+
+    /**
+     * Gets the squares protected by a rook on the given square.
+     * @param index The square of the rook.
+     * @param white The color of the rook.
+     * @return The protected squares.
+     */
+    long getRookProtections(int index, boolean white) {
+        return pierceKing(index, Magic.getRookAttacks(index, occupied), white, true);
+    }
+
+    /**
+     * Gets the squares protected by a bishop on the given square.
+     * @param index The square of the bishop.
+     * @param white The color of the bishop.
+     * @return The protected squares.
+     */
+    long getBishopProtections(int index, boolean white) {
+        return pierceKing(index, Magic.getBishopAttacks(index, occupied), white, false);
+    }
+
+    //a slider attacking the enemy king also protects the empty square
+    //behind the king, so the king cannot step back along the line of attack
+    private long pierceKing(int index, long attacks, boolean white, boolean rook) {
+        final long enemyKing = attacks & kings & (white ? ~whites : whites);
+        if (enemyKing == 0) {
+            return attacks;
+        }
+        final int king = Long.numberOfTrailingZeros(enemyKing);
+        final int rowStep = Integer.signum((king >>> 3) - (index >>> 3));
+        final int columnStep = Integer.signum((king & 7) - (index & 7));
+        final int pierce = king + (rowStep << 3) + columnStep;
+        if (pierce < 0 || pierce >= ChessConstants.LINEAR_LENGTH) {
+            return attacks;
+        }
+        final long xray = rook ? Magic.getRookAttacks(index, occupied ^ enemyKing) : Magic.getBishopAttacks(index, occupied ^ enemyKing);
+        final long bit = 1L << pierce;
+        return ((xray & bit) != 0 && (occupied & bit) == 0) ? (attacks | bit) : attacks;
+    }
+
+    //gets the tiles of the given squares
+    List<Tile> getTiles(long squares, int capacity) {
+        final List<Tile> list = new ArrayList<>(capacity);
+        for (; squares != 0; squares &= (squares - 1)) {
+            list.add(tiles[Long.numberOfTrailingZeros(squares)]);
+        }
+        return list;
+    }
+
+    //marks the given squares as protected by the given piece
+    void setProtectedBy(long squares, Piece piece) {
+        for (; squares != 0; squares &= (squares - 1)) {
+            tiles[Long.numberOfTrailingZeros(squares)].setProtectedBy(piece);
+        }
+    }
     
     /*
     public void storeProtections() {
@@ -173,213 +522,24 @@ public final class Grid {
     }
     
     public void setProtections(List<Piece> whites, List<Piece> blacks) {
-        tiles[0].removeProtections();
-        tiles[1].removeProtections();
-        tiles[2].removeProtections();
-        tiles[3].removeProtections();
-        tiles[4].removeProtections();
-        tiles[5].removeProtections();
-        tiles[6].removeProtections();
-        tiles[7].removeProtections();
-        tiles[8].removeProtections();
-        tiles[9].removeProtections();
-        tiles[10].removeProtections();
-        tiles[11].removeProtections();
-        tiles[12].removeProtections();
-        tiles[13].removeProtections();
-        tiles[14].removeProtections();
-        tiles[15].removeProtections();
-        tiles[16].removeProtections();
-        tiles[17].removeProtections();
-        tiles[18].removeProtections();
-        tiles[19].removeProtections();
-        tiles[20].removeProtections();
-        tiles[21].removeProtections();
-        tiles[22].removeProtections();
-        tiles[23].removeProtections();
-        tiles[24].removeProtections();
-        tiles[25].removeProtections();
-        tiles[26].removeProtections();
-        tiles[27].removeProtections();
-        tiles[28].removeProtections();
-        tiles[29].removeProtections();
-        tiles[30].removeProtections();
-        tiles[31].removeProtections();
-        tiles[32].removeProtections();
-        tiles[33].removeProtections();
-        tiles[34].removeProtections();
-        tiles[35].removeProtections();
-        tiles[36].removeProtections();
-        tiles[37].removeProtections();
-        tiles[38].removeProtections();
-        tiles[39].removeProtections();
-        tiles[40].removeProtections();
-        tiles[41].removeProtections();
-        tiles[42].removeProtections();
-        tiles[43].removeProtections();
-        tiles[44].removeProtections();
-        tiles[45].removeProtections();
-        tiles[46].removeProtections();
-        tiles[47].removeProtections();
-        tiles[48].removeProtections();
-        tiles[49].removeProtections();
-        tiles[50].removeProtections();
-        tiles[51].removeProtections();
-        tiles[52].removeProtections();
-        tiles[53].removeProtections();
-        tiles[54].removeProtections();
-        tiles[55].removeProtections();
-        tiles[56].removeProtections();
-        tiles[57].removeProtections();
-        tiles[58].removeProtections();
-        tiles[59].removeProtections();
-        tiles[60].removeProtections();
-        tiles[61].removeProtections();
-        tiles[62].removeProtections();
-        tiles[63].removeProtections();
+        clearProtections();
         for (int index = (whites.size() - 1); index >= 0; --index) {
-            whites.get(index).setProtectedTiles(this);
+            storeProtections(whites.get(index));
         }
         for (int index = (blacks.size() - 1); index >= 0; --index) {
-            blacks.get(index).setProtectedTiles(this);
+            storeProtections(blacks.get(index));
         }
     }
 
     public void setProtections(List<Piece> pieces) {
-        tiles[0].removeProtections();
-        tiles[1].removeProtections();
-        tiles[2].removeProtections();
-        tiles[3].removeProtections();
-        tiles[4].removeProtections();
-        tiles[5].removeProtections();
-        tiles[6].removeProtections();
-        tiles[7].removeProtections();
-        tiles[8].removeProtections();
-        tiles[9].removeProtections();
-        tiles[10].removeProtections();
-        tiles[11].removeProtections();
-        tiles[12].removeProtections();
-        tiles[13].removeProtections();
-        tiles[14].removeProtections();
-        tiles[15].removeProtections();
-        tiles[16].removeProtections();
-        tiles[17].removeProtections();
-        tiles[18].removeProtections();
-        tiles[19].removeProtections();
-        tiles[20].removeProtections();
-        tiles[21].removeProtections();
-        tiles[22].removeProtections();
-        tiles[23].removeProtections();
-        tiles[24].removeProtections();
-        tiles[25].removeProtections();
-        tiles[26].removeProtections();
-        tiles[27].removeProtections();
-        tiles[28].removeProtections();
-        tiles[29].removeProtections();
-        tiles[30].removeProtections();
-        tiles[31].removeProtections();
-        tiles[32].removeProtections();
-        tiles[33].removeProtections();
-        tiles[34].removeProtections();
-        tiles[35].removeProtections();
-        tiles[36].removeProtections();
-        tiles[37].removeProtections();
-        tiles[38].removeProtections();
-        tiles[39].removeProtections();
-        tiles[40].removeProtections();
-        tiles[41].removeProtections();
-        tiles[42].removeProtections();
-        tiles[43].removeProtections();
-        tiles[44].removeProtections();
-        tiles[45].removeProtections();
-        tiles[46].removeProtections();
-        tiles[47].removeProtections();
-        tiles[48].removeProtections();
-        tiles[49].removeProtections();
-        tiles[50].removeProtections();
-        tiles[51].removeProtections();
-        tiles[52].removeProtections();
-        tiles[53].removeProtections();
-        tiles[54].removeProtections();
-        tiles[55].removeProtections();
-        tiles[56].removeProtections();
-        tiles[57].removeProtections();
-        tiles[58].removeProtections();
-        tiles[59].removeProtections();
-        tiles[60].removeProtections();
-        tiles[61].removeProtections();
-        tiles[62].removeProtections();
-        tiles[63].removeProtections();
+        clearProtections();
         for (int index = (pieces.size() - 1); index >= 0; --index) {
-            pieces.get(index).setProtectedTiles(this);
+            storeProtections(pieces.get(index));
         }
     }
 
     public void clear() {
-        tiles[0].removeProtections();
-        tiles[1].removeProtections();
-        tiles[2].removeProtections();
-        tiles[3].removeProtections();
-        tiles[4].removeProtections();
-        tiles[5].removeProtections();
-        tiles[6].removeProtections();
-        tiles[7].removeProtections();
-        tiles[8].removeProtections();
-        tiles[9].removeProtections();
-        tiles[10].removeProtections();
-        tiles[11].removeProtections();
-        tiles[12].removeProtections();
-        tiles[13].removeProtections();
-        tiles[14].removeProtections();
-        tiles[15].removeProtections();
-        tiles[16].removeProtections();
-        tiles[17].removeProtections();
-        tiles[18].removeProtections();
-        tiles[19].removeProtections();
-        tiles[20].removeProtections();
-        tiles[21].removeProtections();
-        tiles[22].removeProtections();
-        tiles[23].removeProtections();
-        tiles[24].removeProtections();
-        tiles[25].removeProtections();
-        tiles[26].removeProtections();
-        tiles[27].removeProtections();
-        tiles[28].removeProtections();
-        tiles[29].removeProtections();
-        tiles[30].removeProtections();
-        tiles[31].removeProtections();
-        tiles[32].removeProtections();
-        tiles[33].removeProtections();
-        tiles[34].removeProtections();
-        tiles[35].removeProtections();
-        tiles[36].removeProtections();
-        tiles[37].removeProtections();
-        tiles[38].removeProtections();
-        tiles[39].removeProtections();
-        tiles[40].removeProtections();
-        tiles[41].removeProtections();
-        tiles[42].removeProtections();
-        tiles[43].removeProtections();
-        tiles[44].removeProtections();
-        tiles[45].removeProtections();
-        tiles[46].removeProtections();
-        tiles[47].removeProtections();
-        tiles[48].removeProtections();
-        tiles[49].removeProtections();
-        tiles[50].removeProtections();
-        tiles[51].removeProtections();
-        tiles[52].removeProtections();
-        tiles[53].removeProtections();
-        tiles[54].removeProtections();
-        tiles[55].removeProtections();
-        tiles[56].removeProtections();
-        tiles[57].removeProtections();
-        tiles[58].removeProtections();
-        tiles[59].removeProtections();
-        tiles[60].removeProtections();
-        tiles[61].removeProtections();
-        tiles[62].removeProtections();
-        tiles[63].removeProtections();
+        clearProtections();
         tiles[0].removeOccupant();
         tiles[1].removeOccupant();
         tiles[2].removeOccupant();
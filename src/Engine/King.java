@@ -11,6 +11,31 @@ import java.util.List;
  */
 public final class King extends Piece {
 
+    private static final int[] ROW_OFFSETS = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] COLUMN_OFFSETS = {-1, 0, 1, -1, 1, -1, 0, 1};
+
+    //squares protected by a king on each square
+    private static final long[] PROTECTIONS = new long[ChessConstants.LINEAR_LENGTH];
+
+    //columns between the king and the rook of each side of the back row
+    private static final long LEFT_CASTLE_PATH = 0x0EL;
+    private static final long RIGHT_CASTLE_PATH = 0x60L;
+
+    static {
+        for (int index = 0; index < ChessConstants.LINEAR_LENGTH; ++index) {
+            PROTECTIONS[index] = getLeaperProtections(index, ROW_OFFSETS, COLUMN_OFFSETS);
+        }
+    }
+
+    /**
+     * Gets the squares a king on the given square protects.
+     * @param index The square index.
+     * @return The protected squares.
+     */
+    static long getProtections(int index) {
+        return PROTECTIONS[index];
+    }
+
     public King(int row, int column, boolean color) {
         super(row, column, color);
     }
@@ -52,49 +77,40 @@ public final class King extends Piece {
     }
 
     public List<Tile> getCastleTiles(Grid grid) {
-        final int currentRow = getRow();
-        final int currentColumn = getColumn();
-        if (hasMoved() || grid.getTile(currentRow, currentColumn).protectedByEnemy(this)) {
-            return Tile.EMPTY_LIST;
+        final long squares = getCastleSquares(grid);
+        return (squares == 0) ? Tile.EMPTY_LIST : grid.getTiles(squares, ChessConstants.NUMBER_OF_CASTLE_TILES);
+    }
+
+    /**
+     * Gets the squares of {@link #getCastleTiles(Grid)}, bit i being
+     * {@code (row * 8) + column}.
+     * @param grid The given board of pieces.
+     * @return The squares this king can castle to.
+     */
+    long getCastleSquares(Grid grid) {
+        final long enemyProtections = isWhite() ? grid.getBlackProtections() : grid.getWhiteProtections();
+        if (hasMoved() || (enemyProtections & (1L << getIndex())) != 0) {
+            return 0L;
         }
-        if (isWhite()) {
-            if (currentRow != ChessConstants.WHITE_PIECE_ROW || currentColumn != ChessConstants.KING_START_COLUMN) {
-                return Tile.EMPTY_LIST;
-            }
+        final int row = isWhite() ? ChessConstants.WHITE_PIECE_ROW : ChessConstants.BLACK_PIECE_ROW;
+        if (getRow() != row || getColumn() != ChessConstants.KING_START_COLUMN) {
+            return 0L;
         }
-        else if (currentRow != ChessConstants.BLACK_PIECE_ROW || currentColumn != ChessConstants.KING_START_COLUMN) {
-            return Tile.EMPTY_LIST;
+        final int first = row * LENGTH;
+        //the king may not pass through protected squares either
+        final long blocked = (enemyProtections | grid.getOccupied()) >>> first;
+        long squares = 0L;
+        if (canCastleWith(grid.getTile(first).getOccupant()) && (blocked & LEFT_CASTLE_PATH) == 0) {
+            squares |= 1L << (first + ChessConstants.LEFT_KING_CASTLE_COLUMN);
         }
-        final List<Tile> list = new ArrayList<>(ChessConstants.NUMBER_OF_CASTLE_TILES);
-        Piece leftRook = grid.getTile(currentRow, 0).getOccupant();
-        if (leftRook != null && !leftRook.hasMoved() && leftRook.isRook() && isAlly(leftRook)) {
-            boolean blocked = false;
-            for (int column = 1; column < 4; ++column) {
-                Tile path = grid.getTile(currentRow, column);
-                if (path.protectedByEnemy(this) || path.isOccupied()) {
-                    blocked = true;
-                    break;
-                }
-            }
-            if (!blocked) {
-                list.add(grid.getTile(currentRow, ChessConstants.LEFT_KING_CASTLE_COLUMN));
-            }
+        if (canCastleWith(grid.getTile(first + LENGTH - 1).getOccupant()) && (blocked & RIGHT_CASTLE_PATH) == 0) {
+            squares |= 1L << (first + ChessConstants.RIGHT_KING_CASTLE_COLUMN);
         }
-        Piece rightRook = grid.getTile(currentRow, 7).getOccupant();
-        if (rightRook != null && !rightRook.hasMoved() && rightRook.isRook() && isAlly(rightRook)) {
-            boolean blocked = false;
-            for (int column = 5; column < 7; ++column) {
-                Tile path = grid.getTile(currentRow, column);
-                if (path.protectedByEnemy(this) || path.isOccupied()) {
-                    blocked = true;
-                    break;
-                }
-            }
-            if (!blocked) {
-                list.add(grid.getTile(currentRow, ChessConstants.RIGHT_KING_CASTLE_COLUMN));
-            }
-        }
-        return list;
+        return squares;
+    }
+
+    private boolean canCastleWith(Piece rook) {
+        return rook != null && !rook.hasMoved() && rook.isRook() && isAlly(rook);
     }
 
     @Override
@@ -217,6 +233,17 @@ public final class King extends Piece {
         return list;
     }
 
+    //unlike the other pieces, the king cannot move onto protected squares
+    @Override
+    long getMoveSquares(Grid grid) {
+        return PROTECTIONS[getIndex()] & ~grid.getOccupied() & ~(isWhite() ? grid.getBlackProtections() : grid.getWhiteProtections());
+    }
+
+    @Override
+    long getAttackSquares(Grid grid) {
+        return PROTECTIONS[getIndex()] & (isWhite() ? (grid.getBlackOccupied() & ~grid.getBlackProtections()) : (grid.getWhiteOccupied() & ~grid.getWhiteProtections()));
+    }
+
     @Override
     public List<Tile> getProtectedTiles(Grid grid) {
         final List<Tile> list = new ArrayList<>(ChessConstants.NUMBER_OF_KING_PROTECTED_TILES);
@@ -255,36 +282,12 @@ public final class King extends Piece {
     
     @Override
     public void setProtectedTiles(Grid grid) {
-        final int currentRow = getRow();
-        final int currentColumn = getColumn();
-        final int up = currentRow - 1;
-        final int down = currentRow + 1;
-        final int left = currentColumn - 1;
-        final int right = currentColumn + 1;
-        if (up >= 0) {
-            if (left >= 0) {
-                grid.getTile(up, left).setProtectedBy(this);
-            }
-            grid.getTile(up, currentColumn).setProtectedBy(this);
-            if (right < LENGTH) {
-                grid.getTile(up, right).setProtectedBy(this);
-            }
-        }
-        if (left >= 0) {
-            grid.getTile(currentRow, left).setProtectedBy(this);
-        }
-        if (right < LENGTH) {
-            grid.getTile(currentRow, right).setProtectedBy(this);
-        }
-        if (down < LENGTH) {
-            if (left >= 0) {
-                grid.getTile(down, left).setProtectedBy(this);
-            }
-            grid.getTile(down, currentColumn).setProtectedBy(this);
-            if (right < LENGTH) {
-                grid.getTile(down, right).setProtectedBy(this);
-            }
-        }
+        grid.setProtectedBy(getProtections(grid), this);
+    }
+
+    @Override
+    long getProtections(Grid grid) {
+        return PROTECTIONS[getIndex()];
     }
 
     @Override
@@ -7,6 +7,27 @@ import java.util.List;
  
 public final class Knight extends Piece {
 
+    private static final int[] ROW_OFFSETS = {-2, -2, -1, -1, 1, 1, 2, 2};
+    private static final int[] COLUMN_OFFSETS = {-1, 1, -2, 2, -2, 2, -1, 1};
+
+    //squares protected by a knight on each square
+    private static final long[] PROTECTIONS = new long[ChessConstants.LINEAR_LENGTH];
+
+    static {
+        for (int index = 0; index < ChessConstants.LINEAR_LENGTH; ++index) {
+            PROTECTIONS[index] = getLeaperProtections(index, ROW_OFFSETS, COLUMN_OFFSETS);
+        }
+    }
+
+    /**
+     * Gets the squares a knight on the given square protects.
+     * @param index The square index.
+     * @return The protected squares.
+     */
+    static long getProtections(int index) {
+        return PROTECTIONS[index];
+    }
+
     public Knight(int row, int column, boolean color) {
         super(row, column, color);
     }
@@ -195,6 +216,16 @@ public final class Knight extends Piece {
         return list;
     }
 
+    @Override
+    long getMoveSquares(Grid grid) {
+        return PROTECTIONS[getIndex()] & ~grid.getOccupied();
+    }
+
+    @Override
+    long getAttackSquares(Grid grid) {
+        return PROTECTIONS[getIndex()] & (isWhite() ? grid.getBlackOccupied() : grid.getWhiteOccupied());
+    }
+
     @Override
     public List<Tile> getProtectedTiles(Grid grid) {
         final List<Tile> list = new ArrayList<>(ChessConstants.NUMBER_OF_KNIGHT_PROTECTED_TILES);
@@ -250,51 +281,12 @@ public final class Knight extends Piece {
 
     @Override
     public void setProtectedTiles(Grid grid) {
-        final int currentRow = getRow();
-        final int currentColumn = getColumn();
-
-        final int up = currentRow - 1;
-        final int down = currentRow + 1;
-        final int left = currentColumn - 1;
-        final int right = currentColumn + 1;
-
-        final int up2 = currentRow - 2;
-        final int down2 = currentRow + 2;
-        final int left2 = currentColumn - 2;
-        final int right2 = currentColumn + 2;
+        grid.setProtectedBy(getProtections(grid), this);
+    }
 
-        if (up >= 0) {
-            if (left2 >= 0) {
-                grid.getTile(up, left2).setProtectedBy(this);
-            }
-            if (right2 < LENGTH) {
-                grid.getTile(up, right2).setProtectedBy(this);
-            }
-        }
-        if (down < LENGTH) {
-            if (left2 >= 0) {
-                grid.getTile(down, left2).setProtectedBy(this);
-            }
-            if (right2 < LENGTH) {
-                grid.getTile(down, right2).setProtectedBy(this);
-            }
-        }
-        if (left >= 0) {
-            if (up2 >= 0) {
-                grid.getTile(up2, left).setProtectedBy(this);
-            }
-            if (down2 < LENGTH) {
-                grid.getTile(down2, left).setProtectedBy(this);
-            }
-        }
-        if (right < LENGTH) {
-            if (up2 >= 0) {
-                grid.getTile(up2, right).setProtectedBy(this);
-            }
-            if (down2 < LENGTH) {
-                grid.getTile(down2, right).setProtectedBy(this);
-            }
-        }
+    @Override
+    long getProtections(Grid grid) {
+        return PROTECTIONS[getIndex()];
     }
 
     @Override
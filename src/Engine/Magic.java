@@ -0,0 +1,260 @@
+package Engine;
+
+import Util.ChessConstants;
+import java.util.Random;
+
+/**
+ * Magic bitboard attack tables of rooks and bishops. The pieces that block
+ * a slider are masked out of the occupied squares, multiplied by a magic
+ * number and shifted, which gives a perfect hash into a table of
+ * precomputed attacks. Looking up the attacks of a slider is then a single
+ * multiply, shift and array access instead of walking every ray.
+ *
+ * Squares follow {@link Locatable#getIndex()}, bit i being {@code (row * 8) + column}.
+ * The magic numbers were found with {@link #main(String[])} and only the
+ * attack tables are filled in when this class is loaded.
+ *
+ * @author Will
+ */
+public final class Magic {
+
+    private static final long[] ROOK_MAGICS = {
+        0x0180042412400080L, 0x1480200140028110L, 0x0C80081002200082L, 0x4080080080100004L,
+        0x2080030800800400L, 0x0100040002010008L, 0xA5000100120000C4L, 0x0200008020420104L,
+        0xC200800080204004L, 0x0000802000400084L, 0x1080808010002000L, 0x0001000821001001L,
+        0x0002000810220004L, 0x0000808002000400L, 0x9602000401080200L, 0x0001000061000082L,
+        0x0400208010400082L, 0x8210004000200040L, 0x0000410015002000L, 0x0101010010002008L,
+        0x1440808004000800L, 0x0001010004000802L, 0x0000040088210250L, 0x2908020014108041L,
+        0x0120400080008020L, 0x3120008280400120L, 0x0108408200201200L, 0x020021010010000AL,
+        0x0080080080800400L, 0x0000040801201040L, 0x0301000100040200L, 0x2040044A00140081L,
+        0x000080C001800027L, 0x1040201000C00048L, 0x0800801000802000L, 0x0004120022004008L,
+        0x0880040080800800L, 0x0046001002000904L, 0x0C00B20104000810L, 0x402004450A000084L,
+        0x00024002800A8022L, 0x001000412004C000L, 0xA0D5200100110040L, 0x8098002010010100L,
+        0x0848010009110004L, 0x5008040002008080L, 0x0F05000200010004L, 0x0100008041220004L,
+        0xA114800821004100L, 0x4640088040200880L, 0x0010100088200080L, 0x5000082100100100L,
+        0x8000080100100500L, 0x2000020080040080L, 0x9005500281084400L, 0x002D014D04288200L,
+        0x4000402010800101L, 0x0042150084420222L, 0x0001001020000841L, 0x148C050008201001L,
+        0x043B001008000423L, 0x0209008814000231L, 0x0000010082100804L, 0x4A00040021108042L
+    };
+
+    private static final long[] BISHOP_MAGICS = {
+        0x1020828208030250L, 0xB020A10400808000L, 0x00108C0088210000L, 0x21220A020000600CL,
+        0x1004050409020200L, 0x281209100A010012L, 0x801402020220180CL, 0x0101002804020801L,
+        0x0000846002022600L, 0x0008500401041020L, 0x0000A20084048020L, 0x0000082040500000L,
+        0x0058020210400504L, 0x4001010403400090L, 0x0081010098144004L, 0x006008240208B400L,
+        0x40A0324002220A40L, 0x1690208822408C08L, 0x8030041808805230L, 0x2000880802044008L,
+        0x080C020600A22200L, 0x1820405E02422040L, 0x0482005041442000L, 0x5005000824020200L,
+        0x00041004041010A0L, 0x8241044008F00403L, 0x0000405004010A00L, 0x0820202008008020L,
+        0x9051001001004000L, 0x0002002004100800L, 0x0024008800421000L, 0x020109020204410CL,
+        0x0048424210C80804L, 0x70190402101010A2L, 0x9004241004210102L, 0x0000020080080080L,
+        0x0180408020120200L, 0x1141610700420040L, 0x0010012209071098L, 0x041809091019C142L,
+        0xC002611008004000L, 0x0000941042080810L, 0x0000414050002040L, 0x0002001144020800L,
+        0x0000040408200400L, 0x8001010931000600L, 0x001004010070C400L, 0x440202020204002CL,
+        0x1062010420050040L, 0x0004420804020040L, 0x044418A605100400L, 0x20440063A1880100L,
+        0x0000F04110410001L, 0x0046840408820000L, 0x4020841010810004L, 0x0810524821002002L,
+        0x8092820490140260L, 0x8644402101101008L, 0x0006020042080490L, 0x0001010040208800L,
+        0x40100002A120410EL, 0x0014802021024085L, 0x2210040910240080L, 0x0340010404004840L
+    };
+
+    private static final long[] ROOK_MASKS = new long[ChessConstants.LINEAR_LENGTH];
+    private static final long[] BISHOP_MASKS = new long[ChessConstants.LINEAR_LENGTH];
+
+    private static final int[] ROOK_SHIFTS = new int[ChessConstants.LINEAR_LENGTH];
+    private static final int[] BISHOP_SHIFTS = new int[ChessConstants.LINEAR_LENGTH];
+
+    //start of the attacks of each square in the shared tables
+    private static final int[] ROOK_OFFSETS = new int[ChessConstants.LINEAR_LENGTH];
+    private static final int[] BISHOP_OFFSETS = new int[ChessConstants.LINEAR_LENGTH];
+
+    private static final long[] ROOK_ATTACKS;
+    private static final long[] BISHOP_ATTACKS;
+
+    private static final int[][] ROOK_DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    /**
+     * The longest the tables may take to fill in when this class is loaded,
+     * 50 ms, which {@link #main(String[])} checks.
+     */
+    public static final long MAX_BUILD_NANOSECONDS = 50_000_000L;
+
+    //time taken to fill in the tables
+    private static final long BUILD_NANOSECONDS;
+
+    static {
+        final long start = System.nanoTime();
+        int rookSize = 0;
+        int bishopSize = 0;
+        for (int index = 0; index < ChessConstants.LINEAR_LENGTH; ++index) {
+            ROOK_MASKS[index] = getMask(index, ROOK_DIRECTIONS);
+            BISHOP_MASKS[index] = getMask(index, BISHOP_DIRECTIONS);
+            ROOK_SHIFTS[index] = 64 - Long.bitCount(ROOK_MASKS[index]);
+            BISHOP_SHIFTS[index] = 64 - Long.bitCount(BISHOP_MASKS[index]);
+            ROOK_OFFSETS[index] = rookSize;
+            BISHOP_OFFSETS[index] = bishopSize;
+            rookSize += 1 << Long.bitCount(ROOK_MASKS[index]);
+            bishopSize += 1 << Long.bitCount(BISHOP_MASKS[index]);
+        }
+        ROOK_ATTACKS = new long[rookSize];
+        BISHOP_ATTACKS = new long[bishopSize];
+        for (int index = 0; index < ChessConstants.LINEAR_LENGTH; ++index) {
+            fill(index, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_OFFSETS, ROOK_ATTACKS, ROOK_DIRECTIONS);
+            fill(index, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_OFFSETS, BISHOP_ATTACKS, BISHOP_DIRECTIONS);
+        }
+        BUILD_NANOSECONDS = System.nanoTime() - start;
+    }
+
+    private Magic() {
+
+    }
+
+    /**
+     * Gets the squares attacked by a rook.
+     * @param index The square of the rook.
+     * @param occupied The occupied squares.
+     * @return The attacked squares, including the first
+     * occupied square in every direction.
+     */
+    public static long getRookAttacks(int index, long occupied) {
+        return ROOK_ATTACKS[ROOK_OFFSETS[index] + (int) (((occupied & ROOK_MASKS[index]) * ROOK_MAGICS[index]) >>> ROOK_SHIFTS[index])];
+    }
+
+    /**
+     * Gets the squares attacked by a bishop.
+     * @param index The square of the bishop.
+     * @param occupied The occupied squares.
+     * @return The attacked squares, including the first
+     * occupied square in every direction.
+     */
+    public static long getBishopAttacks(int index, long occupied) {
+        return BISHOP_ATTACKS[BISHOP_OFFSETS[index] + (int) (((occupied & BISHOP_MASKS[index]) * BISHOP_MAGICS[index]) >>> BISHOP_SHIFTS[index])];
+    }
+
+    /**
+     * Gets the squares attacked by a queen, the attacks of a rook and of a
+     * bishop on the same square.
+     * @param index The square of the queen.
+     * @param occupied The occupied squares.
+     * @return The attacked squares, including the first
+     * occupied square in every direction.
+     */
+    public static long getQueenAttacks(int index, long occupied) {
+        return getRookAttacks(index, occupied) | getBishopAttacks(index, occupied);
+    }
+
+    /**
+     * Gets how long the attack tables took to fill in when this class was
+     * loaded, which should be at most {@link #MAX_BUILD_NANOSECONDS}.
+     * @return The time taken in nanoseconds.
+     */
+    public static long getBuildTime() {
+        return BUILD_NANOSECONDS;
+    }
+
+    private static void fill(int index, long[] masks, long[] magics, int[] shifts, int[] offsets, long[] attacks, int[][] directions) {
+        final long mask = masks[index];
+        //enumerate every subset of the mask
+        long subset = 0L;
+        do {
+            attacks[offsets[index] + (int) ((subset * magics[index]) >>> shifts[index])] = getSlowAttacks(index, subset, directions);
+            subset = (subset - mask) & mask;
+        }
+        while (subset != 0L);
+    }
+
+    //squares that can block the slider, the last square of a ray never matters
+    private static long getMask(int index, int[][] directions) {
+        long mask = 0L;
+        for (int[] direction : directions) {
+            int row = ChessConstants.getRow(index) + direction[0];
+            int column = ChessConstants.getColumn(index) + direction[1];
+            while (inside(row + direction[0], column + direction[1])) {
+                mask |= (1L << ChessConstants.getLocation(row, column));
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    private static long getSlowAttacks(int index, long occupied, int[][] directions) {
+        long attacks = 0L;
+        for (int[] direction : directions) {
+            int row = ChessConstants.getRow(index) + direction[0];
+            int column = ChessConstants.getColumn(index) + direction[1];
+            while (inside(row, column)) {
+                final long bit = 1L << ChessConstants.getLocation(row, column);
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static boolean inside(int row, int column) {
+        return row >= 0 && row < ChessConstants.LENGTH && column >= 0 && column < ChessConstants.LENGTH;
+    }
+
+    //searches for a magic number of the given square that maps
+    //every subset of blockers to an index with the correct attacks
+    private static long findMagic(int index, int[][] directions, Random random) {
+        final long mask = getMask(index, directions);
+        final int bits = Long.bitCount(mask);
+        final int size = 1 << bits;
+        final long[] subsets = new long[size];
+        final long[] correct = new long[size];
+        long subset = 0L;
+        for (int count = 0; count < size; ++count) {
+            subsets[count] = subset;
+            correct[count] = getSlowAttacks(index, subset, directions);
+            subset = (subset - mask) & mask;
+        }
+        final long[] used = new long[size];
+        final boolean[] filled = new boolean[size];
+        while (true) {
+            //sparse random numbers make much better magics
+            final long magic = random.nextLong() & random.nextLong() & random.nextLong();
+            if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) {
+                continue;
+            }
+            java.util.Arrays.fill(filled, false);
+            boolean failed = false;
+            for (int count = 0; count < size; ++count) {
+                final int key = (int) ((subsets[count] * magic) >>> (64 - bits));
+                if (!filled[key]) {
+                    filled[key] = true;
+                    used[key] = correct[count];
+                }
+                else if (used[key] != correct[count]) {
+                    failed = true;
+                    break;
+                }
+            }
+            if (!failed) {
+                return magic;
+            }
+        }
+    }
+
+    //prints new magic numbers, and how long it took to build the tables
+    public static void main(String[] args) {
+        System.out.println("Tables built in " + (BUILD_NANOSECONDS / 1000) + " microseconds");
+        if (BUILD_NANOSECONDS > MAX_BUILD_NANOSECONDS) {
+            throw new IllegalStateException("Tables built in " + (BUILD_NANOSECONDS / 1000000) + " ms, more than "
+                    + (MAX_BUILD_NANOSECONDS / 1000000) + " ms");
+        }
+        final Random random = new Random(0x6D61676963L);
+        final StringBuilder rooks = new StringBuilder();
+        final StringBuilder bishops = new StringBuilder();
+        for (int index = 0; index < ChessConstants.LINEAR_LENGTH; ++index) {
+            rooks.append(String.format("0x%016XL,%s", findMagic(index, ROOK_DIRECTIONS, random), (index % 4 == 3) ? "\n" : " "));
+            bishops.append(String.format("0x%016XL,%s", findMagic(index, BISHOP_DIRECTIONS, random), (index % 4 == 3) ? "\n" : " "));
+        }
+        System.out.println(rooks);
+        System.out.println(bishops);
+    }
+}
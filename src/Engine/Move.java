@@ -0,0 +1,68 @@
+package Engine;
+
+/**
+ * Moves of the search packed into an int, so that they can be generated
+ * into a buffer without allocating anything. The lowest 12 bits are the
+ * squares of the move, the same as
+ * {@link TranspositionTable#encodeMove(int, int)}, followed by the flags
+ * and the piece a pawn promotes to.
+ *
+ * @author Will
+ */
+final class Move {
+
+    static final int KEY_MASK = 0xFFF;
+
+    static final int CAPTURE = 1 << 12;
+    static final int CASTLE = 1 << 13;
+    static final int PROMOTION = 1 << 14;
+    static final int EN_PASSANT = 1 << 15;
+
+    //pieces a pawn can promote to
+    static final int KNIGHT = 1;
+    static final int BISHOP = 2;
+    static final int ROOK = 3;
+    static final int QUEEN = 4;
+
+    private static final int PROMOTION_SHIFT = 16;
+
+    private Move() {
+
+    }
+
+    static int encode(int from, int to, int flags) {
+        return from | (to << 6) | flags;
+    }
+
+    static int encodePromotion(int from, int to, int flags, int promotion) {
+        return from | (to << 6) | flags | PROMOTION | (promotion << PROMOTION_SHIFT);
+    }
+
+    static int getFrom(int move) {
+        return move & 0x3F;
+    }
+
+    static int getTo(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    static int getPromotion(int move) {
+        return move >>> PROMOTION_SHIFT;
+    }
+
+    static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    static boolean isCastle(int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    static boolean isPromotion(int move) {
+        return (move & PROMOTION) != 0;
+    }
+
+    static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+}
@@ -0,0 +1,109 @@
+package Engine;
+
+import Util.ChessConstants;
+import java.util.List;
+
+/**
+ * Generates the moves of the search as packed ints, see {@link Move}. The
+ * moves are the same as the tiles returned by the pieces: pseudo legal,
+ * except that kings do not move onto protected squares, and pawns always
+ * promote to queens. Captures of kings are left out.
+ *
+ * @author Will
+ */
+final class MoveGenerator {
+
+    //no position has more moves than this
+    static final int MAX_MOVES = 256;
+
+    private MoveGenerator() {
+
+    }
+
+    /**
+     * Generates the castling moves of the given king.
+     * @param grid The chess board.
+     * @param king The king.
+     * @param moves The buffer to write the moves to.
+     * @param start The index of the first move in the buffer.
+     * @return The index after the last move.
+     */
+    static int generateCastles(final Grid grid, final King king, final int[] moves, int start) {
+        final int from = king.getIndex();
+        for (long squares = king.getCastleSquares(grid); squares != 0; squares &= (squares - 1)) {
+            moves[start++] = Move.encode(from, Long.numberOfTrailingZeros(squares), Move.CASTLE);
+        }
+        return start;
+    }
+
+    /**
+     * Generates the captures of the given pieces.
+     * @param grid The chess board.
+     * @param pieces The pieces of the side to move.
+     * @param moves The buffer to write the moves to.
+     * @param start The index of the first move in the buffer.
+     * @return The index after the last move.
+     */
+    static int generateCaptures(final Grid grid, final List<Piece> pieces, final int[] moves, int start) {
+        final long kings = grid.getKings();
+        for (int pieceIndex = 0, numberOfPieces = pieces.size(); pieceIndex != numberOfPieces; ++pieceIndex) {
+            final Piece piece = pieces.get(pieceIndex);
+            final int from = piece.getIndex();
+            final boolean promotes = isPromoting(piece);
+            for (long squares = piece.getAttackSquares(grid) & ~kings; squares != 0; squares &= (squares - 1)) {
+                final int to = Long.numberOfTrailingZeros(squares);
+                moves[start++] = promotes ? Move.encodePromotion(from, to, Move.CAPTURE, Move.QUEEN) : Move.encode(from, to, Move.CAPTURE);
+            }
+        }
+        return start;
+    }
+
+    /**
+     * Generates the moves of the given pieces that do not capture anything,
+     * castling aside.
+     * @param grid The chess board.
+     * @param pieces The pieces of the side to move.
+     * @param moves The buffer to write the moves to.
+     * @param start The index of the first move in the buffer.
+     * @return The index after the last move.
+     */
+    static int generateQuiets(final Grid grid, final List<Piece> pieces, final int[] moves, int start) {
+        for (int pieceIndex = 0, numberOfPieces = pieces.size(); pieceIndex != numberOfPieces; ++pieceIndex) {
+            final Piece piece = pieces.get(pieceIndex);
+            final int from = piece.getIndex();
+            final boolean promotes = isPromoting(piece);
+            for (long squares = piece.getMoveSquares(grid); squares != 0; squares &= (squares - 1)) {
+                final int to = Long.numberOfTrailingZeros(squares);
+                moves[start++] = promotes ? Move.encodePromotion(from, to, 0, Move.QUEEN) : Move.encode(from, to, 0);
+            }
+        }
+        return start;
+    }
+
+    /**
+     * Generates the promotions of the given pieces that do not capture
+     * anything. Used by the quiescence search, which searches
+     * {@link #generateCaptures(Grid, List, int[], int)} and these.
+     * @param grid The chess board.
+     * @param pieces The pieces of the side to move.
+     * @param moves The buffer to write the moves to.
+     * @param start The index of the first move in the buffer.
+     * @return The index after the last move.
+     */
+    static int generatePromotions(final Grid grid, final List<Piece> pieces, final int[] moves, int start) {
+        for (int pieceIndex = 0, numberOfPieces = pieces.size(); pieceIndex != numberOfPieces; ++pieceIndex) {
+            final Piece piece = pieces.get(pieceIndex);
+            if (isPromoting(piece)) {
+                final int from = piece.getIndex();
+                for (long squares = piece.getMoveSquares(grid); squares != 0; squares &= (squares - 1)) {
+                    moves[start++] = Move.encodePromotion(from, Long.numberOfTrailingZeros(squares), 0, Move.QUEEN);
+                }
+            }
+        }
+        return start;
+    }
+
+    private static boolean isPromoting(final Piece piece) {
+        return piece.isPawn() && piece.getRow() == (piece.isWhite() ? 1 : ChessConstants.LENGTH - 2);
+    }
+}
@@ -0,0 +1,205 @@
+package Engine;
+
+import Util.ChessConstants;
+
+/**
+ * Orders the moves of the search so that the moves most likely to cause a
+ * cutoff are searched first. Every move generated into the buffer of a ply
+ * is given a score, and the search then picks the best remaining move one
+ * at a time, which is a selection sort that stops as soon as there is a
+ * cutoff. From best to worst the moves are:
+ * <pre>
+ * the best move stored in the transposition table
+ * captures and promotions, most valuable victim and then least valuable attacker first
+ * the two killer moves of the ply, quiet moves that caused a cutoff at the same ply
+ * quiet moves, by how often they caused a cutoff anywhere in the tree (history)
+ * captures that lose material, the least losing first
+ * </pre>
+ * Whether a capture loses material is decided by its {@link StaticExchange},
+ * which is only needed when the attacker is worth more than its victim.
+ *
+ * Each search thread has its own ordering, see {@link SearchContext}. It
+ * also counts how many cutoffs happened on the first move searched, which
+ * is the fraction of cutoffs that good ordering should bring close to 1.
+ *
+ * @author Will
+ */
+final class MoveOrdering {
+
+    private static final int HASH_MOVE_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 28;
+    private static final int FIRST_KILLER_SCORE = (1 << 27) + 1;
+    private static final int SECOND_KILLER_SCORE = 1 << 27;
+
+    //history is halved once any score reaches this, so it stays below the killers
+    private static final int MAX_HISTORY = 1 << 20;
+
+    //kings never capture anything more valuable than themselves
+    private static final int KING_ORDER_VALUE = ChessConstants.QUEEN_VALUE + ChessConstants.PAWN_VALUE;
+
+    //one history table per color, indexed by the from and to squares of a move
+    private static final int HISTORY_SIZE = Move.KEY_MASK + 1;
+
+    private final int[] scores = new int[SearchContext.MAX_PLY * MoveGenerator.MAX_MOVES];
+    private final int[] killers = new int[SearchContext.MAX_PLY << 1];
+    private final int[] history = new int[HISTORY_SIZE << 1];
+    private final StaticExchange exchange = new StaticExchange();
+
+    private long cutoffs;
+    private long firstMoveCutoffs;
+
+    /**
+     * Scores the generated moves of a ply.
+     * @param grid The chess board, before any of the moves is made.
+     * @param moves The move buffer.
+     * @param start The index of the first move of the ply.
+     * @param end The index after the last move of the ply.
+     * @param ply The distance from the root.
+     * @param hashMove The best move stored in the transposition table,
+     * see {@link TranspositionTable#getMove(long)}.
+     * @param white {@code true} if white is to move.
+     */
+    void score(final Grid grid, final int[] moves, final int start, final int end, final int ply, final int hashMove, final boolean white) {
+        final int firstKiller = killers[ply << 1];
+        final int secondKiller = killers[(ply << 1) + 1];
+        final int historyStart = white ? 0 : HISTORY_SIZE;
+        for (int index = start; index != end; ++index) {
+            final int move = moves[index];
+            final int key = move & Move.KEY_MASK;
+            if (key == hashMove) {
+                scores[index] = HASH_MOVE_SCORE;
+            }
+            else if (Move.isCapture(move) || Move.isPromotion(move)) {
+                final int attacker = getOrderValue(grid.getTile(Move.getFrom(move)).getOccupant());
+                int score = CAPTURE_SCORE - attacker;
+                if (Move.isCapture(move)) {
+                    final int victim = grid.getTile(Move.getTo(move)).getOccupant().getValue();
+                    if (attacker > victim && !Move.isPromotion(move)) {
+                        final int gain = exchange.evaluate(grid, move);
+                        if (gain < 0) {
+                            //below every quiet move, whose history is never negative
+                            scores[index] = gain;
+                            continue;
+                        }
+                    }
+                    score += victim << 4;
+                }
+                if (Move.isPromotion(move)) {
+                    score += ChessConstants.QUEEN_VALUE << 4;
+                }
+                scores[index] = score;
+            }
+            else if (key == firstKiller) {
+                scores[index] = FIRST_KILLER_SCORE;
+            }
+            else if (key == secondKiller) {
+                scores[index] = SECOND_KILLER_SCORE;
+            }
+            else {
+                scores[index] = history[historyStart + key];
+            }
+        }
+    }
+
+    /**
+     * Moves the best scored move left to the front of the remaining moves.
+     * @param moves The move buffer.
+     * @param index The index of the next move to search.
+     * @param end The index after the last move of the ply.
+     * @return The best remaining move, now at the given index.
+     */
+    int next(final int[] moves, final int index, final int end) {
+        int best = index;
+        for (int other = index + 1; other < end; ++other) {
+            if (scores[other] > scores[best]) {
+                best = other;
+            }
+        }
+        final int move = moves[best];
+        if (best != index) {
+            moves[best] = moves[index];
+            moves[index] = move;
+            final int score = scores[best];
+            scores[best] = scores[index];
+            scores[index] = score;
+        }
+        return move;
+    }
+
+    /**
+     * Determines whether the move at the given index, which must have been
+     * returned by {@link #next(int[], int, int)}, is a capture that loses
+     * material. Every move after it in the ply is one too.
+     * @param index The index of the move.
+     * @return {@code true} if the capture loses material.
+     */
+    boolean isLosingCapture(final int index) {
+        return scores[index] < 0;
+    }
+
+    /**
+     * Determines whether the move at the given index, which must have been
+     * returned by {@link #next(int[], int, int)}, is a quiet move that is
+     * neither the hash move nor a killer, the kind of move that is reduced
+     * or pruned when it comes late.
+     * @param index The index of the move.
+     * @return {@code true} if the move is an ordinary quiet move.
+     */
+    boolean isQuiet(final int index) {
+        return scores[index] >= 0 && scores[index] < SECOND_KILLER_SCORE;
+    }
+
+    /**
+     * Records a cutoff, quiet moves become killers and gain history.
+     * @param move The move that caused the cutoff.
+     * @param ply The distance from the root.
+     * @param depth The depth left at the ply.
+     * @param white {@code true} if white made the move.
+     * @param first {@code true} if the move was the first move searched.
+     */
+    void cutoff(final int move, final int ply, final int depth, final boolean white, final boolean first) {
+        ++cutoffs;
+        if (first) {
+            ++firstMoveCutoffs;
+        }
+        if (Move.isCapture(move) || Move.isPromotion(move)) {
+            return;
+        }
+        final int key = move & Move.KEY_MASK;
+        final int killer = ply << 1;
+        if (killers[killer] != key) {
+            killers[killer + 1] = killers[killer];
+            killers[killer] = key;
+        }
+        final int index = (white ? 0 : HISTORY_SIZE) + key;
+        if ((history[index] += depth * depth) >= MAX_HISTORY) {
+            for (int other = (history.length - 1); other >= 0; --other) {
+                history[other] >>>= 1;
+            }
+        }
+    }
+
+    long getCutoffs() {
+        return cutoffs;
+    }
+
+    long getFirstMoveCutoffs() {
+        return firstMoveCutoffs;
+    }
+
+    /**
+     * Gets the fraction of cutoffs that happened on the first move searched.
+     * @return The first move cutoff rate, 0 if there were no cutoffs.
+     */
+    double getFirstMoveCutoffRate() {
+        return (cutoffs == 0) ? 0.0 : ((double) firstMoveCutoffs / cutoffs);
+    }
+
+    void resetCounters() {
+        cutoffs = firstMoveCutoffs = 0;
+    }
+
+    private static int getOrderValue(Piece attacker) {
+        return attacker.isKing() ? KING_ORDER_VALUE : attacker.getValue();
+    }
+}
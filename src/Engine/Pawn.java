@@ -8,6 +8,32 @@ import java.util.List;
 @SuppressWarnings("EqualsAndHashcode")
 public final class Pawn extends Piece {
 
+    //white pawns protect the row above them, black pawns the row below
+    private static final int[] WHITE_ROW_OFFSETS = {-1, -1};
+    private static final int[] BLACK_ROW_OFFSETS = {1, 1};
+    private static final int[] COLUMN_OFFSETS = {-1, 1};
+
+    //squares protected by a pawn on each square
+    private static final long[] WHITE_PROTECTIONS = new long[ChessConstants.LINEAR_LENGTH];
+    private static final long[] BLACK_PROTECTIONS = new long[ChessConstants.LINEAR_LENGTH];
+
+    static {
+        for (int index = 0; index < ChessConstants.LINEAR_LENGTH; ++index) {
+            WHITE_PROTECTIONS[index] = getLeaperProtections(index, WHITE_ROW_OFFSETS, COLUMN_OFFSETS);
+            BLACK_PROTECTIONS[index] = getLeaperProtections(index, BLACK_ROW_OFFSETS, COLUMN_OFFSETS);
+        }
+    }
+
+    /**
+     * Gets the squares a pawn on the given square protects.
+     * @param index The square index.
+     * @param white {@code true} for a white pawn.
+     * @return The protected squares.
+     */
+    static long getProtections(int index, boolean white) {
+        return white ? WHITE_PROTECTIONS[index] : BLACK_PROTECTIONS[index];
+    }
+
     private boolean justMadeDoubleJump = false;
 
     public Pawn(int row, int column, boolean color) {
@@ -152,6 +178,29 @@ public final class Pawn extends Piece {
         return list;
     }
 
+    @Override
+    long getMoveSquares(Grid grid) {
+        final int index = getIndex();
+        final long empty = ~grid.getOccupied();
+        if (isBlack()) {
+            if (index + LENGTH >= ChessConstants.LINEAR_LENGTH) {
+                return 0L;
+            }
+            final long next = (1L << (index + LENGTH)) & empty;
+            return hasMoved() ? next : (next | ((next << LENGTH) & empty));
+        }
+        if (index < LENGTH) {
+            return 0L;
+        }
+        final long next = (1L << (index - LENGTH)) & empty;
+        return hasMoved() ? next : (next | ((next >>> LENGTH) & empty));
+    }
+
+    @Override
+    long getAttackSquares(Grid grid) {
+        return isWhite() ? (WHITE_PROTECTIONS[getIndex()] & grid.getBlackOccupied()) : (BLACK_PROTECTIONS[getIndex()] & grid.getWhiteOccupied());
+    }
+
     @Override
     public List<Tile> getProtectedTiles(Grid grid) {
         final List<Tile> list = new ArrayList<>(ChessConstants.NUMBER_OF_PAWN_PROTECTED_TILES);
@@ -186,32 +235,12 @@ public final class Pawn extends Piece {
 
     @Override
     public void setProtectedTiles(Grid grid) {
-        if (isBlack()) {
-            final int nextRow = getRow() + 1;
-            if (nextRow < LENGTH) {
-                final int currentColumn = getColumn();
-                int nextColumn = currentColumn - 1;
-                if (nextColumn >= 0) {
-                    grid.getTile(nextRow, nextColumn).setProtectedBy(this);
-                }
-                if ((nextColumn = currentColumn + 1) < LENGTH) {
-                    grid.getTile(nextRow, nextColumn).setProtectedBy(this);
-                }
-            }
-        }
-        else {
-            final int nextRow = getRow() - 1;
-            if (nextRow >= 0) {
-                final int currentColumn = getColumn();
-                int nextColumn = currentColumn - 1;
-                if (nextColumn >= 0) {
-                    grid.getTile(nextRow, nextColumn).setProtectedBy(this);
-                }
-                if ((nextColumn = currentColumn + 1) < LENGTH) {
-                    grid.getTile(nextRow, nextColumn).setProtectedBy(this);
-                }
-            }
-        }
+        grid.setProtectedBy(getProtections(grid), this);
+    }
+
+    @Override
+    long getProtections(Grid grid) {
+        return isWhite() ? WHITE_PROTECTIONS[getIndex()] : BLACK_PROTECTIONS[getIndex()];
     }
 
     @Override
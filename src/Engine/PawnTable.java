@@ -0,0 +1,60 @@
+package Engine;
+
+/**
+ * Fixed size hash table of evaluated pawn structures, keyed by the Zobrist
+ * hash of the pawns alone (see {@link Grid#getPawnHash()}). Pawns move far
+ * less often than the other pieces, so most positions of a search share
+ * their pawns with a position evaluated before, and the {@link Evaluator}
+ * only scores each structure once. The slots are those of a
+ * {@link SlotTable}, shared by every search thread and always replaced.
+ *
+ * An entry is packed into a single long:
+ * <pre>
+ * bits  0-31 score of the white pawns
+ * bits 32-63 score of the black pawns
+ * </pre>
+ * The scores are packed middle game and end game scores, see
+ * {@link Evaluator#score(int, int)}. A board without pawns is not looked
+ * up at all, its entry is {@link #NO_PAWNS}.
+ *
+ * @author Will
+ */
+public final class PawnTable extends SlotTable {
+
+    //the entry of a board without pawns, which scores nothing for either
+    //side, so it is never stored since it could not be told from a miss
+    public static final long NO_PAWNS = 0L;
+
+    public PawnTable() {
+        this(DEFAULT_SLOTS);
+    }
+
+    /**
+     * Constructs a table with the given number of slots.
+     * @param slots The number of slots, rounded up to a power of two.
+     */
+    public PawnTable(int slots) {
+        super(slots);
+    }
+
+    /**
+     * Stores the scores of a pawn structure.
+     * @param pawnHash The Zobrist hash of the pawns.
+     * @param whiteScore The score of the white pawns.
+     * @param blackScore The score of the black pawns.
+     * @return The packed entry.
+     */
+    public long store(long pawnHash, int whiteScore, int blackScore) {
+        final long entry = (whiteScore & 0xFFFFFFFFL) | ((long) blackScore << 32);
+        storeEntry(pawnHash, entry);
+        return entry;
+    }
+
+    public static int getWhiteScore(long entry) {
+        return (int) entry;
+    }
+
+    public static int getBlackScore(long entry) {
+        return (int) (entry >> 32);
+    }
+}
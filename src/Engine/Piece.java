@@ -217,6 +217,23 @@ public abstract class Piece implements Cloneable, Comparable<Piece>, Locatable {
      */
     public abstract List<Tile> getAttackTiles(Grid grid);
 
+    /**
+     * Gets the squares of {@link #getMoveTiles(Grid)}, bit i being
+     * {@code (row * 8) + column}. Used by the search, which cannot
+     * afford a new list for every piece of every position.
+     * @param grid The given board of pieces.
+     * @return The squares where this piece can move to.
+     */
+    abstract long getMoveSquares(Grid grid);
+
+    /**
+     * Gets the squares of {@link #getAttackTiles(Grid)}, bit i being
+     * {@code (row * 8) + column}.
+     * @param grid The given board of pieces.
+     * @return The squares where this piece can capture enemy pieces.
+     */
+    abstract long getAttackSquares(Grid grid);
+
     /**
      * Gets the various tiles where this piece affa
      * @param grid
@@ -226,6 +243,30 @@ public abstract class Piece implements Cloneable, Comparable<Piece>, Locatable {
 
     public abstract void setProtectedTiles(Grid grid);
 
+    /**
+     * Gets the squares protected by this piece, bit i being
+     * {@code (row * 8) + column}. Used by the grid to keep
+     * its protections up to date.
+     * @param grid The given board of pieces.
+     * @return The protected squares.
+     */
+    abstract long getProtections(Grid grid);
+
+    //builds the protected squares of a piece whose moves do not depend on other pieces
+    static long getLeaperProtections(int index, int[] rowOffsets, int[] columnOffsets) {
+        final int row = index >>> 3;
+        final int column = index & 7;
+        long protections = 0L;
+        for (int offset = 0; offset < rowOffsets.length; ++offset) {
+            final int nextRow = row + rowOffsets[offset];
+            final int nextColumn = column + columnOffsets[offset];
+            if (nextRow >= 0 && nextRow < 8 && nextColumn >= 0 && nextColumn < 8) {
+                protections |= (1L << ((nextRow << 3) + nextColumn));
+            }
+        }
+        return protections;
+    }
+
     public abstract int getNumberOfProtectedTiles(Grid grid);
 
     //method which only applies to Pawn, defined here
@@ -1,10 +1,8 @@
 package Engine;
 
 import Util.ChessConstants;
-import static Util.Constants.SPACE;
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -122,6 +120,23 @@ final class Pieces {
         return (King) blacks.get(0);
     }
 
+    /**
+     * Determines whether any of the given pieces is neither a pawn nor a
+     * king. Without such pieces zugzwang is common, since every pawn move
+     * may weaken the position.
+     * @param pieces The pieces of one side.
+     * @return {@code true} if there is a knight, bishop, rook or queen.
+     */
+    static boolean hasPieces(List<Piece> pieces) {
+        for (int index = 0, size = pieces.size(); index != size; ++index) {
+            final Piece piece = pieces.get(index);
+            if (!piece.isPawn() && !piece.isKing()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Returns a list of white pieces from the given list of pieces. The given
      * list of pieces must be sorted as dictated by the {
@@ -250,40 +265,6 @@ final class Pieces {
         return null;
     }
 
-    private static final StringBuilder ENCODER = new StringBuilder(100);
-
-    //encode format for SEEN_POSITIONS is pieces with space between them and no trailing space at end
-    static String encode(List<Piece> pieces) {
-        ENCODER.setLength(0);
-        for (Iterator<Piece> it = pieces.iterator(); it.hasNext();) {
-            ENCODER.append(it.next().encode());
-            if (it.hasNext()) {
-                ENCODER.append(SPACE);
-            }
-            else {
-                break;
-            }
-        }
-        return ENCODER.toString();
-    }
-
-    static String encode(List<Piece> whites, List<Piece> blacks) {
-        ENCODER.setLength(0);
-        for (int index = 0, size = whites.size(); index != size; ++index) {
-            ENCODER.append(whites.get(index).encode()).append(SPACE);
-        }
-        for (Iterator<Piece> it = blacks.iterator(); it.hasNext();) {
-            ENCODER.append(it.next().encode());
-            if (it.hasNext()) {
-                ENCODER.append(SPACE);
-            }
-            else {
-                break;
-            }
-        }
-        return ENCODER.toString();
-    }
-
     @Deprecated
     static int getWhiteState(Grid grid, List<Piece> pieces, List<Piece> whites, King whiteKing) {
         return (whiteTrapped(grid, pieces, whites, whiteKing)) ? ((whiteKing.inCheck(grid)) ? ChessConstants.CHECKMATED : ChessConstants.STALEMATED) : ChessConstants.SAFE;
@@ -0,0 +1,177 @@
+package Engine;
+
+import Util.ChessConstants;
+import java.util.List;
+
+/**
+ * A grid and its pieces as seen by the search, which makes and unmakes the
+ * packed moves of {@link MoveGenerator} on it. Making a move returns the
+ * information needed to unmake it packed into a long, while the pieces
+ * taken off the board wait on fixed size stacks, one entry per ply.
+ *
+ * The position remembers where every piece is in the list of its color,
+ * so captures and promotions never have to look for a piece in the lists.
+ * Castling rights follow from the move counts of the pieces, which are
+ * increased by every move and decreased again when it is unmade. En passant
+ * is not searched, so it is left alone.
+ *
+ * @author Will
+ */
+final class Position {
+
+    //index of the captured piece in the list of its color
+    private static final long LIST_INDEX_MASK = 0xFFL;
+
+    private Grid grid;
+    private List<Piece> whites;
+    private List<Piece> blacks;
+
+    //index of the piece on each square in the list of its color
+    private final int[] listIndexes = new int[ChessConstants.LINEAR_LENGTH];
+
+    //pieces taken off the board by the move of each ply
+    private final Piece[] captured = new Piece[SearchContext.MAX_PLY];
+    private final Piece[] promoted = new Piece[SearchContext.MAX_PLY];
+
+    //queens that pawns promote to, reused so that promoting allocates nothing
+    private final Queen[] whiteQueens = new Queen[SearchContext.MAX_PLY];
+    private final Queen[] blackQueens = new Queen[SearchContext.MAX_PLY];
+
+    private int ply;
+
+    /**
+     * Starts searching the given grid. The pieces of each list
+     * must be the pieces of that color on the grid.
+     * @param grid The chess board.
+     * @param whites The white pieces on the chess board.
+     * @param blacks The black pieces on the chess board.
+     */
+    void set(Grid grid, List<Piece> whites, List<Piece> blacks) {
+        this.grid = grid;
+        this.whites = whites;
+        this.blacks = blacks;
+        ply = 0;
+        setListIndexes(whites, 0);
+        setListIndexes(blacks, 0);
+    }
+
+    /**
+     * Makes the given move, which must come from the {@link MoveGenerator}
+     * for the current grid, and updates the protections.
+     * @param move The packed move.
+     * @return The information to pass to {@link #unmakeMove(int, long)}.
+     */
+    long makeMove(int move) {
+        final Tile previousTile = grid.getTile(Move.getFrom(move));
+        final Tile moveTile = grid.getTile(Move.getTo(move));
+        final Piece piece = previousTile.getOccupant();
+        final int listIndex = listIndexes[previousTile.getIndex()];
+        long undo = 0L;
+
+        if (Move.isCastle(move)) {
+            final Tile rookTile = getRookTile(moveTile);
+            final Tile rookCastleTile = getRookCastleTile(moveTile);
+            final Piece rook = rookTile.getOccupant();
+            rookTile.removeOccupant();
+            rookCastleTile.setOccupant(rook);
+            rook.increaseMoveCount();
+            listIndexes[rookCastleTile.getIndex()] = listIndexes[rookTile.getIndex()];
+        }
+        else if (Move.isCapture(move)) {
+            final List<Piece> enemies = piece.isWhite() ? blacks : whites;
+            final int enemyIndex = listIndexes[moveTile.getIndex()];
+            captured[ply] = enemies.remove(enemyIndex);
+            setListIndexes(enemies, enemyIndex);
+            undo = enemyIndex;
+        }
+
+        previousTile.removeOccupant();
+        if (Move.isPromotion(move)) {
+            final Queen queen = getQueen(piece.isWhite());
+            queen.setMoveCount(piece.getMoveCount() + 1);
+            (piece.isWhite() ? whites : blacks).set(listIndex, queen);
+            promoted[ply] = piece;
+            moveTile.setOccupant(queen);
+        }
+        else {
+            moveTile.setOccupant(piece);
+            piece.increaseMoveCount();
+        }
+        listIndexes[moveTile.getIndex()] = listIndex;
+
+        ++ply;
+        grid.updateProtections();
+        return undo;
+    }
+
+    /**
+     * Unmakes the given move, which must be the last move made.
+     * @param move The packed move.
+     * @param undo The information returned by {@link #makeMove(int)}.
+     */
+    void unmakeMove(int move, long undo) {
+        --ply;
+        final Tile previousTile = grid.getTile(Move.getFrom(move));
+        final Tile moveTile = grid.getTile(Move.getTo(move));
+        final Piece piece = moveTile.getOccupant();
+        final int listIndex = listIndexes[moveTile.getIndex()];
+
+        moveTile.removeOccupant();
+        if (Move.isPromotion(move)) {
+            final Piece pawn = promoted[ply];
+            (pawn.isWhite() ? whites : blacks).set(listIndex, pawn);
+            previousTile.setOccupant(pawn);
+            promoted[ply] = null;
+        }
+        else {
+            previousTile.setOccupant(piece);
+            piece.decreaseMoveCount();
+        }
+        listIndexes[previousTile.getIndex()] = listIndex;
+
+        if (Move.isCastle(move)) {
+            final Tile rookTile = getRookTile(moveTile);
+            final Tile rookCastleTile = getRookCastleTile(moveTile);
+            final Piece rook = rookCastleTile.getOccupant();
+            rookCastleTile.removeOccupant();
+            rookTile.setOccupant(rook);
+            rook.decreaseMoveCount();
+            listIndexes[rookTile.getIndex()] = listIndexes[rookCastleTile.getIndex()];
+        }
+        else if (Move.isCapture(move)) {
+            final Piece enemy = captured[ply];
+            final List<Piece> enemies = enemy.isWhite() ? whites : blacks;
+            final int enemyIndex = (int) (undo & LIST_INDEX_MASK);
+            moveTile.setOccupant(enemy);
+            enemies.add(enemyIndex, enemy);
+            setListIndexes(enemies, enemyIndex);
+            captured[ply] = null;
+        }
+
+        grid.undoProtections();
+    }
+
+    //the pieces after a removed or added piece moved within their list
+    private void setListIndexes(List<Piece> pieces, int start) {
+        for (int index = start, size = pieces.size(); index < size; ++index) {
+            listIndexes[pieces.get(index).getIndex()] = index;
+        }
+    }
+
+    private Tile getRookTile(Tile kingCastleTile) {
+        return grid.getTile(kingCastleTile.getRow(), (kingCastleTile.getColumn() == ChessConstants.LEFT_KING_CASTLE_COLUMN) ? 0 : ChessConstants.LENGTH - 1);
+    }
+
+    private Tile getRookCastleTile(Tile kingCastleTile) {
+        return grid.getTile(kingCastleTile.getRow(), (kingCastleTile.getColumn() == ChessConstants.LEFT_KING_CASTLE_COLUMN)
+                ? ChessConstants.LEFT_ROOK_CASTLE_COLUMN : ChessConstants.RIGHT_ROOK_CASTLE_COLUMN);
+    }
+
+    private Queen getQueen(boolean white) {
+        final Queen[] queens = white ? whiteQueens : blackQueens;
+        if (queens[ply] == null) {
+            queens[ply] = new Queen(0, 0, white);
+        }
+        return queens[ply];
+    }
+}
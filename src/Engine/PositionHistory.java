@@ -0,0 +1,254 @@
+package Engine;
+
+/**
+ * Zobrist keys of the positions that may still be repeated, which are the
+ * positions since the last capture or pawn move, for detecting repetitions
+ * and the fifty-move rule. Every {@link AI} keeps the history of its game,
+ * and every search thread copies it into the history of its
+ * {@link SearchContext} and then adds the position of each ply of the line
+ * it is searching, so the search sees the game and its own line as one.
+ *
+ * Keys are the hashes the search probes its transposition tables with,
+ * which include the castling rights and the side to move. A position is
+ * only compared with the positions an even number of ply before it, back
+ * to the last capture or pawn move, and a null move counts as such a move
+ * since the side to move changes without a move being made.
+ *
+ * @author Will
+ */
+final class PositionHistory {
+
+    /**
+     * The number of ply without a capture or pawn move after which the
+     * game is drawn.
+     */
+    static final int FIFTY_MOVE_PLY = 100;
+
+    //positions further back than the fifty-move rule never matter
+    private final long[] keys = new long[FIFTY_MOVE_PLY + SearchContext.MAX_PLY];
+
+    //ply since the last capture or pawn move of each ply of the search
+    private final int[] clocks = new int[SearchContext.MAX_PLY + 1];
+
+    //the game: number of keys and ply since the last capture or pawn move
+    //the search: index of the key of ply 0
+    private int size;
+    private int clock;
+
+    //pawns and number of pieces of the last position of the game,
+    //which only change with a capture or pawn move
+    private long pawns;
+    private int count;
+
+    /**
+     * Adds a position of the game, forgetting every position before the
+     * last capture or pawn move.
+     * @param grid The chess board.
+     * @param white {@code true} if white is to move.
+     */
+    void add(Grid grid, boolean white) {
+        final long positionPawns = getPawns(grid);
+        final int positionCount = Long.bitCount(grid.getOccupied());
+        if (count < 0) {
+            //saved keys, whose last capture or pawn move is not known
+            pawns = positionPawns;
+            count = positionCount;
+            ++clock;
+        }
+        else if (size == 0 || positionPawns != pawns || positionCount != count) {
+            pawns = positionPawns;
+            count = positionCount;
+            size = clock = 0;
+        }
+        else {
+            ++clock;
+        }
+        if (size == FIFTY_MOVE_PLY) {
+            System.arraycopy(keys, 1, keys, 0, --size);
+        }
+        keys[size++] = getKey(grid, white);
+    }
+
+    /**
+     * Forgets every position of the game.
+     */
+    void clear() {
+        size = clock = count = 0;
+    }
+
+    /**
+     * Gets the keys of the game, oldest first, see {@link #set(long[])}.
+     * @return A copy of the keys.
+     */
+    long[] getKeys() {
+        final long[] copy = new long[size];
+        System.arraycopy(keys, 0, copy, 0, size);
+        return copy;
+    }
+
+    /**
+     * Replaces the game with saved keys. The positions they were taken from
+     * are not known, so the keys are taken to be the positions since the
+     * last capture or pawn move.
+     * @param savedKeys The keys, oldest first, as returned by {@link #getKeys()}.
+     */
+    void set(long[] savedKeys) {
+        size = Math.min(savedKeys.length, FIFTY_MOVE_PLY);
+        System.arraycopy(savedKeys, savedKeys.length - size, keys, 0, size);
+        clock = size - 1;
+        count = -1;
+    }
+
+    /**
+     * Replaces this history with the given game without its last position,
+     * so that a search can be rooted on the last position of the game
+     * itself. The last position of the game has the same pawns and number
+     * of pieces as the root, so the halfmove clock of the root is still
+     * found, see {@link #getClock(Grid)}.
+     * @param game The history of the game, which is only read.
+     */
+    void setBeforeLast(PositionHistory game) {
+        size = Math.max(game.size - 1, 0);
+        System.arraycopy(game.keys, 0, keys, 0, size);
+        clock = Math.max(game.clock - 1, 0);
+        pawns = game.pawns;
+        count = game.count;
+    }
+
+    /**
+     * Starts a search on this history from the given game, the root of the
+     * search being a position after the last position of the game.
+     * @param game The history of the game, which is only read.
+     * @param grid The chess board of the root.
+     */
+    void start(PositionHistory game, Grid grid) {
+        size = game.size;
+        System.arraycopy(game.keys, 0, keys, 0, size);
+        clocks[0] = game.getClock(grid);
+    }
+
+    /**
+     * Starts a search on this history below a line that was searched by
+     * another search, such as the split nodes of a {@link SplitSearch}.
+     * The root is the root of the other search, and this search starts at
+     * the ply after the line.
+     * @param game The history of the game, which is only read.
+     * @param line The keys of the line, from the root to the position
+     * before the one this search starts at.
+     * @param clock The ply since the last capture or pawn move of the
+     * position this search starts at.
+     */
+    void start(PositionHistory game, long[] line, int clock) {
+        size = game.size;
+        System.arraycopy(game.keys, 0, keys, 0, size);
+        System.arraycopy(line, 0, keys, size, line.length);
+        clocks[line.length] = clock;
+    }
+
+    /**
+     * Gets the halfmove clock of the root of a search, a position after the
+     * last position of the game.
+     * @param grid The chess board of the root.
+     * @return The ply since the last capture or pawn move.
+     */
+    int getClock(Grid grid) {
+        return (size != 0 && isReversible(grid)) ? (clock + 1) : 0;
+    }
+
+    /**
+     * Adds the position of a ply of the search and determines whether it is
+     * drawn by a repetition or the fifty-move rule. A single repetition is
+     * taken as a draw, since repeating once more cannot be avoided by a side
+     * that wants the draw.
+     * @param ply The distance from the root.
+     * @param key The hash of the position.
+     * @return {@code true} if the position is drawn.
+     */
+    boolean isDraw(int ply, long key) {
+        final int index = size + ply;
+        keys[index] = key;
+        final int positionClock = clocks[ply];
+        if (positionClock >= FIFTY_MOVE_PLY) {
+            return true;
+        }
+        //a position is repeated at the earliest 4 ply later
+        for (int other = index - 4, first = Math.max(0, index - positionClock); other >= first; other -= 2) {
+            if (keys[other] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Determines whether the root of a search, a position after the last
+     * position of the game, is drawn by a repetition or the fifty-move rule,
+     * for searches that do not keep a history of their own.
+     * @param grid The chess board of the root.
+     * @param white {@code true} if white is to move at the root.
+     * @return {@code true} if the root is drawn.
+     */
+    boolean isDraw(Grid grid, boolean white) {
+        final int rootClock = getClock(grid);
+        if (rootClock >= FIFTY_MOVE_PLY) {
+            return true;
+        }
+        final long key = getKey(grid, white);
+        for (int other = size - 4, first = Math.max(0, size - rootClock); other >= first; other -= 2) {
+            if (keys[other] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Advances the halfmove clock to the next ply of the search, after a
+     * move has been made.
+     * @param ply The distance from the root before the move.
+     * @param grid The chess board, after the move.
+     * @param move The packed move, see {@link Move}.
+     */
+    void next(int ply, Grid grid, int move) {
+        clocks[ply + 1] = (Move.isCapture(move) || grid.getTile(Move.getTo(move)).getOccupant().isPawn()) ? 0 : (clocks[ply] + 1);
+    }
+
+    /**
+     * Advances the halfmove clock to the next ply of the search after a null
+     * move, which no position before it may be compared with.
+     * @param ply The distance from the root before the null move.
+     */
+    void pass(int ply) {
+        clocks[ply + 1] = 0;
+    }
+
+    /**
+     * Gets the key of a position, the same as the hash the search probes
+     * its transposition tables with.
+     * @param grid The chess board.
+     * @param white {@code true} if white is to move.
+     * @return The key.
+     */
+    static long getKey(Grid grid, boolean white) {
+        final long key = grid.getHash() ^ Zobrist.getCastleKey(grid);
+        return white ? key : (key ^ Zobrist.SIDE_KEY);
+    }
+
+    //true if the position has the same pawns and number of pieces as the last one of the game
+    private boolean isReversible(Grid grid) {
+        return count >= 0 && getPawns(grid) == pawns && Long.bitCount(grid.getOccupied()) == count;
+    }
+
+    //the pawns change with every pawn move, so they are hashed like the position
+    private static long getPawns(Grid grid) {
+        long key = 0L;
+        for (long occupied = grid.getOccupied(); occupied != 0; occupied &= occupied - 1) {
+            final int index = Long.numberOfTrailingZeros(occupied);
+            final Piece occupant = grid.getTile(index).getOccupant();
+            if (occupant.isPawn()) {
+                key ^= Zobrist.getKey(occupant, index);
+            }
+        }
+        return key;
+    }
+}
@@ -0,0 +1,134 @@
+package Engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the principal variation of a searched position. The line collected
+ * by the search (see {@link SearchContext#getLine(int[])}) comes first, it
+ * ends where the search cut off on an entry of the table or reached the
+ * quiescence search. The line is then continued from the
+ * {@link TranspositionTable}, by following the best move stored for each
+ * position until a position is missing, has no best move or repeats. Every
+ * move is checked to be a legal move of the position before it is made, so
+ * a collision in the table ends the line instead of corrupting the board.
+ * Entries may have been replaced since the search, so a line may be shorter
+ * than the depth searched.
+ *
+ * @author Will
+ */
+final class PrincipalVariation {
+
+    //names of the pieces a pawn promotes to, indexed by the promotion of a move
+    private static final String[] PROMOTIONS = {"", "Knight", "Bishop", "Rook", "Queen"};
+
+    private PrincipalVariation() {
+
+    }
+
+    /**
+     * Gets the principal variation of a position. The moves are made on the
+     * position of the search context of the current thread and unmade again,
+     * so the grid and pieces are unchanged afterwards.
+     * @param grid The chess board.
+     * @param whites The white pieces on the chess board.
+     * @param blacks The black pieces on the chess board.
+     * @param white {@code true} if white is to move.
+     * @param table The table the position was searched with.
+     * @param searchedLine The packed moves of the line collected by the search.
+     * @param searchedLength The number of moves of the line collected by the
+     * search, 0 to read the whole line from the table.
+     * @param maxLength The greatest number of moves of the line, unless the
+     * line collected by the search is longer.
+     * @return The moves of the line, see {@link #getMoveText(Grid, int)}.
+     */
+    static List<String> getLine(Grid grid, List<Piece> whites, List<Piece> blacks, boolean white, TranspositionTable table,
+            int[] searchedLine, int searchedLength, int maxLength) {
+        final int length = Math.min(Math.max(maxLength, searchedLength), SearchContext.MAX_PLY - 1);
+        final List<String> line = new ArrayList<>(length);
+        final SearchContext context = SearchContext.get();
+        final Position position = context.position;
+        final int[] moves = context.moves;
+        final int[] made = new int[length];
+        final long[] undos = new long[length];
+        final long[] keys = new long[length];
+        final King whiteKing = Pieces.getWhiteKing(whites);
+        final King blackKing = Pieces.getBlackKing(blacks);
+        position.set(grid, whites, blacks);
+        int ply = 0;
+        boolean toMove = white;
+        Line:
+        while (ply != length) {
+            final long key = PositionHistory.getKey(grid, toMove);
+            for (int other = 0; other != ply; ++other) {
+                if (keys[other] == key) {
+                    break Line;
+                }
+            }
+            final int expected;
+            if (ply < searchedLength) {
+                expected = searchedLine[ply];
+            }
+            else {
+                final long entry = table.probe(key);
+                if (entry == TranspositionTable.MISS || TranspositionTable.getMove(entry) == TranspositionTable.NO_MOVE) {
+                    break;
+                }
+                expected = TranspositionTable.getMove(entry);
+            }
+            final int move = findMove(grid, toMove ? whites : blacks, toMove ? whiteKing : blackKing, moves, SearchContext.getStart(ply), expected);
+            if (move == TranspositionTable.NO_MOVE) {
+                break;
+            }
+            final String text = getMoveText(grid, move);
+            final long undo = position.makeMove(move);
+            if ((toMove ? whiteKing : blackKing).inCheck(grid)) {
+                position.unmakeMove(move, undo);
+                break;
+            }
+            keys[ply] = key;
+            made[ply] = move;
+            undos[ply++] = undo;
+            line.add(text);
+            toMove = !toMove;
+        }
+        while (ply != 0) {
+            --ply;
+            position.unmakeMove(made[ply], undos[ply]);
+        }
+        return line;
+    }
+
+    /**
+     * Gets a short text of a move, the piece moved with the square it moves
+     * from and the square it moves to, separated by an x for captures.
+     * @param grid The chess board, before the move is made.
+     * @param move The packed move.
+     * @return The text of the move.
+     */
+    static String getMoveText(Grid grid, int move) {
+        final Tile previousTile = grid.getTile(Move.getFrom(move));
+        final Tile moveTile = grid.getTile(Move.getTo(move));
+        final String text = previousTile.getOccupant().getName() + " " + previousTile.getNotationLocation()
+                + (Move.isCapture(move) ? "x" : "-") + moveTile.getNotationLocation();
+        return Move.isPromotion(move) ? (text + "=" + PROMOTIONS[Move.getPromotion(move)]) : text;
+    }
+
+    //the generated move equal to the given one, or else the first with its squares, if any
+    private static int findMove(Grid grid, List<Piece> pieces, King king, int[] moves, int start, int expected) {
+        int end = MoveGenerator.generateCastles(grid, king, moves, start);
+        end = MoveGenerator.generateCaptures(grid, pieces, moves, end);
+        end = MoveGenerator.generateQuiets(grid, pieces, moves, end);
+        final int key = expected & Move.KEY_MASK;
+        int found = TranspositionTable.NO_MOVE;
+        for (int index = start; index != end; ++index) {
+            if (moves[index] == expected) {
+                return expected;
+            }
+            if (found == TranspositionTable.NO_MOVE && (moves[index] & Move.KEY_MASK) == key) {
+                found = moves[index];
+            }
+        }
+        return found;
+    }
+}
@@ -3,7 +3,6 @@ package Engine;
 import Util.ChessConstants;
 import static Util.ChessConstants.LENGTH;
 import static Util.ChessConstants.MAX_NUMBER_OF_QUEEN_MOVE_TILES;
-import java.util.ArrayList;
 import java.util.List;
 
 public final class Queen extends Piece {
@@ -44,554 +43,47 @@ public final class Queen extends Piece {
 
     @Override
     public List<Tile> getMoveTiles(Grid grid) {
-        final List<Tile> list = new ArrayList<>(MAX_NUMBER_OF_QUEEN_MOVE_TILES);
-        final int currentRow = getRow();
-        final int currentColumn = getColumn();
-        for (int nextRow = currentRow - 1; nextRow >= 0; nextRow--) {
-            Tile tile = grid.getTile(nextRow, currentColumn);
-            if (tile.isOccupied()) {
-                break;
-            }
-            list.add(tile);
-        }
-        for (int nextRow = currentRow + 1; nextRow < LENGTH; nextRow++) {
-            Tile tile = grid.getTile(nextRow, currentColumn);
-            if (tile.isOccupied()) {
-                break;
-            }
-            list.add(tile);
-        }
-        for (int nextColumn = currentColumn - 1; nextColumn >= 0; nextColumn--) {
-            Tile tile = grid.getTile(currentRow, nextColumn);
-            if (tile.isOccupied()) {
-                break;
-            }
-            list.add(tile);
-        }
-        for (int nextColumn = currentColumn + 1; nextColumn < LENGTH; nextColumn++) {
-            Tile tile = grid.getTile(currentRow, nextColumn);
-            if (tile.isOccupied()) {
-                break;
-            }
-            list.add(tile);
-        }
-        for (int nextRow = currentRow - 1, nextColumn = currentColumn - 1; nextRow >= 0 && nextColumn >= 0;) {
-            Tile tile = grid.getTile(nextRow--, nextColumn--);
-            if (tile.isOccupied()) {
-                break;
-            }
-            list.add(tile);
-        }
-        for (int nextRow = currentRow - 1, nextColumn = currentColumn + 1; nextRow >= 0 && nextColumn < LENGTH;) {
-            Tile tile = grid.getTile(nextRow--, nextColumn++);
-            if (tile.isOccupied()) {
-                break;
-            }
-            list.add(tile);
-        }
-        for (int nextRow = currentRow + 1, nextColumn = currentColumn - 1; nextRow < LENGTH && nextColumn >= 0;) {
-            Tile tile = grid.getTile(nextRow++, nextColumn--);
-            if (tile.isOccupied()) {
-                break;
-            }
-            list.add(tile);
-        }
-        for (int nextRow = currentRow + 1, nextColumn = currentColumn + 1; nextRow < LENGTH && nextColumn < LENGTH;) {
-            Tile tile = grid.getTile(nextRow++, nextColumn++);
-            if (tile.isOccupied()) {
-                break;
-            }
-            list.add(tile);
-        }
-        return list;
+        return grid.getTiles(getMoveSquares(grid), MAX_NUMBER_OF_QUEEN_MOVE_TILES);
     }
 
     @Override
     public List<Tile> getAttackTiles(Grid grid) {
-        final List<Tile> list = new ArrayList<>(ChessConstants.NUMBER_OF_QUEEN_ATTACK_TILES);
-        final int currentRow = getRow();
-        final int currentColumn = getColumn();
-        for (int nextRow = currentRow - 1; nextRow >= 0; nextRow--) {
-            Tile tile = grid.getTile(nextRow, currentColumn);
-            if (tile.isOccupied()) {
-                if (!isAlly(tile.getOccupant())) {
-                    list.add(tile);
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow + 1; nextRow < LENGTH; nextRow++) {
-            Tile tile = grid.getTile(nextRow, currentColumn);
-            if (tile.isOccupied()) {
-                if (!isAlly(tile.getOccupant())) {
-                    list.add(tile);
-                }
-                break;
-            }
-        }
-        for (int nextColumn = currentColumn - 1; nextColumn >= 0; nextColumn--) {
-            Tile tile = grid.getTile(currentRow, nextColumn);
-            if (tile.isOccupied()) {
-                if (!isAlly(tile.getOccupant())) {
-                    list.add(tile);
-                }
-                break;
-            }
-        }
-        for (int nextColumn = currentColumn + 1; nextColumn < LENGTH; nextColumn++) {
-            Tile tile = grid.getTile(currentRow, nextColumn);
-            if (tile.isOccupied()) {
-                if (!isAlly(tile.getOccupant())) {
-                    list.add(tile);
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow - 1, nextColumn = currentColumn - 1; nextRow >= 0 && nextColumn >= 0;) {
-            Tile tile = grid.getTile(nextRow--, nextColumn--);
-            if (tile.isOccupied()) {
-                if (!isAlly(tile.getOccupant())) {
-                    list.add(tile);
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow - 1, nextColumn = currentColumn + 1; nextRow >= 0 && nextColumn < LENGTH;) {
-            Tile tile = grid.getTile(nextRow--, nextColumn++);
-            if (tile.isOccupied()) {
-                if (!isAlly(tile.getOccupant())) {
-                    list.add(tile);
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow + 1, nextColumn = currentColumn - 1; nextRow < LENGTH && nextColumn >= 0;) {
-            Tile tile = grid.getTile(nextRow++, nextColumn--);
-            if (tile.isOccupied()) {
-                if (!isAlly(tile.getOccupant())) {
-                    list.add(tile);
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow + 1, nextColumn = currentColumn + 1; nextRow < LENGTH && nextColumn < LENGTH;) {
-            Tile tile = grid.getTile(nextRow++, nextColumn++);
-            if (tile.isOccupied()) {
-                if (!isAlly(tile.getOccupant())) {
-                    list.add(tile);
-                }
-                break;
-            }
-        }
-        return list;
+        return grid.getTiles(getAttackSquares(grid), ChessConstants.NUMBER_OF_QUEEN_ATTACK_TILES);
+    }
+
+    @Override
+    long getMoveSquares(Grid grid) {
+        return Magic.getQueenAttacks(getIndex(), grid.getOccupied()) & ~grid.getOccupied();
+    }
+
+    @Override
+    long getAttackSquares(Grid grid) {
+        return Magic.getQueenAttacks(getIndex(), grid.getOccupied()) & (isWhite() ? grid.getBlackOccupied() : grid.getWhiteOccupied());
     }
 
     @Override
     public List<Tile> getProtectedTiles(Grid grid) {
-        final List<Tile> list = new ArrayList<>();
-        final int currentRow = getRow();
-        final int currentColumn = getColumn();
-        for (int nextRow = currentRow - 1; nextRow >= 0;) {
-            Tile tile = grid.getTile(nextRow--, currentColumn);
-            list.add(tile);
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (nextRow >= 0) {
-                        Tile pierceTile = grid.getTile(nextRow, currentColumn);
-                        if (!pierceTile.isOccupied()) {
-                            list.add(pierceTile);
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow + 1; nextRow < LENGTH;) {
-            Tile tile = grid.getTile(nextRow++, currentColumn);
-            list.add(tile);
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (nextRow < LENGTH) {
-                        Tile pierceTile = grid.getTile(nextRow, currentColumn);
-                        if (!pierceTile.isOccupied()) {
-                            list.add(pierceTile);
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextColumn = currentColumn - 1; nextColumn >= 0;) {
-            Tile tile = grid.getTile(currentRow, nextColumn--);
-            list.add(tile);
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (nextColumn >= 0) {
-                        Tile pierceTile = grid.getTile(currentRow, nextColumn);
-                        if (!pierceTile.isOccupied()) {
-                            list.add(pierceTile);
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextColumn = currentColumn + 1; nextColumn < LENGTH;) {
-            Tile tile = grid.getTile(currentRow, nextColumn++);
-            list.add(tile);
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (nextColumn < LENGTH) {
-                        Tile pierceTile = grid.getTile(currentRow, nextColumn);
-                        if (!pierceTile.isOccupied()) {
-                            list.add(pierceTile);
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow - 1, nextColumn = currentColumn - 1; nextRow >= 0 && nextColumn >= 0;) {
-            Tile tile = grid.getTile(nextRow--, nextColumn--);
-            list.add(tile);
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (nextRow >= 0 && nextColumn >= 0) {
-                        Tile pierceTile = grid.getTile(nextRow, nextColumn);
-                        if (!pierceTile.isOccupied()) {
-                            list.add(pierceTile);
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow - 1, nextColumn = currentColumn + 1; nextRow >= 0 && nextColumn < LENGTH;) {
-            Tile tile = grid.getTile(nextRow--, nextColumn++);
-            list.add(tile);
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (nextRow >= 0 && nextColumn < LENGTH) {
-                        Tile pierceTile = grid.getTile(nextRow, nextColumn);
-                        if (!pierceTile.isOccupied()) {
-                            list.add(pierceTile);
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow + 1, nextColumn = currentColumn - 1; nextRow < LENGTH && nextColumn >= 0;) {
-            Tile tile = grid.getTile(nextRow++, nextColumn--);
-            list.add(tile);
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (nextRow < LENGTH && nextColumn >= 0) {
-                        Tile pierceTile = grid.getTile(nextRow, nextColumn);
-                        if (!pierceTile.isOccupied()) {
-                            list.add(pierceTile);
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow + 1, nextColumn = currentColumn + 1; nextRow < LENGTH && nextColumn < LENGTH;) {
-            Tile tile = grid.getTile(nextRow++, nextColumn++);
-            list.add(tile);
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (nextRow < LENGTH && nextColumn < LENGTH) {
-                        Tile pierceTile = grid.getTile(nextRow, nextColumn);
-                        if (!pierceTile.isOccupied()) {
-                            list.add(pierceTile);
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        return list;
+        final long protections = getProtections(grid);
+        return grid.getTiles(protections, Long.bitCount(protections));
     }
-    
+
     @Override
     public void setProtectedTiles(Grid grid) {
-        final int currentRow = getRow();
-        final int currentColumn = getColumn();
-        for (int nextRow = currentRow - 1; nextRow >= 0;) {
-            Tile tile = grid.getTile(nextRow--, currentColumn);
-            tile.setProtectedBy(this);
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (nextRow >= 0) {
-                        Tile pierceTile = grid.getTile(nextRow, currentColumn);
-                        if (!pierceTile.isOccupied()) {
-                            pierceTile.setProtectedBy(this);
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow + 1; nextRow < LENGTH;) {
-            Tile tile = grid.getTile(nextRow++, currentColumn);
-            tile.setProtectedBy(this);
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (nextRow < LENGTH) {
-                        Tile pierceTile = grid.getTile(nextRow, currentColumn);
-                        if (!pierceTile.isOccupied()) {
-                            pierceTile.setProtectedBy(this);
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextColumn = currentColumn - 1; nextColumn >= 0;) {
-            Tile tile = grid.getTile(currentRow, nextColumn--);
-            tile.setProtectedBy(this);
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (nextColumn >= 0) {
-                        Tile pierceTile = grid.getTile(currentRow, nextColumn);
-                        if (!pierceTile.isOccupied()) {
-                            pierceTile.setProtectedBy(this);
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextColumn = currentColumn + 1; nextColumn < LENGTH;) {
-            Tile tile = grid.getTile(currentRow, nextColumn++);
-            tile.setProtectedBy(this);
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (nextColumn < LENGTH) {
-                        Tile pierceTile = grid.getTile(currentRow, nextColumn);
-                        if (!pierceTile.isOccupied()) {
-                            pierceTile.setProtectedBy(this);
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow - 1, nextColumn = currentColumn - 1; nextRow >= 0 && nextColumn >= 0;) {
-            Tile tile = grid.getTile(nextRow--, nextColumn--);
-            tile.setProtectedBy(this);
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (nextRow >= 0 && nextColumn >= 0) {
-                        Tile pierceTile = grid.getTile(nextRow, nextColumn);
-                        if (!pierceTile.isOccupied()) {
-                            pierceTile.setProtectedBy(this);
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow - 1, nextColumn = currentColumn + 1; nextRow >= 0 && nextColumn < LENGTH;) {
-            Tile tile = grid.getTile(nextRow--, nextColumn++);
-            tile.setProtectedBy(this);
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (nextRow >= 0 && nextColumn < LENGTH) {
-                        Tile pierceTile = grid.getTile(nextRow, nextColumn);
-                        if (!pierceTile.isOccupied()) {
-                            pierceTile.setProtectedBy(this);
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow + 1, nextColumn = currentColumn - 1; nextRow < LENGTH && nextColumn >= 0;) {
-            Tile tile = grid.getTile(nextRow++, nextColumn--);
-            tile.setProtectedBy(this);
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (nextRow < LENGTH && nextColumn >= 0) {
-                        Tile pierceTile = grid.getTile(nextRow, nextColumn);
-                        if (!pierceTile.isOccupied()) {
-                            pierceTile.setProtectedBy(this);
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow + 1, nextColumn = currentColumn + 1; nextRow < LENGTH && nextColumn < LENGTH;) {
-            Tile tile = grid.getTile(nextRow++, nextColumn++);
-            tile.setProtectedBy(this);
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (nextRow < LENGTH && nextColumn < LENGTH) {
-                        Tile pierceTile = grid.getTile(nextRow, nextColumn);
-                        if (!pierceTile.isOccupied()) {
-                            pierceTile.setProtectedBy(this);
-                        }
-                    }
-                }
-                break;
-            }
-        }
+        grid.setProtectedBy(getProtections(grid), this);
     }
-    
+
     @Override
     public int getNumberOfProtectedTiles(Grid grid) {
-        int count = 0;
-        final int currentRow = getRow();
-        final int currentColumn = getColumn();
-        for (int nextRow = currentRow - 1; nextRow >= 0;) {
-            Tile tile = grid.getTile(nextRow--, currentColumn);
-            ++count;
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (nextRow >= 0) {
-                        if (!grid.getTile(nextRow, currentColumn).isOccupied()) {
-                            ++count;
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow + 1; nextRow < LENGTH;) {
-            Tile tile = grid.getTile(nextRow++, currentColumn);
-            ++count;
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (nextRow < LENGTH) {
-                        if (!grid.getTile(nextRow, currentColumn).isOccupied()) {
-                            ++count;
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextColumn = currentColumn - 1; nextColumn >= 0;) {
-            Tile tile = grid.getTile(currentRow, nextColumn--);
-            ++count;
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (nextColumn >= 0) {
-                        if (!grid.getTile(currentRow, nextColumn).isOccupied()) {
-                            ++count;
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextColumn = currentColumn + 1; nextColumn < LENGTH;) {
-            Tile tile = grid.getTile(currentRow, nextColumn++);
-            ++count;
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (nextColumn < LENGTH) {
-                        if (!grid.getTile(currentRow, nextColumn).isOccupied()) {
-                            ++count;
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow - 1, nextColumn = currentColumn - 1; nextRow >= 0 && nextColumn >= 0;) {
-            Tile tile = grid.getTile(nextRow--, nextColumn--);
-            ++count;
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (nextRow >= 0 && nextColumn >= 0) {
-                        if (!grid.getTile(nextRow, nextColumn).isOccupied()) {
-                            ++count;
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow - 1, nextColumn = currentColumn + 1; nextRow >= 0 && nextColumn < LENGTH;) {
-            Tile tile = grid.getTile(nextRow--, nextColumn++);
-            ++count;
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (nextRow >= 0 && nextColumn < LENGTH) {
-                        if (!grid.getTile(nextRow, nextColumn).isOccupied()) {
-                            ++count;
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow + 1, nextColumn = currentColumn - 1; nextRow < LENGTH && nextColumn >= 0;) {
-            Tile tile = grid.getTile(nextRow++, nextColumn--);
-            ++count;
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (nextRow < LENGTH && nextColumn >= 0) {
-                        if (!grid.getTile(nextRow, nextColumn).isOccupied()) {
-                            ++count;
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        for (int nextRow = currentRow + 1, nextColumn = currentColumn + 1; nextRow < LENGTH && nextColumn < LENGTH;) {
-            Tile tile = grid.getTile(nextRow++, nextColumn++);
-            ++count;
-            if (tile.isOccupied()) {
-                Piece occupant = tile.getOccupant();
-                if (occupant.isKing() && !isAlly(occupant)) {
-                    if (nextRow < LENGTH && nextColumn < LENGTH) {
-                        if (!grid.getTile(nextRow, nextColumn).isOccupied()) {
-                            ++count;
-                        }
-                    }
-                }
-                break;
-            }
-        }
-        return count;
+        return Long.bitCount(getProtections(grid));
     }
-    
-    /**
-     * q
-     *  []
-     *    []
-     *      k
-     * @param grid
-     * @return 
-     */
+
+    //squares protected by this queen, including the square behind the enemy king
+    @Override
+    long getProtections(Grid grid) {
+        final int index = getIndex();
+        return grid.getRookProtections(index, isWhite()) | grid.getBishopProtections(index, isWhite());
+    }
+
     public int getNumberOfTilesTowardsEnemyKing(Grid grid) {
         final int currentRow = getRow();
         final int currentColumn = getColumn();
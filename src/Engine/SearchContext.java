@@ -0,0 +1,186 @@
+package Engine;
+
+import Util.ChessConstants;
+
+/**
+ * Buffers owned by one search thread, so that searching allocates nothing
+ * per position. Every ply generates its moves into its own slice of one
+ * array, which stays valid while the plies below it are searched, and
+ * makes them on the position of the thread in the order of its
+ * {@link MoveOrdering}. The positions of the game and of the line being
+ * searched are kept in its {@link PositionHistory}. The context also
+ * counts the nodes of its thread, so that the timer is only checked once
+ * every {@link #TIME_CHECK_NODES} nodes.
+ *
+ * The principal variation is collected in a triangular table while
+ * searching. Each ply has a row of its own, which holds the best line from
+ * that ply on: whenever a move raises alpha (or lowers beta), it is put in
+ * front of the line of the ply below it. The line of the root is left in
+ * row 0 once the search returns. The line of the previous iteration can be
+ * followed in the next one, its move is then tried first at every ply for
+ * as long as the moves searched are the ones of the line.
+ *
+ * @author Will
+ */
+final class SearchContext {
+
+    static final int MAX_PLY = 64;
+
+    /**
+     * The number of nodes searched between two checks of the timer, a
+     * fraction of a millisecond of searching.
+     */
+    static final int TIME_CHECK_NODES = 1024;
+
+    final int[] moves = new int[MAX_PLY * MoveGenerator.MAX_MOVES];
+
+    final Position position = new Position();
+
+    final MoveOrdering ordering = new MoveOrdering();
+
+    final PositionHistory history = new PositionHistory();
+
+    //row ply holds the line from ply on, from index ply * MAX_PLY + ply
+    private final int[] lines = new int[(MAX_PLY + 1) * MAX_PLY];
+    //the ply after the last move of the line of each ply
+    private final int[] lineEnds = new int[MAX_PLY + 1];
+
+    //the line of the previous iteration, and whether each ply is still on it
+    private final int[] followedLine = new int[MAX_PLY];
+    private int followedLength;
+    private final boolean[] onLine = new boolean[MAX_PLY + 1];
+
+    private SearchTimer timer;
+
+    //nodes left until the timer is checked again, and whether it was over
+    private int nodesUntilCheck;
+    private boolean timeOver;
+
+    @SuppressWarnings("Convert2Lambda")
+    private static final ThreadLocal<SearchContext> CONTEXTS = new ThreadLocal<SearchContext>() {
+        @Override
+        protected SearchContext initialValue() {
+            return new SearchContext();
+        }
+    };
+
+    private SearchContext() {
+
+    }
+
+    /**
+     * Gets the context of the current thread, creating it the first time.
+     * @return The search context of the current thread.
+     */
+    static SearchContext get() {
+        return CONTEXTS.get();
+    }
+
+    /**
+     * Starts a search timed by the given timer.
+     * @param searchTimer The timer of the search.
+     */
+    void startTiming(SearchTimer searchTimer) {
+        timer = searchTimer;
+        nodesUntilCheck = 0;
+        timeOver = false;
+    }
+
+    /**
+     * Determines whether the search has to stop, which is only checked with
+     * the timer once every {@link #TIME_CHECK_NODES} calls. Once this
+     * returns {@code true} it does so until the next search starts, and so
+     * does {@link SearchTimer#timeOver()}.
+     * @return {@code true} if the time of the search is over.
+     */
+    boolean isTimeOver() {
+        if (!timeOver && --nodesUntilCheck < 0) {
+            nodesUntilCheck = TIME_CHECK_NODES - 1;
+            timeOver = timer.checkDeadline();
+        }
+        return timeOver;
+    }
+
+    /**
+     * Empties the line of a ply, before the ply is searched.
+     * @param ply The distance from the root.
+     */
+    void clearLine(int ply) {
+        lineEnds[ply] = ply;
+    }
+
+    /**
+     * Makes a move the best move of a ply, followed by the line of the ply
+     * below, which was just searched after the move.
+     * @param ply The distance from the root.
+     * @param move The packed move.
+     */
+    void updateLine(int ply, int move) {
+        final int row = ply * MAX_PLY;
+        final int end = lineEnds[ply + 1];
+        lines[row + ply] = move;
+        System.arraycopy(lines, row + MAX_PLY + ply + 1, lines, row + ply + 1, end - ply - 1);
+        lineEnds[ply] = end;
+    }
+
+    /**
+     * Copies the line of the root, the principal variation of the last search.
+     * @param line The array to copy the packed moves into, at least
+     * {@link #MAX_PLY} long.
+     * @return The number of moves of the line.
+     */
+    int getLine(int[] line) {
+        final int length = lineEnds[0];
+        System.arraycopy(lines, 0, line, 0, length);
+        return length;
+    }
+
+    /**
+     * Sets the line the next search follows, usually the principal variation
+     * of the previous iteration. The array is copied.
+     * @param line The packed moves of the line.
+     * @param length The number of moves of the line, 0 to follow none.
+     */
+    void followLine(int[] line, int length) {
+        System.arraycopy(line, 0, followedLine, 0, length);
+        followedLength = length;
+        onLine[0] = length != 0;
+    }
+
+    /**
+     * Gets the move to try first at a ply, the move of the followed line
+     * while the ply is still on it, or else the move of the transposition
+     * table.
+     * @param ply The distance from the root.
+     * @param hashMove The best move in the transposition table, without promotion.
+     * @return The move to try first, without promotion.
+     */
+    int getLineMove(int ply, int hashMove) {
+        return (onLine[ply] && ply < followedLength) ? (followedLine[ply] & Move.KEY_MASK) : hashMove;
+    }
+
+    /**
+     * Records the move made at a ply before the ply below is searched, so
+     * the ply below stays on the followed line only if the move is its move.
+     * @param ply The distance from the root.
+     * @param move The packed move, or {@link TranspositionTable#NO_MOVE} for a pass.
+     */
+    void follow(int ply, int move) {
+        onLine[ply + 1] = onLine[ply] && ply < followedLength && followedLine[ply] == move;
+    }
+
+    static int getStart(int ply) {
+        return ply * MoveGenerator.MAX_MOVES;
+    }
+
+    /**
+     * Gets the score of checkmating at the given distance from the root,
+     * which is higher the closer the checkmate is, so that the search
+     * prefers shorter mates. The score of being checkmated is its negation.
+     * @param ply The distance from the root of the checkmated position.
+     * @return The mate score, at least {@link ChessConstants#CHECKMATE_VALUE}.
+     */
+    static int getMateScore(int ply) {
+        return ChessConstants.CHECKMATE_VALUE + MAX_PLY - ply;
+    }
+}
@@ -0,0 +1,185 @@
+package Engine;
+
+import Util.ChessConstants;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * The margins and reductions of the selective parts of the Alpha-Beta
+ * search, kept in one place so they can be tuned without recompiling.
+ * Parameters are read from a properties file:
+ * <pre>
+ * lateMoveMinDepth        depth left from which late moves are reduced
+ * lateMoveMinMoves        moves of a node that are never reduced
+ * lateMoveBase            reduction = base + ln(depth) * ln(move) / divisor
+ * lateMoveDivisor
+ * futilityMargins         one margin per depth left, quiet moves are pruned
+ *                         when the evaluation plus the margin cannot reach alpha
+ * reverseFutilityMargins  one margin per depth left, the node is pruned when the
+ *                         evaluation minus the margin still reaches beta
+ * </pre>
+ * Margins are separated by spaces and the first margin, for no depth left,
+ * is never used. Missing keys keep their defaults, which are based on the
+ * piece values of {@link ChessConstants}. Parameters never change once
+ * made, so every search thread may share them.
+ *
+ * @author Will
+ */
+final class SearchParameters {
+
+    /**
+     * The file in the working directory that the search reads its
+     * parameters from when the program starts, if it exists.
+     */
+    static final String FILE_NAME = "SearchParameters.properties";
+
+    //reductions are looked up with the depth and move number capped at this
+    private static final int TABLE_LENGTH = 64;
+
+    private final int lateMoveMinDepth;
+    private final int lateMoveMinMoves;
+    private final int[] lateMoveReductions = new int[TABLE_LENGTH * TABLE_LENGTH];
+    private final int[] futilityMargins;
+    private final int[] reverseFutilityMargins;
+
+    /**
+     * Constructs the default parameters.
+     */
+    SearchParameters() {
+        this(new Properties());
+    }
+
+    /**
+     * Constructs parameters from the given properties.
+     * @param properties The properties, missing keys keep their defaults.
+     * @throws IllegalArgumentException If a value is not a number or is negative.
+     */
+    SearchParameters(Properties properties) {
+        lateMoveMinDepth = getInt(properties, "lateMoveMinDepth", 3);
+        lateMoveMinMoves = getInt(properties, "lateMoveMinMoves", 3);
+        final double base = getDouble(properties, "lateMoveBase", 0.5);
+        final double divisor = getDouble(properties, "lateMoveDivisor", 2.5);
+        if (divisor <= 0.0) {
+            throw new IllegalArgumentException("lateMoveDivisor must be positive: " + divisor);
+        }
+        for (int depth = 1; depth != TABLE_LENGTH; ++depth) {
+            for (int move = 1; move != TABLE_LENGTH; ++move) {
+                lateMoveReductions[(depth * TABLE_LENGTH) + move] = (int) (base + ((Math.log(depth) * Math.log(move)) / divisor));
+            }
+        }
+        futilityMargins = getInts(properties, "futilityMargins",
+                0, 2 * ChessConstants.PAWN_VALUE, ChessConstants.KNIGHT_VALUE, ChessConstants.ROOK_VALUE);
+        reverseFutilityMargins = getInts(properties, "reverseFutilityMargins",
+                0, ChessConstants.PAWN_VALUE, 2 * ChessConstants.PAWN_VALUE, ChessConstants.KNIGHT_VALUE);
+    }
+
+    /**
+     * Reads the parameters from {@link #FILE_NAME} in the working directory,
+     * or makes the default parameters if there is no such file.
+     * @return The parameters.
+     * @throws IllegalArgumentException If the file cannot be read or
+     * holds an invalid value.
+     */
+    static SearchParameters read() {
+        final File file = new File(FILE_NAME);
+        if (!file.isFile()) {
+            return new SearchParameters();
+        }
+        try (InputStream input = new FileInputStream(file)) {
+            final Properties properties = new Properties();
+            properties.load(input);
+            return new SearchParameters(properties);
+        }
+        catch (IOException ex) {
+            throw new IllegalArgumentException("Could not read " + file.getAbsolutePath(), ex);
+        }
+    }
+
+    /**
+     * Gets how many ply to reduce a late move by.
+     * @param depth The depth left at the node.
+     * @param move The number of moves searched at the node before this one.
+     * @return The reduction, 0 if the move is not reduced.
+     */
+    int getLateMoveReduction(int depth, int move) {
+        if (depth < lateMoveMinDepth || move < lateMoveMinMoves) {
+            return 0;
+        }
+        //a reduced move is always searched at least one ply deep
+        final int reduction = lateMoveReductions[(Math.min(depth, TABLE_LENGTH - 1) * TABLE_LENGTH) + Math.min(move, TABLE_LENGTH - 1)];
+        return Math.max(0, Math.min(reduction, depth - 2));
+    }
+
+    /**
+     * Gets the futility margin of a node.
+     * @param depth The depth left at the node.
+     * @return The margin, or -1 if futility pruning is not used at this depth.
+     */
+    int getFutilityMargin(int depth) {
+        return (depth < futilityMargins.length) ? futilityMargins[depth] : -1;
+    }
+
+    /**
+     * Gets the reverse futility margin of a node.
+     * @param depth The depth left at the node.
+     * @return The margin, or -1 if reverse futility pruning is not used at this depth.
+     */
+    int getReverseFutilityMargin(int depth) {
+        return (depth < reverseFutilityMargins.length) ? reverseFutilityMargins[depth] : -1;
+    }
+
+    /**
+     * Gets the greatest depth left at which either futility pruning is used.
+     * @return The depth.
+     */
+    int getMaxFutilityDepth() {
+        return Math.max(futilityMargins.length, reverseFutilityMargins.length) - 1;
+    }
+
+    private static int getInt(Properties properties, String key, int defaultValue) {
+        final String value = properties.getProperty(key);
+        return (value == null) ? defaultValue : parse(key, value.trim());
+    }
+
+    private static double getDouble(Properties properties, String key, double defaultValue) {
+        final String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        }
+        catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid value of " + key + ": " + value, ex);
+        }
+    }
+
+    private static int[] getInts(Properties properties, String key, int... defaultValues) {
+        final String value = properties.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValues;
+        }
+        final String[] values = value.trim().split("\\s+");
+        final int[] margins = new int[values.length];
+        for (int index = 0; index != values.length; ++index) {
+            margins[index] = parse(key, values[index]);
+        }
+        return margins;
+    }
+
+    private static int parse(String key, String value) {
+        try {
+            final int parsed = Integer.parseInt(value);
+            if (parsed < 0) {
+                throw new IllegalArgumentException("Negative value of " + key + ": " + value);
+            }
+            return parsed;
+        }
+        catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid value of " + key + ": " + value, ex);
+        }
+    }
+}
@@ -1,16 +1,43 @@
 package Engine;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Timer class used to time how long an {@link AI} can
- * spend searching. 
+ * spend searching. Starting the countdown schedules its end on a single
+ * daemon thread shared by every timer, which sleeps until the deadline
+ * and then stops the countdown, so no thread spins while the search runs.
+ * The search checks {@link #checkDeadline()} once every
+ * {@link SearchContext#TIME_CHECK_NODES} nodes instead of at every node,
+ * see {@link SearchContext#isTimeOver()}.
  * @author Will
  */
 public final class SearchTimer {
-    
-    private final Countdown countdown;
-    
+
+    //ends the countdowns of every timer, never keeps the program running
+    @SuppressWarnings("Convert2Lambda")
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            final Thread thread = new Thread(runnable, "Search Timer");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final Runnable expiration = new Runnable() {
+        @Override
+        public void run() {
+            expire();
+        }
+    };
+
+    private volatile String name;
+
     private volatile boolean terminated = false;
     private volatile boolean timing = false;
     
@@ -18,25 +45,28 @@ public final class SearchTimer {
     private volatile long startTime;
     private volatile long nanosecondsElapsed;
 
-    @SuppressWarnings("CallToThreadStartDuringObjectConstruction")
+    //length of the current countdown, which may differ from the countdown time
+    private volatile long countdownLength;
+
+    //end of the current countdown, null if the timer is not counting down
+    private ScheduledFuture<?> deadline;
+
     SearchTimer(int seconds, String timerName) {
         if (timerName == null) {
             throw new NullPointerException("SearchTimer name cannot be null.");
         }
         nanosecondsCountdown = TimeUnit.NANOSECONDS.convert(seconds, TimeUnit.SECONDS);
-        (countdown = new Countdown(timerName)).start();
+        name = timerName;
     }
         
     /**
      * Sets the name of this SearchTimer. If the given name is null, this method
      * returns immediately.
      * @param timerName The new name of this SearchTimer.
-     * @throws SecurityException If the given name cannot replace
-     * the current SearchTimer name.
      */
-    public void setName(String timerName) throws SecurityException {
+    public void setName(String timerName) {
         if (timerName != null) {
-            countdown.setName(timerName);
+            name = timerName;
         }
     }
     
@@ -45,7 +75,7 @@ public final class SearchTimer {
      * @return The current name of this SearchTimer.
      */
     public String getName() {
-        return countdown.getName();
+        return name;
     }
     
     /**
@@ -66,18 +96,32 @@ public final class SearchTimer {
 
     /**
      * Starts the countdown of this SearchTimer.
+     * @throws IllegalStateException If this SearchTimer is disabled.
      */
     public void startTiming() {
-        nanosecondsElapsed = 0;
-        startTime = System.nanoTime();
-        timing = true;
+        start(nanosecondsCountdown);
+    }
+
+    /**
+     * Starts a countdown of the given length, without changing the countdown
+     * time of this SearchTimer, for a move whose time is managed by the
+     * clock of the game.
+     * @param milliseconds The length of the countdown (in milliseconds).
+     * @throws IllegalStateException If this SearchTimer is disabled.
+     */
+    public void startTiming(long milliseconds) {
+        start(TimeUnit.NANOSECONDS.convert(milliseconds, TimeUnit.MILLISECONDS));
     }
 
     /**
      * Forcibly stops the countdown of this SearchTimer.
      */
-    public void stopTiming() {
-        timing = false;
+    public synchronized void stopTiming() {
+        if (timing) {
+            nanosecondsElapsed = System.nanoTime() - startTime;
+            timing = false;
+        }
+        cancelDeadline();
     }
     
     /**
@@ -87,7 +131,19 @@ public final class SearchTimer {
      * has started its countdown.
      */
     public int timeElapsed() {
-        return (int) TimeUnit.SECONDS.convert(nanosecondsElapsed, TimeUnit.NANOSECONDS);
+        final long elapsed = timing ? (System.nanoTime() - startTime) : nanosecondsElapsed;
+        return (int) TimeUnit.SECONDS.convert(elapsed, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the number of milliseconds that has elapsed since this SearchTimer
+     * has started its countdown.
+     * @return The number of milliseconds that has elapsed since this SearchTimer
+     * has started its countdown.
+     */
+    public long millisecondsElapsed() {
+        final long elapsed = timing ? (System.nanoTime() - startTime) : nanosecondsElapsed;
+        return TimeUnit.MILLISECONDS.convert(elapsed, TimeUnit.NANOSECONDS);
     }
 
     /**
@@ -98,51 +154,65 @@ public final class SearchTimer {
     public boolean timeOver() {
         return !timing;
     }
-    
+
     /**
-     * Permanently disables this SearchTimer and terminates its 
-     * internal thread.
+     * Determines whether or not this SearchTimer is active like
+     * {@link #timeOver()}, but also ends the countdown if its deadline has
+     * passed before the scheduled end ran. Either way, once this returns
+     * {@code true} so does {@link #timeOver()}.
+     * @return {@code true} if this SearchTimer is not counting down, {@code false}
+     * otherwise.
      */
-    public void disable() {
-        terminated = true;
+    public boolean checkDeadline() {
+        if (timing && (System.nanoTime() - startTime) >= countdownLength) {
+            expire();
+        }
+        return !timing;
     }
     
     /**
-     * Countdown helper thread class to hide the {@link run()} method
-     * from outside callers.
+     * Permanently disables this SearchTimer, stopping its countdown.
      */
-    private final class Countdown extends Thread {
-        
-        private Countdown(String threadName) {
-            super(threadName);
+    public synchronized void disable() {
+        terminated = true;
+        stopTiming();
+    }
+
+    private synchronized void start(long nanoseconds) {
+        if (terminated) {
+            throw new IllegalStateException(name + " is disabled.");
         }
+        cancelDeadline();
+        nanosecondsElapsed = 0;
+        startTime = System.nanoTime();
+        countdownLength = nanoseconds;
+        timing = true;
+        deadline = SCHEDULER.schedule(expiration, nanoseconds, TimeUnit.NANOSECONDS);
+    }
 
-        @Override
-        public final void run() {
-            try {
-                while (!terminated) { //loop forever
-                    if (timing) { //if timer is running
-                        //update time
-                        if ((nanosecondsElapsed = (System.nanoTime() - startTime)) >= nanosecondsCountdown) {
-                            timing = false; //if time is reached, then stop running.
-                            //System.out.println(secondsElapsed);
-                        }
-                    }
-                    else {
-                        TimeUnit.MILLISECONDS.sleep(1000); //was 100
-                    }
-                }
-            }
-            catch (InterruptedException ex) {
-                throw new RuntimeException(ex);
+    //ends the countdown if it is due, an earlier countdown may end late
+    private synchronized void expire() {
+        if (timing) {
+            final long elapsed = System.nanoTime() - startTime;
+            if (elapsed >= countdownLength) {
+                nanosecondsElapsed = elapsed;
+                timing = false;
+                cancelDeadline();
             }
         }
     }
+
+    private void cancelDeadline() {
+        if (deadline != null) {
+            deadline.cancel(false);
+            deadline = null;
+        }
+    }
     
     /**
      * This method always throws a {@link CloneNotSupportedException} because a
-     * SearchTimer cannot be properly cloned as it uses an internal {@link Thread} for
-     * concurrent timing.
+     * SearchTimer cannot be properly cloned as it schedules the end of its
+     * countdown.
      *
      * @return Never
      * @throws CloneNotSupportedException
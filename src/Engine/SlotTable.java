@@ -0,0 +1,103 @@
+package Engine;
+
+/**
+ * Fixed size hash table of entries packed into a single long, with one
+ * slot per index that is always replaced. This is the table of the
+ * {@link PawnTable} and the {@link EvaluationCache}, which only compute
+ * their keys and pack their entries.
+ *
+ * The table is shared by every search thread without locks. Like the
+ * {@link TranspositionTable}, each slot keeps the key XOR the entry
+ * instead of the key, so an entry torn by two threads writing the same
+ * slot at once no longer matches its key and is treated as a miss. An
+ * empty slot holds 0, so an entry of 0 is never found. The counters of
+ * probes and hits are not atomic, so they may lose a few counts while
+ * threads search in parallel, which is precise enough for choosing the
+ * size of the table.
+ *
+ * @author Will
+ */
+abstract class SlotTable {
+
+    //returned by probe if the key is not in the table
+    public static final long MISS = 0L;
+
+    //default size, 2^16 slots of a key and an entry at 16 bytes each is 1 MB
+    public static final int DEFAULT_SLOTS = 1 << 16;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+
+    private long probes;
+    private long hits;
+
+    /**
+     * Constructs a table with the given number of slots.
+     * @param slots The number of slots, rounded up to a power of two.
+     */
+    SlotTable(int slots) {
+        if (slots <= 0) {
+            throw new IllegalArgumentException("Invalid number of slots: " + slots);
+        }
+        final int size = (Integer.bitCount(slots) == 1) ? slots : (Integer.highestOneBit(slots) << 1);
+        keys = new long[size];
+        data = new long[size];
+        mask = size - 1;
+    }
+
+    public void clear() {
+        for (int index = (keys.length - 1); index >= 0; --index) {
+            keys[index] = data[index] = 0L;
+        }
+        resetCounters();
+    }
+
+    /**
+     * Looks up the entry of the given key.
+     * @param key The key.
+     * @return The packed entry, or {@link #MISS} if the key is not in the table.
+     */
+    public long probe(long key) {
+        ++probes;
+        final int index = (int) key & mask;
+        //read the slot once, another thread may be writing it
+        final long entry = data[index];
+        if (entry != MISS && (keys[index] ^ entry) == key) {
+            ++hits;
+            return entry;
+        }
+        return MISS;
+    }
+
+    /**
+     * Stores an entry, replacing whatever was in its slot.
+     * @param key The key.
+     * @param entry The packed entry, which is never found if it is 0.
+     */
+    final void storeEntry(long key, long entry) {
+        final int index = (int) key & mask;
+        data[index] = entry;
+        keys[index] = key ^ entry;
+    }
+
+    public long getProbes() {
+        return probes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the fraction of probes that found their key.
+     * @return The hit rate, 0 if there were no probes.
+     */
+    public double getHitRate() {
+        return (probes == 0) ? 0.0 : ((double) hits / probes);
+    }
+
+    public void resetCounters() {
+        probes = hits = 0;
+    }
+}
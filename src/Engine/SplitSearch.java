@@ -0,0 +1,336 @@
+package Engine;
+
+import static Util.Constants.NEGATIVE_INFINITY;
+import static Util.Constants.POSITIVE_INFINITY;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parallel Alpha-Beta search splitting the tree with Young Brothers Wait.
+ * The first move of a node is searched before anything else, since it
+ * usually sets the window the other moves are searched with. The remaining
+ * moves, its younger brothers, are then forked as tasks of a work stealing
+ * pool, and every result tightens the window of the node atomically so the
+ * brothers still waiting to start see it. Once the window of a node closes,
+ * its brothers that have not started yet are skipped.
+ *
+ * The eldest brother is only worth waiting for when it is the best move,
+ * so every node probes the transposition table of the side of the search
+ * and orders its moves with the {@link MoveOrdering} of its thread, hash
+ * move first, before anything is forked, and stores its result once all of
+ * its brothers returned. A side in check is searched one ply deeper, like
+ * the serial search does. The keys of the split nodes and their halfmove
+ * clock are passed down the tree, so repetitions through the split nodes
+ * and the fifty-move rule are detected like in the serial search.
+ *
+ * Nodes close to the leaves are not worth a task and are searched by
+ * {@link AlphaBetaWhite} or {@link AlphaBetaBlack} on the thread that
+ * reached them, so the transposition tables are shared by every thread.
+ * Every task searches its own copy of the grid and pieces, which it only
+ * copies once it starts, so brothers skipped after a cutoff cost nothing.
+ *
+ * @author Will
+ */
+final class SplitSearch {
+
+    //nodes with less depth left than this are searched by a single thread
+    static final int MIN_SPLIT_DEPTH = 3;
+
+    private final ForkJoinPool pool;
+
+    //true searches in White's perspective, false in Black's
+    private final boolean side;
+
+    //the table of the serial search of the side
+    private final TranspositionTable table;
+
+    //nodes with less depth left are searched serially, which is every node
+    //with a single thread, since there is nobody to give a brother to
+    private final int minSplitDepth;
+
+    //the timer of the current search, taken when it starts like the serial search does
+    private SearchTimer timer;
+
+    /**
+     * Constructs a search with its own pool of threads.
+     * @param threads The number of threads.
+     * @param side {@code true} to search in White's perspective
+     * with {@link AlphaBetaWhite}, {@code false} in Black's.
+     */
+    SplitSearch(int threads, boolean side) {
+        pool = new ForkJoinPool(threads);
+        this.side = side;
+        table = side ? AI.WHITE_TABLE : AI.BLACK_TABLE;
+        minSplitDepth = (threads == 1) ? Integer.MAX_VALUE : MIN_SPLIT_DEPTH;
+    }
+
+    /**
+     * Searches a position where the opponent is to move, like the
+     * {@code min} of the Alpha-Beta search of the side of this search.
+     * @param grid The chess board.
+     * @param whites The white pieces on the chess board.
+     * @param blacks The black pieces on the chess board.
+     * @param depth Number of ply to search ahead.
+     * @return The score of the position.
+     */
+    int min(Grid grid, List<Piece> whites, List<Piece> blacks, int depth) {
+        timer = AI.TIMER;
+        return pool.invoke(new Node(grid, whites, blacks, false, depth));
+    }
+
+    /**
+     * Searches a position where the side of this search is to move,
+     * like the {@code max} of its Alpha-Beta search.
+     * @param grid The chess board.
+     * @param whites The white pieces on the chess board.
+     * @param blacks The black pieces on the chess board.
+     * @param depth Number of ply to search ahead.
+     * @return The score of the position.
+     */
+    int max(Grid grid, List<Piece> whites, List<Piece> blacks, int depth) {
+        timer = AI.TIMER;
+        return pool.invoke(new Node(grid, whites, blacks, true, depth));
+    }
+
+    int getThreads() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Stops the threads of this search once it has finished.
+     */
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    private final class Node extends RecursiveTask<Integer> {
+
+        private static final long serialVersionUID = 6262545436105522018L;
+
+        private final Node parent;
+        //the move from the parent, the position is made once the node starts
+        private final int move;
+        private Grid grid;
+        private List<Piece> whites;
+        private List<Piece> blacks;
+        private final boolean maximizing;
+        private final int ply;
+        private final int depth;
+        //key of the position and ply since the last capture or pawn move, set once the node starts
+        private long key;
+        private int clock;
+
+        //window of this node, tightened by the results of its children
+        private final AtomicInteger alpha;
+        private final AtomicInteger beta;
+
+        //the root
+        private Node(Grid grid, List<Piece> whites, List<Piece> blacks, boolean maximizing, int depth) {
+            parent = null;
+            move = TranspositionTable.NO_MOVE;
+            this.grid = grid;
+            this.whites = whites;
+            this.blacks = blacks;
+            this.maximizing = maximizing;
+            ply = 0;
+            this.depth = depth;
+            alpha = new AtomicInteger(NEGATIVE_INFINITY);
+            beta = new AtomicInteger(POSITIVE_INFINITY);
+        }
+
+        private Node(Node parent, int move, int depth) {
+            this.parent = parent;
+            this.move = move;
+            maximizing = !parent.maximizing;
+            ply = parent.ply + 1;
+            this.depth = depth;
+            alpha = new AtomicInteger(parent.alpha.get());
+            beta = new AtomicInteger(parent.beta.get());
+        }
+
+        @Override
+        protected Integer compute() {
+            if (parent != null) {
+                //the window of the parent may have tightened since this node was forked
+                alpha.set(parent.alpha.get());
+                beta.set(parent.beta.get());
+            }
+            if (isCutOff()) {
+                //fails for the parent, so the result is never used
+                return maximizing ? beta.get() : alpha.get();
+            }
+            if (parent == null) {
+                clock = AI.HISTORY.getClock(grid);
+            }
+            else {
+                makeMove();
+            }
+            //the history of this thread holds the game and the split nodes above
+            final SearchContext context = SearchContext.get();
+            context.history.start(AI.HISTORY, getLine(), clock);
+            //the serial search also stops the line once it is too deep
+            if (depth < minSplitDepth || ply == SearchContext.MAX_PLY) {
+                return searchSerially(context);
+            }
+
+            //side to move, the side of this search moves on the maximizing nodes
+            final boolean white = (maximizing == side);
+            final int originalAlpha = alpha.get();
+            final int originalBeta = beta.get();
+            final long hash = key = PositionHistory.getKey(grid, white);
+            if (context.history.isDraw(ply, hash)) {
+                //repeated, or fifty moves without a capture or pawn move
+                return (originalAlpha >= 0) ? originalAlpha : ((originalBeta <= 0) ? originalBeta : 0);
+            }
+            final King king = white ? Pieces.getWhiteKing(whites) : Pieces.getBlackKing(blacks);
+            //there are few replies to a check, so they are searched one ply deeper
+            final int searchDepth = king.inCheck(grid) ? (depth + 1) : depth;
+
+            final long entry = table.probe(hash);
+            if (entry != TranspositionTable.MISS && TranspositionTable.getDepth(entry) >= searchDepth) {
+                final int score = TranspositionTable.getScore(entry, ply);
+                switch (TranspositionTable.getBound(entry)) {
+                    case TranspositionTable.EXACT:
+                        return (score <= originalAlpha) ? originalAlpha : ((score >= originalBeta) ? originalBeta : score);
+                    case TranspositionTable.LOWER_BOUND:
+                        if (score >= originalBeta) {
+                            return originalBeta;
+                        }
+                        break;
+                    default:
+                        if (score <= originalAlpha) {
+                            return originalAlpha;
+                        }
+                }
+            }
+
+            //every move is ordered before the first one is searched, since the
+            //searches below reuse the ordering of this thread
+            final List<Piece> pieces = white ? whites : blacks;
+            final int[] moves = new int[MoveGenerator.MAX_MOVES];
+            int end = MoveGenerator.generateCastles(grid, king, moves, 0);
+            end = MoveGenerator.generateCaptures(grid, pieces, moves, end);
+            end = MoveGenerator.generateQuiets(grid, pieces, moves, end);
+            final MoveOrdering ordering = context.ordering;
+            ordering.score(grid, moves, 0, end, ply, (entry == TranspositionTable.MISS) ? TranspositionTable.NO_MOVE : TranspositionTable.getMove(entry), white);
+            //the grid is only changed before any child starts reading it
+            final Position position = context.position;
+            position.set(grid, whites, blacks);
+            int legal = 0;
+            for (int index = 0; index != end; ++index) {
+                final int move = ordering.next(moves, index, end);
+                final long undo = position.makeMove(move);
+                if (!king.inCheck(grid)) {
+                    moves[legal++] = move;
+                }
+                position.unmakeMove(move, undo);
+            }
+            if (legal == 0) {
+                //checkmate or stalemate
+                return searchSerially(context);
+            }
+
+            //the eldest brother is searched first, by this thread
+            int bestMove = TranspositionTable.NO_MOVE;
+            if (update(new Node(this, moves[0], searchDepth - 1).compute())) {
+                bestMove = moves[0];
+            }
+
+            //then the younger brothers, by any thread
+            final List<Node> brothers = new ArrayList<>(legal - 1);
+            for (int index = 1; index != legal && !isCutOff(); ++index) {
+                final Node brother = new Node(this, moves[index], searchDepth - 1);
+                brother.fork();
+                brothers.add(brother);
+            }
+            for (int count = 0, size = brothers.size(); count != size; ++count) {
+                final Node brother = brothers.get(count);
+                if (update(brother.join())) {
+                    bestMove = brother.move;
+                }
+            }
+            if (alpha.get() >= beta.get()) {
+                ordering.cutoff(bestMove, ply, searchDepth, white, bestMove == moves[0]);
+            }
+            final int result = maximizing ? alpha.get() : beta.get();
+            //a node cut off from above did not search all of its brothers
+            if (parent == null || !parent.isCutOff()) {
+                store(hash, ply, searchDepth, originalAlpha, originalBeta, result, bestMove & Move.KEY_MASK);
+            }
+            return result;
+        }
+
+        //tightens the window of this node, fail hard like the serial search,
+        //only the thread computing the node writes its window
+        private boolean update(int result) {
+            final AtomicInteger bound = maximizing ? alpha : beta;
+            if (maximizing ? (result > bound.get()) : (result < bound.get())) {
+                bound.set(result);
+                return true;
+            }
+            return false;
+        }
+
+        //a node is cut off once the window of it or any node above it closes
+        private boolean isCutOff() {
+            for (Node node = this; node != null; node = node.parent) {
+                if (node.alpha.get() >= node.beta.get()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        //makes the legal move of this node on a copy of the position of the parent
+        private void makeMove() {
+            grid = new Grid(parent.grid);
+            whites = getCopy(grid, parent.whites);
+            blacks = getCopy(grid, parent.blacks);
+            final Position position = SearchContext.get().position;
+            position.set(grid, whites, blacks);
+            position.makeMove(move);
+            clock = (Move.isCapture(move) || grid.getTile(Move.getTo(move)).getOccupant().isPawn()) ? 0 : (parent.clock + 1);
+        }
+
+        //the keys of the split nodes above this one, from the root
+        private long[] getLine() {
+            final long[] line = new long[ply];
+            for (Node node = parent; node != null; node = node.parent) {
+                line[node.ply] = node.key;
+            }
+            return line;
+        }
+
+        //the line above is already in the history of the context, and the
+        //search continues at the ply of this node so mates count the split plies
+        private int searchSerially(SearchContext context) {
+            final int lower = alpha.get();
+            final int upper = beta.get();
+            if (side) {
+                return maximizing ? AlphaBetaWhite.max(context, ply, grid, whites, blacks, depth, lower, upper)
+                        : AlphaBetaWhite.min(context, ply, grid, whites, blacks, depth, lower, upper);
+            }
+            return maximizing ? AlphaBetaBlack.max(context, ply, grid, whites, blacks, depth, lower, upper)
+                    : AlphaBetaBlack.min(context, ply, grid, whites, blacks, depth, lower, upper);
+        }
+    }
+
+    //stores the result of a node, unless the search was cut short by the timer
+    private void store(long hash, int ply, int depth, int alpha, int beta, int score, int bestMove) {
+        if (!timer.timeOver()) {
+            table.store(hash, depth, TranspositionTable.getBound(score, alpha, beta), TranspositionTable.getStoredScore(score, ply), bestMove);
+        }
+    }
+
+    //the pieces of the copied grid, in the same order as the given pieces
+    private static List<Piece> getCopy(Grid copiedGrid, List<Piece> pieces) {
+        final List<Piece> copied = new ArrayList<>(pieces.size());
+        for (int index = 0, size = pieces.size(); index != size; ++index) {
+            copied.add(copiedGrid.getTile(pieces.get(index).getIndex()).getOccupant());
+        }
+        return copied;
+    }
+}
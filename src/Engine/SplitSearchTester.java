@@ -0,0 +1,117 @@
+package Engine;
+
+import static Util.Constants.NEGATIVE_INFINITY;
+import static Util.Constants.POSITIVE_INFINITY;
+import static Util.Constants.RUNTIME;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Measures the speedup of the parallel searches over the single threaded
+ * Alpha-Beta search on a fixed set of positions. The root split search
+ * uses one thread per root move like the parallel processing of
+ * {@link AI}, and the {@link SplitSearch} is timed with every power of two
+ * threads up to the number of processors. The transposition tables are
+ * cleared before every search.
+ *
+ * Usage: SplitSearchTester [depth]
+ *
+ * @author Will
+ */
+final class SplitSearchTester {
+
+    private static final int DEFAULT_DEPTH = 5;
+
+    //piece placements, white to move
+    private static final String[] POSITIONS = {
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR",
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R",
+        "r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP2BPPP/R2QKB1R",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8"
+    };
+
+    private SplitSearchTester() {
+
+    }
+
+    public static void main(String... args) throws InterruptedException, ExecutionException {
+        final int depth = (args.length == 0) ? DEFAULT_DEPTH : Integer.parseInt(args[0]);
+        final int processors = RUNTIME.availableProcessors();
+
+        AI.TIMER = new SearchTimer(POSITIVE_INFINITY, "Test");
+        new AI(true, 60).useTestDialog();
+        AI.TIMER.startTiming();
+
+        System.out.println("Depth: " + depth + " Processors: " + processors);
+        for (String placement : POSITIONS) {
+            System.out.println(placement);
+
+            final Grid grid = Tester.getGrid(placement);
+            clearTables();
+            long start = System.nanoTime();
+            final int serialScore = AlphaBetaWhite.max(grid, Tester.getPieces(grid, true), Tester.getPieces(grid, false), depth, NEGATIVE_INFINITY, POSITIVE_INFINITY);
+            final long serialTime = System.nanoTime() - start;
+            print("Serial", 1, serialScore, serialTime, serialTime);
+
+            clearTables();
+            final List<Callable<Integer>> rootSearches = getRootSearches(placement, depth);
+            final ExecutorService executor = Executors.newFixedThreadPool(rootSearches.size());
+            start = System.nanoTime();
+            int rootSplitScore = NEGATIVE_INFINITY;
+            for (Future<Integer> future : executor.invokeAll(rootSearches)) {
+                rootSplitScore = Math.max(rootSplitScore, future.get());
+            }
+            print("Root Split", rootSearches.size(), rootSplitScore, System.nanoTime() - start, serialTime);
+            executor.shutdown();
+
+            for (int threads = 1; threads <= processors; threads <<= 1) {
+                final SplitSearch splitSearch = new SplitSearch(threads, true);
+                clearTables();
+                start = System.nanoTime();
+                final int splitScore = splitSearch.max(grid, Tester.getPieces(grid, true), Tester.getPieces(grid, false), depth);
+                print("Young Brothers Wait", threads, splitScore, System.nanoTime() - start, serialTime);
+                splitSearch.shutdown();
+            }
+            System.out.println();
+        }
+        RUNTIME.exit(0);
+    }
+
+    private static void print(String search, int threads, int score, long time, long serialTime) {
+        System.out.println(String.format("%-20s Threads: %3d Score: %6d Time: %6d ms Speedup: %.2f",
+                search, threads, score, time / 1000000, (double) serialTime / time));
+    }
+
+    private static void clearTables() {
+        AI.WHITE_TABLE.clear();
+        AI.BLACK_TABLE.clear();
+    }
+
+    //one search per legal root move, each on its own copy of the position
+    private static List<Callable<Integer>> getRootSearches(String placement, int depth) {
+        final Grid grid = Tester.getGrid(placement);
+        final List<Piece> whites = Tester.getPieces(grid, true);
+        final int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int end = MoveGenerator.generateCastles(grid, Pieces.getWhiteKing(whites), moves, 0);
+        end = MoveGenerator.generateCaptures(grid, whites, moves, end);
+        end = MoveGenerator.generateQuiets(grid, whites, moves, end);
+        final List<Callable<Integer>> searches = new ArrayList<>(end);
+        for (int index = 0; index != end; ++index) {
+            final Grid copiedGrid = Tester.getGrid(placement);
+            final List<Piece> copiedWhites = Tester.getPieces(copiedGrid, true);
+            final List<Piece> copiedBlacks = Tester.getPieces(copiedGrid, false);
+            final Position position = new Position();
+            position.set(copiedGrid, copiedWhites, copiedBlacks);
+            position.makeMove(moves[index]);
+            if (!Pieces.getWhiteKing(copiedWhites).inCheck(copiedGrid)) {
+                searches.add(() -> AlphaBetaWhite.min(copiedGrid, copiedWhites, copiedBlacks, depth - 1, NEGATIVE_INFINITY, POSITIVE_INFINITY));
+            }
+        }
+        return searches;
+    }
+}
@@ -0,0 +1,150 @@
+package Engine;
+
+import Util.ChessConstants;
+
+/**
+ * Static exchange evaluation, which tells how much material a capture wins
+ * once both sides have recaptured on the square of the capture with their
+ * least valuable pieces for as long as it pays off. Either side may stop
+ * recapturing whenever going on would lose more, so a queen taking a
+ * protected pawn is worth {@code PAWN_VALUE - QUEEN_VALUE} and a pawn
+ * taking a protected queen is worth the full queen.
+ *
+ * Every piece that moves onto the square is taken off the occupied squares,
+ * so bishops, rooks and queens lined up behind it (x-rays) join the exchange.
+ * A king only recaptures if the other side has nothing left to take it with,
+ * and promotions during the exchange are ignored.
+ *
+ * The exchange is played out on twelve bitboards, one per piece, in the
+ * piece indexes of {@link Zobrist}. The Tile engine fills them from the
+ * {@link Grid}, while the bitboard engine copies its own bitboards in. An
+ * exchange keeps its buffers between calls, so it allocates nothing, but
+ * it must not be shared between threads.
+ *
+ * @author Will
+ */
+public final class StaticExchange {
+
+    /**
+     * The number of bitboards an exchange is played out on.
+     */
+    public static final int PIECES = 12;
+
+    //the value of a king only matters when it is the last piece to capture
+    private static final int[] VALUES = {ChessConstants.PAWN_VALUE, ChessConstants.KNIGHT_VALUE, ChessConstants.BISHOP_VALUE,
+        ChessConstants.ROOK_VALUE, ChessConstants.QUEEN_VALUE, ChessConstants.KING_VALUE};
+
+    //there are never more captures on one square than pieces on the board
+    private static final int MAX_CAPTURES = 32;
+
+    private final long[] pieces = new long[PIECES];
+    private final int[] gains = new int[MAX_CAPTURES + 1];
+
+    /**
+     * Evaluates the exchange started by the given move of the Tile engine.
+     * @param grid The chess board, before the move is made.
+     * @param move The packed move, see {@link Move}, which should be a capture.
+     * @return The material the moving side wins, negative if it loses material.
+     */
+    public int evaluate(Grid grid, int move) {
+        final int from = Move.getFrom(move);
+        final int to = Move.getTo(move);
+        //every piece that could ever reach the square, sliders through any number of pieces
+        long candidates = (Knight.getProtections(to) | King.getProtections(to) | Pawn.getProtections(to, true)
+                | Pawn.getProtections(to, false) | Magic.getQueenAttacks(to, 0L)) & grid.getOccupied();
+        candidates |= (1L << from) | (1L << to);
+        for (int piece = 0; piece != PIECES; ++piece) {
+            pieces[piece] = 0L;
+        }
+        for (; candidates != 0; candidates &= candidates - 1) {
+            final int index = Long.numberOfTrailingZeros(candidates);
+            final Piece occupant = grid.getTile(index).getOccupant();
+            if (occupant != null) {
+                pieces[Zobrist.getPieceIndex(occupant)] |= 1L << index;
+            }
+        }
+        return evaluate(pieces, from, to);
+    }
+
+    /**
+     * Evaluates the exchange started by moving the piece on one square to
+     * another. An empty destination square is taken as an en passant
+     * capture, which wins a pawn.
+     * @param pieces The bitboard of each piece, see {@link #PIECES}. They
+     * are only read.
+     * @param from The square index of the piece that captures first.
+     * @param to The square index of the captured piece.
+     * @return The material the moving side wins, negative if it loses material.
+     */
+    public int evaluate(long[] pieces, int from, int to) {
+        long whites = 0L;
+        long blacks = 0L;
+        for (int type = Zobrist.WHITE_PAWN; type <= Zobrist.WHITE_KING; ++type) {
+            whites |= pieces[type];
+            blacks |= pieces[type + Zobrist.BLACK_PAWN];
+        }
+        long occupied = whites | blacks;
+        final long diagonals = pieces[Zobrist.WHITE_BISHOP] | pieces[Zobrist.WHITE_QUEEN]
+                | pieces[Zobrist.BLACK_BISHOP] | pieces[Zobrist.BLACK_QUEEN];
+        final long straights = pieces[Zobrist.WHITE_ROOK] | pieces[Zobrist.WHITE_QUEEN]
+                | pieces[Zobrist.BLACK_ROOK] | pieces[Zobrist.BLACK_QUEEN];
+        //a white pawn protects the square if a black pawn on it would protect the pawn
+        long attackers = ((Pawn.getProtections(to, false) & pieces[Zobrist.WHITE_PAWN])
+                | (Pawn.getProtections(to, true) & pieces[Zobrist.BLACK_PAWN])
+                | (Knight.getProtections(to) & (pieces[Zobrist.WHITE_KNIGHT] | pieces[Zobrist.BLACK_KNIGHT]))
+                | (King.getProtections(to) & (pieces[Zobrist.WHITE_KING] | pieces[Zobrist.BLACK_KING]))
+                | (Magic.getBishopAttacks(to, occupied) & diagonals)
+                | (Magic.getRookAttacks(to, occupied) & straights)) & occupied;
+
+        long fromBit = 1L << from;
+        boolean white = (whites & fromBit) != 0;
+        int type = getType(pieces, fromBit, white);
+        final int victim = getType(pieces, 1L << to, !white);
+        gains[0] = (victim < 0) ? ChessConstants.PAWN_VALUE : VALUES[victim];
+
+        int depth = 0;
+        do {
+            ++depth;
+            //what the side that just captured is up if its piece gets taken back
+            gains[depth] = VALUES[type] - gains[depth - 1];
+            if (Math.max(-gains[depth - 1], gains[depth]) < 0) {
+                //neither side wants to go on
+                break;
+            }
+            occupied ^= fromBit;
+            attackers &= occupied;
+            if (type != Zobrist.WHITE_KNIGHT && type != Zobrist.WHITE_KING) {
+                attackers |= ((Magic.getBishopAttacks(to, occupied) & diagonals)
+                        | (Magic.getRookAttacks(to, occupied) & straights)) & occupied;
+            }
+            white = !white;
+            final long own = attackers & (white ? whites : blacks);
+            if (own == 0) {
+                break;
+            }
+            type = getType(pieces, own, white);
+            if (type == Zobrist.WHITE_KING && (attackers & (white ? blacks : whites)) != 0) {
+                //the king cannot take a protected piece
+                break;
+            }
+            fromBit = Long.lowestOneBit(own & pieces[white ? type : (type + Zobrist.BLACK_PAWN)]);
+        } while (depth != MAX_CAPTURES);
+
+        //the last capture is never made, every other side takes the better of stopping or going on
+        while (--depth != 0) {
+            gains[depth - 1] = -Math.max(-gains[depth - 1], gains[depth]);
+        }
+        return gains[0];
+    }
+
+    //type of the least valuable piece of the given side among the squares, -1 if there is none
+    private static int getType(long[] pieces, long squares, boolean white) {
+        final int offset = white ? Zobrist.WHITE_PAWN : Zobrist.BLACK_PAWN;
+        for (int type = Zobrist.WHITE_PAWN; type <= Zobrist.WHITE_KING; ++type) {
+            if ((pieces[offset + type] & squares) != 0) {
+                return type;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,108 @@
+package Engine;
+
+import static Util.Constants.RUNTIME;
+
+/**
+ * Checks the {@link StaticExchange} on exchanges with known results, then
+ * measures how long one evaluation takes, filling its bitboards from a
+ * {@link Grid} and from the bitboards of the bitboard engine.
+ *
+ * @author Will
+ */
+final class StaticExchangeTester {
+
+    private static final int ITERATIONS = 2000000;
+    private static final int WARM_UP_ITERATIONS = 200000;
+
+    //piece placement, capturing square, captured square, material won by white
+    private static final Object[][] EXCHANGES = {
+        //undefended pawn
+        {"1k1r4/1pp4p/p7/4p3/8/P5P1/1PP4P/2K1R3", "e1", "e5", 100},
+        //knight for pawn after the x-rayed rook and queen on both sides
+        {"1k1r3q/1ppn3p/p4b2/4p3/8/P2N2P1/1PP1R1BP/2K1Q3", "d3", "e5", -200},
+        //queen takes a pawn protected by a pawn
+        {"4k3/8/3p4/4p3/8/8/8/4QK2", "e1", "e5", -850},
+        //pawn takes a protected queen
+        {"3rk3/8/8/3q4/4P3/8/8/4K3", "e4", "d5", 950},
+        //the king cannot take back because of the rook behind the first one
+        {"8/8/2k5/3p4/8/8/3R4/3R2K1", "d2", "d5", 100},
+        {"8/8/2k5/3p4/8/8/3R4/6K1", "d2", "d5", -400},
+        //the queen behind the rook wins the exchange
+        {"4k3/8/3r4/3p4/8/8/3R4/3Q2K1", "d2", "d5", 100}
+    };
+
+    //kiwipete and a middle game, which have many captures
+    private static final String[] POSITIONS = {
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R",
+        "r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP2BPPP/R2QKB1R"
+    };
+
+    private StaticExchangeTester() {
+
+    }
+
+    public static void main(String... args) {
+        final StaticExchange exchange = new StaticExchange();
+        for (Object[] test : EXCHANGES) {
+            final Grid grid = Tester.getGrid((String) test[0]);
+            final int move = Move.encode(getIndex((String) test[1]), getIndex((String) test[2]), Move.CAPTURE);
+            final int result = exchange.evaluate(grid, move);
+            System.out.println(test[0] + " " + test[1] + "x" + test[2] + " Exchange: " + result);
+            if (result != (Integer) test[3]) {
+                throw new InternalError("Expected " + test[3] + " but found " + result);
+            }
+
+            final long[] pieces = getBitboards(new FastAI.Board(grid, true));
+            final int bitboardResult = exchange.evaluate(pieces, Move.getFrom(move), Move.getTo(move));
+            if (bitboardResult != result) {
+                throw new InternalError("Bitboard exchange " + bitboardResult + " differs from " + result);
+            }
+        }
+        System.out.println();
+
+        for (String placement : POSITIONS) {
+            final Grid grid = Tester.getGrid(placement);
+            final int[] moves = new int[MoveGenerator.MAX_MOVES];
+            int end = MoveGenerator.generateCaptures(grid, Tester.getPieces(grid, true), moves, 0);
+            end = MoveGenerator.generateCaptures(grid, Tester.getPieces(grid, false), moves, end);
+            final long[] pieces = getBitboards(new FastAI.Board(grid, true));
+
+            int sum = 0;
+            for (int times = 0; times != WARM_UP_ITERATIONS; ++times) {
+                sum += exchange.evaluate(grid, moves[times % end]);
+                sum += exchange.evaluate(pieces, Move.getFrom(moves[times % end]), Move.getTo(moves[times % end]));
+            }
+
+            long start = System.nanoTime();
+            for (int times = 0; times != ITERATIONS; ++times) {
+                sum += exchange.evaluate(grid, moves[times % end]);
+            }
+            final long gridTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int times = 0; times != ITERATIONS; ++times) {
+                final int move = moves[times % end];
+                sum += exchange.evaluate(pieces, Move.getFrom(move), Move.getTo(move));
+            }
+            final long bitboardTime = System.nanoTime() - start;
+
+            System.out.println(placement + " Captures: " + end + " Checksum: " + sum);
+            System.out.println(String.format("Grid: %.1f ns Bitboards: %.1f ns",
+                    (double) gridTime / ITERATIONS, (double) bitboardTime / ITERATIONS));
+        }
+        RUNTIME.exit(0);
+    }
+
+    //square names like e4, row 0 is the 8th rank
+    private static int getIndex(String square) {
+        return ((8 - (square.charAt(1) - '0')) << 3) + (square.charAt(0) - 'a');
+    }
+
+    private static long[] getBitboards(FastAI.Board board) {
+        final long[] pieces = new long[StaticExchange.PIECES];
+        for (int piece = 0; piece != StaticExchange.PIECES; ++piece) {
+            pieces[piece] = board.getBitboard(piece);
+        }
+        return pieces;
+    }
+}
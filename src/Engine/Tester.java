@@ -1023,4 +1023,60 @@ final class Tester {
         grid.setProtections(grid.getPieces());
         return grid;
     }
+
+    /**
+     * Sets up a grid from the piece placement of a FEN string, rank 8
+     * first. Unlike {@link #readGrid(String)}, the pieces know their
+     * squares, and pawns off their starting row count as moved.
+     * @param placement The piece placement, such as "8/8/8/8/8/8/8/8".
+     * @return The grid, with its protections set.
+     */
+    static Grid getGrid(String placement) {
+        final Grid grid = new Grid();
+        final String[] rows = placement.split("/");
+        for (int row = 0; row != rows.length; ++row) {
+            int column = 0;
+            for (char symbol : rows[row].toCharArray()) {
+                if (Character.isDigit(symbol)) {
+                    column += symbol - '0';
+                    continue;
+                }
+                grid.getTile(row, column).setOccupant(getPiece(symbol, row, column));
+                ++column;
+            }
+        }
+        grid.setProtections(grid.getPieces());
+        return grid;
+    }
+
+    /**
+     * Gets the sorted pieces of one side of a grid.
+     * @param grid The chess board.
+     * @param white {@code true} for the white pieces.
+     * @return The pieces.
+     */
+    static List<Piece> getPieces(Grid grid, boolean white) {
+        final List<Piece> pieces = grid.getPieces();
+        Pieces.sort(pieces);
+        return white ? Pieces.getWhite(pieces) : Pieces.getBlack(pieces);
+    }
+
+    private static Piece getPiece(char symbol, int row, int column) {
+        final boolean white = Character.isUpperCase(symbol);
+        switch (Character.toUpperCase(symbol)) {
+            case 'P':
+                //pawns off their starting row have moved
+                return new Pawn(row, column, (row == (white ? 6 : 1)) ? 0 : 1, white);
+            case 'N':
+                return new Knight(row, column, 0, white);
+            case 'B':
+                return new Bishop(row, column, 0, white);
+            case 'R':
+                return new Rook(row, column, 0, white);
+            case 'Q':
+                return new Queen(row, column, 0, white);
+            default:
+                return new King(row, column, 0, white);
+        }
+    }
 }
\ No newline at end of file
@@ -11,22 +11,22 @@ public final class Tile implements Locatable {
     private final int row;
     private final int column;
  
-    private boolean protectedByWhite;
-    private boolean protectedByBlack;
-    
     private Piece occupant;
     
-    public Tile(int row, int column) {
+    //the grid this tile belongs to, whose hash and occupied
+    //squares are updated whenever the occupant changes
+    private final Grid grid;
+    
+    Tile(Grid grid, int row, int column) {
+        this.grid = grid;
         this.row = row;
         this.column = column;
-        protectedByWhite = protectedByBlack = false;
     }
     
-    public Tile(Tile tile) {
+    Tile(Grid grid, Tile tile) {
+        this.grid = grid;
         row = tile.row;
         column = tile.column;
-        protectedByWhite = tile.protectedByWhite;
-        protectedByBlack = tile.protectedByBlack;
         if (tile.occupant != null) {
             occupant = tile.occupant.clone();
         }
@@ -60,33 +60,29 @@ public final class Tile implements Locatable {
         throw new UnsupportedOperationException("Cannot change location in Tile.");
     }
     
+    //protections are kept by the grid
     public boolean protectedByWhite() {
-        return protectedByWhite;
+        return grid.isProtectedByWhite((row << 3) + column);
     }
 
     public boolean protectedByBlack() {
-        return protectedByBlack;
+        return grid.isProtectedByBlack((row << 3) + column);
     }
     
     public boolean protectedByEnemy(Piece piece) {
-        return piece.isWhite() ? protectedByBlack : protectedByWhite;
+        return piece.isWhite() ? protectedByBlack() : protectedByWhite();
     }
     
     public boolean protectedByAlly(Piece piece) {
-        return piece.isWhite() ? protectedByWhite : protectedByBlack;
+        return piece.isWhite() ? protectedByWhite() : protectedByBlack();
     }
     
     public void setProtectedBy(Piece piece) { 
-        if (piece.isWhite()) {
-            protectedByWhite = true;
-        }
-        else {
-            protectedByBlack = true;
-        }
+        grid.setProtectedBy((row << 3) + column, piece.isWhite());
     }
     
     public void removeProtections() {
-        protectedByWhite = protectedByBlack = false;
+        grid.removeProtections((row << 3) + column);
     }
 
     public boolean isOccupied() {
@@ -107,17 +103,27 @@ public final class Tile implements Locatable {
     
     public Piece popOccupant() {
         Piece piece = occupant;
-        occupant = null;
+        if (piece != null) {
+            grid.toggle(piece, (row << 3) + column);
+            occupant = null;
+        }
         return piece;
     }
     
     public void setOccupant(Piece newOccupant) {
-        occupant = null;
+        final int index = (row << 3) + column;
+        if (occupant != null) {
+            grid.toggle(occupant, index);
+        }
         (occupant = newOccupant).setLocation(row, column);
+        grid.toggle(newOccupant, index);
     }
 
     public void removeOccupant() {
-        occupant = null;
+        if (occupant != null) {
+            grid.toggle(occupant, (row << 3) + column);
+            occupant = null;
+        }
     }
 
     @Override
@@ -126,8 +132,8 @@ public final class Tile implements Locatable {
         Tile other = (Tile) obj;
         return (row == other.row) 
                 && (column == other.column)
-                && (protectedByWhite == other.protectedByWhite)
-                && (protectedByBlack == other.protectedByBlack)
+                && (protectedByWhite() == other.protectedByWhite())
+                && (protectedByBlack() == other.protectedByBlack())
                 && Constants.equals(occupant, other.occupant);
     }
 
@@ -139,8 +145,8 @@ public final class Tile implements Locatable {
             result += "Occupied by: " + occupant.getName() + "\n";
         }
         result += "Location: [" + row + ", " + column + "]\n";
-        result += protectedByWhite ? "Protected By White\n" : "Not Protected By White\n";
-        result += protectedByBlack ? "Protected By Black" : "Not Protected By Black";
+        result += protectedByWhite() ? "Protected By White\n" : "Not Protected By White\n";
+        result += protectedByBlack() ? "Protected By Black" : "Not Protected By Black";
         return result;
     }
 }
\ No newline at end of file
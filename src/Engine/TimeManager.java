@@ -0,0 +1,209 @@
+package Engine;
+
+import Util.ChessConstants;
+
+/**
+ * Decides how long an {@link AI} searches a move. Each move has two limits:
+ * <pre>
+ * soft limit  no new iteration of iterative deepening starts after it
+ * hard limit  the {@link SearchTimer} stops the search in the middle of an
+ *             iteration, which is then thrown away
+ * </pre>
+ * Without a clock the hard limit is the search time of the difficulty of
+ * the AI and the soft limit is half of it, which leaves the other half for
+ * the moves whose score drops. With a clock, the remaining time is spread over the moves to go, plus
+ * most of the increment, and the hard limit allows a few times the soft
+ * limit without ever using up the clock.
+ *
+ * The soft limit moves while the move is searched. It is halved once the
+ * best move stayed the same for {@link #STABLE_ITERATIONS} iterations, and
+ * doubled, up to the hard limit, once the score of the best move dropped
+ * by {@link #SCORE_DROP} or more from one iteration to the next, so easy
+ * moves are played quickly and the time saved goes to the moves in
+ * trouble. A position with a single legal move is only searched one
+ * iteration deep. An iteration is also not started when it is predicted to
+ * take longer than the time left to the hard limit.
+ *
+ * @author Will
+ */
+final class TimeManager {
+
+    //moves the remaining time is spread over when the moves to go are not known
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+
+    //time kept back from the clock for making the move (in milliseconds)
+    private static final long MOVE_OVERHEAD = 50;
+
+    //the hard limit is at most this many times the soft limit
+    private static final int HARD_LIMIT_FACTOR = 4;
+
+    //without a clock the soft limit is the search time divided by this
+    private static final int NO_CLOCK_SOFT_DIVISOR = 2;
+
+    //iterations with the same best move after which the soft limit is halved
+    static final int STABLE_ITERATIONS = 4;
+
+    //drop of the score of the best move after which the soft limit is doubled
+    static final int SCORE_DROP = ChessConstants.PAWN_VALUE / 2;
+
+    private final SearchTimer timer;
+
+    //the clock of the game, a negative remaining time if there is none
+    private long remaining = -1;
+    private long increment;
+    private int movesToGo;
+
+    //limits of the current move (in milliseconds)
+    private long softLimit;
+    private long hardLimit;
+    private long limit;
+
+    private boolean singleMove;
+    private int iterations;
+    private int stableIterations;
+    private long bestKey;
+    private int bestScore;
+    private long iterationStart;
+    private long previousIterationTime;
+
+    /**
+     * Constructs a time manager.
+     * @param searchTimer The timer of the AI, whose countdown time is the
+     * search time without a clock.
+     */
+    TimeManager(SearchTimer searchTimer) {
+        timer = searchTimer;
+    }
+
+    /**
+     * Sets the clock of the game, which is used for every move after until
+     * it is cleared.
+     * @param remainingTime The time left on the clock of the AI (in milliseconds).
+     * @param incrementTime The time added after each move (in milliseconds).
+     * @param moves The number of moves to make in the remaining time, 0 if
+     * the remaining time is for the rest of the game.
+     * @throws IllegalArgumentException If any value is negative.
+     */
+    void setClock(long remainingTime, long incrementTime, int moves) {
+        if (remainingTime < 0 || incrementTime < 0 || moves < 0) {
+            throw new IllegalArgumentException("Invalid clock: " + remainingTime + " " + incrementTime + " " + moves);
+        }
+        remaining = remainingTime;
+        increment = incrementTime;
+        movesToGo = moves;
+    }
+
+    /**
+     * Clears the clock of the game, so every move is timed by the search
+     * time of the difficulty again.
+     */
+    void clearClock() {
+        remaining = -1;
+    }
+
+    boolean hasClock() {
+        return remaining >= 0;
+    }
+
+    /**
+     * Computes the limits of a move, before its timer is started.
+     * @param numberOfMoves The number of legal moves.
+     */
+    void start(int numberOfMoves) {
+        if (remaining < 0) {
+            hardLimit = timer.getCountdownTime() * 1000L;
+            softLimit = hardLimit / NO_CLOCK_SOFT_DIVISOR;
+        }
+        else {
+            final long available = Math.max(remaining - MOVE_OVERHEAD, 1);
+            final int moves = (movesToGo == 0) ? DEFAULT_MOVES_TO_GO : movesToGo;
+            softLimit = Math.min((available / moves) + ((increment * 3) / 4), available);
+            //the last move before the time control may use everything
+            hardLimit = (moves == 1) ? available : Math.min(softLimit * HARD_LIMIT_FACTOR, Math.max(softLimit, (available * 3) / 4));
+        }
+        limit = softLimit;
+        singleMove = numberOfMoves == 1;
+        iterations = stableIterations = 0;
+        previousIterationTime = -1;
+    }
+
+    /**
+     * Gets the time after which the timer stops the search.
+     * @return The hard limit (in milliseconds).
+     */
+    long getHardLimit() {
+        return hardLimit;
+    }
+
+    long getSoftLimit() {
+        return softLimit;
+    }
+
+    /**
+     * Gets the time the last completed iteration of the search of the AI took.
+     * @return The time (in milliseconds), or -1 before the first iteration.
+     */
+    long getPreviousIterationTime() {
+        return previousIterationTime;
+    }
+
+    /**
+     * Determines whether the next iteration of the search of the AI should
+     * start, and starts timing it if so.
+     * @return {@code true} if the next iteration should start.
+     */
+    boolean startIteration() {
+        if (singleMove && iterations != 0) {
+            return false;
+        }
+        final long elapsed = timer.millisecondsElapsed();
+        if (elapsed >= limit || !hasTimeFor(elapsed, previousIterationTime)) {
+            return false;
+        }
+        iterationStart = elapsed;
+        return true;
+    }
+
+    /**
+     * Records a completed iteration of the search of the AI.
+     * @param key Identifies the best move, such as the hash of the position it leads to.
+     * @param score The score of the best move, in the perspective of the AI.
+     */
+    void endIteration(long key, int score) {
+        previousIterationTime = timer.millisecondsElapsed() - iterationStart;
+        if (iterations != 0) {
+            stableIterations = (key == bestKey) ? (stableIterations + 1) : 0;
+            if (bestScore - score >= SCORE_DROP) {
+                //the extension lasts for the rest of the move
+                limit = Math.min(softLimit << 1, hardLimit);
+            }
+            else if (stableIterations >= STABLE_ITERATIONS && limit == softLimit) {
+                limit = softLimit >> 1;
+            }
+        }
+        ++iterations;
+        bestKey = key;
+        bestScore = score;
+    }
+
+    /**
+     * Determines whether a helper thread, which deepens on its own, should
+     * start its next iteration. Only the limits are used, since the best
+     * move is decided once every helper stopped.
+     * @param previousTime The time the previous iteration of the helper
+     * took (in milliseconds), or a negative number before its first iteration.
+     * @return {@code true} if the next iteration should start.
+     */
+    boolean startHelperIteration(long previousTime) {
+        if (singleMove && previousTime >= 0) {
+            return false;
+        }
+        final long elapsed = timer.millisecondsElapsed();
+        return elapsed < softLimit && hasTimeFor(elapsed, previousTime);
+    }
+
+    //the next iteration takes at least as long as the previous one
+    private boolean hasTimeFor(long elapsed, long previousTime) {
+        return previousTime < 0 || (hardLimit - elapsed) > previousTime;
+    }
+}
@@ -0,0 +1,255 @@
+package Engine;
+
+import static Util.ChessConstants.CHECKMATE_VALUE;
+
+/**
+ * Fixed size hash table of previously searched positions, keyed by
+ * their Zobrist hash. The table is split into buckets of two slots: the
+ * first slot keeps the entry searched to the greatest depth (unless it is
+ * left over from a previous search) and the second slot is always replaced.
+ * The table never grows, so memory stays the same for the entire game.
+ *
+ * The table is shared by every thread of a Lazy SMP search without any
+ * locks. Each slot keeps the hash XOR the entry instead of the hash, so an
+ * entry torn by two threads writing the same slot at once no longer
+ * matches its key and is treated as a miss instead of a wrong result.
+ *
+ * An entry is packed into a single long:
+ * <pre>
+ * bits  0-31 score
+ * bits 32-47 best move (from square, to square)
+ * bits 48-55 depth
+ * bits 56-57 bound
+ * bits 58-63 age
+ * </pre>
+ *
+ * @author Will
+ */
+public final class TranspositionTable {
+
+    //bound types, 0 is reserved for empty slots
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+
+    //returned by probe if there is no entry for the position
+    public static final long MISS = 0L;
+
+    //no best move was found, e.g. every move failed low
+    public static final int NO_MOVE = 0;
+
+    //default size, 2^19 buckets of 2 slots at 16 bytes each is 16 MB per table
+    public static final int DEFAULT_BUCKETS = 1 << 19;
+
+    private static final int MOVE_SHIFT = 32;
+    private static final int DEPTH_SHIFT = 48;
+    private static final int BOUND_SHIFT = 56;
+    private static final int AGE_SHIFT = 58;
+    private static final int AGE_MASK = 0x3F;
+
+    //mate scores are at most this many ply past the checkmate value
+    private static final int MAX_MATE_DISTANCE = 0xFF;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+    private int age;
+
+    public TranspositionTable() {
+        this(DEFAULT_BUCKETS);
+    }
+
+    /**
+     * Constructs a table with the given number of buckets.
+     * @param buckets The number of buckets, rounded up to a power of two.
+     */
+    public TranspositionTable(int buckets) {
+        if (buckets <= 0) {
+            throw new IllegalArgumentException("Invalid number of buckets: " + buckets);
+        }
+        final int size = (Integer.bitCount(buckets) == 1) ? buckets : (Integer.highestOneBit(buckets) << 1);
+        keys = new long[size << 1];
+        data = new long[size << 1];
+        mask = size - 1;
+    }
+
+    /**
+     * Called once before every search, so entries from
+     * older searches are replaced first.
+     */
+    public void newSearch() {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    public void clear() {
+        for (int index = (keys.length - 1); index >= 0; --index) {
+            keys[index] = data[index] = 0L;
+        }
+        age = 0;
+    }
+
+    /**
+     * Looks up the entry of the given position.
+     * @param hash The Zobrist hash of the position.
+     * @return The packed entry, or {@link #MISS} if the position is not in the table.
+     */
+    public long probe(long hash) {
+        final int index = ((int) hash & mask) << 1;
+        //read every slot once, another thread may be writing it
+        final long first = data[index];
+        if (first != MISS && (keys[index] ^ first) == hash) {
+            return first;
+        }
+        final long second = data[index + 1];
+        if (second != MISS && (keys[index + 1] ^ second) == hash) {
+            return second;
+        }
+        return MISS;
+    }
+
+    /**
+     * Stores the result of a search.
+     * @param hash The Zobrist hash of the position.
+     * @param depth The depth of the search.
+     * @param bound The bound type of the score.
+     * @param score The score.
+     * @param move The best move found, see {@link #encodeMove(int, int)}.
+     */
+    public void store(long hash, int depth, int bound, int score, int move) {
+        final int index = ((int) hash & mask) << 1;
+        final long entry = pack(score, move, depth, bound, age);
+        final long old = data[index];
+        final boolean same = (keys[index] ^ old) == hash;
+        //depth preferred slot, keep the deeper entry unless it is from an older search
+        if (old == MISS || same || getAge(old) != age || depth >= getDepth(old)) {
+            //keep the previous best move if this search did not find one
+            final long stored = (move == NO_MOVE && same) ? pack(score, getMove(old), depth, bound, age) : entry;
+            data[index] = stored;
+            keys[index] = hash ^ stored;
+            return;
+        }
+        //always replace slot
+        data[index + 1] = entry;
+        keys[index + 1] = hash ^ entry;
+    }
+
+    /**
+     * Samples the first thousand buckets to estimate how full the table is.
+     * @return The number of slots out of 1000 used by the current search.
+     */
+    public int getPermill() {
+        final int samples = Math.min(500, mask + 1) << 1;
+        int used = 0;
+        for (int index = 0; index < samples; ++index) {
+            if (data[index] != MISS && getAge(data[index]) == age) {
+                ++used;
+            }
+        }
+        return (used * 1000) / samples;
+    }
+
+    /**
+     * Gets the number of slots in this table.
+     * @return The capacity.
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    private static long pack(int score, int move, int depth, int bound, int age) {
+        return (score & 0xFFFFFFFFL)
+                | (((long) (move & 0xFFFF)) << MOVE_SHIFT)
+                | (((long) (depth & 0xFF)) << DEPTH_SHIFT)
+                | (((long) bound) << BOUND_SHIFT)
+                | (((long) age) << AGE_SHIFT);
+    }
+
+    public static int getScore(long entry) {
+        return (int) entry;
+    }
+
+    /**
+     * Gets the score of an entry stored with {@link #getStoredScore(int, int)}.
+     * @param entry The entry.
+     * @param ply The distance of the position from the root of the search.
+     * @return The score, with mate scores counted from the root again.
+     */
+    public static int getScore(long entry, int ply) {
+        final int score = (int) entry;
+        if (isMateScore(score)) {
+            return (score > 0) ? (score - ply) : (score + ply);
+        }
+        return score;
+    }
+
+    /**
+     * Gets the score to store for a position. Mate scores count the ply from
+     * the root of the search, while the same position may be reached at
+     * another ply or searched from another root, so they are stored counting
+     * from the position instead.
+     * @param score The score.
+     * @param ply The distance of the position from the root of the search.
+     * @return The score to store.
+     */
+    public static int getStoredScore(int score, int ply) {
+        if (isMateScore(score)) {
+            return (score > 0) ? (score + ply) : (score - ply);
+        }
+        return score;
+    }
+
+    //infinite window bounds are far past any mate score
+    private static boolean isMateScore(int score) {
+        final int absolute = Math.abs(score);
+        return absolute >= CHECKMATE_VALUE && absolute <= CHECKMATE_VALUE + MAX_MATE_DISTANCE;
+    }
+
+    public static int getMove(long entry) {
+        return (int) (entry >>> MOVE_SHIFT) & 0xFFFF;
+    }
+
+    public static int getDepth(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    public static int getBound(long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & 0x3;
+    }
+
+    private static int getAge(long entry) {
+        return (int) (entry >>> AGE_SHIFT) & AGE_MASK;
+    }
+
+    /**
+     * Packs a move into 16 bits. A move from a square to itself
+     * is impossible, so a packed move is never {@link #NO_MOVE}.
+     * @param from The index of the starting square.
+     * @param to The index of the destination square.
+     * @return The packed move.
+     */
+    public static int encodeMove(int from, int to) {
+        return from | (to << 6);
+    }
+
+    public static int getFrom(int move) {
+        return move & 0x3F;
+    }
+
+    public static int getTo(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    /**
+     * Determines the bound type of a fail hard search result.
+     * @param score The score returned.
+     * @param alpha The original lower bound of the window.
+     * @param beta The original upper bound of the window.
+     * @return The bound type.
+     */
+    public static int getBound(int score, int alpha, int beta) {
+        if (score <= alpha) {
+            return UPPER_BOUND;
+        }
+        return (score >= beta) ? LOWER_BOUND : EXACT;
+    }
+}
@@ -0,0 +1,209 @@
+package Engine;
+
+import Util.ChessConstants;
+import java.util.Random;
+
+/**
+ * Zobrist keys for hashing chess positions. A position's hash is the
+ * exclusive or of one key per (piece, square) pair, plus a key for the
+ * side to move and a key for the castling rights that are still available.
+ * Because exclusive or is its own inverse, moving a piece only requires
+ * toggling the key of its old square and its new square.
+ *
+ * Square indexes follow {@link Locatable#getIndex()}, that is
+ * {@code (row * 8) + column} with row 0 being black's back rank.
+ *
+ * @author Will
+ */
+public final class Zobrist {
+
+    //piece indexes used to look up keys, white pieces come first
+    public static final int WHITE_PAWN = 0;
+    public static final int WHITE_KNIGHT = 1;
+    public static final int WHITE_BISHOP = 2;
+    public static final int WHITE_ROOK = 3;
+    public static final int WHITE_QUEEN = 4;
+    public static final int WHITE_KING = 5;
+    public static final int BLACK_PAWN = 6;
+    public static final int BLACK_KNIGHT = 7;
+    public static final int BLACK_BISHOP = 8;
+    public static final int BLACK_ROOK = 9;
+    public static final int BLACK_QUEEN = 10;
+    public static final int BLACK_KING = 11;
+
+    //castling right indexes
+    public static final int WHITE_LEFT_CASTLE = 0;
+    public static final int WHITE_RIGHT_CASTLE = 1;
+    public static final int BLACK_LEFT_CASTLE = 2;
+    public static final int BLACK_RIGHT_CASTLE = 3;
+
+    //fixed seed so hashes are the same between runs, which makes
+    //debugging a lot easier
+    private static final long SEED = 0x5EED_C0DE_F00DL;
+
+    private static final long[][] PIECE_KEYS = new long[12][ChessConstants.LINEAR_LENGTH];
+    private static final long[] CASTLE_KEYS = new long[4];
+    private static final long[] EN_PASSANT_KEYS = new long[ChessConstants.LENGTH];
+
+    /**
+     * Toggled into the hash when it is black to move.
+     */
+    public static final long SIDE_KEY;
+
+    private static final int WHITE_KING_INDEX = (ChessConstants.WHITE_PIECE_ROW << 3) + ChessConstants.KING_START_COLUMN;
+    private static final int BLACK_KING_INDEX = (ChessConstants.BLACK_PIECE_ROW << 3) + ChessConstants.KING_START_COLUMN;
+
+    static {
+        final Random random = new Random(SEED);
+        for (int piece = 0; piece < PIECE_KEYS.length; ++piece) {
+            for (int index = 0; index < ChessConstants.LINEAR_LENGTH; ++index) {
+                PIECE_KEYS[piece][index] = random.nextLong();
+            }
+        }
+        for (int index = 0; index < CASTLE_KEYS.length; ++index) {
+            CASTLE_KEYS[index] = random.nextLong();
+        }
+        SIDE_KEY = random.nextLong();
+        for (int index = 0; index < EN_PASSANT_KEYS.length; ++index) {
+            EN_PASSANT_KEYS[index] = random.nextLong();
+        }
+    }
+
+    private Zobrist() {
+
+    }
+
+    /**
+     * Gets the key of the given piece type and color standing on the
+     * given square.
+     * @param piece One of the piece indexes of this class,
+     * from {@link #WHITE_PAWN} to {@link #BLACK_KING}.
+     * @param index The square index.
+     * @return The Zobrist key.
+     */
+    public static long getKey(int piece, int index) {
+        return PIECE_KEYS[piece][index];
+    }
+
+    /**
+     * Gets the key of the given piece standing on the given square.
+     * @param piece The piece.
+     * @param index The square index.
+     * @return The Zobrist key.
+     */
+    public static long getKey(Piece piece, int index) {
+        return PIECE_KEYS[getPieceIndex(piece)][index];
+    }
+
+    /**
+     * Gets the key of the given castling right.
+     * @param castle One of the castling indexes of this class.
+     * @return The Zobrist key.
+     */
+    public static long getCastleKey(int castle) {
+        return CASTLE_KEYS[castle];
+    }
+
+    /**
+     * Gets the key of an en passant capture being available on the given
+     * column. The Tile engine does not search en passant captures, so only
+     * the bitboard engine uses these keys.
+     * @param column The column of the en passant square.
+     * @return The Zobrist key.
+     */
+    public static long getEnPassantKey(int column) {
+        return EN_PASSANT_KEYS[column];
+    }
+
+    /**
+     * Gets the piece index of the given piece, which
+     * is used to look up its keys.
+     * @param piece The piece.
+     * @return The piece index, from {@link #WHITE_PAWN} to {@link #BLACK_KING}.
+     */
+    public static int getPieceIndex(Piece piece) {
+        final int offset = piece.isWhite() ? WHITE_PAWN : BLACK_PAWN;
+        //pawns are the most common, so check them first
+        if (piece.isPawn()) {
+            return offset;
+        }
+        if (piece.isKnight()) {
+            return offset + 1;
+        }
+        if (piece.isBishop()) {
+            return offset + 2;
+        }
+        if (piece.isRook()) {
+            return offset + 3;
+        }
+        if (piece.isQueen()) {
+            return offset + 4;
+        }
+        return offset + 5;
+    }
+
+    /**
+     * Computes the castling part of the hash. Castling rights are derived
+     * the same way the move generator derives them: a king or rook that
+     * has not moved from its starting square.
+     * @param grid The grid.
+     * @return The exclusive or of the keys of every castling right still
+     * available.
+     */
+    public static long getCastleKey(Grid grid) {
+        long key = 0L;
+        Piece king = grid.getTile(WHITE_KING_INDEX).getOccupant();
+        if (king != null && king.isKing() && king.isWhite() && !king.hasMoved()) {
+            if (unmovedRook(grid.getTile(ChessConstants.WHITE_PIECE_ROW, 0).getOccupant(), true)) {
+                key ^= CASTLE_KEYS[WHITE_LEFT_CASTLE];
+            }
+            if (unmovedRook(grid.getTile(ChessConstants.WHITE_PIECE_ROW, 7).getOccupant(), true)) {
+                key ^= CASTLE_KEYS[WHITE_RIGHT_CASTLE];
+            }
+        }
+        king = grid.getTile(BLACK_KING_INDEX).getOccupant();
+        if (king != null && king.isKing() && king.isBlack() && !king.hasMoved()) {
+            if (unmovedRook(grid.getTile(ChessConstants.BLACK_PIECE_ROW, 0).getOccupant(), false)) {
+                key ^= CASTLE_KEYS[BLACK_LEFT_CASTLE];
+            }
+            if (unmovedRook(grid.getTile(ChessConstants.BLACK_PIECE_ROW, 7).getOccupant(), false)) {
+                key ^= CASTLE_KEYS[BLACK_RIGHT_CASTLE];
+            }
+        }
+        return key;
+    }
+
+    private static boolean unmovedRook(Piece rook, boolean white) {
+        return rook != null && rook.isRook() && (rook.isWhite() == white) && !rook.hasMoved();
+    }
+
+    /**
+     * Gets the full hash of the position, which is the incrementally
+     * maintained piece hash of the grid combined with the castling rights and
+     * side to move.
+     * @param grid The grid.
+     * @param whiteToMove Whether it is white's turn.
+     * @return The hash of the position.
+     */
+    public static long getHash(Grid grid, boolean whiteToMove) {
+        final long hash = grid.getHash() ^ getCastleKey(grid);
+        return whiteToMove ? hash : (hash ^ SIDE_KEY);
+    }
+
+    /**
+     * Computes the piece hash of the grid from scratch. Used to
+     * verify the incrementally updated hash.
+     * @param grid The grid.
+     * @return The piece hash of the grid.
+     */
+    public static long computePieceHash(Grid grid) {
+        long hash = 0L;
+        for (int index = 0; index < ChessConstants.LINEAR_LENGTH; ++index) {
+            final Piece piece = grid.getTile(index).getOccupant();
+            if (piece != null) {
+                hash ^= PIECE_KEYS[getPieceIndex(piece)][index];
+            }
+        }
+        return hash;
+    }
+}
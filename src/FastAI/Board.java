@@ -1,160 +1,466 @@
 package FastAI;
 
+import Engine.Grid;
+import Engine.Piece;
+import Engine.Zobrist;
 import Util.ChessConstants;
 import java.util.Arrays;
 
-public class Board {
-    
+/**
+ * Bitboard representation of a chess position. Bit i of every bitboard is
+ * the square with the linear index i used everywhere else in the program
+ * ({@code (row * 8) + column}), so bit 0 is [0][0] (black's left rook) and
+ * bit 63 is [7][7] (white's right rook).
+ *
+ * Boards are made with copy-make: a search keeps one board per ply, copies
+ * the parent into it and plays the move, so there is nothing to undo.
+ *
+ * @author Will
+ */
+public final class Board {
+
     public static final long L = 1L;
 
-    long whitePawns;
-    long whiteKnights;
-    long whiteBishops;
-    long whiteRooks;
-    long whiteQueens;
-    long whiteKings;
-    
-    long whitePieces;
+    //piece types, adding BLACK gives the black piece, which
+    //matches the piece indexes used by Engine.Zobrist
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+    public static final int BLACK = 6;
 
-    long blackPawns;
-    long blackKnights;
-    long blackBishops;
-    long blackRooks;
-    long blackQueens;
-    long blackKings;
-    
-    long blackPieces; //positions of black pieces on chess board.
+    public static final int NO_PIECE = -1;
+    public static final int NO_SQUARE = -1;
+
+    //castling rights, in the same order as the Zobrist castling keys
+    public static final int WHITE_LEFT_CASTLE = 1;
+    public static final int WHITE_RIGHT_CASTLE = 2;
+    public static final int BLACK_LEFT_CASTLE = 4;
+    public static final int BLACK_RIGHT_CASTLE = 8;
+
+    public static final long COLUMN_A = 0x0101010101010101L;
+    public static final long COLUMN_H = 0x8080808080808080L;
+
+    static final int WHITE_KING_START = (ChessConstants.WHITE_PIECE_ROW << 3) + ChessConstants.KING_START_COLUMN;
+    static final int BLACK_KING_START = (ChessConstants.BLACK_PIECE_ROW << 3) + ChessConstants.KING_START_COLUMN;
+
+    //castling rights that remain after a move touches a square
+    private static final int[] CASTLE_MASKS = new int[ChessConstants.LINEAR_LENGTH];
 
-    long moveCounts; //default to all zero, no bits set.
+    //hash of every combination of castling rights
+    private static final long[] CASTLE_KEYS = new long[16];
+
+    static {
+        Arrays.fill(CASTLE_MASKS, 0xF);
+        CASTLE_MASKS[WHITE_KING_START] &= ~(WHITE_LEFT_CASTLE | WHITE_RIGHT_CASTLE);
+        CASTLE_MASKS[WHITE_KING_START - 4] &= ~WHITE_LEFT_CASTLE;
+        CASTLE_MASKS[WHITE_KING_START + 3] &= ~WHITE_RIGHT_CASTLE;
+        CASTLE_MASKS[BLACK_KING_START] &= ~(BLACK_LEFT_CASTLE | BLACK_RIGHT_CASTLE);
+        CASTLE_MASKS[BLACK_KING_START - 4] &= ~BLACK_LEFT_CASTLE;
+        CASTLE_MASKS[BLACK_KING_START + 3] &= ~BLACK_RIGHT_CASTLE;
+        for (int rights = 0; rights < CASTLE_KEYS.length; ++rights) {
+            for (int castle = 0; castle < 4; ++castle) {
+                if ((rights & (1 << castle)) != 0) {
+                    CASTLE_KEYS[rights] ^= Zobrist.getCastleKey(castle);
+                }
+            }
+        }
+    }
+
+    //one bitboard per piece, indexed by piece type (+ BLACK)
+    final long[] pieces = new long[12];
+
+    long whitePieces;
+    long blackPieces; //positions of black pieces on chess board.
 
-    long whiteProtections; //must intialize manually
-    long blackProtections; //must initialize manually
+    boolean whiteToMove = true;
+    int castlingRights;
+    int enPassant = NO_SQUARE;
+    int halfMoveClock;
+    long hash;
 
+    /**
+     * Constructs the starting position.
+     */
     public Board() {
-        whitePawns =   0b00000000_00000000_00000000_00000000_00000000_00000000_00000000_00000000L;
-        whiteKnights = 0b00000000_00000000_00000000_00000000_00000000_00000000_00000000_01000010L;
-        whiteBishops = 0b00000000_00000000_00000000_00000000_00000000_00000000_00000000_00100100L;
-        whiteRooks =   0b00000000_00000000_00000000_00000000_00000000_00000000_00000000_10000001L;
-        whiteQueens =  0b00000000_00000000_00000000_00000000_00000000_00000000_00000000_00010000L;
-        whiteKings =   0b00000000_00000000_00000000_00000000_00000000_00000000_00000000_00001000L;
+        this("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+    }
 
-        //to loop from [0][0] to [7][7] start at 63 and stop at 0
-        //could hard code white pieces, but this initialization code shows the process
-        blackPawns =   0b00000000_11111111_00000000_00000000_00000000_00000000_00000000_00000000L;
-        blackKnights = 0b01000010_00000000_00000000_00000000_00000000_00000000_00000000_00000000L;
-        blackBishops = 0b00100100_00000000_00000000_00000000_00000000_00000000_00000000_00000000L;
-        blackRooks =   0b10000001_00000000_00000000_00000000_00000000_00000000_00000000_00000000L;
-        blackQueens =  0b00010000_00000000_00000000_00000000_00000000_00000000_00000000_00000000L;
-        blackKings =   0b00001000_00000000_00000000_00000000_00000000_00000000_00000000_00000000L;
+    public Board(Board board) {
+        copy(board);
+    }
 
-        for (int index = 63; index >= 0; --index) {
-            long shift = L << index;
-            if ((whitePawns & shift) != 0) {
-                whitePieces |= shift;
+    /**
+     * Constructs a position from Forsyth-Edwards Notation.
+     * @param fen The position, the move number may be omitted.
+     */
+    public Board(String fen) {
+        final String[] fields = fen.trim().split("\\s+");
+        for (int index = 0, length = fields[0].length(), square = 0; index < length; ++index) {
+            final char symbol = fields[0].charAt(index);
+            if (symbol == '/') {
+                continue;
             }
-            else if ((whiteKnights & shift) != 0) {
-                whitePieces |= shift;
+            if (Character.isDigit(symbol)) {
+                square += (symbol - '0');
+                continue;
             }
-            else if ((whiteBishops & shift) != 0) {
-                whitePieces |= shift;
+            final int type = "pnbrqk".indexOf(Character.toLowerCase(symbol));
+            if (type < 0) {
+                throw new IllegalArgumentException("Invalid FEN: " + fen);
             }
-            else if ((whiteRooks & shift) != 0) {
-                whitePieces |= shift;
+            add(Character.isUpperCase(symbol) ? type : (type + BLACK), square++);
+        }
+        whiteToMove = (fields.length < 2) || fields[1].equals("w");
+        if (fields.length > 2) {
+            final String castles = fields[2];
+            if (castles.indexOf('Q') >= 0) {
+                castlingRights |= WHITE_LEFT_CASTLE;
             }
-            else if ((whiteQueens & shift) != 0) {
-                whitePieces |= shift;
+            if (castles.indexOf('K') >= 0) {
+                castlingRights |= WHITE_RIGHT_CASTLE;
             }
-            else if ((whiteKings & shift) != 0) {
-                whitePieces |= shift;
+            if (castles.indexOf('q') >= 0) {
+                castlingRights |= BLACK_LEFT_CASTLE;
             }
-
-            else if ((blackPawns & shift) != 0) {
-                blackPieces |= shift;
+            if (castles.indexOf('k') >= 0) {
+                castlingRights |= BLACK_RIGHT_CASTLE;
             }
-            else if ((blackKnights & shift) != 0) {
-                blackPieces |= shift;
+        }
+        if (fields.length > 3 && !fields[3].equals("-")) {
+            enPassant = ((('8' - fields[3].charAt(1)) << 3) + (fields[3].charAt(0) - 'a'));
+        }
+        if (fields.length > 4) {
+            halfMoveClock = Integer.parseInt(fields[4]);
+        }
+        hash = computeHash();
+    }
+
+    /**
+     * Constructs the position of the given grid of the Tile engine. Castling
+     * rights come from kings and rooks that have not moved and the en passant
+     * square from a pawn that just made a double jump.
+     * @param grid The grid.
+     * @param whiteToMove Whether it is white's turn.
+     */
+    public Board(Grid grid, boolean whiteToMove) {
+        for (int index = 0; index < ChessConstants.LINEAR_LENGTH; ++index) {
+            final Piece piece = grid.getTile(index).getOccupant();
+            if (piece != null) {
+                add(Zobrist.getPieceIndex(piece), index);
+                if (piece.isPawn() && piece.justMadeDoubleJump() && (piece.isWhite() != whiteToMove)) {
+                    enPassant = piece.isWhite() ? (index + 8) : (index - 8);
+                }
             }
-            else if ((blackBishops & shift) != 0) {
-                blackPieces |= shift;
+        }
+        this.whiteToMove = whiteToMove;
+        if (unmoved(grid, WHITE_KING_START, KING)) {
+            if (unmoved(grid, WHITE_KING_START - 4, ROOK)) {
+                castlingRights |= WHITE_LEFT_CASTLE;
             }
-            else if ((blackRooks & shift) != 0) {
-                blackPieces |= shift;
+            if (unmoved(grid, WHITE_KING_START + 3, ROOK)) {
+                castlingRights |= WHITE_RIGHT_CASTLE;
             }
-            else if ((blackQueens & shift) != 0) {
-                blackPieces |= shift;
+        }
+        if (unmoved(grid, BLACK_KING_START, KING + BLACK)) {
+            if (unmoved(grid, BLACK_KING_START - 4, ROOK + BLACK)) {
+                castlingRights |= BLACK_LEFT_CASTLE;
             }
-            else if ((blackKings & shift) != 0) {
-                blackPieces |= shift;
+            if (unmoved(grid, BLACK_KING_START + 3, ROOK + BLACK)) {
+                castlingRights |= BLACK_RIGHT_CASTLE;
             }
         }
+        hash = computeHash();
     }
 
-    public Board(Board grid) {
-        whitePawns = grid.whitePawns;
-        whiteKnights = grid.whiteKnights;
-        whiteBishops = grid.whiteBishops;
-        whiteRooks = grid.whiteRooks;
-        whiteQueens = grid.whiteQueens;
-        whiteKings = grid.whiteKings;
+    private boolean unmoved(Grid grid, int index, int piece) {
+        final Piece occupant = grid.getTile(index).getOccupant();
+        return occupant != null && !occupant.hasMoved() && getPiece(index) == piece;
+    }
 
-        blackPawns = grid.blackPawns;
-        blackKnights = grid.blackKnights;
-        blackBishops = grid.blackBishops;
-        blackRooks = grid.blackRooks;
-        blackQueens = grid.blackQueens;
-        blackKings = grid.blackKings;
+    private void add(int piece, int index) {
+        final long bit = L << index;
+        pieces[piece] |= bit;
+        if (piece < BLACK) {
+            whitePieces |= bit;
+        }
+        else {
+            blackPieces |= bit;
+        }
     }
 
-    @Override
-    public String toString() {
-        char[][] board = new char[ChessConstants.LENGTH][ChessConstants.LENGTH];
-        for (int row = 0, column = 0, index = (ChessConstants.LINEAR_LENGTH - 1); index >= 0; --index) {
-            if (column == ChessConstants.LENGTH) {
-                ++row;
-                column = 0;
-            }
-            long shift = L << index;
-            if ((whitePawns & shift) != 0) {
-                board[row][column] = ChessConstants.WHITE_PAWN;
-            }
-            else if ((whiteKnights & shift) != 0) {
-                board[row][column] = ChessConstants.WHITE_KNIGHT;
-            }
-            else if ((whiteBishops & shift) != 0) {
-                board[row][column] = ChessConstants.WHITE_BISHOP;
-            }
-            else if ((whiteRooks & shift) != 0) {
-                board[row][column] = ChessConstants.WHITE_ROOK;
-            }
-            else if ((whiteQueens & shift) != 0) {
-                board[row][column] = ChessConstants.WHITE_QUEEN;
-            }
-            else if ((whiteKings & shift) != 0) {
-                board[row][column] = ChessConstants.WHITE_KING;
+    public void copy(Board board) {
+        System.arraycopy(board.pieces, 0, pieces, 0, pieces.length);
+        whitePieces = board.whitePieces;
+        blackPieces = board.blackPieces;
+        whiteToMove = board.whiteToMove;
+        castlingRights = board.castlingRights;
+        enPassant = board.enPassant;
+        halfMoveClock = board.halfMoveClock;
+        hash = board.hash;
+    }
+
+    public boolean isWhiteToMove() {
+        return whiteToMove;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    public long getOccupied() {
+        return whitePieces | blackPieces;
+    }
+
+    public long getBitboard(int piece) {
+        return pieces[piece];
+    }
+
+    /**
+     * Gets the piece on the given square.
+     * @param index The square index.
+     * @return The piece type (+ {@link #BLACK} for black pieces)
+     * or {@link #NO_PIECE} if the square is empty.
+     */
+    public int getPiece(int index) {
+        final long bit = L << index;
+        if (((whitePieces | blackPieces) & bit) == 0) {
+            return NO_PIECE;
+        }
+        for (int piece = (((whitePieces & bit) != 0) ? PAWN : BLACK), last = piece + KING; piece <= last; ++piece) {
+            if ((pieces[piece] & bit) != 0) {
+                return piece;
             }
+        }
+        return NO_PIECE;
+    }
 
-            else if ((blackPawns & shift) != 0) {
-                board[row][column] = ChessConstants.BLACK_PAWN;
+    /**
+     * Gets the type of the piece on the given square, which must belong to
+     * the given side.
+     * @param index The square index.
+     * @param offset 0 for white or {@link #BLACK} for black.
+     * @return The piece type, from {@link #PAWN} to {@link #KING}.
+     */
+    int getType(int index, int offset) {
+        final long bit = L << index;
+        for (int type = PAWN; type < KING; ++type) {
+            if ((pieces[offset + type] & bit) != 0) {
+                return type;
             }
-            else if ((blackKnights & shift) != 0) {
-                board[row][column] = ChessConstants.BLACK_KNIGHT;
+        }
+        return KING;
+    }
+
+    public int getKingIndex(boolean white) {
+        return Long.numberOfTrailingZeros(pieces[white ? KING : (KING + BLACK)]);
+    }
+
+    /**
+     * Determines whether the given square is attacked by the given side.
+     * @param index The square index.
+     * @param byWhite {@code true} to check for white attackers.
+     * @return {@code true} if any piece of the given side attacks the square.
+     */
+    public boolean isAttacked(int index, boolean byWhite) {
+        final int offset = byWhite ? 0 : BLACK;
+        //a pawn attacks this square if a pawn of the other
+        //color on this square would attack the pawn
+        if ((Pawn.getAttacks(index, !byWhite) & pieces[offset + PAWN]) != 0) {
+            return true;
+        }
+        if ((Knight.getAttacks(index) & pieces[offset + KNIGHT]) != 0) {
+            return true;
+        }
+        if ((King.getAttacks(index) & pieces[offset + KING]) != 0) {
+            return true;
+        }
+        final long occupied = whitePieces | blackPieces;
+        final long queens = pieces[offset + QUEEN];
+        return ((Bishop.getAttacks(index, occupied) & (pieces[offset + BISHOP] | queens)) != 0)
+                || ((Rook.getAttacks(index, occupied) & (pieces[offset + ROOK] | queens)) != 0);
+    }
+
+    /**
+     * Gets all pieces of both sides that attack the given square.
+     * @param index The square index.
+     * @param occupied The occupied squares, which may differ from the board
+     * when looking through pieces that have already been exchanged.
+     * @return The attackers.
+     */
+    public long getAttackers(int index, long occupied) {
+        final long bishops = pieces[BISHOP] | pieces[QUEEN] | pieces[BISHOP + BLACK] | pieces[QUEEN + BLACK];
+        final long rooks = pieces[ROOK] | pieces[QUEEN] | pieces[ROOK + BLACK] | pieces[QUEEN + BLACK];
+        return ((Pawn.getAttacks(index, false) & pieces[PAWN])
+                | (Pawn.getAttacks(index, true) & pieces[PAWN + BLACK])
+                | (Knight.getAttacks(index) & (pieces[KNIGHT] | pieces[KNIGHT + BLACK]))
+                | (King.getAttacks(index) & (pieces[KING] | pieces[KING + BLACK]))
+                | (Bishop.getAttacks(index, occupied) & bishops)
+                | (Rook.getAttacks(index, occupied) & rooks)) & occupied;
+    }
+
+    public boolean inCheck() {
+        return isAttacked(getKingIndex(whiteToMove), !whiteToMove);
+    }
+
+    /**
+     * Plays the given move, which must have been generated for this position.
+     * @param move The move.
+     * @return {@code false} if the move leaves the king of the side that
+     * moved in check, in which case this board must be discarded.
+     */
+    public boolean makeMove(int move) {
+        final int from = Move.getFrom(move);
+        final int to = Move.getTo(move);
+        final int offset = whiteToMove ? 0 : BLACK;
+        final int piece = offset + Move.getPiece(move);
+        final long fromTo = (L << from) | (L << to);
+
+        if (enPassant != NO_SQUARE) {
+            hash ^= Zobrist.getEnPassantKey(enPassant & 7);
+            enPassant = NO_SQUARE;
+        }
+
+        if (Move.isCapture(move)) {
+            final int captured = (BLACK - offset) + Move.getCaptured(move);
+            final int capturedIndex = Move.isEnPassant(move) ? (whiteToMove ? (to + 8) : (to - 8)) : to;
+            final long capturedBit = L << capturedIndex;
+            pieces[captured] ^= capturedBit;
+            if (whiteToMove) {
+                blackPieces ^= capturedBit;
             }
-            else if ((blackBishops & shift) != 0) {
-                board[row][column] = ChessConstants.BLACK_BISHOP;
+            else {
+                whitePieces ^= capturedBit;
             }
-            else if ((blackRooks & shift) != 0) {
-                board[row][column] = ChessConstants.BLACK_ROOK;
+            hash ^= Zobrist.getKey(captured, capturedIndex);
+            halfMoveClock = 0;
+        }
+        else if (Move.getPiece(move) == PAWN) {
+            halfMoveClock = 0;
+        }
+        else {
+            ++halfMoveClock;
+        }
+
+        pieces[piece] ^= fromTo;
+        if (whiteToMove) {
+            whitePieces ^= fromTo;
+        }
+        else {
+            blackPieces ^= fromTo;
+        }
+        hash ^= Zobrist.getKey(piece, from) ^ Zobrist.getKey(piece, to);
+
+        if (Move.isPromotion(move)) {
+            final int promotion = offset + Move.getPromotion(move);
+            final long toBit = L << to;
+            pieces[piece] ^= toBit;
+            pieces[promotion] ^= toBit;
+            hash ^= Zobrist.getKey(piece, to) ^ Zobrist.getKey(promotion, to);
+        }
+        else if (Move.isDoubleJump(move)) {
+            enPassant = (from + to) >>> 1;
+            hash ^= Zobrist.getEnPassantKey(enPassant & 7);
+        }
+        else if (Move.isCastle(move)) {
+            //king moves 2 columns, so the rook starts at either corner
+            final int rookFrom = (to > from) ? (from + 3) : (from - 4);
+            final int rookTo = (from + to) >>> 1;
+            final int rook = offset + ROOK;
+            final long rookFromTo = (L << rookFrom) | (L << rookTo);
+            pieces[rook] ^= rookFromTo;
+            if (whiteToMove) {
+                whitePieces ^= rookFromTo;
             }
-            else if ((blackQueens & shift) != 0) {
-                board[row][column] = ChessConstants.BLACK_QUEEN;
+            else {
+                blackPieces ^= rookFromTo;
             }
-            else if ((blackKings & shift) != 0) {
-                board[row][column] = ChessConstants.BLACK_KING;
+            hash ^= Zobrist.getKey(rook, rookFrom) ^ Zobrist.getKey(rook, rookTo);
+        }
+
+        final int rights = castlingRights & CASTLE_MASKS[from] & CASTLE_MASKS[to];
+        if (rights != castlingRights) {
+            hash ^= CASTLE_KEYS[castlingRights] ^ CASTLE_KEYS[rights];
+            castlingRights = rights;
+        }
+
+        whiteToMove = !whiteToMove;
+        hash ^= Zobrist.SIDE_KEY;
+        return !isAttacked(getKingIndex(!whiteToMove), whiteToMove);
+    }
+
+    /**
+     * Passes the turn to the other side without moving.
+     */
+    public void makeNullMove() {
+        if (enPassant != NO_SQUARE) {
+            hash ^= Zobrist.getEnPassantKey(enPassant & 7);
+            enPassant = NO_SQUARE;
+        }
+        ++halfMoveClock;
+        whiteToMove = !whiteToMove;
+        hash ^= Zobrist.SIDE_KEY;
+    }
+
+    /**
+     * Computes the hash of this board from scratch.
+     * @return The hash, the same value that is kept up to date by
+     * {@link #makeMove(int)}.
+     */
+    public long computeHash() {
+        long result = getPieceHash() ^ CASTLE_KEYS[castlingRights];
+        if (enPassant != NO_SQUARE) {
+            result ^= Zobrist.getEnPassantKey(enPassant & 7);
+        }
+        return whiteToMove ? result : (result ^ Zobrist.SIDE_KEY);
+    }
+
+    /**
+     * Gets the hash of the pieces alone, which equals
+     * {@link Grid#getHash()} of a grid with the same pieces.
+     * @return The piece hash.
+     */
+    public long getPieceHash() {
+        long result = 0L;
+        for (int piece = 0; piece < pieces.length; ++piece) {
+            for (long bitboard = pieces[piece]; bitboard != 0; bitboard &= (bitboard - 1)) {
+                result ^= Zobrist.getKey(piece, Long.numberOfTrailingZeros(bitboard));
             }
-            else {
-                board[row][column] = '.';
+        }
+        return result;
+    }
+
+    //attack table helpers, used to build the piece attack tables
+
+    static long getLeaperAttacks(int index, int[] rowOffsets, int[] columnOffsets) {
+        final int row = ChessConstants.getRow(index);
+        final int column = ChessConstants.getColumn(index);
+        long attacks = 0L;
+        for (int offset = 0; offset < rowOffsets.length; ++offset) {
+            final int nextRow = row + rowOffsets[offset];
+            final int nextColumn = column + columnOffsets[offset];
+            if (nextRow >= 0 && nextRow < ChessConstants.LENGTH && nextColumn >= 0 && nextColumn < ChessConstants.LENGTH) {
+                attacks |= (L << ChessConstants.getLocation(nextRow, nextColumn));
             }
-            ++column;
+        }
+        return attacks;
+    }
+
+    private static final char[] SYMBOLS = {
+        ChessConstants.WHITE_PAWN, ChessConstants.WHITE_KNIGHT, ChessConstants.WHITE_BISHOP,
+        ChessConstants.WHITE_ROOK, ChessConstants.WHITE_QUEEN, ChessConstants.WHITE_KING,
+        ChessConstants.BLACK_PAWN, ChessConstants.BLACK_KNIGHT, ChessConstants.BLACK_BISHOP,
+        ChessConstants.BLACK_ROOK, ChessConstants.BLACK_QUEEN, ChessConstants.BLACK_KING
+    };
+
+    @Override
+    public String toString() {
+        char[][] board = new char[ChessConstants.LENGTH][ChessConstants.LENGTH];
+        for (int index = 0; index < ChessConstants.LINEAR_LENGTH; ++index) {
+            final int piece = getPiece(index);
+            board[ChessConstants.getRow(index)][ChessConstants.getColumn(index)] = (piece == NO_PIECE) ? '.' : SYMBOLS[piece];
         }
         StringBuilder result = new StringBuilder(ChessConstants.LINEAR_LENGTH);
         for (int index = 0, lastIndex = (ChessConstants.LENGTH - 1); index <= lastIndex; ++index) {
@@ -166,41 +472,25 @@ public class Board {
         }
         return result.toString();
     }
-    
+
+    //prints [0][0] first, the same way the board is drawn
     public static String bitBoard(long l) {
-        String result = "";
-        
-        for (int index = (ChessConstants.LINEAR_LENGTH - 1); index >= 0; --index) {
-            if ((l & (L << index)) != 0) {
-                result += "1";
-            }
-            else {
-                result += "0";
-            }
-            if (index % ChessConstants.LENGTH == 0) {
-                result += "\n";
+        StringBuilder result = new StringBuilder(ChessConstants.LINEAR_LENGTH + ChessConstants.LENGTH);
+        for (int index = 0; index < ChessConstants.LINEAR_LENGTH; ++index) {
+            result.append(((l & (L << index)) != 0) ? '1' : '0');
+            if (index % ChessConstants.LENGTH == (ChessConstants.LENGTH - 1)) {
+                result.append('\n');
             }
         }
-        
-        return result;
+        return result.toString();
     }
 
     public static void main(String[] args) {
         Board board = new Board();
-        long l = 10;
-        l |= 4; // sets 3rd bit, from bottom of [8][8]
-        l &= ~4; // unset 3rd bit
-        long a = board.whitePawns;
-        System.out.println(bitBoard(a));
-        a = 0;
-        a |= (L << 0);//zero based index, zero at the [8][8] 63 at [0][0]
-        System.out.println();
-        System.out.println(bitBoard(a));
-        System.out.println();
+        System.out.println(bitBoard(board.pieces[PAWN]));
         System.out.println(bitBoard(board.whitePieces));
         System.out.println(bitBoard(board.blackPieces));
         System.out.println(board);
-        System.out.println(L);
-        System.out.println(Bishop.generateAttack(board, 58, true));
+        System.out.println(bitBoard(Bishop.getAttacks(58, board.getOccupied())));
     }
 }
@@ -0,0 +1,143 @@
+package FastAI;
+
+import static FastAI.Board.BISHOP;
+import static FastAI.Board.BLACK;
+import static FastAI.Board.KING;
+import static FastAI.Board.KNIGHT;
+import static FastAI.Board.PAWN;
+import static FastAI.Board.QUEEN;
+import static FastAI.Board.ROOK;
+import Util.ChessConstants;
+import static Util.ChessConstants.BISHOP_BONUS;
+import static Util.ChessConstants.BISHOP_VALUE;
+import static Util.ChessConstants.CASTLE_VALUE;
+import static Util.ChessConstants.CHECKED_VALUE;
+import static Util.ChessConstants.KING_MOVED_VALUE;
+import static Util.ChessConstants.KNIGHT_VALUE;
+import static Util.ChessConstants.PAWN_VALUE;
+import static Util.ChessConstants.QUEEN_VALUE;
+import static Util.ChessConstants.ROOK_VALUE;
+
+/**
+ * Evaluates bitboards with the same terms as {@link Engine.Evaluator}:
+ * material, piece square tables, the number of protected squares, king
+ * safety and the bishop pair. The bitboard engine does not know how often
+ * a king moved, so a king on its starting square counts as unmoved and a
+ * king on a castling square of its back row without castling rights counts
+ * as castled.
+ *
+ * @author Will
+ */
+public final class Evaluator {
+
+    //piece square tables in white's perspective, black uses (index ^ 56)
+    private static final int[][] POSITION_TABLES = {
+        Engine.Evaluator.getWhitePositionTable(ChessConstants.PAWN, false),
+        Engine.Evaluator.getWhitePositionTable(ChessConstants.KNIGHT, false),
+        Engine.Evaluator.getWhitePositionTable(ChessConstants.BISHOP, false),
+        Engine.Evaluator.getWhitePositionTable(ChessConstants.ROOK, false),
+        Engine.Evaluator.getWhitePositionTable(ChessConstants.QUEEN, false),
+        Engine.Evaluator.getWhitePositionTable(ChessConstants.KING, false)
+    };
+
+    private static final int[] KING_POSITION_END = Engine.Evaluator.getWhitePositionTable(ChessConstants.KING, true);
+
+    private static final int[] VALUES = {PAWN_VALUE, KNIGHT_VALUE, BISHOP_VALUE, ROOK_VALUE, QUEEN_VALUE, 0};
+
+    private static final int FLIP = 56;
+
+    private Evaluator() {
+
+    }
+
+    /**
+     * Evaluates the given board.
+     * @param board The board.
+     * @return The score in the perspective of the side to move.
+     */
+    public static int evaluate(Board board) {
+        final int score = getScore(board, true) - getScore(board, false);
+        return board.whiteToMove ? score : -score;
+    }
+
+    public static int getValue(int type) {
+        return VALUES[type];
+    }
+
+    private static int getScore(Board board, boolean white) {
+        final int offset = white ? 0 : BLACK;
+        final int flip = white ? 0 : FLIP;
+        final long[] pieces = board.pieces;
+        final long occupied = board.whitePieces | board.blackPieces;
+        int score = 0;
+
+        final long pawns = pieces[offset + PAWN];
+        score += Long.bitCount(pawns) * PAWN_VALUE;
+        if (white) {
+            score += Long.bitCount((pawns >>> 9) & ~Board.COLUMN_H) + Long.bitCount((pawns >>> 7) & ~Board.COLUMN_A);
+        }
+        else {
+            score += Long.bitCount((pawns << 7) & ~Board.COLUMN_H) + Long.bitCount((pawns << 9) & ~Board.COLUMN_A);
+        }
+        for (long bits = pawns; bits != 0; bits &= (bits - 1)) {
+            score += POSITION_TABLES[PAWN][Long.numberOfTrailingZeros(bits) ^ flip];
+        }
+        for (long bits = pieces[offset + KNIGHT]; bits != 0; bits &= (bits - 1)) {
+            final int index = Long.numberOfTrailingZeros(bits);
+            score += KNIGHT_VALUE + POSITION_TABLES[KNIGHT][index ^ flip] + Long.bitCount(Knight.getAttacks(index));
+        }
+        for (long bits = pieces[offset + BISHOP]; bits != 0; bits &= (bits - 1)) {
+            final int index = Long.numberOfTrailingZeros(bits);
+            score += BISHOP_VALUE + POSITION_TABLES[BISHOP][index ^ flip] + Long.bitCount(Bishop.getAttacks(index, occupied));
+        }
+        for (long bits = pieces[offset + ROOK]; bits != 0; bits &= (bits - 1)) {
+            final int index = Long.numberOfTrailingZeros(bits);
+            score += ROOK_VALUE + POSITION_TABLES[ROOK][index ^ flip] + Long.bitCount(Rook.getAttacks(index, occupied));
+        }
+        for (long bits = pieces[offset + QUEEN]; bits != 0; bits &= (bits - 1)) {
+            final int index = Long.numberOfTrailingZeros(bits);
+            score += QUEEN_VALUE + POSITION_TABLES[QUEEN][index ^ flip] + Long.bitCount(Queen.getAttacks(index, occupied));
+        }
+
+        final int king = board.getKingIndex(white);
+        if (board.isAttacked(king, !white)) {
+            score -= CHECKED_VALUE;
+        }
+        final int start = white ? Board.WHITE_KING_START : Board.BLACK_KING_START;
+        if (king != start) {
+            final int rights = white ? (Board.WHITE_LEFT_CASTLE | Board.WHITE_RIGHT_CASTLE) : (Board.BLACK_LEFT_CASTLE | Board.BLACK_RIGHT_CASTLE);
+            if ((board.castlingRights & rights) == 0 && (king == start - 2 || king == start + 2)) {
+                score += CASTLE_VALUE;
+            }
+            else {
+                score -= KING_MOVED_VALUE;
+            }
+        }
+
+        if (isEndGame(board)) {
+            score += KING_POSITION_END[king ^ flip];
+        }
+        else {
+            score += POSITION_TABLES[KING][king ^ flip];
+            if (Long.bitCount(pieces[offset + BISHOP]) >= 2) {
+                score += BISHOP_BONUS;
+            }
+        }
+        return score;
+    }
+
+    //both sides have no queens and at most one rook, or a queen and one minor piece
+    private static boolean isEndGame(Board board) {
+        return isEndGame(board, 0) && isEndGame(board, BLACK);
+    }
+
+    private static boolean isEndGame(Board board, int offset) {
+        final int queens = Long.bitCount(board.pieces[offset + QUEEN]);
+        final int rooks = Long.bitCount(board.pieces[offset + ROOK]);
+        if (queens == 0) {
+            return rooks <= 1;
+        }
+        return queens == 1 && rooks == 0
+                && (Long.bitCount(board.pieces[offset + KNIGHT]) + Long.bitCount(board.pieces[offset + BISHOP])) == 1;
+    }
+}
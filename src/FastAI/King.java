@@ -1,14 +1,26 @@
-/*
- * To change this license header, choose License Headers in Project Properties.
- * To change this template file, choose Tools | Templates
- * and open the template in the editor.
- */
 package FastAI;
 
-/**
- *
- * @author zwill
- */
-public class King {
-    
+import Util.ChessConstants;
+
+public final class King {
+
+    private static final int[] ROW_OFFSETS = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] COLUMN_OFFSETS = {-1, 0, 1, -1, 1, -1, 0, 1};
+
+    private static final long[] ATTACKS = new long[ChessConstants.LINEAR_LENGTH];
+
+    static {
+        for (int index = 0; index < ChessConstants.LINEAR_LENGTH; ++index) {
+            ATTACKS[index] = Board.getLeaperAttacks(index, ROW_OFFSETS, COLUMN_OFFSETS);
+        }
+    }
+
+    private King() {
+
+    }
+
+    //return the positions where a king can attack at from the given index
+    public static long getAttacks(int index) {
+        return ATTACKS[index];
+    }
 }
@@ -1,5 +1,26 @@
 package FastAI;
 
-public class Knight {
-    
+import Util.ChessConstants;
+
+public final class Knight {
+
+    private static final int[] ROW_OFFSETS = {-2, -2, -1, -1, 1, 1, 2, 2};
+    private static final int[] COLUMN_OFFSETS = {-1, 1, -2, 2, -2, 2, -1, 1};
+
+    private static final long[] ATTACKS = new long[ChessConstants.LINEAR_LENGTH];
+
+    static {
+        for (int index = 0; index < ChessConstants.LINEAR_LENGTH; ++index) {
+            ATTACKS[index] = Board.getLeaperAttacks(index, ROW_OFFSETS, COLUMN_OFFSETS);
+        }
+    }
+
+    private Knight() {
+
+    }
+
+    //return the positions where a knight can attack at from the given index
+    public static long getAttacks(int index) {
+        return ATTACKS[index];
+    }
 }
@@ -0,0 +1,129 @@
+package FastAI;
+
+/**
+ * Moves of the bitboard engine are packed into a single int:
+ * <pre>
+ * bits  0-5  from square
+ * bits  6-11 to square
+ * bits 12-14 promotion piece type, 0 if none
+ * bits 15-17 moving piece type
+ * bits 18-20 captured piece type
+ * bit  21    capture
+ * bit  22    pawn double jump
+ * bit  23    en passant capture
+ * bit  24    castle
+ * </pre>
+ * The lowest 15 bits are enough to tell two legal moves of the same position
+ * apart, which is what the transposition table stores.
+ *
+ * @author Will
+ */
+public final class Move {
+
+    public static final int NO_MOVE = 0;
+
+    private static final int TO_SHIFT = 6;
+    private static final int PROMOTION_SHIFT = 12;
+    private static final int PIECE_SHIFT = 15;
+    private static final int CAPTURED_SHIFT = 18;
+
+    public static final int CAPTURE = 1 << 21;
+    public static final int DOUBLE_JUMP = 1 << 22;
+    public static final int EN_PASSANT = 1 << 23;
+    public static final int CASTLE = 1 << 24;
+
+    //part of the move that is stored in the transposition table
+    public static final int KEY_MASK = (1 << PIECE_SHIFT) - 1;
+
+    private Move() {
+
+    }
+
+    public static int create(int from, int to, int piece) {
+        return from | (to << TO_SHIFT) | (piece << PIECE_SHIFT);
+    }
+
+    public static int createCapture(int from, int to, int piece, int captured) {
+        return from | (to << TO_SHIFT) | (piece << PIECE_SHIFT) | (captured << CAPTURED_SHIFT) | CAPTURE;
+    }
+
+    public static int createPromotion(int from, int to, int promotion) {
+        return from | (to << TO_SHIFT) | (promotion << PROMOTION_SHIFT) | (Board.PAWN << PIECE_SHIFT);
+    }
+
+    public static int createCapturePromotion(int from, int to, int promotion, int captured) {
+        return from | (to << TO_SHIFT) | (promotion << PROMOTION_SHIFT) | (Board.PAWN << PIECE_SHIFT) | (captured << CAPTURED_SHIFT) | CAPTURE;
+    }
+
+    public static int getFrom(int move) {
+        return move & 0x3F;
+    }
+
+    public static int getTo(int move) {
+        return (move >>> TO_SHIFT) & 0x3F;
+    }
+
+    public static int getPromotion(int move) {
+        return (move >>> PROMOTION_SHIFT) & 0x7;
+    }
+
+    public static int getPiece(int move) {
+        return (move >>> PIECE_SHIFT) & 0x7;
+    }
+
+    public static int getCaptured(int move) {
+        return (move >>> CAPTURED_SHIFT) & 0x7;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (move & (0x7 << PROMOTION_SHIFT)) != 0;
+    }
+
+    public static boolean isDoubleJump(int move) {
+        return (move & DOUBLE_JUMP) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    /**
+     * Captures and promotions change the material on the board, every
+     * other move is quiet.
+     * @param move The move.
+     * @return {@code true} if the move is neither a capture nor a promotion.
+     */
+    public static boolean isQuiet(int move) {
+        return (move & (CAPTURE | (0x7 << PROMOTION_SHIFT))) == 0;
+    }
+
+    public static String toString(int move) {
+        if (move == NO_MOVE) {
+            return "none";
+        }
+        String result = getSquareName(getFrom(move)) + getSquareName(getTo(move));
+        switch (getPromotion(move)) {
+            case Board.KNIGHT:
+                return result + "n";
+            case Board.BISHOP:
+                return result + "b";
+            case Board.ROOK:
+                return result + "r";
+            case Board.QUEEN:
+                return result + "q";
+        }
+        return result;
+    }
+
+    public static String getSquareName(int index) {
+        return "" + (char) ('a' + (index & 7)) + (char) ('8' - (index >>> 3));
+    }
+}
@@ -0,0 +1,244 @@
+package FastAI;
+
+import static FastAI.Board.BISHOP;
+import static FastAI.Board.BLACK;
+import static FastAI.Board.KING;
+import static FastAI.Board.KNIGHT;
+import static FastAI.Board.L;
+import static FastAI.Board.NO_SQUARE;
+import static FastAI.Board.PAWN;
+import static FastAI.Board.QUEEN;
+import static FastAI.Board.ROOK;
+
+/**
+ * Generates the pseudo legal moves of a board into an int array, moves that
+ * leave the king in check are filtered out by {@link Board#makeMove(int)}.
+ * Nothing is allocated, the caller owns the move buffer.
+ *
+ * @author Will
+ */
+public final class MoveGenerator {
+
+    public static final int MAX_MOVES = 256;
+
+    //intermediate rows of double jumps
+    private static final long WHITE_DOUBLE_JUMP_ROW = 0x0000FF0000000000L;
+    private static final long BLACK_DOUBLE_JUMP_ROW = 0x0000000000FF0000L;
+
+    //squares between king and rook that must be empty to castle
+    private static final long WHITE_LEFT_CASTLE_EMPTY = (L << 57) | (L << 58) | (L << 59);
+    private static final long WHITE_RIGHT_CASTLE_EMPTY = (L << 61) | (L << 62);
+    private static final long BLACK_LEFT_CASTLE_EMPTY = (L << 1) | (L << 2) | (L << 3);
+    private static final long BLACK_RIGHT_CASTLE_EMPTY = (L << 5) | (L << 6);
+
+    private MoveGenerator() {
+
+    }
+
+    /**
+     * Generates every pseudo legal move of the side to move.
+     * @param board The board.
+     * @param moves The move buffer.
+     * @param index The first free index of the buffer.
+     * @return The index after the last generated move.
+     */
+    public static int generate(Board board, int[] moves, int index) {
+        index = generateCaptures(board, moves, index);
+        return generateQuiets(board, moves, index);
+    }
+
+    /**
+     * Generates captures and promotions of the side to move.
+     * @param board The board.
+     * @param moves The move buffer.
+     * @param index The first free index of the buffer.
+     * @return The index after the last generated move.
+     */
+    public static int generateCaptures(Board board, int[] moves, int index) {
+        final boolean white = board.whiteToMove;
+        final int offset = white ? 0 : BLACK;
+        final int enemyOffset = BLACK - offset;
+        final long enemies = white ? board.blackPieces : board.whitePieces;
+        final long occupied = board.whitePieces | board.blackPieces;
+        final long[] pieces = board.pieces;
+
+        //pawn captures and promotions
+        for (long pawns = pieces[offset + PAWN]; pawns != 0; pawns &= (pawns - 1)) {
+            final int from = Long.numberOfTrailingZeros(pawns);
+            final boolean promotes = white ? (from < 16) : (from >= 48);
+            for (long attacks = Pawn.getAttacks(from, white) & enemies; attacks != 0; attacks &= (attacks - 1)) {
+                final int to = Long.numberOfTrailingZeros(attacks);
+                final int captured = board.getType(to, enemyOffset);
+                if (promotes) {
+                    for (int promotion = QUEEN; promotion >= KNIGHT; --promotion) {
+                        moves[index++] = Move.createCapturePromotion(from, to, promotion, captured);
+                    }
+                }
+                else {
+                    moves[index++] = Move.createCapture(from, to, PAWN, captured);
+                }
+            }
+            if (promotes) {
+                final int to = white ? (from - 8) : (from + 8);
+                if ((occupied & (L << to)) == 0) {
+                    for (int promotion = QUEEN; promotion >= KNIGHT; --promotion) {
+                        moves[index++] = Move.createPromotion(from, to, promotion);
+                    }
+                }
+            }
+        }
+        if (board.enPassant != NO_SQUARE) {
+            //pawns that could capture on the en passant square
+            for (long pawns = Pawn.getAttacks(board.enPassant, !white) & pieces[offset + PAWN]; pawns != 0; pawns &= (pawns - 1)) {
+                moves[index++] = Move.createCapture(Long.numberOfTrailingZeros(pawns), board.enPassant, PAWN, PAWN) | Move.EN_PASSANT;
+            }
+        }
+
+        for (long knights = pieces[offset + KNIGHT]; knights != 0; knights &= (knights - 1)) {
+            final int from = Long.numberOfTrailingZeros(knights);
+            index = addCaptures(board, moves, index, from, KNIGHT, Knight.getAttacks(from) & enemies, enemyOffset);
+        }
+        for (long bishops = pieces[offset + BISHOP]; bishops != 0; bishops &= (bishops - 1)) {
+            final int from = Long.numberOfTrailingZeros(bishops);
+            index = addCaptures(board, moves, index, from, BISHOP, Bishop.getAttacks(from, occupied) & enemies, enemyOffset);
+        }
+        for (long rooks = pieces[offset + ROOK]; rooks != 0; rooks &= (rooks - 1)) {
+            final int from = Long.numberOfTrailingZeros(rooks);
+            index = addCaptures(board, moves, index, from, ROOK, Rook.getAttacks(from, occupied) & enemies, enemyOffset);
+        }
+        for (long queens = pieces[offset + QUEEN]; queens != 0; queens &= (queens - 1)) {
+            final int from = Long.numberOfTrailingZeros(queens);
+            index = addCaptures(board, moves, index, from, QUEEN, Queen.getAttacks(from, occupied) & enemies, enemyOffset);
+        }
+        final int king = Long.numberOfTrailingZeros(pieces[offset + KING]);
+        return addCaptures(board, moves, index, king, KING, King.getAttacks(king) & enemies, enemyOffset);
+    }
+
+    /**
+     * Generates non capturing moves of the side to move, except promotions.
+     * @param board The board.
+     * @param moves The move buffer.
+     * @param index The first free index of the buffer.
+     * @return The index after the last generated move.
+     */
+    public static int generateQuiets(Board board, int[] moves, int index) {
+        final boolean white = board.whiteToMove;
+        final int offset = white ? 0 : BLACK;
+        final long occupied = board.whitePieces | board.blackPieces;
+        final long empty = ~occupied;
+        final long[] pieces = board.pieces;
+
+        //pawn pushes, promotions are generated with the captures
+        final long pawns = pieces[offset + PAWN];
+        if (white) {
+            final long pushes = (pawns >>> 8) & empty;
+            for (long single = pushes & ~0xFFL; single != 0; single &= (single - 1)) {
+                final int to = Long.numberOfTrailingZeros(single);
+                moves[index++] = Move.create(to + 8, to, PAWN);
+            }
+            for (long doubles = ((pushes & WHITE_DOUBLE_JUMP_ROW) >>> 8) & empty; doubles != 0; doubles &= (doubles - 1)) {
+                final int to = Long.numberOfTrailingZeros(doubles);
+                moves[index++] = Move.create(to + 16, to, PAWN) | Move.DOUBLE_JUMP;
+            }
+        }
+        else {
+            final long pushes = (pawns << 8) & empty;
+            for (long single = pushes & ~0xFF00000000000000L; single != 0; single &= (single - 1)) {
+                final int to = Long.numberOfTrailingZeros(single);
+                moves[index++] = Move.create(to - 8, to, PAWN);
+            }
+            for (long doubles = ((pushes & BLACK_DOUBLE_JUMP_ROW) << 8) & empty; doubles != 0; doubles &= (doubles - 1)) {
+                final int to = Long.numberOfTrailingZeros(doubles);
+                moves[index++] = Move.create(to - 16, to, PAWN) | Move.DOUBLE_JUMP;
+            }
+        }
+
+        for (long knights = pieces[offset + KNIGHT]; knights != 0; knights &= (knights - 1)) {
+            final int from = Long.numberOfTrailingZeros(knights);
+            index = addQuiets(moves, index, from, KNIGHT, Knight.getAttacks(from) & empty);
+        }
+        for (long bishops = pieces[offset + BISHOP]; bishops != 0; bishops &= (bishops - 1)) {
+            final int from = Long.numberOfTrailingZeros(bishops);
+            index = addQuiets(moves, index, from, BISHOP, Bishop.getAttacks(from, occupied) & empty);
+        }
+        for (long rooks = pieces[offset + ROOK]; rooks != 0; rooks &= (rooks - 1)) {
+            final int from = Long.numberOfTrailingZeros(rooks);
+            index = addQuiets(moves, index, from, ROOK, Rook.getAttacks(from, occupied) & empty);
+        }
+        for (long queens = pieces[offset + QUEEN]; queens != 0; queens &= (queens - 1)) {
+            final int from = Long.numberOfTrailingZeros(queens);
+            index = addQuiets(moves, index, from, QUEEN, Queen.getAttacks(from, occupied) & empty);
+        }
+        final int king = Long.numberOfTrailingZeros(pieces[offset + KING]);
+        index = addQuiets(moves, index, king, KING, King.getAttacks(king) & empty);
+
+        //castling, the king may not castle out of, through or into check
+        //(into check is caught by Board.makeMove)
+        if (white) {
+            if ((board.castlingRights & Board.WHITE_LEFT_CASTLE) != 0 && (occupied & WHITE_LEFT_CASTLE_EMPTY) == 0
+                    && !board.isAttacked(king, false) && !board.isAttacked(king - 1, false)) {
+                moves[index++] = Move.create(king, king - 2, KING) | Move.CASTLE;
+            }
+            if ((board.castlingRights & Board.WHITE_RIGHT_CASTLE) != 0 && (occupied & WHITE_RIGHT_CASTLE_EMPTY) == 0
+                    && !board.isAttacked(king, false) && !board.isAttacked(king + 1, false)) {
+                moves[index++] = Move.create(king, king + 2, KING) | Move.CASTLE;
+            }
+        }
+        else {
+            if ((board.castlingRights & Board.BLACK_LEFT_CASTLE) != 0 && (occupied & BLACK_LEFT_CASTLE_EMPTY) == 0
+                    && !board.isAttacked(king, true) && !board.isAttacked(king - 1, true)) {
+                moves[index++] = Move.create(king, king - 2, KING) | Move.CASTLE;
+            }
+            if ((board.castlingRights & Board.BLACK_RIGHT_CASTLE) != 0 && (occupied & BLACK_RIGHT_CASTLE_EMPTY) == 0
+                    && !board.isAttacked(king, true) && !board.isAttacked(king + 1, true)) {
+                moves[index++] = Move.create(king, king + 2, KING) | Move.CASTLE;
+            }
+        }
+        return index;
+    }
+
+    private static int addCaptures(Board board, int[] moves, int index, int from, int piece, long targets, int enemyOffset) {
+        for (; targets != 0; targets &= (targets - 1)) {
+            final int to = Long.numberOfTrailingZeros(targets);
+            moves[index++] = Move.createCapture(from, to, piece, board.getType(to, enemyOffset));
+        }
+        return index;
+    }
+
+    private static int addQuiets(int[] moves, int index, int from, int piece, long targets) {
+        for (; targets != 0; targets &= (targets - 1)) {
+            moves[index++] = Move.create(from, Long.numberOfTrailingZeros(targets), piece);
+        }
+        return index;
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree of the given depth.
+     * @param board The board.
+     * @param depth The depth.
+     * @return The number of leaf nodes.
+     */
+    public static long perft(Board board, int depth) {
+        return perft(board, depth, new Board[depth + 1], new int[(depth + 1) * MAX_MOVES]);
+    }
+
+    private static long perft(Board board, int depth, Board[] stack, int[] moves) {
+        if (depth == 0) {
+            return 1L;
+        }
+        if (stack[depth] == null) {
+            stack[depth] = new Board(board);
+        }
+        final Board child = stack[depth];
+        final int start = depth * MAX_MOVES;
+        final int end = generate(board, moves, start);
+        long nodes = 0L;
+        for (int index = start; index < end; ++index) {
+            child.copy(board);
+            if (child.makeMove(moves[index])) {
+                nodes += perft(child, depth - 1, stack, moves);
+            }
+        }
+        return nodes;
+    }
+}
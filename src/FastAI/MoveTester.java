@@ -4,17 +4,50 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.Scanner;
 
+/**
+ * Checks the move generator of the bitboard engine against known perft
+ * results. Each non empty line of TestBoard.dat adds a position in the
+ * form {@code fen;depth;nodes}.
+ *
+ * @author Will
+ */
 public class MoveTester {
-    
-    
-    
-    //live link, from GUI get a board and convert it into a bitboard
+
+    private static final String[] POSITIONS = {
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1;5;4865609",
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1;4;4085603",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1;5;674624",
+        "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1;4;422333"
+    };
+
     public static void main(String[] args) throws FileNotFoundException {
+        for (String position : POSITIONS) {
+            check(position);
+        }
         Scanner scan = new Scanner(new File("src/FastAI/TestBoard.dat"));
         while (scan.hasNextLine()) {
-            String line = scan.nextLine();
-            
+            String line = scan.nextLine().trim();
+            if (!line.isEmpty()) {
+                check(line);
+            }
         }
         scan.close();
     }
+
+    private static void check(String line) {
+        String[] fields = line.split(";");
+        Board board = new Board(fields[0]);
+        int depth = Integer.parseInt(fields[1].trim());
+        long expected = Long.parseLong(fields[2].trim());
+        long start = System.nanoTime();
+        long nodes = MoveGenerator.perft(board, depth);
+        long milliseconds = (System.nanoTime() - start) / 1000000L;
+        System.out.println(fields[0] + " Depth: " + depth + " Nodes: " + nodes + " Time Taken: " + milliseconds + " ms");
+        if (nodes != expected) {
+            throw new InternalError("Expected " + expected + " nodes but found " + nodes);
+        }
+        if (board.getHash() != board.computeHash()) {
+            throw new InternalError("Invalid hash");
+        }
+    }
 }
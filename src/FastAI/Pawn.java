@@ -1,16 +1,40 @@
-/*
- * To change this license header, choose License Headers in Project Properties.
- * To change this template file, choose Tools | Templates
- * and open the template in the editor.
- */
 package FastAI;
 
-/**
- *
- * @author zwill
- */
-public class Pawn {
-    
-    
-    
+import Util.ChessConstants;
+
+public final class Pawn {
+
+    //white pawns move towards row 0, black pawns towards row 7
+    private static final int[] WHITE_ROW_OFFSETS = {-1, -1};
+    private static final int[] BLACK_ROW_OFFSETS = {1, 1};
+    private static final int[] COLUMN_OFFSETS = {-1, 1};
+
+    private static final long[] WHITE_ATTACKS = new long[ChessConstants.LINEAR_LENGTH];
+    private static final long[] BLACK_ATTACKS = new long[ChessConstants.LINEAR_LENGTH];
+
+    static {
+        for (int index = 0; index < ChessConstants.LINEAR_LENGTH; ++index) {
+            WHITE_ATTACKS[index] = Board.getLeaperAttacks(index, WHITE_ROW_OFFSETS, COLUMN_OFFSETS);
+            BLACK_ATTACKS[index] = Board.getLeaperAttacks(index, BLACK_ROW_OFFSETS, COLUMN_OFFSETS);
+        }
+    }
+
+    private Pawn() {
+
+    }
+
+    //return the positions where a pawn of the given color can attack at from the given index
+    public static long getAttacks(int index, boolean color) {
+        return color ? WHITE_ATTACKS[index] : BLACK_ATTACKS[index];
+    }
+
+    //the squares attacked by all of the given white pawns
+    public static long getWhiteAttacks(long pawns) {
+        return ((pawns >>> 9) & ~Board.COLUMN_H) | ((pawns >>> 7) & ~Board.COLUMN_A);
+    }
+
+    //the squares attacked by all of the given black pawns
+    public static long getBlackAttacks(long pawns) {
+        return ((pawns << 7) & ~Board.COLUMN_H) | ((pawns << 9) & ~Board.COLUMN_A);
+    }
 }
@@ -1,14 +1,13 @@
-/*
- * To change this license header, choose License Headers in Project Properties.
- * To change this template file, choose Tools | Templates
- * and open the template in the editor.
- */
 package FastAI;
 
-/**
- *
- * @author zwill
- */
-public class Queen {
-    
+public final class Queen {
+
+    private Queen() {
+
+    }
+
+    //return the positions where a queen can attack at from the given index
+    public static long getAttacks(int index, long occupied) {
+        return Rook.getAttacks(index, occupied) | Bishop.getAttacks(index, occupied);
+    }
 }
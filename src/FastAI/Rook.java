@@ -1,14 +1,16 @@
-/*
- * To change this license header, choose License Headers in Project Properties.
- * To change this template file, choose Tools | Templates
- * and open the template in the editor.
- */
 package FastAI;
 
-/**
- *
- * @author zwill
- */
-public class Rook {
-    
+import Engine.Magic;
+
+public final class Rook {
+
+    private Rook() {
+
+    }
+
+    //return the positions where a rook can attack at from the given index,
+    //the first piece in each direction blocks the rest of the ray
+    public static long getAttacks(int index, long occupied) {
+        return Magic.getRookAttacks(index, occupied);
+    }
 }
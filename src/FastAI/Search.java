@@ -0,0 +1,227 @@
+package FastAI;
+
+import Engine.SearchTimer;
+import Engine.StaticExchange;
+import Engine.TranspositionTable;
+import static Util.ChessConstants.CHECKMATE_VALUE;
+import static Util.Constants.NEGATIVE_INFINITY;
+import static Util.Constants.POSITIVE_INFINITY;
+
+/**
+ * Fail hard negamax alpha beta search of the bitboard engine. Scores are
+ * always in the perspective of the side to move. Every ply has its own
+ * board and its own slice of one move buffer, so searching allocates
+ * nothing. Checkmates are scored by their distance from the root, and
+ * stored in the transposition table counting from the position instead.
+ *
+ * The search keeps no history of the game, so it only knows about
+ * repetitions and the fifty-move rule through the positions after a root
+ * move that the caller found drawn (see {@link #setRootDraws(long[])}),
+ * which are scored as draws.
+ *
+ * @author Will
+ */
+public final class Search {
+
+    public static final int MAX_PLY = 64;
+
+    private final Board[] boards = new Board[MAX_PLY + 1];
+    private final int[] moves = new int[(MAX_PLY + 1) * MoveGenerator.MAX_MOVES];
+    private final int[] scores = new int[(MAX_PLY + 1) * MoveGenerator.MAX_MOVES];
+    private final TranspositionTable table;
+    private final StaticExchange exchange = new StaticExchange();
+    private final long[] bitboards = new long[StaticExchange.PIECES];
+
+    //piece hashes of the drawn positions after a root move
+    private long[] rootDraws = new long[0];
+
+    private SearchTimer timer;
+    private long nodes;
+    private int bestMove = Move.NO_MOVE;
+
+    public Search(TranspositionTable table) {
+        this.table = table;
+        for (int ply = 0; ply <= MAX_PLY; ++ply) {
+            boards[ply] = new Board();
+        }
+    }
+
+    /**
+     * Searches the given board to the given depth.
+     * @param root The board, which is not modified.
+     * @param depth The depth, at most {@link #MAX_PLY}.
+     * @param timer The timer, the search stops as soon as the time is over.
+     * @return The score of the board, meaningless if the time ran out.
+     */
+    public int search(Board root, int depth, SearchTimer timer) {
+        if (depth < 1 || depth > MAX_PLY) {
+            throw new IllegalArgumentException("Invalid depth: " + depth);
+        }
+        this.timer = timer;
+        bestMove = Move.NO_MOVE;
+        boards[0].copy(root);
+        return search(0, depth, NEGATIVE_INFINITY, POSITIVE_INFINITY);
+    }
+
+    /**
+     * Sets the positions after a root move that are drawn, for every search
+     * after until they are set again.
+     * @param pieceHashes The piece hashes of the positions, see
+     * {@link Board#getPieceHash()}, which are not copied.
+     */
+    public void setRootDraws(long[] pieceHashes) {
+        rootDraws = pieceHashes;
+    }
+
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public void resetNodes() {
+        nodes = 0L;
+    }
+
+    private int search(int ply, int depth, int alpha, int beta) {
+        ++nodes;
+        final Board board = boards[ply];
+        if (ply == 1 && isRootDraw(board)) {
+            return (alpha >= 0) ? alpha : ((beta <= 0) ? beta : 0);
+        }
+        if (depth == 0) {
+            return Evaluator.evaluate(board);
+        }
+        if (timer.timeOver()) {
+            return alpha;
+        }
+
+        final long hash = board.hash;
+        final long entry = table.probe(hash);
+        int hashMove = Move.NO_MOVE;
+        if (entry != TranspositionTable.MISS) {
+            hashMove = TranspositionTable.getMove(entry);
+            if (ply != 0 && TranspositionTable.getDepth(entry) >= depth) {
+                final int score = TranspositionTable.getScore(entry, ply);
+                switch (TranspositionTable.getBound(entry)) {
+                    case TranspositionTable.EXACT:
+                        return (score <= alpha) ? alpha : ((score >= beta) ? beta : score);
+                    case TranspositionTable.LOWER_BOUND:
+                        if (score >= beta) {
+                            return beta;
+                        }
+                        break;
+                    case TranspositionTable.UPPER_BOUND:
+                        if (score <= alpha) {
+                            return alpha;
+                        }
+                        break;
+                }
+            }
+        }
+
+        final int start = ply * MoveGenerator.MAX_MOVES;
+        final int end = MoveGenerator.generate(board, moves, start);
+        scoreMoves(board, start, end, hashMove);
+
+        final int originalAlpha = alpha;
+        final Board child = boards[ply + 1];
+        int best = Move.NO_MOVE;
+        boolean legal = false;
+        for (int index = start; index < end; ++index) {
+            final int move = nextMove(index, end);
+            child.copy(board);
+            if (!child.makeMove(move)) {
+                continue;
+            }
+            legal = true;
+            final int score = -search(ply + 1, depth - 1, -beta, -alpha);
+            if (timer.timeOver()) {
+                return alpha;
+            }
+            if (score >= beta) {
+                table.store(hash, depth, TranspositionTable.LOWER_BOUND, TranspositionTable.getStoredScore(beta, ply),
+                        move & Move.KEY_MASK);
+                if (ply == 0) {
+                    bestMove = move;
+                }
+                return beta;
+            }
+            if (score > alpha) {
+                alpha = score;
+                best = move;
+                if (ply == 0) {
+                    bestMove = move;
+                }
+            }
+        }
+
+        if (!legal) {
+            //prefer faster checkmates, counted from the root so they can be stored
+            return board.inCheck() ? -(CHECKMATE_VALUE + MAX_PLY - ply) : 0;
+        }
+        table.store(hash, depth, (alpha > originalAlpha) ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND,
+                TranspositionTable.getStoredScore(alpha, ply), best & Move.KEY_MASK);
+        return alpha;
+    }
+
+    private boolean isRootDraw(Board board) {
+        final long pieceHash = board.getPieceHash();
+        for (int index = (rootDraws.length - 1); index >= 0; --index) {
+            if (rootDraws[index] == pieceHash) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //hash move first, then captures by most valuable victim and least valuable
+    //attacker, quiet moves and last the captures that lose material
+    private void scoreMoves(Board board, int start, int end, int hashMove) {
+        for (int index = start; index < end; ++index) {
+            final int move = moves[index];
+            if ((move & Move.KEY_MASK) == hashMove && hashMove != Move.NO_MOVE) {
+                scores[index] = POSITIVE_INFINITY;
+            }
+            else if (Move.isCapture(move)) {
+                final int victim = Evaluator.getValue(Move.getCaptured(move));
+                final int gain = (Evaluator.getValue(Move.getPiece(move)) > victim && !Move.isPromotion(move))
+                        ? getExchange(board, move) : 0;
+                scores[index] = (gain < 0) ? gain : ((victim << 4) - Move.getPiece(move) + 1);
+            }
+            else if (Move.isPromotion(move)) {
+                scores[index] = Evaluator.getValue(Move.getPromotion(move));
+            }
+            else {
+                scores[index] = 0;
+            }
+        }
+    }
+
+    //the bitboards of the board share the piece indexes of the exchange
+    private int getExchange(Board board, int move) {
+        for (int piece = 0; piece != StaticExchange.PIECES; ++piece) {
+            bitboards[piece] = board.getBitboard(piece);
+        }
+        return exchange.evaluate(bitboards, Move.getFrom(move), Move.getTo(move));
+    }
+
+    //selection sort, one move at a time since most nodes cut off early
+    private int nextMove(int index, int end) {
+        int bestIndex = index;
+        for (int next = index + 1; next < end; ++next) {
+            if (scores[next] > scores[bestIndex]) {
+                bestIndex = next;
+            }
+        }
+        final int move = moves[bestIndex];
+        moves[bestIndex] = moves[index];
+        moves[index] = move;
+        final int score = scores[bestIndex];
+        scores[bestIndex] = scores[index];
+        scores[index] = score;
+        return move;
+    }
+}
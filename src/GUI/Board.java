@@ -26,10 +26,10 @@ import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import javafx.scene.media.AudioClip;
 import javax.swing.BorderFactory;
@@ -1404,19 +1404,8 @@ public final class Board extends JPanel implements Runnable {
                 for (int index = 0; index != numberOfBlackMoves; ++index) {
                     list.add(blackMoves.get(index));
                 }
-                Map<String, Integer> whiteComputerSelectedPositions = whiteComputer.getSelectedPositions();
-                list.add(Integer.toString(whiteComputerSelectedPositions.size()));
-                Iterator<String> it = whiteComputerSelectedPositions.keySet().iterator();
-                while (it.hasNext()) {
-                    String position = it.next();
-                    list.add(position + DataProtector.SEPERATOR + whiteComputerSelectedPositions.get(position));
-                }
-                Map<String, Integer> blackComputerSelectedPositions = blackComputer.getSelectedPositions();
-                list.add(Integer.toString(blackComputerSelectedPositions.size()));
-                for (it = blackComputerSelectedPositions.keySet().iterator(); it.hasNext();) {
-                    String position = it.next();
-                    list.add(position + DataProtector.SEPERATOR + blackComputerSelectedPositions.get(position));
-                }
+                saveHistory(list, whiteComputer);
+                saveHistory(list, blackComputer);
                 return list;
             }
             case WHITE_PLAYER_VS_BLACK_COMPUTER: {
@@ -1435,13 +1424,7 @@ public final class Board extends JPanel implements Runnable {
                 for (int index = 0; index != numberOfBlackMoves; ++index) {
                     list.add(blackMoves.get(index));
                 }
-                Map<String, Integer> blackComputerSelectedPositions = blackComputer.getSelectedPositions();
-                list.add(Integer.toString(blackComputerSelectedPositions.size()));
-                Iterator<String> it = blackComputerSelectedPositions.keySet().iterator();
-                while (it.hasNext()) {
-                    String position = it.next();
-                    list.add(position + DataProtector.SEPERATOR + blackComputerSelectedPositions.get(position));
-                }
+                saveHistory(list, blackComputer);
                 return list;
             }
             case BLACK_PLAYER_VS_WHITE_COMPUTER: {
@@ -1460,13 +1443,7 @@ public final class Board extends JPanel implements Runnable {
                 for (int index = 0; index != numberOfBlackMoves; ++index) {
                     list.add(blackMoves.get(index));
                 }
-                Map<String, Integer> whiteComputerSelectedPositions = whiteComputer.getSelectedPositions();
-                list.add(Integer.toString(whiteComputerSelectedPositions.size()));
-                Iterator<String> it = whiteComputerSelectedPositions.keySet().iterator();
-                while (it.hasNext()) {
-                    String position = it.next();
-                    list.add(position + DataProtector.SEPERATOR + whiteComputerSelectedPositions.get(position));
-                }
+                saveHistory(list, whiteComputer);
                 return list;
             }
         }
@@ -1523,20 +1500,8 @@ public final class Board extends JPanel implements Runnable {
                     blackMoves.add(list.get(cursor++));
                 }
                 history.setData(whiteMoves, blackMoves);
-                Map<String, Integer> whiteComputerSelectedPositions = whiteComputer.getSelectedPositions();
-                whiteComputerSelectedPositions.clear();
-                int numberOfSavedWhiteComputerSelectedPositions = Integer.parseInt(list.get(cursor++));
-                while (numberOfSavedWhiteComputerSelectedPositions-- > 0) {
-                    String[] entry = list.get(cursor++).split(DataProtector.SEPERATOR);
-                    whiteComputerSelectedPositions.put(entry[0], Integer.parseInt(entry[1]));
-                }
-                Map<String, Integer> blackComputerSelectedPositions = blackComputer.getSelectedPositions();
-                blackComputerSelectedPositions.clear();
-                int numberOfSavedBlackComputerSelectedPositions = Integer.parseInt(list.get(cursor++));
-                while (numberOfSavedBlackComputerSelectedPositions-- > 0) {
-                    String[] entry = list.get(cursor++).split(DataProtector.SEPERATOR);
-                    blackComputerSelectedPositions.put(entry[0], Integer.parseInt(entry[1]));
-                }
+                cursor = loadHistory(list, cursor, whiteComputer);
+                cursor = loadHistory(list, cursor, blackComputer);
                 repaint();
                 paint = true;
                 access = Boolean.parseBoolean(list.get(3)); //enable access last
@@ -1567,13 +1532,7 @@ public final class Board extends JPanel implements Runnable {
                     blackMoves.add(list.get(cursor++));
                 }
                 history.setData(whiteMoves, blackMoves);
-                Map<String, Integer> blackComputerSelectedPositions = blackComputer.getSelectedPositions();
-                blackComputerSelectedPositions.clear();
-                int numberOfSavedBlackComputerSelectedPositions = Integer.parseInt(list.get(cursor++));
-                while (numberOfSavedBlackComputerSelectedPositions-- > 0) {
-                    String[] entry = list.get(cursor++).split(DataProtector.SEPERATOR);
-                    blackComputerSelectedPositions.put(entry[0], Integer.parseInt(entry[1]));
-                }
+                cursor = loadHistory(list, cursor, blackComputer);
                 repaint();
                 paint = true;
                 access = Boolean.parseBoolean(list.get(2));
@@ -1604,13 +1563,7 @@ public final class Board extends JPanel implements Runnable {
                     blackMoves.add(list.get(cursor++));
                 }
                 history.setData(whiteMoves, blackMoves);
-                Map<String, Integer> whiteComputerSelectedPositions = whiteComputer.getSelectedPositions();
-                whiteComputerSelectedPositions.clear();
-                int numberOfSavedWhiteComputerSelectedPositions = Integer.parseInt(list.get(cursor++));
-                while (numberOfSavedWhiteComputerSelectedPositions-- > 0) {
-                    String[] entry = list.get(cursor++).split(DataProtector.SEPERATOR);
-                    whiteComputerSelectedPositions.put(entry[0], Integer.parseInt(entry[1]));
-                }
+                cursor = loadHistory(list, cursor, whiteComputer);
                 repaint();
                 paint = true;
                 access = Boolean.parseBoolean(list.get(2));
@@ -1647,6 +1600,33 @@ public final class Board extends JPanel implements Runnable {
         access = Boolean.parseBoolean(list.get(2));
     }
 
+    //positions the computer has seen, used to avoid repetitions
+    private static void saveHistory(List<String> list, AI computer) {
+        final long[] keys = computer.getHistory();
+        list.add(Integer.toString(keys.length));
+        for (long key : keys) {
+            list.add(Long.toString(key));
+        }
+    }
+
+    //returns the cursor after the history, saves of older versions have entries that are not keys
+    private static int loadHistory(List<String> list, int cursor, AI computer) {
+        final int numberOfKeys = Integer.parseInt(list.get(cursor++));
+        final long[] keys = new long[numberOfKeys];
+        int numberOfValidKeys = 0;
+        for (int index = 0; index != numberOfKeys; ++index) {
+            try {
+                keys[numberOfValidKeys] = Long.parseLong(list.get(cursor++));
+                ++numberOfValidKeys;
+            }
+            catch (NumberFormatException ex) {
+                //skip the entry
+            }
+        }
+        computer.setHistory(Arrays.copyOf(keys, numberOfValidKeys));
+        return cursor;
+    }
+
     //a fast buffer used in client-server to send data quickly
     private StringBuilder buffer;
 
@@ -88,6 +88,10 @@ public final class Chess extends JFrame {
     private final JMenu computerSettings;
     private final JMenuItem computerDifficulty;
     private final JMenuItem computerParallelProcessing;
+    private final JMenuItem computerBitboardEngine;
+    private final JMenuItem computerLazySMP;
+    private final JMenuItem computerYoungBrothersWait;
+    private final JMenuItem computerPonder;
     
     private final JMenuItem useGarbageCollection;
     private final JMenuItem enableGridOutline;
@@ -391,7 +395,7 @@ public final class Chess extends JFrame {
                             break;
                         }
                     }
-                    game.getBlackComputer().getSelectedPositions().clear();
+                    game.getBlackComputer().clearHistory();
                     game.restart(Board.WHITE_PLAYER_VS_BLACK_COMPUTER);
                 }
                 else {
@@ -406,7 +410,7 @@ public final class Chess extends JFrame {
                             break;
                         }
                     }
-                    game.getWhiteComputer().getSelectedPositions().clear();
+                    game.getWhiteComputer().clearHistory();
                     game.restart(Board.BLACK_PLAYER_VS_WHITE_COMPUTER);
                 }
             }
@@ -441,8 +445,8 @@ public final class Chess extends JFrame {
                         break;
                     }
                 }
-                game.getWhiteComputer().getSelectedPositions().clear();
-                game.getBlackComputer().getSelectedPositions().clear();
+                game.getWhiteComputer().clearHistory();
+                game.getBlackComputer().clearHistory();
                 game.restart(Board.COMPUTER_VS_COMPUTER);
             }
         });
@@ -547,6 +551,210 @@ public final class Chess extends JFrame {
                 JOptionPane.showMessageDialog(Chess.this, "Cannot access this setting while not playing against the AI.", "Error", JOptionPane.INFORMATION_MESSAGE, icon);
             }
         });
+
+        computerBitboardEngine = new JMenuItem("Bitboard Engine");
+        computerBitboardEngine.setAccelerator(KeyStroke.getKeyStroke('B', Event.CTRL_MASK));
+        computerBitboardEngine.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                switch (game.getState()) {
+                    case Board.WHITE_PLAYER_VS_BLACK_COMPUTER: {
+                        if (game.computerThinking()) {
+                            JOptionPane.showMessageDialog(Chess.this, "Cannot access this setting while the AI is thinking.", "Error", JOptionPane.INFORMATION_MESSAGE, icon);
+                            return;
+                        }
+                        switch (JOptionPane.showConfirmDialog(Chess.this,
+                                "Use the Bitboard Engine for the Black AI?\nThis setting is currently " + ((game.getBlackComputer().isUsingBitboards()) ? "enabled." : "disabled."), "Bitboard Engine",
+                                JOptionPane.YES_NO_OPTION,
+                                JOptionPane.QUESTION_MESSAGE, icon)) {
+                            case JOptionPane.YES_OPTION: {
+                                game.getBlackComputer().useBitboards(true);
+                                return;
+                            }
+                            case JOptionPane.NO_OPTION: {
+                                game.getBlackComputer().useBitboards(false);
+                                return;
+                            }
+                        }
+                        return;
+                    }
+                    case Board.BLACK_PLAYER_VS_WHITE_COMPUTER: {
+                        if (game.computerThinking()) {
+                            JOptionPane.showMessageDialog(Chess.this, "Cannot access this setting while the AI is thinking.", "Error", JOptionPane.INFORMATION_MESSAGE, icon);
+                            return;
+                        }
+                        switch (JOptionPane.showConfirmDialog(Chess.this,
+                                "Use the Bitboard Engine for the White AI?\nThis setting is currently " + ((game.getWhiteComputer().isUsingBitboards()) ? "enabled." : "disabled."), "Bitboard Engine",
+                                JOptionPane.YES_NO_OPTION,
+                                JOptionPane.QUESTION_MESSAGE, icon)) {
+                            case JOptionPane.YES_OPTION: {
+                                game.getWhiteComputer().useBitboards(true);
+                                return;
+                            }
+                            case JOptionPane.NO_OPTION: {
+                                game.getWhiteComputer().useBitboards(false);
+                                return;
+                            }
+                        }
+                        return;
+                    }
+                }
+                JOptionPane.showMessageDialog(Chess.this, "Cannot access this setting while not playing against the AI.", "Error", JOptionPane.INFORMATION_MESSAGE, icon);
+            }
+        });
+        
+        computerLazySMP = new JMenuItem("Lazy SMP");
+        computerLazySMP.setAccelerator(KeyStroke.getKeyStroke('Z', Event.CTRL_MASK));
+        computerLazySMP.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                switch (game.getState()) {
+                    case Board.WHITE_PLAYER_VS_BLACK_COMPUTER: {
+                        if (game.computerThinking()) {
+                            JOptionPane.showMessageDialog(Chess.this, "Cannot access this setting while the AI is thinking.", "Error", JOptionPane.INFORMATION_MESSAGE, icon);
+                            return;
+                        }
+                        switch (JOptionPane.showConfirmDialog(Chess.this,
+                                "Use Lazy SMP for the Black AI?\nWarning: This will use all of your device's CPU cores,\nonly do this if you have no other applications open.\nThis setting is currently " + ((game.getBlackComputer().isUsingLazySMP()) ? "enabled." : "disabled."), "Lazy SMP",
+                                JOptionPane.YES_NO_OPTION,
+                                JOptionPane.QUESTION_MESSAGE, icon)) {
+                            case JOptionPane.YES_OPTION: {
+                                game.getBlackComputer().useLazySMP(true);
+                                return;
+                            }
+                            case JOptionPane.NO_OPTION: {
+                                game.getBlackComputer().useLazySMP(false);
+                                return;
+                            }
+                        }
+                        return;
+                    }
+                    case Board.BLACK_PLAYER_VS_WHITE_COMPUTER: {
+                        if (game.computerThinking()) {
+                            JOptionPane.showMessageDialog(Chess.this, "Cannot access this setting while the AI is thinking.", "Error", JOptionPane.INFORMATION_MESSAGE, icon);
+                            return;
+                        }
+                        switch (JOptionPane.showConfirmDialog(Chess.this,
+                                "Use Lazy SMP for the White AI?\nWarning: This will use all of your device's CPU cores,\nonly do this if you have no other applications open.\nThis setting is currently " + ((game.getWhiteComputer().isUsingLazySMP()) ? "enabled." : "disabled."), "Lazy SMP",
+                                JOptionPane.YES_NO_OPTION,
+                                JOptionPane.QUESTION_MESSAGE, icon)) {
+                            case JOptionPane.YES_OPTION: {
+                                game.getWhiteComputer().useLazySMP(true);
+                                return;
+                            }
+                            case JOptionPane.NO_OPTION: {
+                                game.getWhiteComputer().useLazySMP(false);
+                                return;
+                            }
+                        }
+                        return;
+                    }
+                }
+                JOptionPane.showMessageDialog(Chess.this, "Cannot access this setting while not playing against the AI.", "Error", JOptionPane.INFORMATION_MESSAGE, icon);
+            }
+        });
+        
+        computerYoungBrothersWait = new JMenuItem("Young Brothers Wait");
+        computerYoungBrothersWait.setAccelerator(KeyStroke.getKeyStroke('Y', Event.CTRL_MASK));
+        computerYoungBrothersWait.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                switch (game.getState()) {
+                    case Board.WHITE_PLAYER_VS_BLACK_COMPUTER: {
+                        if (game.computerThinking()) {
+                            JOptionPane.showMessageDialog(Chess.this, "Cannot access this setting while the AI is thinking.", "Error", JOptionPane.INFORMATION_MESSAGE, icon);
+                            return;
+                        }
+                        switch (JOptionPane.showConfirmDialog(Chess.this,
+                                "Use Young Brothers Wait for the Black AI?\nWarning: This will use all of your device's CPU cores,\nonly do this if you have no other applications open.\nThis setting is currently " + ((game.getBlackComputer().isUsingYoungBrothersWait()) ? "enabled." : "disabled."), "Young Brothers Wait",
+                                JOptionPane.YES_NO_OPTION,
+                                JOptionPane.QUESTION_MESSAGE, icon)) {
+                            case JOptionPane.YES_OPTION: {
+                                game.getBlackComputer().useYoungBrothersWait(true);
+                                return;
+                            }
+                            case JOptionPane.NO_OPTION: {
+                                game.getBlackComputer().useYoungBrothersWait(false);
+                                return;
+                            }
+                        }
+                        return;
+                    }
+                    case Board.BLACK_PLAYER_VS_WHITE_COMPUTER: {
+                        if (game.computerThinking()) {
+                            JOptionPane.showMessageDialog(Chess.this, "Cannot access this setting while the AI is thinking.", "Error", JOptionPane.INFORMATION_MESSAGE, icon);
+                            return;
+                        }
+                        switch (JOptionPane.showConfirmDialog(Chess.this,
+                                "Use Young Brothers Wait for the White AI?\nWarning: This will use all of your device's CPU cores,\nonly do this if you have no other applications open.\nThis setting is currently " + ((game.getWhiteComputer().isUsingYoungBrothersWait()) ? "enabled." : "disabled."), "Young Brothers Wait",
+                                JOptionPane.YES_NO_OPTION,
+                                JOptionPane.QUESTION_MESSAGE, icon)) {
+                            case JOptionPane.YES_OPTION: {
+                                game.getWhiteComputer().useYoungBrothersWait(true);
+                                return;
+                            }
+                            case JOptionPane.NO_OPTION: {
+                                game.getWhiteComputer().useYoungBrothersWait(false);
+                                return;
+                            }
+                        }
+                        return;
+                    }
+                }
+                JOptionPane.showMessageDialog(Chess.this, "Cannot access this setting while not playing against the AI.", "Error", JOptionPane.INFORMATION_MESSAGE, icon);
+            }
+        });
+        
+        computerPonder = new JMenuItem("Ponder");
+        computerPonder.setAccelerator(KeyStroke.getKeyStroke('T', Event.CTRL_MASK));
+        computerPonder.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                switch (game.getState()) {
+                    case Board.WHITE_PLAYER_VS_BLACK_COMPUTER: {
+                        if (game.computerThinking()) {
+                            JOptionPane.showMessageDialog(Chess.this, "Cannot access this setting while the AI is thinking.", "Error", JOptionPane.INFORMATION_MESSAGE, icon);
+                            return;
+                        }
+                        switch (JOptionPane.showConfirmDialog(Chess.this,
+                                "Let the Black AI think on your time?\nWarning: This will use a CPU core while it is your turn.\nThis setting is currently " + ((game.getBlackComputer().isUsingPonder()) ? "enabled." : "disabled."), "Ponder",
+                                JOptionPane.YES_NO_OPTION,
+                                JOptionPane.QUESTION_MESSAGE, icon)) {
+                            case JOptionPane.YES_OPTION: {
+                                game.getBlackComputer().usePonder(true);
+                                return;
+                            }
+                            case JOptionPane.NO_OPTION: {
+                                game.getBlackComputer().usePonder(false);
+                                return;
+                            }
+                        }
+                        return;
+                    }
+                    case Board.BLACK_PLAYER_VS_WHITE_COMPUTER: {
+                        if (game.computerThinking()) {
+                            JOptionPane.showMessageDialog(Chess.this, "Cannot access this setting while the AI is thinking.", "Error", JOptionPane.INFORMATION_MESSAGE, icon);
+                            return;
+                        }
+                        switch (JOptionPane.showConfirmDialog(Chess.this,
+                                "Let the White AI think on your time?\nWarning: This will use a CPU core while it is your turn.\nThis setting is currently " + ((game.getWhiteComputer().isUsingPonder()) ? "enabled." : "disabled."), "Ponder",
+                                JOptionPane.YES_NO_OPTION,
+                                JOptionPane.QUESTION_MESSAGE, icon)) {
+                            case JOptionPane.YES_OPTION: {
+                                game.getWhiteComputer().usePonder(true);
+                                return;
+                            }
+                            case JOptionPane.NO_OPTION: {
+                                game.getWhiteComputer().usePonder(false);
+                                return;
+                            }
+                        }
+                        return;
+                    }
+                }
+                JOptionPane.showMessageDialog(Chess.this, "Cannot access this setting while not playing against the AI.", "Error", JOptionPane.INFORMATION_MESSAGE, icon);
+            }
+        });
         
         useGarbageCollection = new JMenuItem("Use Garbage Collection");
         useGarbageCollection.setAccelerator(KeyStroke.getKeyStroke('G', Event.CTRL_MASK));
@@ -604,6 +812,10 @@ public final class Chess extends JFrame {
         restartGame.add(computerAgainstComputerRestart);
         computerSettings.add(computerDifficulty);
         computerSettings.add(computerParallelProcessing);
+        computerSettings.add(computerBitboardEngine);
+        computerSettings.add(computerLazySMP);
+        computerSettings.add(computerYoungBrothersWait);
+        computerSettings.add(computerPonder);
         settingsMenu.add(computerSettings);
         settingsMenu.add(useGarbageCollection);
         settingsMenu.add(enableGridOutline);
@@ -86,6 +86,25 @@ public final class ChessConstants {
     public static final int CASTLE_VALUE = 15;
     public static final int CHECKED_VALUE = 10;
     public static final int KING_MOVED_VALUE = 15;
+    public static final int DOUBLED_PAWN_VALUE = 15;
+    public static final int ISOLATED_PAWN_VALUE = 10;
+    public static final int PASSED_PAWN_VALUE = 10;
+    public static final int PAWN_SHIELD_VALUE = 10;
+
+    //end game weights of the terms that matter more or less once the queens
+    //and most pieces are gone, the values above are the middle game weights
+    public static final int BISHOP_END_BONUS = 50;
+    public static final int DOUBLED_PAWN_END_VALUE = 25;
+    public static final int ISOLATED_PAWN_END_VALUE = 15;
+    public static final int PASSED_PAWN_END_VALUE = 25;
+
+    //game phase of each piece, the phase is the sum of the pieces on
+    //the board and blends the middle game and end game weights
+    public static final int KNIGHT_PHASE = 1;
+    public static final int BISHOP_PHASE = 1;
+    public static final int ROOK_PHASE = 2;
+    public static final int QUEEN_PHASE = 4;
+    public static final int MAX_PHASE = 24;
     
     //is not necessary, just use 1 or the depth itself to 
     //differentiate depth from start node